@@ -0,0 +1,200 @@
+package org.hcjf.console;
+
+import org.hcjf.io.console.messages.ExecuteMessage;
+import org.hcjf.io.net.messages.Message;
+import org.hcjf.io.net.messages.ResponseMessage;
+
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * This class is a server that lives into the process of the benchmarks, the clients created by the server
+ * send their messages to it instead of write them into a socket. Each command is executed by the workers of
+ * the server after the service time and its response is transferred by the link of the connection that
+ * sent the command. A link transfers one response at time and each response takes the time of its bytes at
+ * the bandwidth of the link, then a large response delays the next responses of the same connection, like a
+ * tcp connection whose throughput is limited by its window, but not the responses of other connections.
+ * The server only knows the commands configured with {@link #respond(String, long)}, the name of the
+ * command is the shape of the request, the rest of the messages are answered with an empty response.
+ * @author javaito
+ */
+public class LoopbackServer implements Closeable {
+
+    private static final String HOST = "loopback";
+    private static final Integer PORT = 0;
+    private static final int ROW_BYTES = 128;
+    private static final String ROW_FIELD = "value";
+    private static final double NANOS_PER_SECOND = 1_000_000_000.0;
+
+    private final long bandwidth;
+    private final long serviceTime;
+    private final Map<String, Response> responses;
+    private final ExecutorService workers;
+    private final List<ExecutorService> links;
+    private final LongAdder sends;
+
+    /**
+     * Creates the server.
+     * @param bandwidth Bytes per second transferred by each connection, zero or negative to transfer the
+     *                  responses without delay.
+     * @param serviceTime Time in nanoseconds used by the server to execute each command.
+     */
+    public LoopbackServer(long bandwidth, long serviceTime) {
+        this.bandwidth = bandwidth;
+        this.serviceTime = serviceTime;
+        this.responses = new ConcurrentHashMap<>();
+        this.workers = Executors.newCachedThreadPool(R -> {
+            Thread thread = new Thread(R, "loopback-worker");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.links = Collections.synchronizedList(new ArrayList<>());
+        this.sends = new LongAdder();
+    }
+
+    /**
+     * Configures the response of a command, the value of the response is a list of rows whose serialized
+     * size is near to the bytes of the response.
+     * @param commandName Name of the command.
+     * @param bytes Bytes of the response.
+     */
+    public void respond(String commandName, long bytes) {
+        int rowsCount = (int) Math.max(1, bytes / ROW_BYTES);
+        String field = "x".repeat(ROW_BYTES - ROW_FIELD.length() - 4);
+        List<Object> rows = new ArrayList<>(rowsCount);
+        for (int i = 0; i < rowsCount; i++) {
+            rows.add(Map.of(ROW_FIELD, field));
+        }
+        responses.put(commandName, new Response(bytes, Collections.unmodifiableList(rows)));
+    }
+
+    /**
+     * Returns the number of messages sent to the server by all the clients.
+     * @return Number of messages.
+     */
+    public long getSends() {
+        return sends.sum();
+    }
+
+    /**
+     * Creates a client with a single connection to the server.
+     * @return Client instance.
+     */
+    public ConsoleClient connect() {
+        return new Connection(new ResponseSizes());
+    }
+
+    /**
+     * Creates a client that stripes the requests over many connections to the server.
+     * @param connections Number of connections.
+     * @return Client instance.
+     */
+    public StripedConsoleClient connect(int connections) {
+        return new StripedConnection(connections);
+    }
+
+    @Override
+    public void close() {
+        workers.shutdownNow();
+        synchronized (links) {
+            links.forEach(ExecutorService::shutdownNow);
+        }
+    }
+
+    /**
+     * Creates the link of a new connection.
+     * @return Single thread executor that transfers the responses of the connection.
+     */
+    private ExecutorService createLink() {
+        ExecutorService result = Executors.newSingleThreadExecutor(R -> {
+            Thread thread = new Thread(R, "loopback-link");
+            thread.setDaemon(true);
+            return thread;
+        });
+        links.add(result);
+        return result;
+    }
+
+    /**
+     * Executes the message into a worker and transfers its response by the link of the client.
+     * @param message Message sent by the client.
+     * @param client Client that sent the message.
+     * @param link Link of the client.
+     */
+    private void receive(Message message, ConsoleClient client, ExecutorService link) {
+        sends.increment();
+        workers.execute(() -> {
+            LockSupport.parkNanos(serviceTime);
+            Response response = message instanceof ExecuteMessage ?
+                    responses.get(((ExecuteMessage) message).getCommandName()) : null;
+            ResponseMessage responseMessage = new ResponseMessage();
+            responseMessage.setId(message.getId());
+            responseMessage.setValue(response == null ? List.of() : response.rows);
+            long bytes = response == null ? 0 : response.bytes;
+            link.execute(() -> {
+                if(bandwidth > 0) {
+                    LockSupport.parkNanos((long) (bytes * NANOS_PER_SECOND / bandwidth));
+                }
+                client.onRead(client.getSession(), responseMessage);
+            });
+        });
+    }
+
+    /**
+     * Response configured for a command.
+     */
+    private static class Response {
+
+        private final long bytes;
+        private final List<Object> rows;
+
+        private Response(long bytes, List<Object> rows) {
+            this.bytes = bytes;
+            this.rows = rows;
+        }
+    }
+
+    /**
+     * Client with a single connection to the server.
+     */
+    private class Connection extends ConsoleClient {
+
+        private final ExecutorService link;
+
+        private Connection(ResponseSizes responseSizes) {
+            super(HOST, PORT, null, responseSizes);
+            link = createLink();
+        }
+
+        @Override
+        public void send(Message message) {
+            receive(message, this, link);
+        }
+    }
+
+    /**
+     * Striped client whose lanes are connections to the server.
+     */
+    private class StripedConnection extends StripedConsoleClient {
+
+        private final ExecutorService link;
+
+        private StripedConnection(int connections) {
+            super(HOST, PORT, null, connections, Connection::new);
+            link = createLink();
+        }
+
+        @Override
+        public void send(Message message) {
+            receive(message, this, link);
+        }
+    }
+}
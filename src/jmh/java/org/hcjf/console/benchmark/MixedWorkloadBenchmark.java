@@ -0,0 +1,122 @@
+package org.hcjf.console.benchmark;
+
+import org.hcjf.console.ConsoleClient;
+import org.hcjf.console.ConsoleProperties;
+import org.hcjf.console.LoopbackServer;
+import org.hcjf.console.Messages;
+import org.hcjf.console.Priority;
+import org.hcjf.io.net.messages.Message;
+import org.hcjf.io.net.messages.ResponseMessage;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Measures the latency of the interactive requests of a client while other threads of the same client
+ * download large results with the bulk priority. The bulk requests are paced by the bulk rate (zero is
+ * unlimited) and, with two or more connections, they are sent by their own lane.
+ * The interactive thread waits a think time out of the measurement before each request, otherwise a thread
+ * blocked behind a bulk transfer sends a single request while the thread that doesn't wait sends hundreds,
+ * and the percentiles hide the waits.
+ * @author javaito
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 3)
+@Measurement(iterations = 3, time = 5)
+@Fork(1)
+@Threads(1)
+public class MixedWorkloadBenchmark {
+
+    private static final String INTERACTIVE_COMMAND = "describe";
+    private static final String BULK_COMMAND = "export";
+    private static final long INTERACTIVE_BYTES = 512L;
+    private static final long BULK_BYTES = 2L * 1024 * 1024;
+    private static final long BANDWIDTH = 10L * 1024 * 1024;
+    private static final long SERVICE_TIME = TimeUnit.MICROSECONDS.toNanos(200);
+    private static final int BULK_THREADS = 2;
+    private static final long TIMEOUT = 60000L;
+    private static final long THINK_TIME = 20L;
+
+    @Param({"1", "2"})
+    private int connections;
+
+    @Param({"0", "2097152"})
+    private long bulkRate;
+
+    private final UUID sessionId = UUID.randomUUID();
+    private LoopbackServer server;
+    private ConsoleClient client;
+    private List<Thread> bulkThreads;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        System.setProperty(ConsoleProperties.HCJF_CONSOLE_BULK_RATE, Long.toString(bulkRate));
+        server = new LoopbackServer(BANDWIDTH, SERVICE_TIME);
+        server.respond(INTERACTIVE_COMMAND, INTERACTIVE_BYTES);
+        server.respond(BULK_COMMAND, BULK_BYTES);
+        client = connections > 1 ? server.connect(connections) : server.connect();
+        bulkThreads = new ArrayList<>();
+        for (int i = 0; i < BULK_THREADS; i++) {
+            Thread thread = new Thread(this::download, "bulk-" + i);
+            thread.setDaemon(true);
+            thread.start();
+            bulkThreads.add(thread);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        bulkThreads.forEach(Thread::interrupt);
+        client.cancelAll();
+        server.close();
+    }
+
+    @Setup(Level.Invocation)
+    public void think() throws InterruptedException {
+        Thread.sleep(THINK_TIME);
+    }
+
+    @Benchmark
+    public ResponseMessage interactive() throws IOException, TimeoutException {
+        return request(INTERACTIVE_COMMAND, Priority.INTERACTIVE);
+    }
+
+    /**
+     * Sends bulk requests one after other until the thread is interrupted.
+     */
+    private void download() {
+        while(!Thread.currentThread().isInterrupted()) {
+            try {
+                request(BULK_COMMAND, Priority.BULK);
+            } catch (Exception ex) {
+            }
+        }
+    }
+
+    private ResponseMessage request(String commandName, Priority priority) throws IOException, TimeoutException {
+        Message message = Messages.execute(commandName, List.of(), sessionId);
+        long deadline = System.currentTimeMillis() + TIMEOUT;
+        client.request(message, deadline, priority);
+        return client.getResult(message.getId(), deadline);
+    }
+}
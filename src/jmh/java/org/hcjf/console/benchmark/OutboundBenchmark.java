@@ -0,0 +1,81 @@
+package org.hcjf.console.benchmark;
+
+import org.hcjf.console.ConsoleClient;
+import org.hcjf.console.LoopbackServer;
+import org.hcjf.console.Messages;
+import org.hcjf.io.net.messages.Message;
+import org.hcjf.io.net.messages.ResponseMessage;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Measures the cost of the client path of a request (register, send and complete) for one thread and for
+ * many threads sharing the same connection, the loopback server answers without latency and without
+ * transfer time. Each thread writes its own message, then the threads are only serialized by the shared
+ * structures of the client.
+ * @author javaito
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class OutboundBenchmark {
+
+    private static final String COMMAND = "ping";
+    private static final long TIMEOUT = 10000L;
+
+    private final UUID sessionId = UUID.randomUUID();
+    private LoopbackServer server;
+    private ConsoleClient client;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        server = new LoopbackServer(0, 0);
+        server.respond(COMMAND, 64);
+        client = server.connect();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        client.cancelAll();
+        server.close();
+    }
+
+    @Benchmark
+    @Threads(1)
+    public ResponseMessage oneThread() throws IOException, TimeoutException {
+        return request();
+    }
+
+    @Benchmark
+    @Threads(8)
+    public ResponseMessage eightThreads() throws IOException, TimeoutException {
+        return request();
+    }
+
+    private ResponseMessage request() throws IOException, TimeoutException {
+        Message message = Messages.execute(COMMAND, List.of(), sessionId);
+        long deadline = System.currentTimeMillis() + TIMEOUT;
+        client.request(message, deadline);
+        return client.getResult(message.getId(), deadline);
+    }
+}
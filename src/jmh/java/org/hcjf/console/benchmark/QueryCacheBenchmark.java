@@ -0,0 +1,68 @@
+package org.hcjf.console.benchmark;
+
+import org.hcjf.bson.BsonEncoder;
+import org.hcjf.console.MessageIds;
+import org.hcjf.console.Messages;
+import org.hcjf.console.QueryCache;
+import org.hcjf.io.net.messages.Message;
+import org.hcjf.layers.query.Query;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the cost of create and encode the message of a query compiling the query for each message
+ * (the way of the console before the query cache) against the cost using the compiled query of the cache.
+ * The ids of the messages are compared too, the random ids of the jdk against the ids of {@link MessageIds}.
+ * @author javaito
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class QueryCacheBenchmark {
+
+    @Param({
+            "SELECT * FROM resource",
+            "SELECT name, count(*) AS total FROM resource WHERE status = 'active' AND createdAt > '2020-01-01' GROUP BY name ORDER BY total DESC LIMIT 100"
+    })
+    private String query;
+
+    private final UUID sessionId = UUID.randomUUID();
+
+    @Benchmark
+    public byte[] compileAndEncode() {
+        Message message = Messages.evaluate(Query.compile(query), sessionId);
+        message.setId(UUID.randomUUID());
+        return BsonEncoder.encode(message.toBson());
+    }
+
+    @Benchmark
+    public byte[] cachedCompileAndEncode() {
+        Message message = Messages.evaluate(QueryCache.compile(query, List.of()), sessionId);
+        return BsonEncoder.encode(message.toBson());
+    }
+
+    @Benchmark
+    public UUID randomId() {
+        return UUID.randomUUID();
+    }
+
+    @Benchmark
+    public UUID counterId() {
+        return MessageIds.next();
+    }
+}
@@ -0,0 +1,79 @@
+package org.hcjf.console.benchmark;
+
+import org.hcjf.console.shell.RowPrinter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the time to print a range of rows with the sequential path (pool with one worker) and with the
+ * parallel path, the rows are written into a stream that discards the bytes.
+ * @author javaito
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RenderBenchmark {
+
+    private static final int FIELDS = 8;
+
+    @Param({"512", "20000"})
+    private int rows;
+
+    @Param({"1", "4"})
+    private int parallelism;
+
+    private List<Object> resultSet;
+    private ForkJoinPool pool;
+    private RowPrinter printer;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        resultSet = new ArrayList<>(rows);
+        for (int i = 0; i < rows; i++) {
+            Map<String, Object> row = new LinkedHashMap<>();
+            row.put("id", UUID.randomUUID());
+            row.put("index", i);
+            for (int j = 2; j < FIELDS; j++) {
+                row.put("field" + j, "value " + i + " " + j);
+            }
+            resultSet.add(row);
+        }
+        pool = new ForkJoinPool(parallelism);
+        printer = new RowPrinter(new PrintStream(OutputStream.nullOutputStream()), StandardCharsets.UTF_8, pool);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        pool.shutdown();
+    }
+
+    @Benchmark
+    public void print() {
+        printer.print(resultSet, 0, rows);
+    }
+}
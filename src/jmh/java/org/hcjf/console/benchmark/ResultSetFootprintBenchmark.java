@@ -0,0 +1,125 @@
+package org.hcjf.console.benchmark;
+
+import org.hcjf.console.RowCompactor;
+import org.hcjf.console.SpilledResultSet;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the time to store a decoded result set as map rows, as compact rows and as a spilled result set,
+ * and the heap retained by each one after a full collection. The retained heap is reported as the secondary
+ * result retainedBytes, jmh adds the counters of all the measured invocations then the retained heap of one
+ * result set is the score divided by the count.
+ * @author javaito
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class ResultSetFootprintBenchmark {
+
+    private static final int GC_ROUNDS = 3;
+
+    @Param({"20000", "200000"})
+    private int rows;
+
+    private Path directory;
+    private List<Object> decodedRows;
+    private Object result;
+    private long baseline;
+
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    @State(Scope.Thread)
+    public static class Footprint {
+        public long retainedBytes;
+    }
+
+    @Setup(Level.Trial)
+    public void createDirectory() throws IOException {
+        directory = Files.createTempDirectory("hcjf-console-spill");
+    }
+
+    @Setup(Level.Invocation)
+    public void decode() {
+        result = null;
+        baseline = usedHeap();
+        decodedRows = new ArrayList<>(rows);
+        for (int i = 0; i < rows; i++) {
+            Map<String, Object> row = new LinkedHashMap<>();
+            row.put("id", UUID.randomUUID());
+            row.put("name", "resource " + i);
+            row.put("status", i % 3 == 0 ? "active" : "inactive");
+            row.put("amount", i * 1.5);
+            row.put("count", i);
+            decodedRows.add(row);
+        }
+    }
+
+    @TearDown(Level.Invocation)
+    public void measure(Footprint footprint) throws IOException {
+        decodedRows = null;
+        footprint.retainedBytes = usedHeap() - baseline;
+        if(result instanceof Closeable) {
+            ((Closeable) result).close();
+        }
+        result = null;
+    }
+
+    @TearDown(Level.Trial)
+    public void deleteDirectory() throws IOException {
+        Files.deleteIfExists(directory);
+    }
+
+    @Benchmark
+    public Object maps() {
+        result = decodedRows;
+        return result;
+    }
+
+    @Benchmark
+    public Object compactRows() {
+        new RowCompactor().compact(decodedRows, 0, decodedRows.size());
+        result = decodedRows;
+        return result;
+    }
+
+    @Benchmark
+    public Object spilled() throws IOException {
+        new RowCompactor().compact(decodedRows, 0, decodedRows.size());
+        result = SpilledResultSet.spill(decodedRows, directory);
+        return result;
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < GC_ROUNDS; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
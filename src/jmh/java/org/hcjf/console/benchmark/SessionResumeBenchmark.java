@@ -0,0 +1,101 @@
+package org.hcjf.console.benchmark;
+
+import org.hcjf.console.ConsoleClient;
+import org.hcjf.console.ConsoleProperties;
+import org.hcjf.console.LoopbackServer;
+import org.hcjf.console.MessageIds;
+import org.hcjf.console.Priority;
+import org.hcjf.console.SessionCache;
+import org.hcjf.io.console.SessionMetadata;
+import org.hcjf.io.console.messages.GetMetadataMessage;
+import org.hcjf.io.console.messages.LoginMessage;
+import org.hcjf.io.net.messages.Message;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Measures the requests that the console sends before the first prompt when the server requires login: the
+ * metadata and the login, or the metadata and the session stored by the last login. The server answers each
+ * request after the latency, the time used by the server to validate the login is not included.
+ * @author javaito
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SessionResumeBenchmark {
+
+    private static final String HOST = "loopback";
+    private static final Integer PORT = 0;
+    private static final long TIMEOUT = 10000L;
+
+    @Param({"200", "20000"})
+    private long latencyMicros;
+
+    private final UUID instanceId = UUID.randomUUID();
+    private Path home;
+    private LoopbackServer server;
+    private ConsoleClient client;
+    private SessionCache sessionCache;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        home = Files.createTempDirectory("hcjf-console-benchmark");
+        System.setProperty(ConsoleProperties.HCJF_CONSOLE_HOME, home.toString());
+        server = new LoopbackServer(0, TimeUnit.MICROSECONDS.toNanos(latencyMicros));
+        client = server.connect();
+        sessionCache = new SessionCache(HOST, PORT);
+        SessionMetadata sessionMetadata = new SessionMetadata();
+        sessionMetadata.setId(UUID.randomUUID());
+        sessionMetadata.setSessionName("benchmark");
+        sessionCache.store(sessionMetadata, instanceId);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        sessionCache.invalidate();
+        server.close();
+    }
+
+    @Benchmark
+    public Object login() throws IOException, TimeoutException {
+        request(new GetMetadataMessage());
+        LoginMessage loginMessage = new LoginMessage();
+        loginMessage.setParameters(Map.of());
+        return request(loginMessage);
+    }
+
+    @Benchmark
+    public Object resume() throws IOException, TimeoutException {
+        request(new GetMetadataMessage());
+        return sessionCache.load(instanceId);
+    }
+
+    private Object request(Message message) throws IOException, TimeoutException {
+        message.setId(MessageIds.next());
+        long deadline = System.currentTimeMillis() + TIMEOUT;
+        client.request(message, deadline, Priority.INTERACTIVE);
+        return client.getResult(message.getId(), deadline);
+    }
+}
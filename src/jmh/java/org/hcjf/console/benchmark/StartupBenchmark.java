@@ -0,0 +1,89 @@
+package org.hcjf.console.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the time of a new console process that runs the warmup (the command parser and the query
+ * compiler) and ends, with and without the class-data-sharing archive created by the profile 'cds'.
+ * The jar and the archive are taken from the property hcjf.console.jar, build them with
+ * "mvn package -Pcds,jmh -Djmh.args=StartupBenchmark".
+ * The time to the first prompt needs a server, it's recorded by the startup event of the flight recording
+ * of the console (--jfr).
+ * @author javaito
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 10)
+@Fork(1)
+public class StartupBenchmark {
+
+    private static final String JAR_PROPERTY = "hcjf.console.jar";
+    private static final String DEFAULT_JAR = "target/hcjf-console-1.0.0.jar";
+    private static final String ARCHIVE_SUFFIX = ".jsa";
+    private static final String JAR_SUFFIX = ".jar";
+    private static final String SHARED_ARCHIVE_FILE = "-XX:SharedArchiveFile=";
+    private static final String JAVA_HOME = "java.home";
+    private static final String BIN = "bin";
+    private static final String JAVA = "java";
+    private static final String JAR_OPTION = "-jar";
+    private static final String WARMUP_OPTION = "--warmup";
+    private static final String FILE_NOT_FOUND = "File not found %s";
+    private static final String PROCESS_FAILED = "The console ends with exit code %d";
+
+    @Param({"false", "true"})
+    private boolean archive;
+
+    private List<String> command;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        Path jar = Paths.get(System.getProperty(JAR_PROPERTY, DEFAULT_JAR)).toAbsolutePath();
+        Path archiveFile = jar.resolveSibling(jar.getFileName().toString().replace(JAR_SUFFIX, ARCHIVE_SUFFIX));
+        command = new ArrayList<>();
+        command.add(Paths.get(System.getProperty(JAVA_HOME), BIN, JAVA).toString());
+        if(archive) {
+            verify(archiveFile);
+            command.add(SHARED_ARCHIVE_FILE + archiveFile);
+        }
+        verify(jar);
+        command.add(JAR_OPTION);
+        command.add(jar.toString());
+        command.add(WARMUP_OPTION);
+    }
+
+    @Benchmark
+    public int start() throws IOException, InterruptedException {
+        int result = new ProcessBuilder(command).inheritIO().start().waitFor();
+        if(result != 0) {
+            throw new IllegalStateException(String.format(PROCESS_FAILED, result));
+        }
+        return result;
+    }
+
+    private static void verify(Path path) {
+        if(!Files.isRegularFile(path)) {
+            throw new IllegalStateException(String.format(FILE_NOT_FOUND, path));
+        }
+    }
+}
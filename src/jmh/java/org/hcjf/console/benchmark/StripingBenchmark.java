@@ -0,0 +1,79 @@
+package org.hcjf.console.benchmark;
+
+import org.hcjf.console.ConsoleClient;
+import org.hcjf.console.LoopbackServer;
+import org.hcjf.console.Messages;
+import org.hcjf.io.net.messages.Message;
+import org.hcjf.io.net.messages.ResponseMessage;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Measures the throughput of many threads sending requests of the same size by one client with K
+ * connections to a loopback server whose connections have a limited bandwidth. The last connection of a
+ * striped client is reserved for the bulk requests, then only K - 1 connections transfer these requests.
+ * @author javaito
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 3)
+@Fork(1)
+@Threads(16)
+public class StripingBenchmark {
+
+    private static final String COMMAND = "page";
+    private static final long BANDWIDTH = 10L * 1024 * 1024;
+    private static final long SERVICE_TIME = TimeUnit.MICROSECONDS.toNanos(200);
+    private static final long TIMEOUT = 30000L;
+
+    @Param({"1", "2", "4"})
+    private int connections;
+
+    @Param({"1024", "65536"})
+    private long responseBytes;
+
+    private final UUID sessionId = UUID.randomUUID();
+    private LoopbackServer server;
+    private ConsoleClient client;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        server = new LoopbackServer(BANDWIDTH, SERVICE_TIME);
+        server.respond(COMMAND, responseBytes);
+        client = connections > 1 ? server.connect(connections) : server.connect();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        client.cancelAll();
+        server.close();
+    }
+
+    @Benchmark
+    public ResponseMessage request() throws IOException, TimeoutException {
+        Message message = Messages.execute(COMMAND, List.of(), sessionId);
+        long deadline = System.currentTimeMillis() + TIMEOUT;
+        client.request(message, deadline);
+        return client.getResult(message.getId(), deadline);
+    }
+}
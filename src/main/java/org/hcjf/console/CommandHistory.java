@@ -0,0 +1,412 @@
+package org.hcjf.console;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * This class implements a command history stored into an append-only file shared by all the console
+ * processes. Only the bytes appended since the last refresh are read: the small tails are copied into a heap
+ * buffer and when the buffer grows enough its complete entries are memory-mapped as a new segment, then the
+ * file is never mapped again from the start. Each entry is indexed by its grams of one, two and three
+ * characters in order to resolve the reverse and prefix searches without scanning all the history.
+ * Each entry is stored as one line of utf-8 text, the line separators and the back slashes into the
+ * entry are escaped.
+ * @author javaito
+ */
+public class CommandHistory {
+
+    private static final byte LINE_SEPARATOR = '\n';
+    private static final char ESCAPE_CHARACTER = '\\';
+    private static final char ESCAPED_LINE_SEPARATOR = 'n';
+    private static final int GRAM_SIZE = 3;
+    private static final int INITIAL_CAPACITY = 1024;
+    private static final int INITIAL_TAIL_CAPACITY = 4096;
+    private static final int MAP_THRESHOLD = 64 * 1024;
+    private static final long UNIGRAM = 1L << 62;
+    private static final long BIGRAM = 1L << 61;
+
+    private final Path path;
+    private FileChannel channel;
+    private final List<MappedByteBuffer> segments;
+    private long[] segmentStarts;
+    private byte[] tail;
+    private long tailStart;
+    private int tailLength;
+    private long[] offsets;
+    private int size;
+    private long indexedLength;
+    private final Map<Long, Postings> index;
+
+    public CommandHistory(Path path) {
+        this.path = path;
+        this.offsets = new long[INITIAL_CAPACITY];
+        this.segments = new ArrayList<>();
+        this.segmentStarts = new long[0];
+        this.tail = new byte[INITIAL_TAIL_CAPACITY];
+        this.index = new HashMap<>();
+    }
+
+    /**
+     * Opens the history file and index all the stored entries.
+     * @throws IOException
+     */
+    public synchronized void load() throws IOException {
+        if(channel == null) {
+            Files.createDirectories(path.getParent());
+            //The channel can't be opened in append mode for reading, then each entry is written at the
+            //end of the file while the lock is held.
+            channel = FileChannel.open(path, StandardOpenOption.CREATE,
+                    StandardOpenOption.READ, StandardOpenOption.WRITE);
+            refresh();
+        }
+    }
+
+    /**
+     * Returns the number of entries into the history.
+     * @return Number of entries.
+     */
+    public synchronized int size() {
+        refresh();
+        return size;
+    }
+
+    /**
+     * Returns the entry stored into the specific position, the entries are sorted from the oldest to the newest.
+     * @param index Position of the entry.
+     * @return Entry value.
+     */
+    public synchronized String get(int index) {
+        if(index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException();
+        }
+        long offset = offsets[index];
+        byte[] bytes = new byte[(int) (offsets[index + 1] - offset - 1)];
+        if(offset >= tailStart) {
+            System.arraycopy(tail, (int) (offset - tailStart), bytes, 0, bytes.length);
+        } else {
+            int segment = getSegment(offset);
+            ByteBuffer entry = segments.get(segment).duplicate();
+            entry.position((int) (offset - segmentStarts[segment]));
+            entry.get(bytes);
+        }
+        return unescape(new String(bytes, StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Appends a new entry at the end of the history, the entry is ignored if it's empty or
+     * if it's equals to the last entry. The file is locked during the write in order to be safe
+     * with others processes appending at the same time.
+     * @param entry Entry to add.
+     */
+    public synchronized void add(String entry) {
+        if(channel == null || entry.isBlank() || (size() > 0 && get(size - 1).equals(entry))) {
+            return;
+        }
+
+        byte[] bytes = (escape(entry) + (char) LINE_SEPARATOR).getBytes(StandardCharsets.UTF_8);
+        try {
+            FileLock lock = channel.lock();
+            try {
+                ByteBuffer byteBuffer = ByteBuffer.wrap(bytes);
+                channel.position(channel.size());
+                while (byteBuffer.hasRemaining()) {
+                    channel.write(byteBuffer);
+                }
+            } finally {
+                lock.release();
+            }
+        } catch (IOException ex) {
+            //If it's not possible to write then the entry is lost but the console continues working.
+        }
+        refresh();
+    }
+
+    /**
+     * Search the newest entry, older than the start position, that contains the query.
+     * @param query Text to search.
+     * @param start Position where the search starts (exclusive), use the size of the history to search from the end.
+     * @return Position of the entry found or -1 if there are no more entries.
+     */
+    public synchronized int searchBackward(String query, int start) {
+        refresh();
+        return search(query, Math.min(start, size) - 1, false, false);
+    }
+
+    /**
+     * Search the newest entry, older than the start position, that starts with the prefix.
+     * @param prefix Prefix to search.
+     * @param start Position where the search starts (exclusive).
+     * @return Position of the entry found or -1 if there are no more entries.
+     */
+    public synchronized int searchPrefixBackward(String prefix, int start) {
+        refresh();
+        return search(prefix, Math.min(start, size) - 1, false, true);
+    }
+
+    /**
+     * Search the oldest entry, newer than the start position, that starts with the prefix.
+     * @param prefix Prefix to search.
+     * @param start Position where the search starts (exclusive).
+     * @return Position of the entry found or -1 if there are no more entries.
+     */
+    public synchronized int searchPrefixForward(String prefix, int start) {
+        refresh();
+        return search(prefix, Math.max(start, -1) + 1, true, true);
+    }
+
+    /**
+     * Search an entry that contains the text (or starts with the text if it's a prefix search),
+     * using the smallest posting list of the text grams as candidates, the texts shorter than three
+     * characters use the grams of its length.
+     * @param text Text to search.
+     * @param from First position to verify (inclusive).
+     * @param forward Direction of the search.
+     * @param prefix Prefix search flag.
+     * @return Position of the entry found or -1.
+     */
+    private int search(String text, int from, boolean forward, boolean prefix) {
+        int result = -1;
+        if(from >= 0 && from < size) {
+            Postings candidates = null;
+            int gramSize = Math.min(GRAM_SIZE, text.length());
+            for (int i = 0; gramSize > 0 && i <= text.length() - gramSize; i++) {
+                Postings postings = index.get(gram(text, i, gramSize));
+                if (postings == null) {
+                    return -1;
+                }
+                if (candidates == null || postings.size < candidates.size) {
+                    candidates = postings;
+                }
+            }
+
+            if(candidates == null) {
+                //All the entries contains the empty text.
+                result = from;
+            } else {
+                int position = candidates.search(from);
+                if(forward) {
+                    position = position < 0 ? -position - 1 : position;
+                } else {
+                    position = position < 0 ? -position - 2 : position;
+                }
+                for (int i = position; forward ? i < candidates.size : i >= 0; i += forward ? 1 : -1) {
+                    if (matches(get(candidates.values[i]), text, prefix)) {
+                        result = candidates.values[i];
+                        break;
+                    }
+                }
+            }
+        }
+        return result;
+    }
+
+    private boolean matches(String entry, String text, boolean prefix) {
+        return prefix ? entry.startsWith(text) : entry.contains(text);
+    }
+
+    /**
+     * Reads the bytes appended since the last refresh and index all the new complete entries, the new
+     * entries could be appended by this process or by others.
+     */
+    private void refresh() {
+        if(channel == null) {
+            return;
+        }
+        try {
+            long fileSize = channel.size();
+            long readFrom = tailStart + tailLength;
+            if(fileSize > readFrom) {
+                if(fileSize - tailStart >= MAP_THRESHOLD) {
+                    //The bytes of the tail and the new bytes are mapped as a new segment.
+                    addSegment(channel.map(FileChannel.MapMode.READ_ONLY, tailStart, fileSize - tailStart), tailStart);
+                    tailStart = fileSize;
+                    tailLength = 0;
+                    scan(readFrom, fileSize);
+                    moveToTail(fileSize);
+                } else {
+                    int length = (int) (fileSize - readFrom);
+                    if(tailLength + length > tail.length) {
+                        tail = Arrays.copyOf(tail, Math.max(tail.length * 2, tailLength + length));
+                    }
+                    ByteBuffer byteBuffer = ByteBuffer.wrap(tail, tailLength, length);
+                    long position = readFrom;
+                    int read;
+                    while(byteBuffer.hasRemaining() && (read = channel.read(byteBuffer, position)) > 0) {
+                        position += read;
+                    }
+                    tailLength = byteBuffer.position();
+                    scan(readFrom, tailStart + tailLength);
+                }
+            }
+        } catch (IOException ex) {
+        }
+    }
+
+    /**
+     * Index the complete entries found into the range of bytes.
+     * @param from First byte to scan.
+     * @param to End of the range (exclusive).
+     */
+    private void scan(long from, long to) {
+        long start = indexedLength;
+        for (long i = from; i < to; i++) {
+            if(byteAt(i) == LINE_SEPARATOR) {
+                addOffset(start, i + 1);
+                start = i + 1;
+            }
+        }
+    }
+
+    /**
+     * Moves the incomplete entry at the end of the last segment into the tail, after that the tail starts
+     * at the end of the last complete entry.
+     * @param end End of the read bytes.
+     */
+    private void moveToTail(long end) {
+        int length = (int) (end - indexedLength);
+        if(length > tail.length) {
+            tail = new byte[length];
+        }
+        for (int i = 0; i < length; i++) {
+            tail[i] = byteAt(indexedLength + i);
+        }
+        tailStart = indexedLength;
+        tailLength = length;
+    }
+
+    /**
+     * Adds a mapped segment.
+     * @param segment Mapped buffer.
+     * @param start Position of the file where the segment starts.
+     */
+    private void addSegment(MappedByteBuffer segment, long start) {
+        segments.add(segment);
+        segmentStarts = Arrays.copyOf(segmentStarts, segmentStarts.length + 1);
+        segmentStarts[segmentStarts.length - 1] = start;
+    }
+
+    /**
+     * Returns the index of the segment that contains the position.
+     * @param position Position into the file.
+     * @return Index of the segment.
+     */
+    private int getSegment(long position) {
+        int result = Arrays.binarySearch(segmentStarts, position);
+        return result < 0 ? -result - 2 : result;
+    }
+
+    /**
+     * Returns the byte stored into the position, from the tail or from the mapped segments.
+     * @param position Position into the file.
+     * @return Byte value.
+     */
+    private byte byteAt(long position) {
+        byte result;
+        if(position >= tailStart && position < tailStart + tailLength) {
+            result = tail[(int) (position - tailStart)];
+        } else {
+            int segment = getSegment(position);
+            result = segments.get(segment).get((int) (position - segmentStarts[segment]));
+        }
+        return result;
+    }
+
+    /**
+     * Register a new entry and its grams.
+     * @param start Offset of the first byte of the entry.
+     * @param end Offset of the next entry.
+     */
+    private void addOffset(long start, long end) {
+        if(size + 2 > offsets.length) {
+            offsets = Arrays.copyOf(offsets, offsets.length * 2);
+        }
+        offsets[size] = start;
+        offsets[size + 1] = end;
+        indexedLength = end;
+        int entryIndex = size++;
+        String entry = get(entryIndex);
+        for (int gramSize = 1; gramSize <= GRAM_SIZE; gramSize++) {
+            for (int i = 0; i <= entry.length() - gramSize; i++) {
+                index.computeIfAbsent(gram(entry, i, gramSize), K -> new Postings()).add(entryIndex);
+            }
+        }
+    }
+
+    private static long gram(String text, int start, int gramSize) {
+        long result;
+        if(gramSize == 1) {
+            result = UNIGRAM | text.charAt(start);
+        } else if(gramSize == 2) {
+            result = BIGRAM | ((long)text.charAt(start) << 16) | text.charAt(start + 1);
+        } else {
+            result = ((long)text.charAt(start) << 32) | ((long)text.charAt(start + 1) << 16) | text.charAt(start + 2);
+        }
+        return result;
+    }
+
+    private static String escape(String entry) {
+        StringBuilder result = new StringBuilder(entry.length());
+        for (char character : entry.toCharArray()) {
+            if(character == ESCAPE_CHARACTER) {
+                result.append(ESCAPE_CHARACTER).append(ESCAPE_CHARACTER);
+            } else if(character == LINE_SEPARATOR) {
+                result.append(ESCAPE_CHARACTER).append(ESCAPED_LINE_SEPARATOR);
+            } else {
+                result.append(character);
+            }
+        }
+        return result.toString();
+    }
+
+    private static String unescape(String entry) {
+        if(entry.indexOf(ESCAPE_CHARACTER) < 0) {
+            return entry;
+        }
+        StringBuilder result = new StringBuilder(entry.length());
+        for (int i = 0; i < entry.length(); i++) {
+            char character = entry.charAt(i);
+            if(character == ESCAPE_CHARACTER && i + 1 < entry.length()) {
+                character = entry.charAt(++i);
+                result.append(character == ESCAPED_LINE_SEPARATOR ? (char) LINE_SEPARATOR : character);
+            } else {
+                result.append(character);
+            }
+        }
+        return result.toString();
+    }
+
+    /**
+     * Sorted list of the entries that contains some trigram.
+     */
+    private static class Postings {
+
+        private int[] values = new int[4];
+        private int size;
+
+        private void add(int value) {
+            if(size > 0 && values[size - 1] == value) {
+                return;
+            }
+            if(size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+
+        private int search(int value) {
+            return Arrays.binarySearch(values, 0, size, value);
+        }
+    }
+}
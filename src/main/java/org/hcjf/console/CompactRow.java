@@ -0,0 +1,144 @@
+package org.hcjf.console;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * This class implements a read only row of a result set that stores only the values of the fields, the
+ * names of the fields and their positions are stored into a schema shared by all the rows with the same
+ * fields. Then each row costs one array instead of one hash map with one entry by field.
+ * @author javaito
+ */
+public final class CompactRow extends AbstractMap<String,Object> {
+
+    private final Schema schema;
+    private final Object[] values;
+
+    /**
+     * Creates the row, the values must be in the same order that the fields of the schema.
+     * @param schema Schema of the row.
+     * @param values Values of the row.
+     */
+    CompactRow(Schema schema, Object[] values) {
+        this.schema = schema;
+        this.values = values;
+    }
+
+    /**
+     * Returns the schema of the row.
+     * @return Schema instance.
+     */
+    public Schema getSchema() {
+        return schema;
+    }
+
+    /**
+     * Returns the value at the position of the schema.
+     * @param index Position of the field.
+     * @return Value of the field.
+     */
+    Object getValue(int index) {
+        return values[index];
+    }
+
+    @Override
+    public Object get(Object key) {
+        int index = schema.indexOf(key);
+        return index < 0 ? null : values[index];
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return schema.indexOf(key) >= 0;
+    }
+
+    @Override
+    public int size() {
+        return values.length;
+    }
+
+    @Override
+    public Set<Entry<String,Object>> entrySet() {
+        return new AbstractSet<Entry<String,Object>>() {
+            @Override
+            public Iterator<Entry<String,Object>> iterator() {
+                return new Iterator<Entry<String,Object>>() {
+
+                    private int index;
+
+                    @Override
+                    public boolean hasNext() {
+                        return index < values.length;
+                    }
+
+                    @Override
+                    public Entry<String,Object> next() {
+                        if(index >= values.length) {
+                            throw new NoSuchElementException();
+                        }
+                        Entry<String,Object> result = new SimpleImmutableEntry<>(schema.getField(index), values[index]);
+                        index++;
+                        return result;
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return values.length;
+            }
+        };
+    }
+
+    /**
+     * This class contains the ordered fields of a group of rows and the position of each field.
+     */
+    public static final class Schema {
+
+        private final String[] fields;
+        private final Map<String,Integer> indexes;
+
+        Schema(List<String> fields) {
+            this.fields = fields.toArray(new String[0]);
+            Map<String,Integer> indexes = new HashMap<>();
+            for (int i = 0; i < this.fields.length; i++) {
+                indexes.put(this.fields[i], i);
+            }
+            this.indexes = Collections.unmodifiableMap(indexes);
+        }
+
+        /**
+         * Returns the position of the field.
+         * @param field Name of the field.
+         * @return Position of the field or -1 if the schema doesn't contain the field.
+         */
+        public int indexOf(Object field) {
+            Integer result = indexes.get(field);
+            return result == null ? -1 : result;
+        }
+
+        /**
+         * Returns the name of the field at the position.
+         * @param index Position of the field.
+         * @return Name of the field.
+         */
+        public String getField(int index) {
+            return fields[index];
+        }
+
+        /**
+         * Returns the number of fields.
+         * @return Number of fields.
+         */
+        public int size() {
+            return fields.length;
+        }
+    }
+}
@@ -0,0 +1,208 @@
+package org.hcjf.console;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * This class contains all the names known by the console, in order to complete the words of the
+ * editing line without contact the server. The first word of the line is completed using the command names
+ * and the rest of the words using the resource and field names. The names learned from the results
+ * are stored into the disk, by server, in order to be available for the next sessions.
+ * @author javaito
+ */
+public class Completion {
+
+    private static final String COMPLETION_DIRECTORY = "completion";
+    private static final String FILE_NAME = "%s_%d";
+    private static final String COMMAND_PREFIX = "command:";
+    private static final String NAME_PREFIX = "name:";
+    private static final String RESOURCE_FIELD = "%s.%s";
+    private static final Pattern RESOURCE_PATTERN = Pattern.compile("(?i)\\b(?:from|join)\\s+([\\w.]+)");
+    private static final String WORD_SEPARATORS = " \t(),'\"=<>!+-*/";
+    private static final int MAX_CANDIDATES = 100;
+    private static final int SAMPLE_SIZE = 100;
+
+    private final Path path;
+    private final CompletionTrie commands;
+    private final CompletionTrie names;
+
+    public Completion(String host, Integer port) {
+        this.path = ConsoleProperties.getHome().resolve(COMPLETION_DIRECTORY).resolve(String.format(FILE_NAME, host, port));
+        this.commands = new CompletionTrie();
+        this.names = new CompletionTrie();
+    }
+
+    /**
+     * Loads the names learned into the previous sessions.
+     */
+    public void load() {
+        if(Files.isReadable(path)) {
+            try {
+                for (String line : Files.readAllLines(path, StandardCharsets.UTF_8)) {
+                    if (line.startsWith(COMMAND_PREFIX)) {
+                        commands.add(line.substring(COMMAND_PREFIX.length()));
+                    } else if (line.startsWith(NAME_PREFIX)) {
+                        names.add(line.substring(NAME_PREFIX.length()));
+                    }
+                }
+            } catch (IOException ex) {
+            }
+        }
+    }
+
+    /**
+     * Add the names of the commands implemented by the shells, these names are not stored into the disk.
+     * @param commandNames Command names.
+     */
+    public void addShellCommands(Collection<String> commandNames) {
+        for(String commandName : commandNames) {
+            commands.add(commandName);
+        }
+    }
+
+    /**
+     * Add the words suggested by the shell commands for its arguments, these words are not stored into the disk.
+     * @param hints Completion hints.
+     */
+    public void addHints(Collection<String> hints) {
+        for(String hint : hints) {
+            names.add(hint);
+        }
+    }
+
+    /**
+     * Add the name of a command executed successfully into the server.
+     * @param commandName Command name.
+     */
+    public void learnCommand(String commandName) {
+        if(commands.add(commandName)) {
+            store(COMMAND_PREFIX + commandName);
+        }
+    }
+
+    /**
+     * Add the names of the resources used into a query evaluated successfully, and the names of the
+     * fields contained into the result of the query.
+     * @param query Query text.
+     * @param result Result of the query.
+     */
+    public void learnQuery(String query, Object result) {
+        List<String> resources = new ArrayList<>();
+        Matcher matcher = RESOURCE_PATTERN.matcher(query);
+        while(matcher.find()) {
+            resources.add(matcher.group(1));
+            learnName(matcher.group(1));
+        }
+
+        if(result instanceof Collection) {
+            int count = 0;
+            for(Object row : (Collection) result) {
+                if(count++ >= SAMPLE_SIZE) {
+                    break;
+                }
+                if(row instanceof Map) {
+                    for(Object key : ((Map) row).keySet()) {
+                        String fieldName = key.toString();
+                        learnName(fieldName);
+                        if(resources.size() == 1 && fieldName.indexOf('.') < 0) {
+                            learnName(String.format(RESOURCE_FIELD, resources.get(0), fieldName));
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    private void learnName(String name) {
+        if(!name.isEmpty() && names.add(name)) {
+            store(NAME_PREFIX + name);
+        }
+    }
+
+    /**
+     * Returns the candidates to complete the word ending at the specific position of the line.
+     * @param line Editing line.
+     * @param position Position of the cursor.
+     * @return Candidates found.
+     */
+    public Candidates complete(String line, int position) {
+        int start = position;
+        while(start > 0 && WORD_SEPARATORS.indexOf(line.charAt(start - 1)) < 0) {
+            start--;
+        }
+        String word = line.substring(start, position);
+        boolean firstWord = line.substring(0, start).isBlank();
+        List<String> values = (firstWord ? commands : names).complete(word, MAX_CANDIDATES);
+        return new Candidates(word, values);
+    }
+
+    /**
+     * Append the entry at the end of the file, the file is only an optimization then the
+     * errors are ignored.
+     * @param entry Entry to store.
+     */
+    private void store(String entry) {
+        try {
+            Files.createDirectories(path.getParent());
+            Files.write(path, (entry + System.lineSeparator()).getBytes(StandardCharsets.UTF_8),
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        } catch (IOException ex) {
+        }
+    }
+
+    /**
+     * Candidates to complete a word.
+     */
+    public static class Candidates {
+
+        private final String word;
+        private final List<String> values;
+
+        public Candidates(String word, List<String> values) {
+            this.word = word;
+            this.values = values;
+        }
+
+        /**
+         * Returns the word to complete.
+         * @return Word to complete.
+         */
+        public String getWord() {
+            return word;
+        }
+
+        /**
+         * Returns the candidates found.
+         * @return Candidates list.
+         */
+        public List<String> getValues() {
+            return values;
+        }
+
+        /**
+         * Returns the longest prefix shared by all the candidates.
+         * @return Common prefix.
+         */
+        public String getCommonPrefix() {
+            String result = values.isEmpty() ? word : values.get(0);
+            for(String value : values) {
+                int length = 0;
+                while(length < result.length() && length < value.length() &&
+                        result.charAt(length) == value.charAt(length)) {
+                    length++;
+                }
+                result = result.substring(0, length);
+            }
+            return result;
+        }
+    }
+}
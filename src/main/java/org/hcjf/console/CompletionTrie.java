@@ -0,0 +1,128 @@
+package org.hcjf.console;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * This class implements a prefix tree to resolve the completion candidates of a word, the
+ * cost of each completion depends on the prefix length and the number of candidates returned
+ * and not on the number of words stored.
+ * @author javaito
+ */
+public class CompletionTrie {
+
+    private final Node root;
+    private int size;
+
+    public CompletionTrie() {
+        root = new Node();
+    }
+
+    /**
+     * Returns the number of words stored.
+     * @return Number of words.
+     */
+    public synchronized int size() {
+        return size;
+    }
+
+    /**
+     * Add a word into the tree.
+     * @param word Word to add.
+     * @return Returns true if the word is new and false if the word was already stored.
+     */
+    public synchronized boolean add(String word) {
+        Node node = root;
+        for (int i = 0; i < word.length(); i++) {
+            node = node.getOrCreateChild(word.charAt(i));
+        }
+        boolean result = !node.word;
+        if(result) {
+            node.word = true;
+            size++;
+        }
+        return result;
+    }
+
+    /**
+     * Verify if the word is stored into the tree.
+     * @param word Word to verify.
+     * @return Returns true if the word is stored.
+     */
+    public synchronized boolean contains(String word) {
+        Node node = find(word);
+        return node != null && node.word;
+    }
+
+    /**
+     * Returns the words that starts with the prefix, sorted alphabetically.
+     * @param prefix Prefix of the words.
+     * @param limit Max number of words returned.
+     * @return List with the words found.
+     */
+    public synchronized List<String> complete(String prefix, int limit) {
+        List<String> result = new ArrayList<>();
+        Node node = find(prefix);
+        if(node != null) {
+            collect(node, new StringBuilder(prefix), result, limit);
+        }
+        return result;
+    }
+
+    private Node find(String prefix) {
+        Node node = root;
+        for (int i = 0; i < prefix.length() && node != null; i++) {
+            node = node.getChild(prefix.charAt(i));
+        }
+        return node;
+    }
+
+    private void collect(Node node, StringBuilder word, List<String> result, int limit) {
+        if(node.word) {
+            result.add(word.toString());
+        }
+        for (int i = 0; i < node.size && result.size() < limit; i++) {
+            word.append(node.keys[i]);
+            collect(node.children[i], word, result, limit);
+            word.setLength(word.length() - 1);
+        }
+    }
+
+    /**
+     * Node of the tree, the children are stored sorted by its character.
+     */
+    private static class Node {
+
+        private char[] keys = new char[0];
+        private Node[] children = new Node[0];
+        private int size;
+        private boolean word;
+
+        private Node getChild(char key) {
+            int index = Arrays.binarySearch(keys, 0, size, key);
+            return index >= 0 ? children[index] : null;
+        }
+
+        private Node getOrCreateChild(char key) {
+            int index = Arrays.binarySearch(keys, 0, size, key);
+            Node result;
+            if(index >= 0) {
+                result = children[index];
+            } else {
+                index = -index - 1;
+                if(size == keys.length) {
+                    keys = Arrays.copyOf(keys, Math.max(2, size * 2));
+                    children = Arrays.copyOf(children, Math.max(2, size * 2));
+                }
+                System.arraycopy(keys, index, keys, index + 1, size - index);
+                System.arraycopy(children, index, children, index + 1, size - index);
+                result = new Node();
+                keys[index] = key;
+                children[index] = result;
+                size++;
+            }
+            return result;
+        }
+    }
+}
@@ -0,0 +1,219 @@
+package org.hcjf.console;
+
+import org.hcjf.io.console.messages.GetMetadataMessage;
+import org.hcjf.service.Service;
+import org.hcjf.service.ServiceSession;
+
+import java.io.IOException;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * This class sends a probe to the server periodically in order to estimate the round trip time of the
+ * connection and to detect a dead connection before the user sends a request. The estimation uses the
+ * smoothed round trip time and its variation (jitter) like the retransmission timer of tcp (rfc 6298).
+ * When the configured number of consecutive probes are missed the connection is declared dead and all the
+ * requests waiting for its responses are failed immediately, the console reports the dead connection when
+ * the user sends the next command.
+ * A probe without response is not a miss if other message arrived while the probe was waiting, because any
+ * message proves that the connection is alive, or if there are requests waiting for its responses, because
+ * a long query or a large transfer delays the response of the probe.
+ * The probe is a get metadata message because it's the only message of the console protocol that all the
+ * servers answer without session and without side effects.
+ * @author javaito
+ */
+public class ConnectionMonitor {
+
+    private static final String CONNECTION_DEAD = "No response for %d consecutive probes";
+    private static final double RTT_GAIN = 1.0 / 8.0;
+    private static final double JITTER_GAIN = 1.0 / 4.0;
+
+    private final ConsoleClient client;
+    private final long interval;
+    private final int maxMissed;
+    private boolean started;
+    private long probes;
+    private int missed;
+    private long lastRtt;
+    private double smoothedRtt;
+    private double jitter;
+
+    public ConnectionMonitor(ConsoleClient client) {
+        this.client = client;
+        this.interval = ConsoleProperties.getLong(ConsoleProperties.HCJF_CONSOLE_PING_INTERVAL, 5000L);
+        this.maxMissed = Math.max(1, ConsoleProperties.getInteger(ConsoleProperties.HCJF_CONSOLE_PING_MAX_MISSED, 3));
+        this.lastRtt = -1;
+    }
+
+    /**
+     * Starts the periodic probes, if the interval is zero or negative then the probes are disabled.
+     */
+    public synchronized void start() {
+        if(!started && interval > 0) {
+            started = true;
+            Service.run(this::run, ServiceSession.getGuestSession());
+        }
+    }
+
+    /**
+     * Sends a probe each interval until the connection is closed or declared dead.
+     */
+    private void run() {
+        while(client.isConnectionAlive() && !Thread.currentThread().isInterrupted()) {
+            long startTime = System.currentTimeMillis();
+            try {
+                probe(interval, true);
+            } catch (TimeoutException | IOException ex) {
+                if(client.getLastInbound() >= startTime) {
+                    heartbeat();
+                } else if(!client.hasOutstandingRequests() && registerMiss() && client.isConnectionAlive()) {
+                    declareDead();
+                }
+            } catch (CancellationException ex) {
+                //The probe was cancelled locally (or the connection was already declared dead), then the
+                //server is not responsible for the missing response.
+            }
+            synchronized (this) {
+                try {
+                    long remaining = interval - (System.currentTimeMillis() - startTime);
+                    if(remaining > 0) {
+                        wait(remaining);
+                    }
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }
+    }
+
+    /**
+     * Sends a probe and waits for its response, the round trip time is added to the estimation.
+     * @param timeout Max time to wait the response in milliseconds.
+     * @param background True for the periodic probes, the background probes are not cancelled when the
+     *                   user cancels the running requests.
+     * @return Round trip time in milliseconds.
+     * @throws TimeoutException if the response doesn't arrive before the timeout.
+     * @throws IOException if the probe can't be sent.
+     */
+    public long probe(long timeout, boolean background) throws TimeoutException, IOException {
+        GetMetadataMessage probeMessage = new GetMetadataMessage();
+        probeMessage.setId(MessageIds.next());
+        long startTime = System.nanoTime();
+        long deadline = System.currentTimeMillis() + timeout;
+        if(background) {
+            client.requestBackground(probeMessage, deadline);
+        } else {
+            client.request(probeMessage, deadline, Priority.INTERACTIVE);
+        }
+        client.getResult(probeMessage.getId(), deadline);
+        long rtt = (System.nanoTime() - startTime) / 1_000_000L;
+        update(rtt);
+        return rtt;
+    }
+
+    /**
+     * Adds a round trip time to the estimation and resets the missed probes.
+     * @param rtt Round trip time in milliseconds.
+     */
+    private synchronized void update(long rtt) {
+        if(lastRtt < 0) {
+            smoothedRtt = rtt;
+            jitter = rtt / 2.0;
+        } else {
+            jitter = (1 - JITTER_GAIN) * jitter + JITTER_GAIN * Math.abs(smoothedRtt - rtt);
+            smoothedRtt = (1 - RTT_GAIN) * smoothedRtt + RTT_GAIN * rtt;
+        }
+        lastRtt = rtt;
+        probes++;
+        missed = 0;
+    }
+
+    /**
+     * Resets the missed probes because other message of the connection arrived.
+     */
+    private synchronized void heartbeat() {
+        probes++;
+        missed = 0;
+    }
+
+    /**
+     * Counts a missed probe.
+     * @return Returns true if the number of consecutive missed probes reaches the max.
+     */
+    private synchronized boolean registerMiss() {
+        probes++;
+        missed++;
+        return missed >= maxMissed;
+    }
+
+    /**
+     * Declares the connection dead and fails all its requests.
+     */
+    private void declareDead() {
+        client.fail(new IOException(String.format(CONNECTION_DEAD, maxMissed)));
+    }
+
+    /**
+     * Returns true if there is at least one round trip time measured.
+     * @return True if the estimation is available.
+     */
+    public synchronized boolean hasEstimation() {
+        return lastRtt >= 0;
+    }
+
+    /**
+     * Returns the smoothed round trip time.
+     * @return Smoothed round trip time in milliseconds.
+     */
+    public synchronized double getSmoothedRtt() {
+        return smoothedRtt;
+    }
+
+    /**
+     * Returns the smoothed variation of the round trip time.
+     * @return Jitter in milliseconds.
+     */
+    public synchronized double getJitter() {
+        return jitter;
+    }
+
+    /**
+     * Returns the last round trip time measured.
+     * @return Round trip time in milliseconds or -1 if there are not measures.
+     */
+    public synchronized long getLastRtt() {
+        return lastRtt;
+    }
+
+    /**
+     * Returns the number of consecutive probes without response.
+     * @return Missed probes.
+     */
+    public synchronized int getMissed() {
+        return missed;
+    }
+
+    /**
+     * Returns the number of consecutive probes without response needed to declare the connection dead.
+     * @return Max missed probes.
+     */
+    public int getMaxMissed() {
+        return maxMissed;
+    }
+
+    /**
+     * Returns the number of probes sent.
+     * @return Number of probes.
+     */
+    public synchronized long getProbes() {
+        return probes;
+    }
+
+    /**
+     * Returns the interval between two probes.
+     * @return Interval in milliseconds.
+     */
+    public long getInterval() {
+        return interval;
+    }
+}
@@ -1,5 +1,6 @@
 package org.hcjf.console;
 
+import org.hcjf.console.jfr.StartupEvent;
 import org.hcjf.console.shell.Command;
 import org.hcjf.console.shell.DefaultShell;
 import org.hcjf.console.shell.ProcessingSpinner;
@@ -16,10 +17,14 @@ import org.hcjf.service.ServiceSession;
 import org.hcjf.utils.Cryptography;
 import org.hcjf.utils.Strings;
 
+import java.lang.management.ManagementFactory;
 import java.text.DateFormat;
 import java.util.HashMap;
 import java.util.Map;
-import java.util.UUID;
+import java.util.Objects;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeoutException;
 
 /**
  * This class implements a console to use as client connected with some instance of hcjf.
@@ -30,28 +35,48 @@ public class Console {
     private static final String TRYING_WITH = "Trying with %s:%d \n";
     private static final String CONNECTING = "Connecting...";
     private static final String UNABLE_TO_CONNECT = "Unable to connect";
+    private static final String UNABLE_TO_CONNECT_CAUSE = "Unable to connect: %s";
+    private static final String UNABLE_TO_REVALIDATE = "Unable to revalidate the cached metadata: %s";
     private static final String CONNECTED = "Connected";
     private static final String CONNECTION_LOST = "\r\nConnection lost %s:%d\r\n";
     private static final String PROMPT = "%s$%s ";
+    private static final String PROMPT_WITH_RTT = "%s$%s (%sms) ";
     private static final String READ_FIELD = "%s: ";
     private static final String LOGIN_FAIL = "Login fail";
+    private static final String INTERRUPT_SIGNAL = "INT";
+    private static final int INTERRUPTED_EXIT_CODE = 130;
 
     private final String host;
     private final Integer port;
     private Long timeout;
+    private Long connectTimeout;
     private String prompt;
-    private ConsoleClient consoleClient;
+    private volatile ConsoleClient consoleClient;
     private TtyListener ttyListener;
-    private ServerMetadata metadata;
+    private volatile ServerMetadata metadata;
     private DateFormat dateFormat;
     private Shell shell;
+    private final MetadataCache metadataCache;
+    private final SessionCache sessionCache;
+    private final CountDownLatch connectionLatch;
+    private volatile Throwable connectionFailure;
+    private boolean fastStart;
+    private boolean loginAttempted;
+    private volatile boolean sessionResumed;
+    private final boolean rttPrompt;
 
     public Console(String host, Integer port) {
         this.host = host;
         this.port = port;
-        this.timeout = 120000L;
+        this.timeout = ConsoleProperties.getLong(ConsoleProperties.HCJF_CONSOLE_TIMEOUT, 10000L);
+        this.connectTimeout = ConsoleProperties.getLong(ConsoleProperties.HCJF_CONSOLE_CONNECT_TIMEOUT, 120000L);
         this.dateFormat = SystemProperties.getDateFormat(SystemProperties.HCJF_DEFAULT_DATE_FORMAT);
         this.ttyListener = new TtyListener();
+        this.metadataCache = new MetadataCache(host, port);
+        this.sessionCache = new SessionCache(host, port);
+        this.connectionLatch = new CountDownLatch(1);
+        this.fastStart = ConsoleProperties.getBoolean(ConsoleProperties.HCJF_CONSOLE_FAST_START, false);
+        this.rttPrompt = ConsoleProperties.getBoolean(ConsoleProperties.HCJF_CONSOLE_PING_PROMPT, false);
     }
 
     /**
@@ -68,6 +93,25 @@ public class Console {
      */
     public void setTimeout(Long timeout) {
         this.timeout = timeout;
+        if(shell != null) {
+            shell.setTimeout(timeout);
+        }
+    }
+
+    /**
+     * Returns the timeout of the connection process.
+     * @return Connection timeout.
+     */
+    public Long getConnectTimeout() {
+        return connectTimeout;
+    }
+
+    /**
+     * Set the timeout of the connection process.
+     * @param connectTimeout Connection timeout.
+     */
+    public void setConnectTimeout(Long connectTimeout) {
+        this.connectTimeout = connectTimeout;
     }
 
     /**
@@ -102,64 +146,83 @@ public class Console {
         this.dateFormat = dateFormat;
     }
 
+    /**
+     * Returns true if the console shows the prompt using the cached metadata of the server
+     * and connects in background.
+     * @return Fast start flag.
+     */
+    public boolean isFastStart() {
+        return fastStart;
+    }
+
+    /**
+     * Set the fast start flag.
+     * @param fastStart Fast start flag.
+     */
+    public void setFastStart(boolean fastStart) {
+        this.fastStart = fastStart;
+    }
+
     public void init() {
+        Completion completion = new Completion(host, port);
+        ttyListener.setCompletion(completion);
         Service.run(ttyListener, ServiceSession.getGuestSession());
+        Service.run(completion::load, ServiceSession.getGuestSession());
+        Service.run(SpilledResultSet::deleteStaleFiles, ServiceSession.getGuestSession());
+        handleInterrupt();
 
         Service.run(() -> {
-            Cryptography cryptography = new Cryptography();
-            consoleClient = new ConsoleClient(host, port, cryptography);
-            System.out.printf(TRYING_WITH, host, port);
-            ProcessingSpinner processingSpinner = new ProcessingSpinner(CONNECTING, timeout);
-            processingSpinner.start();
-            processingSpinner.consume((C)->{
-                try {
-                    NetService.getInstance().registerConsumer(consoleClient);
-                    consoleClient.waitForConnect();
-                    if (!consoleClient.isConnected()) {
-                        throw new RuntimeException(UNABLE_TO_CONNECT);
-                    }
-                    metadata = getMetadata();
-                } catch (Throwable e) {
-                    e.printStackTrace();
-                    throw new RuntimeException(e);
-                }
-                return CONNECTED;
-            });
-            try {
-                processingSpinner.join();
-            } catch (InterruptedException e) {
+            ServerMetadata cachedMetadata = isFastStart() ? metadataCache.load() : null;
+            if(cachedMetadata == null) {
+                connect();
+            } else {
+                //The prompt is shown using the cached metadata and the connection, including the crypto setup,
+                //is created in background. The commands wait for the connection before they are sent.
+                metadata = cachedMetadata;
+                Service.run(this::connectInBackground, ServiceSession.getGuestSession());
             }
 
-            if (!consoleClient.isConnected() || metadata == null) {
-                System.exit(1);
-            }
-
-            try {
-                if (metadata.getLoginRequired()) {
-                    login();
-                }
-            } catch (Throwable ex) {
-                System.out.printf(LOGIN_FAIL);
+            if (metadata.getLoginRequired() && !resumeSession()) {
+                login();
             }
 
             shell = new DefaultShell(ttyListener, metadata, consoleClient);
+            shell.setTimeout(timeout);
+            //The command registry is created in background, out of the path to the first prompt.
+            Shell rootShell = shell;
+            Service.run(() -> rootShell.addToCompletion(completion), ServiceSession.getGuestSession());
             shell.printHead();
             shell.setPrompt(prompt);
+            StartupEvent startupEvent = new StartupEvent();
+            if(startupEvent.shouldCommit()) {
+                startupEvent.uptime = ManagementFactory.getRuntimeMXBean().getUptime();
+                startupEvent.cachedMetadata = cachedMetadata != null;
+                startupEvent.sessionResumed = sessionResumed;
+                startupEvent.commit();
+            }
             while(!Thread.currentThread().isInterrupted()) {
-                if (!consoleClient.isConnected()) {
+                if (connectionLatch.getCount() == 0 && (consoleClient == null || !consoleClient.isConnected())) {
                     System.out.printf(CONNECTION_LOST, host, port);
                     System.exit(1);
                 }
-                String line = ttyListener.read(PROMPT, Strings.StandardOutput.YELLOW,
-                        ServiceSession.getCurrentIdentity().getSessionName(),
-                        shell.getPrompt());
+                String line = readLine();
 
                 if(line.isEmpty()) {
                     continue;
                 }
                 try {
                     Command command = new Command(line, getDateFormat());
-                    shell.execute(command);
+                    awaitConnection();
+                    if(metadata.getLoginRequired() && !loginAttempted) {
+                        //The revalidated metadata requires login but the cached one not.
+                        login();
+                    }
+                    execute(command);
+                } catch (TimeoutException | CancellationException throwable) {
+                    System.out.printf(Strings.StandardOutput.RED);
+                    System.out.println(throwable.getMessage());
+                    System.out.printf(Strings.StandardOutput.RESET);
+                    System.out.flush();
                 } catch (Throwable throwable) {
                     System.out.printf(Strings.StandardOutput.RED);
                     System.out.flush();
@@ -172,12 +235,237 @@ public class Console {
         }, ServiceSession.getGuestSession());
     }
 
+    /**
+     * Reads the next line showing the prompt, if the rtt prompt is enabled and there is an estimation
+     * of the round trip time then the smoothed rtt is shown into the prompt.
+     * @return Line read.
+     */
+    private String readLine() {
+        ConsoleClient client = consoleClient;
+        ConnectionMonitor monitor = client == null ? null : client.getConnectionMonitor();
+        String line;
+        if(rttPrompt && monitor != null && monitor.hasEstimation()) {
+            line = ttyListener.read(PROMPT_WITH_RTT, Strings.StandardOutput.YELLOW,
+                    ServiceSession.getCurrentIdentity().getSessionName(),
+                    shell.getPrompt(), Long.toString(Math.round(monitor.getSmoothedRtt())));
+        } else {
+            line = ttyListener.read(PROMPT, Strings.StandardOutput.YELLOW,
+                    ServiceSession.getCurrentIdentity().getSessionName(),
+                    shell.getPrompt());
+        }
+        return line;
+    }
+
+    /**
+     * Starts the probes of the connection, when the connection is declared dead the pending requests
+     * are failed and the dead connection is reported by the next command.
+     */
+    private void startConnectionMonitor() {
+        consoleClient.startConnectionMonitor();
+    }
+
+    /**
+     * Executes the command into the shell. If the session was resumed and the server rejects the session
+     * then the stored session is removed, the user must login again and the command is executed again.
+     * @param command Command to execute.
+     * @throws Throwable
+     */
+    private void execute(Command command) throws Throwable {
+        try {
+            shell.execute(command);
+        } catch (Throwable throwable) {
+            if(sessionResumed && isSessionRejected(throwable)) {
+                sessionResumed = false;
+                sessionCache.invalidate();
+                login();
+                shell.execute(command);
+            } else {
+                throw throwable;
+            }
+        }
+    }
+
+    /**
+     * Verify if the throwable, or some of its causes, is a security exception produced because the server
+     * doesn't accept the session.
+     * @param throwable Throwable to verify.
+     * @return True if the session was rejected.
+     */
+    private boolean isSessionRejected(Throwable throwable) {
+        boolean result = false;
+        while(throwable != null && !result) {
+            result = throwable instanceof SecurityException;
+            throwable = throwable.getCause() == throwable ? null : throwable.getCause();
+        }
+        return result;
+    }
+
+    /**
+     * Resumes the session stored by the last login, the session is resumed only if it is not expired and
+     * it was created by the same instance of the server.
+     * @return Returns true if the session was resumed.
+     */
+    private boolean resumeSession() {
+        SessionMetadata sessionMetadata = sessionCache.load(metadata.getInstanceId());
+        if(sessionMetadata != null) {
+            addIdentity(sessionMetadata);
+            loginAttempted = true;
+            sessionResumed = true;
+        }
+        return sessionResumed;
+    }
+
+    /**
+     * Creates the client and connects with the server showing a spinner, the method
+     * ends the process if the connection fails.
+     */
+    private void connect() {
+        Cryptography cryptography = new Cryptography();
+        consoleClient = ConsoleClient.create(host, port, cryptography);
+        System.out.printf(TRYING_WITH, host, port);
+        ProcessingSpinner processingSpinner = new ProcessingSpinner(CONNECTING, connectTimeout);
+        processingSpinner.start();
+        processingSpinner.consume((C)->{
+            try {
+                NetService.getInstance().registerConsumer(consoleClient);
+                consoleClient.waitForConnect();
+                if (!consoleClient.isConnected()) {
+                    throw new RuntimeException(UNABLE_TO_CONNECT);
+                }
+                metadata = getMetadata();
+                metadataCache.store(metadata);
+            } catch (Throwable e) {
+                e.printStackTrace();
+                throw new RuntimeException(e);
+            }
+            return CONNECTED;
+        });
+        try {
+            processingSpinner.join();
+        } catch (InterruptedException e) {
+        }
+
+        if (!consoleClient.isConnected() || metadata == null) {
+            System.exit(1);
+        }
+        startConnectionMonitor();
+        connectionLatch.countDown();
+    }
+
+    /**
+     * Register the handler of the interrupt signal (Ctrl-C), if there are requests waiting for its responses
+     * then the requests are cancelled and the console continues, otherwise the console is closed.
+     */
+    private void handleInterrupt() {
+        Signals.handle(INTERRUPT_SIGNAL, () -> {
+            ConsoleClient client = consoleClient;
+            if(client == null || client.cancelAll() == 0) {
+                System.exit(INTERRUPTED_EXIT_CODE);
+            }
+        });
+    }
+
+    /**
+     * Creates the client and connects with the server without any output, then revalidates the
+     * cached metadata against the metadata of the server.
+     */
+    private void connectInBackground() {
+        try {
+            Cryptography cryptography = new Cryptography();
+            consoleClient = ConsoleClient.create(host, port, cryptography);
+            NetService.getInstance().registerConsumer(consoleClient);
+            consoleClient.waitForConnect();
+            if (consoleClient.isConnected()) {
+                startConnectionMonitor();
+                ServerMetadata serverMetadata = getMetadata();
+                if (!MetadataCache.equals(metadata, serverMetadata)) {
+                    metadataCache.store(serverMetadata);
+                    if(sessionResumed && !Objects.equals(metadata.getInstanceId(), serverMetadata.getInstanceId())) {
+                        //The resumed session belongs to other instance of the server.
+                        sessionResumed = false;
+                        sessionCache.invalidate();
+                        loginAttempted = false;
+                    }
+                    metadata = serverMetadata;
+                }
+            }
+        } catch (Throwable throwable) {
+            //The failure is reported by the first command that waits for the connection.
+            connectionFailure = throwable;
+            if(throwable instanceof Error) {
+                throw (Error) throwable;
+            }
+        } finally {
+            connectionLatch.countDown();
+        }
+    }
+
+    /**
+     * Blocks the current thread until the connection process ends, if the process
+     * fails then the console is closed.
+     */
+    private void awaitConnection() {
+        try {
+            connectionLatch.await();
+        } catch (InterruptedException e) {
+        }
+
+        Throwable failure = connectionFailure;
+        if (consoleClient != null && consoleClient.getFailure() != null) {
+            System.out.printf(CONNECTION_LOST, host, port);
+            System.out.println(consoleClient.getFailure().getMessage());
+            System.exit(1);
+        }
+        if (consoleClient == null || !consoleClient.isConnected()) {
+            if(failure == null) {
+                System.out.printf(UNABLE_TO_CONNECT);
+            } else {
+                System.out.printf(UNABLE_TO_CONNECT_CAUSE, failure);
+            }
+            System.out.printf(Strings.CARRIAGE_RETURN_AND_LINE_SEPARATOR);
+            System.exit(1);
+        }
+
+        if (failure != null) {
+            //The connection is alive but the metadata was not revalidated, the console continues with the
+            //cached metadata.
+            connectionFailure = null;
+            System.out.printf(Strings.StandardOutput.RED);
+            System.out.printf(UNABLE_TO_REVALIDATE, failure);
+            System.out.printf(Strings.StandardOutput.RESET);
+            System.out.printf(Strings.CARRIAGE_RETURN_AND_LINE_SEPARATOR);
+            System.out.flush();
+        }
+
+        if (shell != null) {
+            if (shell.getConsoleClient() == null) {
+                shell.setConsoleClient(consoleClient);
+            }
+            if (shell.getServerMetadata() != metadata) {
+                shell.setServerMetadata(metadata);
+            }
+        }
+    }
+
+    /**
+     * Make a login sending a message to the server, if the login fails then the
+     * error is printed and the console continues as guest.
+     */
+    private void login() {
+        loginAttempted = true;
+        try {
+            doLogin();
+        } catch (Throwable ex) {
+            System.out.printf(LOGIN_FAIL);
+        }
+    }
+
     /**
      * Make a login sending a message to the server.
      * @return Returns the session instance.
      * @throws Throwable
      */
-    private SessionMetadata login() throws Throwable {
+    private SessionMetadata doLogin() throws Throwable {
         System.out.printf(Strings.CARRIAGE_RETURN_AND_LINE_SEPARATOR);
         System.out.flush();
         Map<String,Object> parameters = new HashMap<>();
@@ -188,17 +476,18 @@ public class Console {
             parameters.put(field, new String(ttyListener.readSecret(READ_FIELD, null, field)));
         }
         LoginMessage loginMessage = new LoginMessage();
-        loginMessage.setId(UUID.randomUUID());
+        loginMessage.setId(MessageIds.next());
         loginMessage.setParameters(parameters);
-        consoleClient.send(loginMessage);
-        ResponseMessage responseMessage = consoleClient.getResult(loginMessage.getId());
+        awaitConnection();
+        long deadline = System.currentTimeMillis() + timeout;
+        consoleClient.request(loginMessage, deadline, Priority.INTERACTIVE);
+        ResponseMessage responseMessage = consoleClient.getResult(loginMessage.getId(), deadline);
         if(responseMessage.getThrowable() != null) {
             throw responseMessage.getThrowable();
         }
         SessionMetadata sessionMetadata = (SessionMetadata) responseMessage.getValue();
-        ServiceSession serviceSession = new ServiceSession(sessionMetadata.getId());
-        serviceSession.setSessionName(sessionMetadata.getSessionName());
-        ServiceSession.getCurrentIdentity().addIdentity(serviceSession);
+        addIdentity(sessionMetadata);
+        sessionCache.store(sessionMetadata, metadata.getInstanceId());
 
         System.out.println(sessionMetadata.getId());
         System.out.println(sessionMetadata.getSessionName());
@@ -206,6 +495,16 @@ public class Console {
         return sessionMetadata;
     }
 
+    /**
+     * Adds the session as identity of the current session, the identity is used to send the commands.
+     * @param sessionMetadata Session metadata.
+     */
+    private void addIdentity(SessionMetadata sessionMetadata) {
+        ServiceSession serviceSession = new ServiceSession(sessionMetadata.getId());
+        serviceSession.setSessionName(sessionMetadata.getSessionName());
+        ServiceSession.getCurrentIdentity().addIdentity(serviceSession);
+    }
+
     /**
      * This method returns the metadata of the server.
      * @return Metadata instance.
@@ -213,9 +512,10 @@ public class Console {
      */
     private ServerMetadata getMetadata() throws Throwable {
         GetMetadataMessage getMetadataMessage = new GetMetadataMessage();
-        getMetadataMessage.setId(UUID.randomUUID());
-        consoleClient.send(getMetadataMessage);
-        return (ServerMetadata) consoleClient.getResult(getMetadataMessage.getId()).getValue();
+        getMetadataMessage.setId(MessageIds.next());
+        long deadline = System.currentTimeMillis() + connectTimeout;
+        consoleClient.request(getMetadataMessage, deadline, Priority.INTERACTIVE);
+        return (ServerMetadata) consoleClient.getResult(getMetadataMessage.getId(), deadline).getValue();
     }
 
 }
@@ -1,6 +1,11 @@
 package org.hcjf.console;
 
+import org.hcjf.console.jfr.MessageSendEvent;
+import org.hcjf.console.jfr.ResponseArrivalEvent;
+import org.hcjf.console.jfr.ResultWaitEvent;
 import org.hcjf.io.console.ConsoleSession;
+import org.hcjf.io.console.messages.EvaluateQueryableMessage;
+import org.hcjf.io.console.messages.ExecuteMessage;
 import org.hcjf.io.net.NetPackage;
 import org.hcjf.io.net.NetSession;
 import org.hcjf.io.net.messages.Message;
@@ -9,35 +14,154 @@ import org.hcjf.io.net.messages.MessagesNode;
 import org.hcjf.io.net.messages.ResponseMessage;
 import org.hcjf.utils.Cryptography;
 
-import java.util.HashMap;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
  * This class implements a clients using the message protocol to connect the console with som server.
+ * Each request has a deadline, when the deadline is reached or the request is cancelled the waiting thread
+ * is released immediately and a cancel notice is sent to the server. The cancel notice is a execute message
+ * of the command 'cancel' (configurable) with the id of the cancelled message and its deadline as parameters.
+ * If the connection monitor declares the connection dead then all the pending requests are failed and the
+ * client is considered disconnected.
+ * Each thread writes its own message, the only exception are the bulk messages: the bulk class could be
+ * limited to a max number of bytes per second, each bulk message takes the expected size of its response
+ * and the messages that exceed the rate wait into the bulk queue until the rate allows to write them.
  * @author javaito
  */
 public class ConsoleClient extends MessagesNode<ConsoleSession> {
 
+    private static final String TIMEOUT = "Timeout waiting the response of the message %s";
+    private static final String CANCELLED = "Request cancelled %s";
+    private static final String CONNECTION_DEAD = "Connection dead, request failed %s: %s";
+    private static final long ABANDONED_TTL = 60000L;
+    private static final int PURGED_CAPACITY = 1024;
+    private static final String UNKNOWN_REQUEST = "Unknown request %s";
+    private static final String WAIT_OUTCOME_RESPONSE = "response";
+    private static final String WAIT_OUTCOME_TIMEOUT = "timeout";
+    private static final String WAIT_OUTCOME_CANCELLED = "cancelled";
+
     private final ConsoleSession consoleSession;
-    private final Map<UUID, ResponseMessage> responseMessageMap;
+    private final Map<UUID, PendingResponse> pendingResponses;
+    private final String cancelCommand;
+    private final ConnectionMonitor connectionMonitor;
+    private volatile Throwable failure;
+    private volatile long lastInbound;
+    private final Set<UUID> purged;
+    private final LongAdder droppedResponses;
+    private final Queue<Outbound> bulkQueue;
+    private final AtomicBoolean bulkWriting;
+    private final AtomicBoolean drainScheduled;
+    private final TokenBucket bulkBucket;
+    private final ResponseSizes responseSizes;
+    private final long bulkThreshold;
 
     public ConsoleClient(String host, Integer port, Cryptography cryptography) {
+        this(host, port, cryptography, new ResponseSizes());
+    }
+
+    /**
+     * Creates a client that shares the response sizes with other clients.
+     * @param host Host of the server.
+     * @param port Port of the server.
+     * @param cryptography Cryptography used by the connection.
+     * @param responseSizes Sizes of the last responses by shape.
+     */
+    ConsoleClient(String host, Integer port, Cryptography cryptography, ResponseSizes responseSizes) {
         super(host, port, cryptography);
         consoleSession = new ConsoleSession(UUID.randomUUID(), this);
-        responseMessageMap = new HashMap<>();
+        pendingResponses = new ConcurrentHashMap<>();
+        cancelCommand = ConsoleProperties.get(ConsoleProperties.HCJF_CONSOLE_CANCEL_COMMAND, "cancel");
+        connectionMonitor = new ConnectionMonitor(this);
+        purged = Collections.newSetFromMap(Collections.synchronizedMap(new LinkedHashMap<UUID, Boolean>() {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<UUID, Boolean> eldest) {
+                return size() > PURGED_CAPACITY;
+            }
+        }));
+        droppedResponses = new LongAdder();
+        bulkQueue = new ConcurrentLinkedQueue<>();
+        bulkWriting = new AtomicBoolean();
+        drainScheduled = new AtomicBoolean();
+        bulkBucket = new TokenBucket(ConsoleProperties.getLong(ConsoleProperties.HCJF_CONSOLE_BULK_RATE, 0L));
+        this.responseSizes = responseSizes;
+        bulkThreshold = ConsoleProperties.getLong(ConsoleProperties.HCJF_CONSOLE_BULK_THRESHOLD, 1024L * 1024L);
     }
 
+    /**
+     * Creates the client for the host and port, if the number of connections configured is greater than
+     * one then the client stripes the requests over many connections.
+     * @param host Host of the server.
+     * @param port Port of the server.
+     * @param cryptography Cryptography used by the connections.
+     * @return Client instance.
+     */
+    public static ConsoleClient create(String host, Integer port, Cryptography cryptography) {
+        int connections = ConsoleProperties.getInteger(ConsoleProperties.HCJF_CONSOLE_CONNECTIONS, 1);
+        return connections > 1 ?
+                new StripedConsoleClient(host, port, cryptography, connections) :
+                new ConsoleClient(host, port, cryptography);
+    }
+
+    /**
+     * Completes the request of the response. The responses without a registered request are dropped, they
+     * are late responses of cancelled requests already purged or responses of unknown messages, and they
+     * are reported as unregistered by the response arrival event.
+     * @param session Console session.
+     * @param incomingMessage Message received.
+     */
     @Override
     protected void onRead(ConsoleSession session, Message incomingMessage) {
-        synchronized (responseMessageMap) {
-            if (incomingMessage instanceof ResponseMessage) {
-                responseMessageMap.put(incomingMessage.getId(), (ResponseMessage) incomingMessage);
-                responseMessageMap.notifyAll();
+        lastInbound = System.currentTimeMillis();
+        if (incomingMessage instanceof ResponseMessage) {
+            ResponseArrivalEvent event = new ResponseArrivalEvent();
+            event.begin();
+            PendingResponse pendingResponse = pendingResponses.get(incomingMessage.getId());
+            boolean late = false;
+            if(pendingResponse == null) {
+                late = purged.remove(incomingMessage.getId());
+                droppedResponses.increment();
+            } else {
+                pendingResponse.future.complete((ResponseMessage) incomingMessage);
+                if(pendingResponse.abandoned) {
+                    //Late response of a cancelled message or response of a cancel notice.
+                    pendingResponses.remove(incomingMessage.getId());
+                }
+            }
+            if(event.shouldCommit()) {
+                event.messageId = incomingMessage.getId().toString();
+                event.failed = ((ResponseMessage) incomingMessage).getThrowable() != null;
+                event.abandoned = late || (pendingResponse != null && pendingResponse.abandoned);
+                event.unregistered = pendingResponse == null;
+                event.commit();
             }
         }
     }
 
+    /**
+     * Returns the number of responses dropped because there was not a request waiting for them.
+     * @return Number of responses.
+     */
+    public long getDroppedResponses() {
+        return droppedResponses.sum();
+    }
+
     @Override
     public ConsoleSession getSession() {
         return consoleSession;
@@ -47,27 +171,529 @@ public class ConsoleClient extends MessagesNode<ConsoleSession> {
     public void destroySession(NetSession session) {
     }
 
+    /**
+     * Returns true if the client is connected and the connection was not declared dead.
+     * @return Connected flag.
+     */
+    @Override
+    public boolean isConnected() {
+        return isConnectionAlive();
+    }
+
+    /**
+     * Returns true if the connection of this client is connected and it was not declared dead, the striped
+     * client overrides {@link #isConnected()} but not this method.
+     * @return Connected flag of this connection.
+     */
+    boolean isConnectionAlive() {
+        return failure == null && super.isConnected();
+    }
+
+    /**
+     * Returns the cause of the failure if the connection was declared dead.
+     * @return Cause of the failure or null if the connection was not declared dead.
+     */
+    public Throwable getFailure() {
+        return failure;
+    }
+
+    /**
+     * Returns the time of the last message received by this connection, any message proves that the
+     * connection is alive.
+     * @return Time in milliseconds (epoch) or zero if no message was received.
+     */
+    public long getLastInbound() {
+        return lastInbound;
+    }
+
+    /**
+     * Verify if there are requests of this connection waiting for its responses, the background requests
+     * and the cancelled requests are not considered.
+     * @return Returns true if some request is waiting.
+     */
+    public boolean hasOutstandingRequests() {
+        boolean result = false;
+        for(PendingResponse pendingResponse : pendingResponses.values()) {
+            if(!pendingResponse.background && !pendingResponse.abandoned && !pendingResponse.future.isDone()) {
+                result = true;
+                break;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns the monitor that estimates the round trip time of the connection.
+     * @return Connection monitor.
+     */
+    public ConnectionMonitor getConnectionMonitor() {
+        return connectionMonitor;
+    }
+
+    /**
+     * Starts the probes of the connection.
+     */
+    public void startConnectionMonitor() {
+        connectionMonitor.start();
+    }
+
+    /**
+     * Returns the sizes of the last responses by shape.
+     * @return Response sizes.
+     */
+    public ResponseSizes getResponseSizes() {
+        return responseSizes;
+    }
+
+    /**
+     * Returns the size of the response from which a request is considered bulk.
+     * @return Threshold in bytes.
+     */
+    public long getBulkThreshold() {
+        return bulkThreshold;
+    }
+
+    /**
+     * Returns the priority class of a request typed by the user: the requests whose last response with the
+     * same shape is greater than the bulk threshold are bulk, the rest of the evaluations are normal because
+     * its response size depends on the data, and the rest of the commands are interactive.
+     * @param message Message to send.
+     * @return Priority class of the message.
+     */
+    public Priority classify(Message message) {
+        Long bytes = responseSizes.get(ResponseSizes.getShape(message));
+        Priority result;
+        if(bytes != null && bytes >= bulkThreshold) {
+            result = Priority.BULK;
+        } else if(message instanceof EvaluateQueryableMessage) {
+            result = Priority.NORMAL;
+        } else {
+            result = Priority.INTERACTIVE;
+        }
+        return result;
+    }
+
+    /**
+     * Declares the connection dead, all the pending requests are failed immediately and the
+     * new requests are rejected.
+     * @param cause Cause of the failure.
+     */
+    public void fail(Throwable cause) {
+        failure = cause;
+        for(PendingResponse pendingResponse : pendingResponses.values()) {
+            pendingResponse.future.completeExceptionally(cause);
+        }
+    }
+
     @Override
     public ConsoleSession checkSession(ConsoleSession session, MessageBuffer payLoad, NetPackage netPackage) {
         session.setChecked(true);
         return session;
     }
 
-    public ResponseMessage getResult(UUID messageId) {
-        ResponseMessage result = null;
-        synchronized (responseMessageMap) {
-            while (!Thread.currentThread().isInterrupted()) {
-                if (responseMessageMap.containsKey(messageId)) {
-                    result = responseMessageMap.remove(messageId);
-                    break;
-                } else {
+    /**
+     * Register the message as pending and sends it.
+     * @param message Message to send.
+     * @param deadline Time in milliseconds (epoch) when the message expires.
+     * @return Future completed with the response, or completed exceptionally if the request is cancelled.
+     * @throws IOException
+     */
+    public CompletableFuture<ResponseMessage> request(Message message, long deadline) throws IOException {
+        return request(message, deadline, Priority.NORMAL);
+    }
+
+    /**
+     * Register the message as pending and sends it with a specific priority.
+     * @param message Message to send.
+     * @param deadline Time in milliseconds (epoch) when the message expires.
+     * @param priority Priority class of the request.
+     * @return Future completed with the response, or completed exceptionally if the request is cancelled.
+     * @throws IOException
+     */
+    public CompletableFuture<ResponseMessage> request(Message message, long deadline, Priority priority) throws IOException {
+        return register(message, deadline, priority, false);
+    }
+
+    /**
+     * Register the message as a background request of this connection and sends it with the interactive
+     * priority. The background requests are not cancelled by {@link #cancelAll()} because the user
+     * doesn't wait for them.
+     * @param message Message to send.
+     * @param deadline Time in milliseconds (epoch) when the message expires.
+     * @return Future completed with the response, or completed exceptionally if the request is cancelled.
+     * @throws IOException
+     */
+    public CompletableFuture<ResponseMessage> requestBackground(Message message, long deadline) throws IOException {
+        return register(message, deadline, Priority.INTERACTIVE, true);
+    }
+
+    /**
+     * Register the message as pending into this connection and sends it.
+     * @param message Message to send.
+     * @param deadline Time in milliseconds (epoch) when the message expires.
+     * @param priority Priority class of the request.
+     * @param background True if the request is not cancelled by {@link #cancelAll()}.
+     * @return Future completed with the response.
+     * @throws IOException
+     */
+    private CompletableFuture<ResponseMessage> register(Message message, long deadline, Priority priority,
+                                                        boolean background) throws IOException {
+        if(failure != null) {
+            throw new IOException(failure.getMessage(), failure);
+        }
+        PendingResponse pendingResponse = pendingResponses.computeIfAbsent(message.getId(), PendingResponse::new);
+        pendingResponse.deadline = deadline;
+        pendingResponse.sessionId = message.getSessionId();
+        pendingResponse.background = background;
+        String shape = ResponseSizes.getShape(message);
+        try {
+            write(message, deadline, priority, pendingResponse);
+        } catch (IOException ex) {
+            pendingResponses.remove(message.getId());
+            throw ex;
+        }
+        if(shape != null) {
+            pendingResponse.future.thenAccept(R -> responseSizes.record(shape, R));
+        }
+        return pendingResponse.future;
+    }
+
+    /**
+     * Register the message as pending and sends it without block any thread waiting the response. When the
+     * deadline is reached the returned future is completed with a timeout exception and the request is
+     * cancelled, the timeouts of all the requests are managed by one shared timer.
+     * @param message Message to send.
+     * @param deadline Time in milliseconds (epoch) when the message expires.
+     * @return Future completed with the response, or completed exceptionally if the message can't be sent,
+     * the deadline is reached, the request is cancelled or the connection is dead.
+     */
+    public CompletableFuture<ResponseMessage> requestAsync(Message message, long deadline) {
+        return requestAsync(message, deadline, Priority.NORMAL);
+    }
+
+    /**
+     * Register the message as pending and sends it with a specific priority without block any thread
+     * waiting the response.
+     * @param message Message to send.
+     * @param deadline Time in milliseconds (epoch) when the message expires.
+     * @param priority Priority class of the request.
+     * @return Future completed with the response, or completed exceptionally if the message can't be sent,
+     * the deadline is reached, the request is cancelled or the connection is dead.
+     */
+    public CompletableFuture<ResponseMessage> requestAsync(Message message, long deadline, Priority priority) {
+        UUID messageId = message.getId();
+        CompletableFuture<ResponseMessage> future;
+        try {
+            future = register(message, deadline, priority, false);
+        } catch (IOException ex) {
+            return CompletableFuture.failedFuture(ex);
+        }
+        CompletableFuture<ResponseMessage> result = new CompletableFuture<>();
+        future.whenComplete((response, throwable) -> {
+            if(throwable == null) {
+                pendingResponses.remove(messageId);
+                result.complete(response);
+            } else if(failure != null) {
+                result.completeExceptionally(new CancellationException(
+                        String.format(CONNECTION_DEAD, messageId, failure.getMessage())));
+            } else {
+                result.completeExceptionally(new CancellationException(String.format(CANCELLED, messageId)));
+            }
+        });
+        if(deadline != Long.MAX_VALUE) {
+            result.orTimeout(Math.max(0, deadline - System.currentTimeMillis()), TimeUnit.MILLISECONDS)
+                    .whenComplete((response, throwable) -> {
+                        if(throwable instanceof TimeoutException) {
+                            cancel(messageId);
+                        }
+                    });
+        }
+        return result;
+    }
+
+    /**
+     * Writes the message. The interactive and normal messages are written immediately by the calling thread.
+     * The bulk messages are written by the calling thread only if the bulk rate allows it and there are not
+     * other bulk messages waiting, otherwise the message waits into the bulk queue and is written later by
+     * the thread that holds the queue or by a timer.
+     * @param message Message to send.
+     * @param deadline Deadline of the message.
+     * @param priority Priority class of the message.
+     * @param pendingResponse Pending response of the message.
+     * @throws IOException if the message of the calling thread can't be written.
+     */
+    private void write(Message message, long deadline, Priority priority, PendingResponse pendingResponse) throws IOException {
+        if(priority == Priority.BULK && bulkBucket.isLimited()) {
+            bulkQueue.add(new Outbound(message, deadline, responseSizes.getExpectedBytes(message), pendingResponse));
+            IOException result = drainBulk(message);
+            if(result != null) {
+                throw result;
+            }
+        } else {
+            sendWithEvent(message, deadline);
+        }
+    }
+
+    /**
+     * Writes the queued bulk messages allowed by the bulk rate if there is not other thread writing them.
+     * The requests of the others threads whose messages can't be written are completed exceptionally.
+     * @param own Message of the calling thread, could be null.
+     * @return Exception produced writing the message of the calling thread, or null.
+     */
+    private IOException drainBulk(Message own) {
+        IOException result = null;
+        //The queue is verified again after release the flag because other thread could add a message
+        //after the last poll and before the release.
+        while(!bulkQueue.isEmpty() && bulkBucket.hasToken() && bulkWriting.compareAndSet(false, true)) {
+            try {
+                Outbound next;
+                while((next = bulkQueue.peek()) != null && bulkBucket.tryAcquire(next.bytes)) {
+                    //Only the thread that holds the flag polls the queue, then the polled message is the peeked one.
+                    bulkQueue.poll();
                     try {
-                        responseMessageMap.wait(1000);
-                    } catch (InterruptedException e) {
+                        sendWithEvent(next.message, next.deadline);
+                    } catch (IOException ex) {
+                        if(next.message == own) {
+                            result = ex;
+                        } else {
+                            pendingResponses.remove(next.message.getId());
+                            next.pendingResponse.future.completeExceptionally(ex);
+                        }
                     }
                 }
+            } finally {
+                bulkWriting.set(false);
             }
         }
+        if(!bulkQueue.isEmpty()) {
+            scheduleDrain();
+        }
         return result;
     }
+
+    /**
+     * Schedules a drain of the bulk queue for the moment when the bulk rate allows to write the next
+     * bulk message, only one drain is scheduled at time.
+     */
+    private void scheduleDrain() {
+        if(drainScheduled.compareAndSet(false, true)) {
+            CompletableFuture.delayedExecutor(Math.max(1, bulkBucket.getWaitTime()), TimeUnit.MILLISECONDS).execute(() -> {
+                drainScheduled.set(false);
+                drainBulk(null);
+            });
+        }
+    }
+
+    /**
+     * Sends the message recording the time used to serialize and write the message.
+     * @param message Message to send.
+     * @param deadline Deadline of the message.
+     * @throws IOException
+     */
+    private void sendWithEvent(Message message, long deadline) throws IOException {
+        MessageSendEvent event = new MessageSendEvent();
+        event.begin();
+        send(message);
+        if(event.shouldCommit()) {
+            event.messageId = message.getId().toString();
+            event.messageType = message.getClass().getSimpleName();
+            event.deadline = deadline;
+            event.commit();
+        }
+    }
+
+    /**
+     * Blocks the current thread until the response of the message arrives.
+     * @param messageId Id of the message.
+     * @return Response message.
+     * @throws CancellationException if the request is cancelled, the thread is interrupted or the connection is dead.
+     * @deprecated The request never expires, use {@link #getResult(UUID, long)} with a deadline.
+     */
+    @Deprecated
+    public ResponseMessage getResult(UUID messageId) {
+        try {
+            return getResult(messageId, Long.MAX_VALUE);
+        } catch (TimeoutException ex) {
+            //The deadline is never reached.
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    /**
+     * Blocks the current thread until the response of the message arrives, the deadline is reached or
+     * the request is cancelled. If the deadline is reached then the request is cancelled.
+     * @param messageId Id of the message.
+     * @param deadline Time in milliseconds (epoch) when the message expires.
+     * @return Response message.
+     * @throws TimeoutException if the deadline is reached.
+     * @throws CancellationException if the request is cancelled, the thread is interrupted or the connection is dead.
+     */
+    public ResponseMessage getResult(UUID messageId, long deadline) throws TimeoutException {
+        PendingResponse pendingResponse = pendingResponses.get(messageId);
+        if(pendingResponse == null) {
+            //The response was already taken or the message was never sent by this client.
+            throw new CancellationException(String.format(UNKNOWN_REQUEST, messageId));
+        }
+        if(failure != null) {
+            //The response never arrives if the request was registered after the connection was declared dead.
+            pendingResponse.future.completeExceptionally(failure);
+        }
+        deadline = Math.min(deadline, pendingResponse.deadline);
+        ResultWaitEvent event = new ResultWaitEvent();
+        event.begin();
+        event.outcome = WAIT_OUTCOME_CANCELLED;
+        try {
+            long remaining = deadline - System.currentTimeMillis();
+            ResponseMessage result = deadline == Long.MAX_VALUE ?
+                    pendingResponse.future.get() : pendingResponse.future.get(Math.max(0, remaining), TimeUnit.MILLISECONDS);
+            pendingResponses.remove(messageId);
+            event.outcome = WAIT_OUTCOME_RESPONSE;
+            return result;
+        } catch (TimeoutException ex) {
+            event.outcome = WAIT_OUTCOME_TIMEOUT;
+            cancel(messageId);
+            throw new TimeoutException(String.format(TIMEOUT, messageId));
+        } catch (InterruptedException ex) {
+            cancel(messageId);
+            Thread.currentThread().interrupt();
+            throw new CancellationException(String.format(CANCELLED, messageId));
+        } catch (ExecutionException ex) {
+            if(failure != null) {
+                throw new CancellationException(String.format(CONNECTION_DEAD, messageId, failure.getMessage()));
+            }
+            throw new CancellationException(String.format(CANCELLED, messageId));
+        } catch (CancellationException ex) {
+            throw new CancellationException(String.format(CANCELLED, messageId));
+        } finally {
+            if(event.shouldCommit()) {
+                event.messageId = messageId.toString();
+                event.commit();
+            }
+        }
+    }
+
+    /**
+     * Verify if the message is registered into this connection and its response was not taken yet.
+     * @param messageId Id of the message.
+     * @return Returns true if the message is pending.
+     */
+    boolean isPending(UUID messageId) {
+        return pendingResponses.containsKey(messageId);
+    }
+
+    /**
+     * Cancels a pending request, the waiting thread is released immediately and a cancel notice
+     * is sent to the server.
+     * @param messageId Id of the message to cancel.
+     * @return Returns true if the request was pending and false if the response already arrived.
+     */
+    public boolean cancel(UUID messageId) {
+        boolean result = false;
+        PendingResponse pendingResponse = pendingResponses.get(messageId);
+        if(pendingResponse != null && !pendingResponse.abandoned) {
+            pendingResponse.abandoned = true;
+            pendingResponse.abandonedTime = System.currentTimeMillis();
+            result = pendingResponse.future.cancel(false);
+            if(result) {
+                sendCancelNotice(pendingResponse);
+            } else {
+                pendingResponses.remove(messageId);
+            }
+        }
+        removeExpired();
+        return result;
+    }
+
+    /**
+     * Cancels all the pending requests except the background requests.
+     * @return Number of requests cancelled.
+     */
+    public int cancelAll() {
+        int result = 0;
+        List<UUID> ids = new ArrayList<>();
+        for(PendingResponse pendingResponse : pendingResponses.values()) {
+            if(!pendingResponse.background) {
+                ids.add(pendingResponse.id);
+            }
+        }
+        for(UUID id : ids) {
+            if(cancel(id)) {
+                result++;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Sends the notice to the server in order to stop the processing of the cancelled request.
+     * @param pendingResponse Cancelled request.
+     */
+    private void sendCancelNotice(PendingResponse pendingResponse) {
+        List<Object> parameters = new ArrayList<>();
+        parameters.add(pendingResponse.id);
+        parameters.add(pendingResponse.deadline);
+        ExecuteMessage cancelNotice = Messages.execute(cancelCommand, parameters, pendingResponse.sessionId);
+        PendingResponse noticeResponse = new PendingResponse(cancelNotice.getId());
+        noticeResponse.abandoned = true;
+        noticeResponse.abandonedTime = System.currentTimeMillis();
+        pendingResponses.put(cancelNotice.getId(), noticeResponse);
+        try {
+            write(cancelNotice, noticeResponse.deadline, Priority.INTERACTIVE, noticeResponse);
+        } catch (IOException ex) {
+            pendingResponses.remove(cancelNotice.getId());
+        }
+    }
+
+    /**
+     * Removes the cancelled requests whose responses never arrive.
+     */
+    private void removeExpired() {
+        long now = System.currentTimeMillis();
+        pendingResponses.values().removeIf(P -> {
+            boolean expired = P.abandoned && now - P.abandonedTime > ABANDONED_TTL;
+            if(expired) {
+                //The id is kept for a while in order to identify the late response of the request.
+                purged.add(P.id);
+            }
+            return expired;
+        });
+    }
+
+    /**
+     * Bulk message waiting into the bulk queue.
+     */
+    private static class Outbound {
+
+        private final Message message;
+        private final long deadline;
+        private final long bytes;
+        private final PendingResponse pendingResponse;
+
+        private Outbound(Message message, long deadline, long bytes, PendingResponse pendingResponse) {
+            this.message = message;
+            this.deadline = deadline;
+            this.bytes = bytes;
+            this.pendingResponse = pendingResponse;
+        }
+    }
+
+    /**
+     * Request waiting for its response.
+     */
+    private static class PendingResponse {
+
+        private final UUID id;
+        private final CompletableFuture<ResponseMessage> future;
+        private volatile long deadline;
+        private volatile UUID sessionId;
+        private volatile boolean background;
+        private volatile boolean abandoned;
+        private volatile long abandonedTime;
+
+        private PendingResponse(UUID id) {
+            this.id = id;
+            this.future = new CompletableFuture<>();
+            this.deadline = Long.MAX_VALUE;
+        }
+    }
 }
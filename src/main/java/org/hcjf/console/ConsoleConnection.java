@@ -0,0 +1,277 @@
+package org.hcjf.console;
+
+import org.hcjf.io.console.ServerMetadata;
+import org.hcjf.io.console.SessionMetadata;
+import org.hcjf.io.console.messages.GetMetadataMessage;
+import org.hcjf.io.console.messages.LoginMessage;
+import org.hcjf.io.net.NetService;
+import org.hcjf.io.net.messages.Message;
+import org.hcjf.io.net.messages.ResponseMessage;
+import org.hcjf.layers.query.Queryable;
+import org.hcjf.service.Service;
+import org.hcjf.service.ServiceSession;
+import org.hcjf.utils.Cryptography;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * This class implements a connection with a server without any terminal dependency,
+ * the connection is used by the components that works without user interaction.
+ * The connection is thread-safe, the asynchronous methods return futures completed by the thread that
+ * reads the responses then many requests could be in flight without a thread blocked for each one.
+ * @author javaito
+ */
+public class ConsoleConnection {
+
+    private static final String UNABLE_TO_CONNECT = "Unable to connect %s:%d";
+    private static final String NOT_CONNECTED = "Not connected %s:%d";
+
+    private final String host;
+    private final Integer port;
+    private volatile ConsoleClient consoleClient;
+    private volatile ServerMetadata metadata;
+    private volatile SessionMetadata sessionMetadata;
+    private volatile Long timeout;
+
+    public ConsoleConnection(String host, Integer port) {
+        this.host = host;
+        this.port = port;
+        this.timeout = ConsoleProperties.getLong(ConsoleProperties.HCJF_CONSOLE_TIMEOUT, 10000L);
+    }
+
+    /**
+     * Returns the host of the server.
+     * @return Host of the server.
+     */
+    public String getHost() {
+        return host;
+    }
+
+    /**
+     * Returns the port of the server.
+     * @return Port of the server.
+     */
+    public Integer getPort() {
+        return port;
+    }
+
+    /**
+     * Returns the timeout of the requests.
+     * @return Timeout in milliseconds.
+     */
+    public Long getTimeout() {
+        return timeout;
+    }
+
+    /**
+     * Set the timeout of the requests.
+     * @param timeout Timeout in milliseconds.
+     */
+    public void setTimeout(Long timeout) {
+        this.timeout = timeout;
+    }
+
+    /**
+     * Returns the client instance used by the connection.
+     * @return Client instance.
+     */
+    public ConsoleClient getConsoleClient() {
+        return consoleClient;
+    }
+
+    /**
+     * Returns the metadata of the server, this value is available after connect.
+     * @return Metadata of the server.
+     */
+    public ServerMetadata getMetadata() {
+        return metadata;
+    }
+
+    /**
+     * Returns the metadata of the session created by the login.
+     * @return Session metadata or null if the connection is not logged.
+     */
+    public SessionMetadata getSessionMetadata() {
+        return sessionMetadata;
+    }
+
+    /**
+     * Verify if the connection needs a login before to send commands.
+     * @return Returns true if the server requires login and the connection is not logged yet.
+     */
+    public boolean isLoginRequired() {
+        return metadata != null && Boolean.TRUE.equals(metadata.getLoginRequired()) && sessionMetadata == null;
+    }
+
+    /**
+     * Verify if the connection is connected.
+     * @return Connection status.
+     */
+    public boolean isConnected() {
+        return consoleClient != null && consoleClient.isConnected();
+    }
+
+    /**
+     * Connects with the server and obtains the server metadata.
+     * @throws Throwable Throws an exception if the connection fails.
+     */
+    public void connect() throws Throwable {
+        consoleClient = ConsoleClient.create(host, port, new Cryptography());
+        NetService.getInstance().registerConsumer(consoleClient);
+        consoleClient.waitForConnect();
+        if(!consoleClient.isConnected()) {
+            throw new IOException(String.format(UNABLE_TO_CONNECT, host, port));
+        }
+        GetMetadataMessage getMetadataMessage = new GetMetadataMessage();
+        getMetadataMessage.setId(MessageIds.next());
+        metadata = (ServerMetadata) request(getMetadataMessage);
+    }
+
+    /**
+     * Connects with the server into a thread of the service and obtains the server metadata.
+     * @return Future completed with the metadata of the server when the connection is ready.
+     */
+    public CompletableFuture<ServerMetadata> connectAsync() {
+        CompletableFuture<ServerMetadata> result = new CompletableFuture<>();
+        Service.run(() -> {
+            try {
+                connect();
+                result.complete(metadata);
+            } catch (Throwable throwable) {
+                result.completeExceptionally(throwable);
+            }
+        }, ServiceSession.getGuestSession());
+        return result;
+    }
+
+    /**
+     * Make a login using the specific parameters.
+     * @param parameters Login parameters, the names of the parameters are the login fields of the metadata.
+     * @return Returns the session metadata.
+     * @throws Throwable Throws the exception returned by the server.
+     */
+    public synchronized SessionMetadata login(Map<String,Object> parameters) throws Throwable {
+        LoginMessage loginMessage = new LoginMessage();
+        loginMessage.setId(MessageIds.next());
+        loginMessage.setParameters(parameters);
+        sessionMetadata = (SessionMetadata) request(loginMessage);
+        return sessionMetadata;
+    }
+
+    /**
+     * Make a login using the specific parameters without block the current thread.
+     * @param parameters Login parameters, the names of the parameters are the login fields of the metadata.
+     * @return Future completed with the session metadata.
+     */
+    public CompletableFuture<SessionMetadata> loginAsync(Map<String,Object> parameters) {
+        LoginMessage loginMessage = new LoginMessage();
+        loginMessage.setId(MessageIds.next());
+        loginMessage.setParameters(parameters);
+        return requestAsync(loginMessage).thenApply(value -> {
+            sessionMetadata = (SessionMetadata) value;
+            return sessionMetadata;
+        });
+    }
+
+    /**
+     * Executes a command into the server.
+     * @param commandName Name of the command.
+     * @param parameters Parameters of the command.
+     * @return Returns the command result.
+     * @throws Throwable Throws the exception returned by the server.
+     */
+    public Object execute(String commandName, List<Object> parameters) throws Throwable {
+        return request(Messages.execute(commandName, parameters, getSessionId()));
+    }
+
+    /**
+     * Executes a command into the server without block the current thread.
+     * @param commandName Name of the command.
+     * @param parameters Parameters of the command.
+     * @return Future completed with the command result.
+     */
+    public CompletableFuture<Object> executeAsync(String commandName, List<Object> parameters) {
+        return requestAsync(Messages.execute(commandName, parameters, getSessionId()));
+    }
+
+    /**
+     * Evaluates a queryable into the server.
+     * @param queryable Queryable instance.
+     * @return Returns the result of the evaluation.
+     * @throws Throwable Throws the exception returned by the server.
+     */
+    public Object evaluate(Queryable queryable) throws Throwable {
+        return request(Messages.evaluate(queryable, getSessionId()));
+    }
+
+    /**
+     * Evaluates a queryable into the server without block the current thread.
+     * @param queryable Queryable instance.
+     * @return Future completed with the result of the evaluation.
+     */
+    public CompletableFuture<Object> evaluateAsync(Queryable queryable) {
+        return requestAsync(Messages.evaluate(queryable, getSessionId()));
+    }
+
+    /**
+     * Evaluates a query into the server without block the current thread, the query is compiled only once
+     * for all the evaluations of the same text.
+     * @param query Query text.
+     * @param parameters Parameters of the query, could be empty.
+     * @return Future completed with the result of the evaluation.
+     */
+    public CompletableFuture<Object> evaluateAsync(String query, List<Object> parameters) {
+        CompletableFuture<Object> result;
+        try {
+            result = evaluateAsync(QueryCache.compile(query, parameters));
+        } catch (RuntimeException ex) {
+            result = CompletableFuture.failedFuture(ex);
+        }
+        return result;
+    }
+
+    /**
+     * Sends the message and wait for the response.
+     * @param message Message to send, with its id.
+     * @return Returns the value of the response.
+     * @throws Throwable Throws the exception returned by the server.
+     */
+    private Object request(Message message) throws Throwable {
+        long deadline = System.currentTimeMillis() + timeout;
+        consoleClient.request(message, deadline);
+        ResponseMessage responseMessage = consoleClient.getResult(message.getId(), deadline);
+        if(responseMessage.getThrowable() != null) {
+            throw responseMessage.getThrowable();
+        }
+        return responseMessage.getValue();
+    }
+
+    /**
+     * Sends the message without wait for the response.
+     * @param message Message to send, with its id.
+     * @return Future completed with the value of the response, or completed exceptionally with the
+     * exception returned by the server.
+     */
+    private CompletableFuture<Object> requestAsync(Message message) {
+        ConsoleClient client = consoleClient;
+        if(client == null) {
+            return CompletableFuture.failedFuture(new IOException(String.format(NOT_CONNECTED, host, port)));
+        }
+        return client.requestAsync(message, System.currentTimeMillis() + timeout).thenCompose(responseMessage ->
+                responseMessage.getThrowable() != null ?
+                        CompletableFuture.failedFuture(responseMessage.getThrowable()) :
+                        CompletableFuture.completedFuture(responseMessage.getValue()));
+    }
+
+    /**
+     * Returns the id of the session used to send the messages.
+     * @return Session id.
+     */
+    public UUID getSessionId() {
+        return sessionMetadata == null ? ServiceSession.getGuestSession().getId() : sessionMetadata.getId();
+    }
+}
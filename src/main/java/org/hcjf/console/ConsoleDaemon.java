@@ -0,0 +1,486 @@
+package org.hcjf.console;
+
+import org.hcjf.console.shell.Command;
+import org.hcjf.layers.query.Queryable;
+import org.hcjf.properties.SystemProperties;
+import org.hcjf.service.Service;
+import org.hcjf.service.ServiceSession;
+import org.hcjf.utils.Strings;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.ConnectException;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.channels.Channels;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.text.DateFormat;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * This class implements a daemon that keeps authenticated connections for each host and port, the
+ * daemon receives commands over a local unix domain socket and streams the result back.
+ * The protocol is line based, the request contains the host, the port, the command line
+ * and optionally the login parameters (field=value), ending with an empty line.
+ * The response starts with the status line ('0' if the command was successful and '1' otherwise)
+ * followed by the result of the command. If the server requires login and the request doesn't contain
+ * the login parameters then the status is '2' followed by the login fields and the secret login fields,
+ * and the client sends the request again with the values read from the terminal.
+ * @author javaito
+ */
+public class ConsoleDaemon {
+
+    private static final String SOCKET_FILE_NAME = "daemon.sock";
+    private static final String OWNER_ONLY_FILE = "rw-------";
+    private static final String OWNER_ONLY_DIRECTORY = "rwx------";
+    private static final String PRIVATE_DIRECTORY_PREFIX = "daemon-";
+    private static final String NOT_A_SOCKET = "%s exists and it's not a socket";
+    private static final String ALREADY_RUNNING = "There is a daemon listening on %s";
+    private static final String CONNECTION_KEY = "%s:%d";
+    private static final String LOGIN_PARAMETER_SEPARATOR = "=";
+    private static final String EVALUATE_COMMAND = "evaluate";
+    private static final String SUCCESS_STATUS = "0";
+    private static final String FAIL_STATUS = "1";
+    private static final String LOGIN_STATUS = "2";
+    private static final String FIELDS_SEPARATOR = ",";
+    private static final String READ_FIELD = "%s: ";
+    private static final String MISSING_LOGIN_FIELD = "Missing value for the login field %s";
+    private static final String LOGIN_REJECTED = "Login required";
+    private static final String LISTENING = "Daemon listening on %s\r\n";
+    private static final String ROW_INDEX = "%d: ";
+    private static final String FIELD_SEPARATOR = "  ";
+
+    private final Path socketPath;
+    private final Map<String, CompletableFuture<ConsoleConnection>> connections;
+    private final DateFormat dateFormat;
+
+    public ConsoleDaemon() {
+        this(getDefaultSocketPath());
+    }
+
+    public ConsoleDaemon(Path socketPath) {
+        this.socketPath = socketPath;
+        this.connections = new ConcurrentHashMap<>();
+        this.dateFormat = SystemProperties.getDateFormat(SystemProperties.HCJF_DEFAULT_DATE_FORMAT);
+    }
+
+    /**
+     * Returns the path of the socket file used when the path is not indicated.
+     * @return Socket path.
+     */
+    public static Path getDefaultSocketPath() {
+        String path = ConsoleProperties.get(ConsoleProperties.HCJF_CONSOLE_DAEMON_SOCKET, null);
+        return path == null ? ConsoleProperties.getHome().resolve(SOCKET_FILE_NAME) : Paths.get(path);
+    }
+
+    /**
+     * Binds the socket and blocks the current thread accepting requests. The socket is bound into a private
+     * directory and moved to its path after its permissions are restricted, then no other user can connect
+     * with the socket before the permissions are applied.
+     * @throws IOException
+     */
+    public void start() throws IOException {
+        Path parent = socketPath.toAbsolutePath().getParent();
+        if(Files.notExists(parent)) {
+            //Only the directories created by the daemon are restricted, an existing directory is never changed.
+            createPrivateDirectories(parent);
+        }
+        removeStaleSocket();
+        Path privateDirectory = createPrivateDirectory(parent);
+        try (ServerSocketChannel serverChannel = ServerSocketChannel.open(StandardProtocolFamily.UNIX)) {
+            Path boundPath = privateDirectory.resolve(SOCKET_FILE_NAME);
+            serverChannel.bind(UnixDomainSocketAddress.of(boundPath));
+            try {
+                //The authenticated connections are available for any process that can open the socket.
+                Files.setPosixFilePermissions(boundPath, PosixFilePermissions.fromString(OWNER_ONLY_FILE));
+            } catch (UnsupportedOperationException ex) {
+            }
+            Files.move(boundPath, socketPath, StandardCopyOption.ATOMIC_MOVE);
+            Files.deleteIfExists(privateDirectory);
+            Object socketKey = Files.readAttributes(socketPath, BasicFileAttributes.class, LinkOption.NOFOLLOW_LINKS).fileKey();
+            try {
+                System.out.printf(LISTENING, socketPath);
+                while (!Thread.currentThread().isInterrupted()) {
+                    SocketChannel channel = serverChannel.accept();
+                    Service.run(() -> handle(channel), ServiceSession.getGuestSession());
+                }
+            } finally {
+                //The socket is removed only if it's still the socket of this daemon.
+                BasicFileAttributes attributes = readAttributes(socketPath);
+                if(attributes != null && attributes.isOther() && Objects.equals(socketKey, attributes.fileKey())) {
+                    Files.deleteIfExists(socketPath);
+                }
+            }
+        } finally {
+            Files.deleteIfExists(privateDirectory.resolve(SOCKET_FILE_NAME));
+            Files.deleteIfExists(privateDirectory);
+        }
+    }
+
+    /**
+     * Removes the socket file of a daemon that is not running anymore. If the path exists and is not a socket,
+     * or if there is a daemon listening on the socket, then the daemon doesn't start.
+     * @throws IOException
+     */
+    private void removeStaleSocket() throws IOException {
+        BasicFileAttributes attributes = readAttributes(socketPath);
+        if(attributes != null) {
+            if(!attributes.isOther()) {
+                throw new IOException(String.format(NOT_A_SOCKET, socketPath));
+            }
+            boolean running;
+            try (SocketChannel channel = SocketChannel.open(UnixDomainSocketAddress.of(socketPath))) {
+                running = channel.isConnected();
+            } catch (ConnectException ex) {
+                running = false;
+            }
+            if(running) {
+                throw new IOException(String.format(ALREADY_RUNNING, socketPath));
+            }
+            //Nobody is listening, then the socket is stale.
+            Files.deleteIfExists(socketPath);
+        }
+    }
+
+    /**
+     * Returns the attributes of the file without follow the links.
+     * @param path Path of the file.
+     * @return Attributes of the file or null if the file doesn't exist.
+     * @throws IOException
+     */
+    private static BasicFileAttributes readAttributes(Path path) throws IOException {
+        BasicFileAttributes result;
+        try {
+            result = Files.readAttributes(path, BasicFileAttributes.class, LinkOption.NOFOLLOW_LINKS);
+        } catch (NoSuchFileException ex) {
+            result = null;
+        }
+        return result;
+    }
+
+    /**
+     * Creates the directories accessible only by the owner, the permissions are set when the directories
+     * are created.
+     * @param directory Path of the directory.
+     * @throws IOException
+     */
+    private static void createPrivateDirectories(Path directory) throws IOException {
+        try {
+            Files.createDirectories(directory, PosixFilePermissions.asFileAttribute(
+                    PosixFilePermissions.fromString(OWNER_ONLY_DIRECTORY)));
+        } catch (UnsupportedOperationException ex) {
+            Files.createDirectories(directory);
+        }
+    }
+
+    /**
+     * Creates a new directory accessible only by the owner, used to bind the socket.
+     * @param parent Directory where the new directory is created.
+     * @return Path of the new directory.
+     * @throws IOException
+     */
+    private static Path createPrivateDirectory(Path parent) throws IOException {
+        Path result;
+        try {
+            result = Files.createTempDirectory(parent, PRIVATE_DIRECTORY_PREFIX, PosixFilePermissions.asFileAttribute(
+                    PosixFilePermissions.fromString(OWNER_ONLY_DIRECTORY)));
+        } catch (UnsupportedOperationException ex) {
+            result = Files.createTempDirectory(parent, PRIVATE_DIRECTORY_PREFIX);
+        }
+        return result;
+    }
+
+    /**
+     * Reads a request from the channel, executes the command and writes the response.
+     * @param channel Channel of the local client.
+     */
+    private void handle(SocketChannel channel) {
+        try (SocketChannel socketChannel = channel) {
+            BufferedReader reader = new BufferedReader(new InputStreamReader(
+                    Channels.newInputStream(socketChannel), StandardCharsets.UTF_8));
+            Writer writer = new BufferedWriter(new OutputStreamWriter(
+                    Channels.newOutputStream(socketChannel), StandardCharsets.UTF_8));
+            try {
+                String host = reader.readLine();
+                Integer port = Integer.parseInt(reader.readLine());
+                String line = reader.readLine();
+                Map<String,Object> loginParameters = new HashMap<>();
+                String parameter;
+                while ((parameter = reader.readLine()) != null && !parameter.isEmpty()) {
+                    int index = parameter.indexOf(LOGIN_PARAMETER_SEPARATOR);
+                    loginParameters.put(parameter.substring(0, index), parameter.substring(index + 1));
+                }
+
+                ConsoleConnection connection = getConnection(host, port);
+                boolean logged = true;
+                synchronized (connection) {
+                    if (connection.isLoginRequired()) {
+                        if (loginParameters.isEmpty()) {
+                            logged = false;
+                        } else {
+                            connection.login(loginParameters);
+                        }
+                    }
+                }
+
+                if(logged) {
+                    Object result = execute(connection, new Command(line, dateFormat));
+                    writer.write(SUCCESS_STATUS);
+                    writer.write(Strings.CARRIAGE_RETURN_AND_LINE_SEPARATOR);
+                    write(writer, result);
+                } else {
+                    writer.write(LOGIN_STATUS);
+                    writer.write(Strings.CARRIAGE_RETURN_AND_LINE_SEPARATOR);
+                    writer.write(String.join(FIELDS_SEPARATOR, connection.getMetadata().getLoginFields()));
+                    writer.write(Strings.CARRIAGE_RETURN_AND_LINE_SEPARATOR);
+                    writer.write(String.join(FIELDS_SEPARATOR, connection.getMetadata().getLoginSecretFields()));
+                    writer.write(Strings.CARRIAGE_RETURN_AND_LINE_SEPARATOR);
+                }
+            } catch (Throwable throwable) {
+                writer.write(FAIL_STATUS);
+                writer.write(Strings.CARRIAGE_RETURN_AND_LINE_SEPARATOR);
+                writer.write(Objects.toString(throwable.getMessage(), throwable.getClass().getName()));
+                writer.write(Strings.CARRIAGE_RETURN_AND_LINE_SEPARATOR);
+            }
+            writer.flush();
+        } catch (IOException ex) {
+        }
+    }
+
+    /**
+     * Returns the connection associated to the host and port, if the connection doesn't exist or
+     * is disconnected then a new connection is created. Only the requests for the same host and port
+     * wait while the connection is created.
+     * @param host Host of the server.
+     * @param port Port of the server.
+     * @return Connection instance.
+     * @throws Throwable
+     */
+    private ConsoleConnection getConnection(String host, Integer port) throws Throwable {
+        String key = String.format(CONNECTION_KEY, host, port);
+        CompletableFuture<ConsoleConnection> created = new CompletableFuture<>();
+        CompletableFuture<ConsoleConnection> future = connections.compute(key,
+                (K, current) -> isReusable(current) ? current : created);
+        if(future == created) {
+            try {
+                ConsoleConnection connection = new ConsoleConnection(host, port);
+                connection.connect();
+                created.complete(connection);
+            } catch (Throwable throwable) {
+                connections.remove(key, created);
+                created.completeExceptionally(throwable);
+            }
+        }
+        try {
+            return future.join();
+        } catch (CompletionException ex) {
+            throw ex.getCause();
+        }
+    }
+
+    /**
+     * Verify if the connection stored for a key can be used by a new request.
+     * @param future Future of the connection, could be null.
+     * @return Returns true if the connection is being created or it's connected.
+     */
+    private boolean isReusable(CompletableFuture<ConsoleConnection> future) {
+        return future != null && (!future.isDone() ||
+                (!future.isCompletedExceptionally() && future.join().isConnected()));
+    }
+
+    /**
+     * Executes the command using the connection.
+     * @param connection Connection instance.
+     * @param command Command to execute.
+     * @return Result of the command.
+     * @throws Throwable
+     */
+    private Object execute(ConsoleConnection connection, Command command) throws Throwable {
+        Object result;
+        if(command.getCommand().equals(EVALUATE_COMMAND) && command.getParameters().size() > 0) {
+            Queryable queryable = QueryCache.compile((String) command.getParameters().get(0),
+                    command.getParameters().subList(1, command.getParameters().size()));
+            result = connection.evaluate(queryable);
+        } else {
+            result = connection.execute(command.getCommand(), command.getParameters());
+        }
+        return result;
+    }
+
+    /**
+     * Writes the result, each element of a collection is written as one line.
+     * @param writer Writer of the channel.
+     * @param result Result to write.
+     * @throws IOException
+     */
+    private void write(Writer writer, Object result) throws IOException {
+        if(result instanceof Collection) {
+            int index = 1;
+            for(Object row : (Collection) result) {
+                writer.write(String.format(ROW_INDEX, index++));
+                if(row instanceof Map) {
+                    for(Object entry : ((Map) row).entrySet()) {
+                        writer.write(Objects.toString(((Map.Entry) entry).getKey()));
+                        writer.write(Strings.OBJETC_FIELD_SEPARATOR);
+                        writer.write(Objects.toString(((Map.Entry) entry).getValue()));
+                        writer.write(FIELD_SEPARATOR);
+                    }
+                } else {
+                    writer.write(Objects.toString(row));
+                }
+                writer.write(Strings.CARRIAGE_RETURN_AND_LINE_SEPARATOR);
+            }
+        } else {
+            writer.write(Objects.toString(result));
+            writer.write(Strings.CARRIAGE_RETURN_AND_LINE_SEPARATOR);
+        }
+    }
+
+    /**
+     * Sends a command to the daemon and copies the response into the standard output. If the daemon
+     * requires login then the login parameters are read from the terminal and the command is sent again.
+     * @param socketPath Path of the daemon socket.
+     * @param host Host of the server.
+     * @param port Port of the server.
+     * @param line Command line.
+     * @return Returns the status of the command, zero if the command was successful.
+     * @throws IOException
+     */
+    public static int send(Path socketPath, String host, Integer port, String line) throws IOException {
+        Integer status = send(socketPath, host, port, line, Collections.emptyMap());
+        if(status == null) {
+            throw new IOException(LOGIN_REJECTED);
+        }
+        return status;
+    }
+
+    /**
+     * Sends a command to the daemon with the login parameters and copies the response into the standard output.
+     * @param socketPath Path of the daemon socket.
+     * @param host Host of the server.
+     * @param port Port of the server.
+     * @param line Command line.
+     * @param loginParameters Login parameters, empty if the daemon is already logged.
+     * @return Returns the status of the command or null if the daemon requires login again.
+     * @throws IOException
+     */
+    private static Integer send(Path socketPath, String host, Integer port, String line,
+                                Map<String,Object> loginParameters) throws IOException {
+        Integer status;
+        try (SocketChannel channel = SocketChannel.open(UnixDomainSocketAddress.of(socketPath))) {
+            Writer writer = new BufferedWriter(new OutputStreamWriter(
+                    Channels.newOutputStream(channel), StandardCharsets.UTF_8));
+            writer.write(host);
+            writer.write(Strings.CARRIAGE_RETURN_AND_LINE_SEPARATOR);
+            writer.write(port.toString());
+            writer.write(Strings.CARRIAGE_RETURN_AND_LINE_SEPARATOR);
+            writer.write(line);
+            writer.write(Strings.CARRIAGE_RETURN_AND_LINE_SEPARATOR);
+            for(Map.Entry<String,Object> loginParameter : loginParameters.entrySet()) {
+                writer.write(loginParameter.getKey());
+                writer.write(LOGIN_PARAMETER_SEPARATOR);
+                writer.write(Objects.toString(loginParameter.getValue()));
+                writer.write(Strings.CARRIAGE_RETURN_AND_LINE_SEPARATOR);
+            }
+            writer.write(Strings.CARRIAGE_RETURN_AND_LINE_SEPARATOR);
+            writer.flush();
+
+            BufferedReader reader = new BufferedReader(new InputStreamReader(
+                    Channels.newInputStream(channel), StandardCharsets.UTF_8));
+            String statusLine = reader.readLine();
+            if(LOGIN_STATUS.equals(statusLine)) {
+                List<String> fields = splitFields(reader.readLine());
+                List<String> secretFields = splitFields(reader.readLine());
+                status = loginParameters.isEmpty() ? send(socketPath, host, port, line,
+                        readLoginParameters(fields, secretFields)) : null;
+            } else {
+                status = SUCCESS_STATUS.equals(statusLine) ? 0 : 1;
+                char[] buffer = new char[8192];
+                int size;
+                while ((size = reader.read(buffer)) != -1) {
+                    System.out.print(new String(buffer, 0, size));
+                }
+                System.out.flush();
+            }
+        }
+        return status;
+    }
+
+    /**
+     * Reads the values of the login fields from the terminal, the secret fields are read without echo.
+     * If the process has not a terminal then the values are read from the standard input, one line
+     * by field, first the fields and then the secret fields.
+     * @param fields Login fields.
+     * @param secretFields Secret login fields.
+     * @return Login parameters.
+     * @throws IOException
+     */
+    public static Map<String,Object> readLoginParameters(List<String> fields, List<String> secretFields) throws IOException {
+        Map<String,Object> result = new LinkedHashMap<>();
+        java.io.Console terminal = System.console();
+        BufferedReader input = terminal == null ?
+                new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8)) : null;
+        for(String field : fields) {
+            result.put(field, requireValue(field, terminal == null ?
+                    input.readLine() : terminal.readLine(READ_FIELD, field)));
+        }
+        for(String field : secretFields) {
+            String value;
+            if(terminal == null) {
+                value = input.readLine();
+            } else {
+                char[] secret = terminal.readPassword(READ_FIELD, field);
+                value = secret == null ? null : new String(secret);
+            }
+            result.put(field, requireValue(field, value));
+        }
+        return result;
+    }
+
+    /**
+     * Verify that the value of the login field was read.
+     * @param field Login field.
+     * @param value Value read, null if the input ends.
+     * @return Value of the field.
+     * @throws IOException if the value is null.
+     */
+    private static String requireValue(String field, String value) throws IOException {
+        if(value == null) {
+            throw new IOException(String.format(MISSING_LOGIN_FIELD, field));
+        }
+        return value;
+    }
+
+    /**
+     * Returns the fields of a line separated by commas.
+     * @param line Line with the fields.
+     * @return List of fields, empty if the line is null or empty.
+     */
+    private static List<String> splitFields(String line) {
+        return line == null || line.isEmpty() ? Collections.emptyList() : Arrays.asList(line.split(FIELDS_SEPARATOR));
+    }
+}
@@ -0,0 +1,96 @@
+package org.hcjf.console;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * This class contains the names and the default values of the system properties
+ * used to configure the console, all the values could be overwritten using -Dname=value.
+ * @author javaito
+ */
+public final class ConsoleProperties {
+
+    public static final String HCJF_CONSOLE_HOME = "hcjf.console.home";
+    public static final String HCJF_CONSOLE_FAST_START = "hcjf.console.fast.start";
+    public static final String HCJF_CONSOLE_DAEMON_SOCKET = "hcjf.console.daemon.socket";
+    public static final String HCJF_CONSOLE_COMPILED_QUERIES_CACHE_SIZE = "hcjf.console.compiled.queries.cache.size";
+    public static final String HCJF_CONSOLE_TIMEOUT = "hcjf.console.timeout";
+    public static final String HCJF_CONSOLE_CONNECT_TIMEOUT = "hcjf.console.connect.timeout";
+    public static final String HCJF_CONSOLE_CANCEL_COMMAND = "hcjf.console.cancel.command";
+    public static final String HCJF_CONSOLE_ADAPTIVE_TIMEOUT = "hcjf.console.adaptive.timeout";
+    public static final String HCJF_CONSOLE_ADAPTIVE_TIMEOUT_FACTOR = "hcjf.console.adaptive.timeout.factor";
+    public static final String HCJF_CONSOLE_ADAPTIVE_TIMEOUT_MIN = "hcjf.console.adaptive.timeout.min";
+    public static final String HCJF_CONSOLE_SPILL_THRESHOLD = "hcjf.console.spill.threshold";
+    public static final String HCJF_CONSOLE_LONG_TIMEOUT_FACTOR = "hcjf.console.long.timeout.factor";
+    public static final String HCJF_CONSOLE_PARALLEL_RENDER_THRESHOLD = "hcjf.console.parallel.render.threshold";
+    public static final String HCJF_CONSOLE_SWEEP_WINDOW = "hcjf.console.sweep.window";
+    public static final String HCJF_CONSOLE_SESSION_TTL = "hcjf.console.session.ttl";
+    public static final String HCJF_CONSOLE_PING_INTERVAL = "hcjf.console.ping.interval";
+    public static final String HCJF_CONSOLE_PING_MAX_MISSED = "hcjf.console.ping.max.missed";
+    public static final String HCJF_CONSOLE_PING_PROMPT = "hcjf.console.ping.prompt";
+    public static final String HCJF_CONSOLE_CONNECTIONS = "hcjf.console.connections";
+    public static final String HCJF_CONSOLE_BULK_THRESHOLD = "hcjf.console.bulk.threshold";
+    public static final String HCJF_CONSOLE_BULK_RATE = "hcjf.console.bulk.rate";
+
+    private static final String DEFAULT_HOME_DIRECTORY = ".hcjf-console";
+    private static final String USER_HOME = "user.home";
+
+    private ConsoleProperties() {
+    }
+
+    /**
+     * Returns the directory where the console stores all the local information (caches, history, etc.).
+     * @return Console home directory.
+     */
+    public static Path getHome() {
+        String home = System.getProperty(HCJF_CONSOLE_HOME);
+        Path result;
+        if(home == null) {
+            result = Paths.get(System.getProperty(USER_HOME), DEFAULT_HOME_DIRECTORY);
+        } else {
+            result = Paths.get(home);
+        }
+        return result;
+    }
+
+    /**
+     * Returns the value of the property as string.
+     * @param propertyName Name of the property.
+     * @param defaultValue Value returned if the property is not defined.
+     * @return Property value.
+     */
+    public static String get(String propertyName, String defaultValue) {
+        return System.getProperty(propertyName, defaultValue);
+    }
+
+    /**
+     * Returns the value of the property as boolean.
+     * @param propertyName Name of the property.
+     * @param defaultValue Value returned if the property is not defined.
+     * @return Property value.
+     */
+    public static boolean getBoolean(String propertyName, boolean defaultValue) {
+        String value = System.getProperty(propertyName);
+        return value == null ? defaultValue : Boolean.parseBoolean(value.trim());
+    }
+
+    /**
+     * Returns the value of the property as integer.
+     * @param propertyName Name of the property.
+     * @param defaultValue Value returned if the property is not defined or is not a number.
+     * @return Property value.
+     */
+    public static int getInteger(String propertyName, int defaultValue) {
+        return Integer.getInteger(propertyName, defaultValue);
+    }
+
+    /**
+     * Returns the value of the property as long.
+     * @param propertyName Name of the property.
+     * @param defaultValue Value returned if the property is not defined or is not a number.
+     * @return Property value.
+     */
+    public static long getLong(String propertyName, long defaultValue) {
+        return Long.getLong(propertyName, defaultValue);
+    }
+}
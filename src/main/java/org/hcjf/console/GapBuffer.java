@@ -0,0 +1,199 @@
+package org.hcjf.console;
+
+/**
+ * This class implements a text buffer with a gap at the cursor position. The insertions and deletions
+ * at the cursor only change the limits of the gap, then the cost of each key doesn't depend on the length
+ * of the text; moving the cursor copies only the characters between the old and the new position.
+ * @author javaito
+ */
+public class GapBuffer implements CharSequence {
+
+    private static final int INITIAL_CAPACITY = 64;
+
+    private char[] buffer;
+    private int gapStart;
+    private int gapEnd;
+
+    public GapBuffer() {
+        buffer = new char[INITIAL_CAPACITY];
+        gapStart = 0;
+        gapEnd = buffer.length;
+    }
+
+    /**
+     * Returns the number of characters into the buffer.
+     * @return Length of the text.
+     */
+    @Override
+    public int length() {
+        return buffer.length - (gapEnd - gapStart);
+    }
+
+    /**
+     * Returns the character at the specific position of the text.
+     * @param index Position of the character.
+     * @return Character instance.
+     */
+    @Override
+    public char charAt(int index) {
+        if(index < 0 || index >= length()) {
+            throw new IndexOutOfBoundsException(Integer.toString(index));
+        }
+        return index < gapStart ? buffer[index] : buffer[index + gapEnd - gapStart];
+    }
+
+    @Override
+    public CharSequence subSequence(int start, int end) {
+        StringBuilder result = new StringBuilder(end - start);
+        for (int i = start; i < end; i++) {
+            result.append(charAt(i));
+        }
+        return result.toString();
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder result = new StringBuilder(length());
+        result.append(buffer, 0, gapStart);
+        result.append(buffer, gapEnd, buffer.length - gapEnd);
+        return result.toString();
+    }
+
+    /**
+     * Returns the cursor position, the insertions and deletions are made at this position.
+     * @return Cursor position.
+     */
+    public int getPosition() {
+        return gapStart;
+    }
+
+    /**
+     * Moves the cursor to the specific position.
+     * @param position New position of the cursor.
+     */
+    public void moveTo(int position) {
+        if(position < 0 || position > length()) {
+            throw new IndexOutOfBoundsException(Integer.toString(position));
+        }
+        if(position < gapStart) {
+            int count = gapStart - position;
+            System.arraycopy(buffer, position, buffer, gapEnd - count, count);
+            gapStart -= count;
+            gapEnd -= count;
+        } else if(position > gapStart) {
+            int count = position - gapStart;
+            System.arraycopy(buffer, gapEnd, buffer, gapStart, count);
+            gapStart += count;
+            gapEnd += count;
+        }
+    }
+
+    /**
+     * Inserts the character at the cursor position and moves the cursor after the character.
+     * @param character Character to insert.
+     */
+    public void insert(char character) {
+        ensureGap(1);
+        buffer[gapStart++] = character;
+    }
+
+    /**
+     * Inserts the text at the cursor position and moves the cursor after the text.
+     * @param value Text to insert.
+     */
+    public void insert(CharSequence value) {
+        ensureGap(value.length());
+        for (int i = 0; i < value.length(); i++) {
+            buffer[gapStart++] = value.charAt(i);
+        }
+    }
+
+    /**
+     * Removes characters before the cursor.
+     * @param count Number of characters to remove.
+     * @return Number of removed characters.
+     */
+    public int deleteBackward(int count) {
+        int result = Math.min(count, gapStart);
+        gapStart -= result;
+        return result;
+    }
+
+    /**
+     * Removes characters after the cursor.
+     * @param count Number of characters to remove.
+     * @return Number of removed characters.
+     */
+    public int deleteForward(int count) {
+        int result = Math.min(count, buffer.length - gapEnd);
+        gapEnd += result;
+        return result;
+    }
+
+    /**
+     * Replaces all the text and moves the cursor to the end.
+     * @param value New text.
+     */
+    public void set(CharSequence value) {
+        clear();
+        insert(value);
+    }
+
+    /**
+     * Removes all the text.
+     */
+    public void clear() {
+        gapStart = 0;
+        gapEnd = buffer.length;
+    }
+
+    /**
+     * Returns the position of the first occurrence of the character starting at the specific position.
+     * @param character Character to find.
+     * @param from First position to verify.
+     * @return Position of the character or -1 if the character is not found.
+     */
+    public int indexOf(char character, int from) {
+        int result = -1;
+        for (int i = Math.max(0, from); i < length(); i++) {
+            if(charAt(i) == character) {
+                result = i;
+                break;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns the position of the last occurrence of the character starting at the specific position and
+     * walking backward.
+     * @param character Character to find.
+     * @param from First position to verify.
+     * @return Position of the character or -1 if the character is not found.
+     */
+    public int lastIndexOf(char character, int from) {
+        int result = -1;
+        for (int i = Math.min(from, length() - 1); i >= 0; i--) {
+            if(charAt(i) == character) {
+                result = i;
+                break;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Grows the buffer if the gap is smaller than the size.
+     * @param size Number of characters that the gap must contain.
+     */
+    private void ensureGap(int size) {
+        if(gapEnd - gapStart < size) {
+            int tail = buffer.length - gapEnd;
+            char[] newBuffer = new char[Math.max(buffer.length * 2, length() + size + INITIAL_CAPACITY)];
+            System.arraycopy(buffer, 0, newBuffer, 0, gapStart);
+            System.arraycopy(buffer, gapEnd, newBuffer, newBuffer.length - tail, tail);
+            gapEnd = newBuffer.length - tail;
+            buffer = newBuffer;
+        }
+    }
+}
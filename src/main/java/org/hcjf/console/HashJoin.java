@@ -0,0 +1,269 @@
+package org.hcjf.console;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * This class implements an inner join between two result sets evaluated by different queries, maybe into
+ * different servers. The hash table is built with the smaller result set and the other result set is
+ * streamed over the table. If the estimated size of the build side is greater than the spill threshold then
+ * both sides are partitioned by the hash of the key into temporary files and each pair of partitions is
+ * joined in memory.
+ * The joined row contains the fields of the left row and the fields of the right row, if a field of the
+ * right row has the same name that a field of the left row then the field is stored with the prefix 'right.'.
+ * @author javaito
+ */
+public class HashJoin {
+
+    private static final String RIGHT_PREFIX = "right.";
+    private static final String PARTITION_FILE_PREFIX = "join-";
+    private static final String PARTITION_FILE_SUFFIX = ".partition";
+    private static final String SPILL_DIRECTORY = "spill";
+    private static final int WRITE_BUFFER_SIZE = 1 << 16;
+    private static final int MAX_PARTITIONS = 1024;
+
+    private final String leftField;
+    private final String rightField;
+    private final long threshold;
+    private final Path directory;
+    private int partitions;
+
+    public HashJoin(String leftField, String rightField) {
+        this(leftField, rightField,
+                ConsoleProperties.getLong(ConsoleProperties.HCJF_CONSOLE_SPILL_THRESHOLD, 64L * 1024 * 1024),
+                ConsoleProperties.getHome().resolve(SPILL_DIRECTORY));
+    }
+
+    public HashJoin(String leftField, String rightField, long threshold, Path directory) {
+        this.leftField = leftField;
+        this.rightField = rightField;
+        this.threshold = threshold;
+        this.directory = directory;
+    }
+
+    /**
+     * Returns the number of partitions used by the last join, one if the join was resolved in memory.
+     * @return Number of partitions.
+     */
+    public int getPartitions() {
+        return partitions;
+    }
+
+    /**
+     * Joins the rows of both sides, the rows without value for the field are not joined.
+     * @param left Rows of the left side.
+     * @param right Rows of the right side.
+     * @return Joined rows, in the order of the streamed side into each partition.
+     * @throws IOException
+     */
+    public List<Object> join(Collection<?> left, Collection<?> right) throws IOException {
+        boolean buildLeft = left.size() <= right.size();
+        Collection<?> build = buildLeft ? left : right;
+        Collection<?> probe = buildLeft ? right : left;
+        List<Object> result = new ArrayList<>();
+        long buildBytes = build.isEmpty() ? 0 : SpilledResultSet.estimateBytes(build);
+        if(buildBytes <= threshold) {
+            partitions = 1;
+            join(build, probe, buildLeft, result);
+        } else {
+            //The number of partitions is a power of two, then the partition is obtained using a mask.
+            partitions = Integer.highestOneBit((int) Math.min(MAX_PARTITIONS, buildBytes / threshold + 1)) << 1;
+            Files.createDirectories(directory);
+            Path[] buildPartitions = partition(build, buildLeft ? leftField : rightField);
+            try {
+                Path[] probePartitions = partition(probe, buildLeft ? rightField : leftField);
+                try {
+                    for (int i = 0; i < partitions; i++) {
+                        List<Object> buildRows = read(buildPartitions[i]);
+                        if(!buildRows.isEmpty()) {
+                            join(buildRows, read(probePartitions[i]), buildLeft, result);
+                        }
+                    }
+                } finally {
+                    delete(probePartitions);
+                }
+            } finally {
+                delete(buildPartitions);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Builds the hash table with the build rows and adds the joined rows for each probe row.
+     * @param build Rows of the build side.
+     * @param probe Rows of the probe side.
+     * @param buildLeft True if the build side is the left side.
+     * @param result List to add the joined rows.
+     */
+    private void join(Collection<?> build, Collection<?> probe, boolean buildLeft, List<Object> result) {
+        String buildField = buildLeft ? leftField : rightField;
+        String probeField = buildLeft ? rightField : leftField;
+        Map<Object, List<Map<?,?>>> table = new HashMap<>();
+        for(Object row : build) {
+            Object key = getKey(row, buildField);
+            if(key != null) {
+                table.computeIfAbsent(key, K -> new ArrayList<>(1)).add((Map<?,?>) row);
+            }
+        }
+        for(Object row : probe) {
+            Object key = getKey(row, probeField);
+            if(key != null) {
+                List<Map<?,?>> matches = table.get(key);
+                if(matches != null) {
+                    for(Map<?,?> match : matches) {
+                        result.add(buildLeft ? merge(match, (Map<?,?>) row) : merge((Map<?,?>) row, match));
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Creates the joined row.
+     * @param left Left row.
+     * @param right Right row.
+     * @return Joined row.
+     */
+    private Map<String,Object> merge(Map<?,?> left, Map<?,?> right) {
+        Map<String,Object> result = new LinkedHashMap<>();
+        for(Map.Entry<?,?> entry : left.entrySet()) {
+            result.put(String.valueOf(entry.getKey()), entry.getValue());
+        }
+        for(Map.Entry<?,?> entry : right.entrySet()) {
+            String field = String.valueOf(entry.getKey());
+            if(result.containsKey(field)) {
+                result.put(RIGHT_PREFIX + field, entry.getValue());
+            } else {
+                result.put(field, entry.getValue());
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns the value of the field normalized in order to match the values of the same number or id
+     * returned with different types by each server.
+     * @param row Row instance.
+     * @param field Name of the field.
+     * @return Key value or null if the row has no value for the field.
+     */
+    private Object getKey(Object row, String field) {
+        Object result = null;
+        if(row instanceof Map) {
+            result = ((Map<?,?>) row).get(field);
+            if(result instanceof Long || result instanceof Integer || result instanceof Short || result instanceof Byte) {
+                result = ((Number) result).longValue();
+            } else if(result instanceof Number) {
+                double value = ((Number) result).doubleValue();
+                result = value == Math.rint(value) && Math.abs(value) < Long.MAX_VALUE ? (Object) (long) value : (Object) value;
+            } else if(result instanceof UUID) {
+                result = result.toString();
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Writes the rows into one file for each partition.
+     * @param rows Rows to write.
+     * @param field Name of the key field.
+     * @return Paths of the partition files.
+     * @throws IOException
+     */
+    private Path[] partition(Collection<?> rows, String field) throws IOException {
+        Path[] paths = new Path[partitions];
+        DataOutputStream[] outputs = new DataOutputStream[partitions];
+        try {
+            for (int i = 0; i < partitions; i++) {
+                paths[i] = Files.createTempFile(directory, PARTITION_FILE_PREFIX, PARTITION_FILE_SUFFIX);
+                outputs[i] = new DataOutputStream(new BufferedOutputStream(
+                        Files.newOutputStream(paths[i], StandardOpenOption.WRITE), WRITE_BUFFER_SIZE));
+            }
+            for(Object row : rows) {
+                Object key = getKey(row, field);
+                if(key != null) {
+                    int hash = key.hashCode();
+                    RowCodec.encode(row, outputs[(hash ^ (hash >>> 16)) & (partitions - 1)]);
+                }
+            }
+        } catch (IOException | RuntimeException ex) {
+            try {
+                close(outputs);
+            } catch (IOException closeException) {
+            }
+            delete(paths);
+            throw ex;
+        }
+        close(outputs);
+        return paths;
+    }
+
+    /**
+     * Reads all the rows of a partition file.
+     * @param path Path of the partition.
+     * @return Rows of the partition.
+     * @throws IOException
+     */
+    private List<Object> read(Path path) throws IOException {
+        List<Object> result = new ArrayList<>();
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            if(channel.size() > 0) {
+                ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+                while (buffer.hasRemaining()) {
+                    result.add(RowCodec.decode(buffer));
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Closes the outputs of the partitions.
+     * @param outputs Partition outputs.
+     * @throws IOException
+     */
+    private void close(DataOutputStream[] outputs) throws IOException {
+        IOException exception = null;
+        for(DataOutputStream output : outputs) {
+            if(output != null) {
+                try {
+                    output.close();
+                } catch (IOException ex) {
+                    exception = ex;
+                }
+            }
+        }
+        if(exception != null) {
+            throw exception;
+        }
+    }
+
+    /**
+     * Removes the partition files.
+     * @param paths Paths of the partitions.
+     */
+    private void delete(Path[] paths) {
+        for(Path path : paths) {
+            if(path != null) {
+                try {
+                    Files.deleteIfExists(path);
+                } catch (IOException ex) {
+                }
+            }
+        }
+    }
+}
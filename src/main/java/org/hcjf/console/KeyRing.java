@@ -0,0 +1,118 @@
+package org.hcjf.console;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * This class implements a bounded queue of key codes between one producer thread (the thread decoding the
+ * input) and one consumer thread (the thread editing the line). The queue is a ring without locks: only the
+ * producer writes the tail and only the consumer writes the head, then each side publishes its index with
+ * an ordered write and reads the index of the other side with an acquire read. The consumer parks when the
+ * queue is empty and the producer unparks it only if it's parked, the waiter and the tail are written and
+ * read with volatile accesses in order to never miss a wake up.
+ * @author javaito
+ */
+public class KeyRing {
+
+    /**
+     * Value returned when there are not keys into the ring, the nul character is never queued.
+     */
+    public static final long NO_KEY = 0L;
+
+    private static final int SPINS = 64;
+
+    private final long[] keys;
+    private final int mask;
+    private final AtomicLong head;
+    private final AtomicLong tail;
+    private volatile Thread waiter;
+
+    /**
+     * Creates the ring.
+     * @param capacity Number of keys, rounded up to a power of two.
+     */
+    public KeyRing(int capacity) {
+        int size = Integer.highestOneBit(Math.max(2, capacity - 1)) << 1;
+        this.keys = new long[size];
+        this.mask = size - 1;
+        this.head = new AtomicLong();
+        this.tail = new AtomicLong();
+    }
+
+    /**
+     * Adds a key at the end of the ring, this method must be called only by the producer thread.
+     * @param key Key code.
+     * @return Returns false if the ring is full.
+     */
+    public boolean offer(long key) {
+        long currentTail = tail.getPlain();
+        if(currentTail - head.getAcquire() == keys.length) {
+            return false;
+        }
+        keys[(int) currentTail & mask] = key;
+        //Volatile write, the read of the waiter can't be reordered before the publication of the key.
+        tail.set(currentTail + 1);
+        Thread consumer = waiter;
+        if(consumer != null) {
+            LockSupport.unpark(consumer);
+        }
+        return true;
+    }
+
+    /**
+     * Removes the first key of the ring, this method must be called only by the consumer thread.
+     * @return Key code or {@link #NO_KEY} if the ring is empty.
+     */
+    public long poll() {
+        long currentHead = head.getPlain();
+        if(currentHead == tail.getAcquire()) {
+            return NO_KEY;
+        }
+        long result = keys[(int) currentHead & mask];
+        head.setRelease(currentHead + 1);
+        return result;
+    }
+
+    /**
+     * Removes the first key of the ring blocking the consumer thread until a key is available.
+     * @param timeout Max time to wait in milliseconds, zero to wait without timeout.
+     * @return Key code or {@link #NO_KEY} if the timeout is reached or the thread is interrupted.
+     */
+    public long take(long timeout) {
+        long result = poll();
+        long deadline = System.nanoTime() + timeout * 1_000_000L;
+        for (int i = 0; result == NO_KEY && i < SPINS; i++) {
+            Thread.onSpinWait();
+            result = poll();
+        }
+        while(result == NO_KEY && !Thread.currentThread().isInterrupted()) {
+            waiter = Thread.currentThread();
+            //The ring is verified again after publish the waiter, the tail is read with a volatile read
+            //because an acquire read could be reordered before the write of the waiter, then the producer
+            //could miss the waiter while this thread misses the key and parks forever.
+            result = tail.get() == head.getPlain() ? NO_KEY : poll();
+            if(result == NO_KEY) {
+                if(timeout > 0) {
+                    long remaining = deadline - System.nanoTime();
+                    if(remaining <= 0) {
+                        break;
+                    }
+                    LockSupport.parkNanos(this, remaining);
+                } else {
+                    LockSupport.park(this);
+                }
+                result = poll();
+            }
+        }
+        waiter = null;
+        return result;
+    }
+
+    /**
+     * Returns the number of keys into the ring.
+     * @return Number of keys.
+     */
+    public int size() {
+        return (int) (tail.getAcquire() - head.getAcquire());
+    }
+}
@@ -0,0 +1,586 @@
+package org.hcjf.console;
+
+import org.hcjf.utils.Strings;
+
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * This class implements the multi-line editor of the console input. The text is stored into a gap buffer
+ * and the editor keeps the rows printed into the terminal, each render regenerates the rows only from the
+ * first modified character until the rows are the same that the printed rows, and only the cells that are
+ * different from the printed cells are written.
+ * The first row starts with the prompt and the rest of the lines are indented using the width of the prompt.
+ * A prompt wider than the terminal is wrapped like the text, then the row of a position is given by the width
+ * of the prompt plus the position. A character inserted into the middle of a line shifts the rest of the
+ * line, then the cells from the character to the end of the line are written again.
+ * @author javaito
+ */
+public class LineEditor {
+
+    private static final char LINE_SEPARATOR = '\n';
+    private static final char SECRET_CHARACTER = '*';
+    private static final char INDENT_CHARACTER = ' ';
+    private static final char WORD_CHARACTER = '_';
+    private static final String CURSOR_UP = "\033[%dA";
+    private static final String CURSOR_DOWN = "\033[%dB";
+    private static final String CURSOR_FORWARD = "\033[%dC";
+    private static final String ERASE_TO_END = "\033[K";
+    private static final int DEFAULT_COLUMNS = 80;
+
+    private final GapBuffer text;
+    private final PrintStream output;
+    private final List<Row> rows;
+    private String prompt;
+    private String promptColor;
+    private boolean secret;
+    private int columns;
+    private int cursorRow;
+    private int screenRows;
+    private int dirtyStart;
+    private int dirtyEnd;
+    private int delta;
+
+    public LineEditor(PrintStream output) {
+        this.output = output;
+        this.text = new GapBuffer();
+        this.rows = new ArrayList<>();
+        this.prompt = Strings.EMPTY_STRING;
+        this.columns = DEFAULT_COLUMNS;
+        this.screenRows = 1;
+        this.dirtyStart = -1;
+    }
+
+    /**
+     * Starts a new editing area at the current line of the terminal, with an empty text.
+     * @param prompt Prompt of the first row.
+     * @param promptColor Color of the prompt, could be null.
+     * @param secret If the secret mode is enabled then each character is printed as '*'.
+     */
+    public void start(String prompt, String promptColor, boolean secret) {
+        this.prompt = prompt;
+        this.promptColor = promptColor;
+        this.secret = secret;
+        clear();
+        output.print(Strings.CARRIAGE_RETURN);
+        output.print(ERASE_TO_END);
+        render();
+    }
+
+    /**
+     * Removes the text and forgets the printed rows, the next render prints all the rows at the current
+     * line of the terminal.
+     */
+    public void clear() {
+        text.clear();
+        forget();
+    }
+
+    /**
+     * Moves the terminal cursor to the line after the last row, the next render prints all the rows
+     * again at the new line.
+     */
+    public void detach() {
+        if(!rows.isEmpty()) {
+            moveTo(rows.size() - 1, 0);
+        }
+        output.print(LINE_SEPARATOR);
+        output.flush();
+        forget();
+    }
+
+    /**
+     * Returns the prompt of the first row.
+     * @return Prompt value.
+     */
+    public String getPrompt() {
+        return prompt;
+    }
+
+    /**
+     * Changes the prompt of the first row.
+     * @param prompt Prompt value.
+     * @param promptColor Color of the prompt, could be null.
+     */
+    public void setPrompt(String prompt, String promptColor) {
+        this.prompt = prompt;
+        this.promptColor = promptColor;
+        changedAll();
+    }
+
+    /**
+     * Set the number of columns of the terminal, the rows longer than the width are wrapped.
+     * @param columns Number of columns.
+     */
+    public void setColumns(int columns) {
+        if(columns > 0 && columns != this.columns) {
+            this.columns = columns;
+            changedAll();
+        }
+    }
+
+    /**
+     * Returns the position of the cursor into the text.
+     * @return Cursor position.
+     */
+    public int getPosition() {
+        return text.getPosition();
+    }
+
+    /**
+     * Returns the number of characters of the text.
+     * @return Text length.
+     */
+    public int length() {
+        return text.length();
+    }
+
+    /**
+     * Returns the character at the specific position of the text.
+     * @param index Position of the character.
+     * @return Character value.
+     */
+    public char charAt(int index) {
+        return text.charAt(index);
+    }
+
+    @Override
+    public String toString() {
+        return text.toString();
+    }
+
+    /**
+     * Replaces the text and moves the cursor to the end.
+     * @param value New text.
+     */
+    public void set(String value) {
+        int removed = text.length();
+        text.set(value);
+        changed(0, removed, value.length());
+    }
+
+    /**
+     * Inserts a character at the cursor position.
+     * @param character Character to insert.
+     */
+    public void insert(char character) {
+        int position = text.getPosition();
+        text.insert(character);
+        changed(position, 0, 1);
+    }
+
+    /**
+     * Inserts a text at the cursor position.
+     * @param value Text to insert.
+     */
+    public void insert(String value) {
+        int position = text.getPosition();
+        text.insert(value);
+        changed(position, 0, value.length());
+    }
+
+    /**
+     * Removes the character before the cursor.
+     */
+    public void deleteBackward() {
+        int position = text.getPosition();
+        if(text.deleteBackward(1) > 0) {
+            changed(position - 1, 1, 0);
+        }
+    }
+
+    /**
+     * Removes the character after the cursor.
+     */
+    public void deleteForward() {
+        int position = text.getPosition();
+        if(text.deleteForward(1) > 0) {
+            changed(position, 1, 0);
+        }
+    }
+
+    /**
+     * Removes the word before the cursor.
+     */
+    public void deleteWordBackward() {
+        int position = text.getPosition();
+        int start = previousWord(position);
+        if(start < position) {
+            text.deleteBackward(position - start);
+            changed(start, position - start, 0);
+        }
+    }
+
+    /**
+     * Moves the cursor one character to the left.
+     */
+    public void left() {
+        if(text.getPosition() > 0) {
+            text.moveTo(text.getPosition() - 1);
+        }
+    }
+
+    /**
+     * Moves the cursor one character to the right.
+     */
+    public void right() {
+        if(text.getPosition() < text.length()) {
+            text.moveTo(text.getPosition() + 1);
+        }
+    }
+
+    /**
+     * Moves the cursor to the start of the current word or the previous word.
+     */
+    public void wordLeft() {
+        text.moveTo(previousWord(text.getPosition()));
+    }
+
+    /**
+     * Moves the cursor to the end of the current word or the next word.
+     */
+    public void wordRight() {
+        int position = text.getPosition();
+        while(position < text.length() && !isWordCharacter(text.charAt(position))) {
+            position++;
+        }
+        while(position < text.length() && isWordCharacter(text.charAt(position))) {
+            position++;
+        }
+        text.moveTo(position);
+    }
+
+    /**
+     * Moves the cursor to the start of the current line.
+     */
+    public void home() {
+        text.moveTo(lineStart(text.getPosition()));
+    }
+
+    /**
+     * Moves the cursor to the end of the current line.
+     */
+    public void end() {
+        text.moveTo(lineEnd(text.getPosition()));
+    }
+
+    /**
+     * Moves the cursor to the previous line keeping the column if it's possible.
+     * @return Returns false if the cursor is into the first line.
+     */
+    public boolean up() {
+        boolean result = false;
+        int position = text.getPosition();
+        int start = lineStart(position);
+        if(start > 0) {
+            int previousStart = lineStart(start - 1);
+            text.moveTo(Math.min(previousStart + position - start, start - 1));
+            result = true;
+        }
+        return result;
+    }
+
+    /**
+     * Moves the cursor to the next line keeping the column if it's possible.
+     * @return Returns false if the cursor is into the last line.
+     */
+    public boolean down() {
+        boolean result = false;
+        int position = text.getPosition();
+        int end = lineEnd(position);
+        if(end < text.length()) {
+            int nextStart = end + 1;
+            text.moveTo(Math.min(nextStart + position - lineStart(position), lineEnd(nextStart)));
+            result = true;
+        }
+        return result;
+    }
+
+    /**
+     * Prints the changes of the text and moves the terminal cursor to the cursor position.
+     */
+    public void render() {
+        if(rows.isEmpty()) {
+            changedAll();
+        }
+        if(dirtyStart >= 0) {
+            int oldCount = rows.size();
+            int firstRow = oldCount == 0 ? 0 : rowOf(dirtyStart);
+            if(firstRow > 0 && rows.get(firstRow).promptCells > 0) {
+                //The rows of a wrapped prompt are regenerated from the first row.
+                firstRow = 0;
+            }
+            int index = oldCount == 0 ? 0 : rows.get(firstRow).start;
+            boolean lineStart = oldCount == 0 || rows.get(firstRow).lineStart;
+            int promptIndex = firstRow == 0 ? 0 : prompt.length();
+            List<Row> newRows = new ArrayList<>();
+            int tailRow = -1;
+            int row = firstRow;
+            while(true) {
+                //When a line starts after the modified text at the same row that the printed line, the rest of
+                //the rows are the same that the printed rows.
+                if(row > firstRow && lineStart && index >= dirtyEnd && row < oldCount &&
+                        rows.get(row).lineStart && rows.get(row).start + delta == index) {
+                    tailRow = row;
+                    break;
+                }
+                StringBuilder cells = new StringBuilder(columns);
+                int promptCells = 0;
+                if(promptIndex < prompt.length()) {
+                    promptCells = Math.min(prompt.length() - promptIndex, columns);
+                    cells.append(prompt, promptIndex, promptIndex + promptCells);
+                    promptIndex += promptCells;
+                } else if(lineStart) {
+                    for (int i = 0; i < getIndent(); i++) {
+                        cells.append(INDENT_CHARACTER);
+                    }
+                }
+                int offset = cells.length();
+                int start = index;
+                boolean nextLineStart = false;
+                while(index < text.length() && cells.length() < columns) {
+                    char character = text.charAt(index++);
+                    if(character == LINE_SEPARATOR) {
+                        nextLineStart = true;
+                        break;
+                    }
+                    cells.append(secret ? SECRET_CHARACTER : character);
+                }
+                newRows.add(new Row(cells.toString(), start, lineStart, offset, promptCells));
+                row++;
+                //A full row leaves the terminal cursor at the last column until the next character, then the
+                //position after a full row is always the first column of a new row.
+                if(!nextLineStart && cells.length() < columns) {
+                    break;
+                }
+                lineStart = nextLineStart;
+            }
+
+            for (int i = 0; i < newRows.size(); i++) {
+                int current = firstRow + i;
+                writeRow(current, newRows.get(i), current < oldCount ? rows.get(current).cells : Strings.EMPTY_STRING);
+            }
+            List<Row> tail = new ArrayList<>();
+            if(tailRow >= 0) {
+                tail.addAll(rows.subList(tailRow, oldCount));
+                for(Row tailRowInstance : tail) {
+                    tailRowInstance.start += delta;
+                }
+            } else {
+                for (int current = firstRow + newRows.size(); current < oldCount; current++) {
+                    moveTo(current, 0);
+                    output.print(ERASE_TO_END);
+                }
+            }
+            rows.subList(firstRow, oldCount).clear();
+            rows.addAll(newRows);
+            rows.addAll(tail);
+            dirtyStart = -1;
+            dirtyEnd = -1;
+            delta = 0;
+        }
+
+        int position = text.getPosition();
+        int row = rowOf(position);
+        Row cursorRowInstance = rows.get(row);
+        moveTo(row, cursorRowInstance.offset + position - cursorRowInstance.start);
+        output.flush();
+    }
+
+    /**
+     * Writes the cells of the row that are different from the printed cells.
+     * @param row Row number.
+     * @param newRow New row.
+     * @param printed Printed cells of the row.
+     */
+    private void writeRow(int row, Row newRow, String printed) {
+        String cells = newRow.cells;
+        int column = 0;
+        int limit = Math.min(cells.length(), printed.length());
+        while(column < limit && cells.charAt(column) == printed.charAt(column)) {
+            column++;
+        }
+        if(column < cells.length() || column < printed.length()) {
+            if(column < newRow.promptCells) {
+                moveTo(row, 0);
+                printPrompt(cells.substring(0, newRow.promptCells));
+                output.print(cells.substring(newRow.promptCells));
+            } else {
+                moveTo(row, column);
+                output.print(cells.substring(column));
+            }
+            if(cells.length() < printed.length()) {
+                output.print(ERASE_TO_END);
+            }
+        }
+    }
+
+    /**
+     * Moves the terminal cursor to the row and column of the editing area, the rows that are not
+     * into the terminal yet are created using line separators.
+     * @param row Row of the editing area.
+     * @param column Column of the row.
+     */
+    private void moveTo(int row, int column) {
+        if(row < cursorRow) {
+            output.printf(CURSOR_UP, cursorRow - row);
+        } else if(row > cursorRow) {
+            int existingRow = Math.min(row, screenRows - 1);
+            if(existingRow > cursorRow) {
+                output.printf(CURSOR_DOWN, existingRow - cursorRow);
+            }
+            for (int i = existingRow; i < row; i++) {
+                output.print(LINE_SEPARATOR);
+            }
+            screenRows = Math.max(screenRows, row + 1);
+        }
+        cursorRow = row;
+        output.print(Strings.CARRIAGE_RETURN);
+        if(column > 0) {
+            output.printf(CURSOR_FORWARD, column);
+        }
+    }
+
+    /**
+     * Print the part of the prompt of a row.
+     * @param promptPart Cells of the prompt into the row.
+     */
+    private void printPrompt(String promptPart) {
+        if(promptColor != null) {
+            output.print(promptColor);
+            output.print(promptPart);
+            output.print(Strings.StandardOutput.RESET);
+        } else {
+            output.print(promptPart);
+        }
+    }
+
+    /**
+     * Returns the row that contains the position of the text.
+     * @param position Position of the text.
+     * @return Row number.
+     */
+    private int rowOf(int position) {
+        int low = 0;
+        int high = rows.size() - 1;
+        while(low < high) {
+            int middle = (low + high + 1) >>> 1;
+            if(rows.get(middle).start <= position) {
+                low = middle;
+            } else {
+                high = middle - 1;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Returns the indentation of the lines after the first line.
+     * @return Number of columns.
+     */
+    private int getIndent() {
+        return Math.min(prompt.length(), columns / 2);
+    }
+
+    /**
+     * Register a change of the text since the last render.
+     * @param position Position of the change.
+     * @param removed Number of removed characters.
+     * @param inserted Number of inserted characters.
+     */
+    private void changed(int position, int removed, int inserted) {
+        if(dirtyStart < 0) {
+            dirtyStart = position;
+            dirtyEnd = position + inserted;
+        } else {
+            dirtyStart = Math.min(dirtyStart, position);
+            if(dirtyEnd != Integer.MAX_VALUE) {
+                dirtyEnd = Math.max(position <= dirtyEnd ? dirtyEnd - removed + inserted : 0, position + inserted);
+            }
+        }
+        delta += inserted - removed;
+    }
+
+    /**
+     * Register that all the rows must be regenerated in the next render.
+     */
+    private void changedAll() {
+        dirtyStart = 0;
+        dirtyEnd = Integer.MAX_VALUE;
+    }
+
+    /**
+     * Forgets the printed rows.
+     */
+    private void forget() {
+        rows.clear();
+        cursorRow = 0;
+        screenRows = 1;
+        delta = 0;
+        changedAll();
+    }
+
+    /**
+     * Returns the start of the line that contains the position.
+     * @param position Position of the text.
+     * @return Start of the line.
+     */
+    private int lineStart(int position) {
+        return text.lastIndexOf(LINE_SEPARATOR, position - 1) + 1;
+    }
+
+    /**
+     * Returns the end of the line that contains the position.
+     * @param position Position of the text.
+     * @return Position of the line separator or the length of the text.
+     */
+    private int lineEnd(int position) {
+        int result = text.indexOf(LINE_SEPARATOR, position);
+        return result < 0 ? text.length() : result;
+    }
+
+    /**
+     * Returns the start of the word before the position.
+     * @param position Position of the text.
+     * @return Start of the word.
+     */
+    private int previousWord(int position) {
+        while(position > 0 && !isWordCharacter(text.charAt(position - 1))) {
+            position--;
+        }
+        while(position > 0 && isWordCharacter(text.charAt(position - 1))) {
+            position--;
+        }
+        return position;
+    }
+
+    /**
+     * Verify if the character is part of a word.
+     * @param character Character to verify.
+     * @return True if the character is a letter, a digit or '_'.
+     */
+    private boolean isWordCharacter(char character) {
+        return Character.isLetterOrDigit(character) || character == WORD_CHARACTER;
+    }
+
+    /**
+     * Printed row of the editing area.
+     */
+    private static class Row {
+
+        private final String cells;
+        private int start;
+        private final boolean lineStart;
+        private final int offset;
+        private final int promptCells;
+
+        private Row(String cells, int start, boolean lineStart, int offset, int promptCells) {
+            this.cells = cells;
+            this.start = start;
+            this.lineStart = lineStart;
+            this.offset = offset;
+            this.promptCells = promptCells;
+        }
+    }
+}
@@ -0,0 +1,380 @@
+package org.hcjf.console;
+
+import org.hcjf.console.shell.Command;
+import org.hcjf.console.stats.LatencyHistogram;
+import org.hcjf.layers.query.Queryable;
+import org.hcjf.properties.SystemProperties;
+import org.hcjf.service.Service;
+import org.hcjf.service.ServiceSession;
+import org.hcjf.utils.Strings;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * This class generates load against a server using many connections into the same process. The requests
+ * are chosen randomly from a weighted mix of commands and queries and are sent at a target rate (open loop)
+ * or by a fixed number of workers that send a new request when the previous response arrives (closed loop).
+ * The requests of the warmup phase are not reported. The test could be repeated with different numbers of
+ * connections by client in order to compare the throughput of the striped clients.
+ * The latencies are reported twice, the service time is measured from the moment when the request is sent and
+ * the corrected latency includes the time that the request waited to be sent: in the open loop the latency is
+ * measured from the scheduled time of the request and in the closed loop the requests that were not sent
+ * while the workers were waiting are added using the median latency of the warmup as expected interval.
+ * @author javaito
+ */
+public class LoadTest {
+
+    private static final String CLIENTS_OPTION = "--clients";
+    private static final String RATE_OPTION = "--rate";
+    private static final String CONCURRENCY_OPTION = "--concurrency";
+    private static final String WARMUP_OPTION = "--warmup";
+    private static final String DURATION_OPTION = "--duration";
+    private static final String EXECUTE_OPTION = "--execute";
+    private static final String EVALUATE_OPTION = "--evaluate";
+    private static final String MAX_IN_FLIGHT_OPTION = "--max-in-flight";
+    private static final String CONNECTIONS_OPTION = "--connections";
+    private static final String CONNECTIONS_SEPARATOR = ",";
+    private static final String OPTION_PREFIX = "--";
+
+    private static final String USAGE = "java -cp hcjf-client.jar org.hcjf.console.LoadTest host port\r\n" +
+            "    [--clients n] [--rate requests/s | --concurrency n] [--warmup s] [--duration s] [--max-in-flight n]\r\n" +
+            "    [--connections k1,k2...]\r\n" +
+            "    (--execute weight \"command parameters\" | --evaluate weight \"query\")...";
+    private static final String CONNECTING = "Connecting %d clients with %s:%d\r\n";
+    private static final String CONNECTIONS_BY_CLIENT = "Connections by client: %d\r\n";
+    private static final String SWEEP_HEADER = "%-12s %12s %10s %10s\r\n";
+    private static final String SWEEP_LINE = "%-12d %12.2f %10.2f %10.2f\r\n";
+    private static final String RUNNING = "Running %s loop: warmup %d s, duration %d s\r\n";
+    private static final String OPEN = "open (%d requests/s)";
+    private static final String CLOSED = "closed (%d workers)";
+    private static final String REPORT_SUMMARY = "Requests: %d, errors: %d, throughput: %.2f requests/s\r\n";
+    private static final String REPORT_HEADER = "%-12s %10s %10s %10s %10s %10s %10s %10s\r\n";
+    private static final String REPORT_LINE = "%-12s %10.2f %10.2f %10.2f %10.2f %10.2f %10.2f %10.2f\r\n";
+    private static final String SERVICE_TIME = "service";
+    private static final String CORRECTED = "corrected";
+
+    private final List<ConsoleConnection> connections;
+    private final List<Request> requests;
+    private final long totalWeight;
+    private final LatencyHistogram warmupLatencies;
+    private final LatencyHistogram serviceTimes;
+    private final LatencyHistogram correctedLatencies;
+    private final AtomicLong completed;
+    private final AtomicLong errors;
+    private volatile long expectedInterval;
+
+    public LoadTest(List<ConsoleConnection> connections, List<Request> requests) {
+        this.connections = connections;
+        this.requests = requests;
+        this.totalWeight = requests.stream().mapToLong(R -> R.weight).sum();
+        this.warmupLatencies = new LatencyHistogram();
+        this.serviceTimes = new LatencyHistogram();
+        this.correctedLatencies = new LatencyHistogram();
+        this.completed = new AtomicLong();
+        this.errors = new AtomicLong();
+    }
+
+    public static void main(String[] args) {
+        int clients = 1;
+        int rate = 0;
+        int concurrency = 0;
+        int warmup = 10;
+        int duration = 60;
+        int maxInFlight = 1000;
+        List<Request> requests = new ArrayList<>();
+        List<String> arguments = new ArrayList<>();
+        Map<String,Object> loginParameters = new HashMap<>();
+        List<Integer> connectionsByClient = new ArrayList<>();
+        try {
+            for (int i = 0; i < args.length; i++) {
+                switch (args[i]) {
+                    case CLIENTS_OPTION: clients = Integer.parseInt(args[++i]); break;
+                    case RATE_OPTION: rate = Integer.parseInt(args[++i]); break;
+                    case CONCURRENCY_OPTION: concurrency = Integer.parseInt(args[++i]); break;
+                    case WARMUP_OPTION: warmup = Integer.parseInt(args[++i]); break;
+                    case DURATION_OPTION: duration = Integer.parseInt(args[++i]); break;
+                    case MAX_IN_FLIGHT_OPTION: maxInFlight = Integer.parseInt(args[++i]); break;
+                    case CONNECTIONS_OPTION: {
+                        for(String value : args[++i].split(CONNECTIONS_SEPARATOR)) {
+                            connectionsByClient.add(Integer.parseInt(value.trim()));
+                        }
+                        break;
+                    }
+                    case EXECUTE_OPTION: case EVALUATE_OPTION: {
+                        long weight = Long.parseLong(args[i + 1]);
+                        requests.add(new Request(args[i].equals(EVALUATE_OPTION), weight, args[i + 2]));
+                        i += 2;
+                        break;
+                    }
+                    default: {
+                        if(args[i].startsWith(OPTION_PREFIX)) {
+                            throw new IllegalArgumentException(args[i]);
+                        } else {
+                            arguments.add(args[i]);
+                        }
+                    }
+                }
+            }
+            if(arguments.size() != 2 || requests.isEmpty()) {
+                throw new IllegalArgumentException();
+            }
+        } catch (Exception ex) {
+            printError(USAGE);
+            System.exit(1);
+            return;
+        }
+
+        String host = arguments.get(0);
+        Integer port = Integer.parseInt(arguments.get(1));
+        try {
+            //Without sweep the number of connections by client is the value of the property.
+            List<Integer> sweep = connectionsByClient.isEmpty() ? Collections.singletonList(null) : connectionsByClient;
+            List<LoadTest> results = new ArrayList<>();
+            for(Integer connectionsCount : sweep) {
+                if(connectionsCount != null) {
+                    System.setProperty(ConsoleProperties.HCJF_CONSOLE_CONNECTIONS, connectionsCount.toString());
+                    System.out.printf(CONNECTIONS_BY_CLIENT, connectionsCount);
+                }
+                System.out.printf(CONNECTING, clients, host, port);
+                List<ConsoleConnection> connections = connect(host, port, clients, loginParameters);
+                LoadTest loadTest = new LoadTest(connections, requests);
+                if(rate > 0) {
+                    System.out.printf(RUNNING, String.format(OPEN, rate), warmup, duration);
+                    loadTest.runOpenLoop(rate, maxInFlight, TimeUnit.SECONDS.toNanos(warmup), TimeUnit.SECONDS.toNanos(duration));
+                } else {
+                    int workers = concurrency > 0 ? concurrency : clients;
+                    System.out.printf(RUNNING, String.format(CLOSED, workers), warmup, duration);
+                    loadTest.runClosedLoop(workers, TimeUnit.SECONDS.toNanos(warmup), TimeUnit.SECONDS.toNanos(duration));
+                }
+                loadTest.printReport(duration);
+                results.add(loadTest);
+                for(ConsoleConnection connection : connections) {
+                    connection.getConsoleClient().disconnect();
+                }
+            }
+            if(!connectionsByClient.isEmpty()) {
+                System.out.printf(SWEEP_HEADER, "connections", "requests/s", "p50", "p99");
+                for (int i = 0; i < results.size(); i++) {
+                    LoadTest result = results.get(i);
+                    System.out.printf(SWEEP_LINE, connectionsByClient.get(i), result.completed.get() / (double) duration,
+                            result.serviceTimes.getValueAtPercentile(50) / 1000.0,
+                            result.serviceTimes.getValueAtPercentile(99) / 1000.0);
+                }
+                System.out.flush();
+            }
+        } catch (Throwable throwable) {
+            printError(throwable.getMessage());
+            System.exit(1);
+        }
+        System.exit(0);
+    }
+
+    /**
+     * Creates and logs the clients, the login parameters are read from the terminal the first time
+     * that the server requires login and then they are reused by all the clients.
+     * @param host Host of the server.
+     * @param port Port of the server.
+     * @param clients Number of clients.
+     * @param loginParameters Login parameters used if the server requires login.
+     * @return Connected clients.
+     * @throws Throwable
+     */
+    private static List<ConsoleConnection> connect(String host, Integer port, int clients,
+                                                   Map<String,Object> loginParameters) throws Throwable {
+        List<ConsoleConnection> connections = new ArrayList<>();
+        for (int i = 0; i < clients; i++) {
+            ConsoleConnection connection = new ConsoleConnection(host, port);
+            connection.connect();
+            if(connection.isLoginRequired()) {
+                if(loginParameters.isEmpty()) {
+                    loginParameters.putAll(ConsoleDaemon.readLoginParameters(connection.getMetadata().getLoginFields(),
+                            connection.getMetadata().getLoginSecretFields()));
+                }
+                connection.login(loginParameters);
+            }
+            connections.add(connection);
+        }
+        return connections;
+    }
+
+    private static void printError(String message) {
+        System.out.print(Strings.StandardOutput.RED);
+        System.out.println(message);
+        System.out.print(Strings.StandardOutput.RESET);
+    }
+
+    /**
+     * Sends the requests at a fixed rate, the requests are sent at its scheduled time even if the previous
+     * responses have not arrived yet, limited by the max number of requests in flight.
+     * @param rate Number of requests per second.
+     * @param maxInFlight Max number of requests waiting for its responses.
+     * @param warmup Duration of the warmup in nanoseconds.
+     * @param duration Duration of the measurement in nanoseconds.
+     * @throws InterruptedException
+     */
+    public void runOpenLoop(int rate, int maxInFlight, long warmup, long duration) throws InterruptedException {
+        Semaphore inFlight = new Semaphore(maxInFlight);
+        long interval = TimeUnit.SECONDS.toNanos(1) / rate;
+        long start = System.nanoTime();
+        long measureStart = start + warmup;
+        long end = measureStart + duration;
+        for (long i = 0; ; i++) {
+            long scheduledTime = start + i * interval;
+            if(scheduledTime >= end) {
+                break;
+            }
+            long delay;
+            while((delay = scheduledTime - System.nanoTime()) > 0) {
+                LockSupport.parkNanos(delay);
+            }
+            inFlight.acquire();
+            ConsoleConnection connection = connections.get((int) (i % connections.size()));
+            Service.run(() -> {
+                try {
+                    send(connection, scheduledTime, measureStart, 0);
+                } finally {
+                    inFlight.release();
+                }
+            }, ServiceSession.getGuestSession());
+        }
+        inFlight.acquire(maxInFlight);
+    }
+
+    /**
+     * Sends the requests using a fixed number of workers, each worker sends a new request when the
+     * response of the previous one arrives.
+     * @param concurrency Number of workers.
+     * @param warmup Duration of the warmup in nanoseconds.
+     * @param duration Duration of the measurement in nanoseconds.
+     * @throws InterruptedException
+     */
+    public void runClosedLoop(int concurrency, long warmup, long duration) throws InterruptedException {
+        CountDownLatch workers = new CountDownLatch(concurrency);
+        long start = System.nanoTime();
+        long measureStart = start + warmup;
+        long end = measureStart + duration;
+        for (int i = 0; i < concurrency; i++) {
+            ConsoleConnection connection = connections.get(i % connections.size());
+            Service.run(() -> {
+                try {
+                    long now;
+                    while ((now = System.nanoTime()) < end) {
+                        send(connection, now, measureStart, expectedInterval);
+                    }
+                } finally {
+                    workers.countDown();
+                }
+            }, ServiceSession.getGuestSession());
+        }
+        long delay;
+        while((delay = measureStart - System.nanoTime()) > 0) {
+            LockSupport.parkNanos(delay);
+        }
+        expectedInterval = warmupLatencies.getValueAtPercentile(50);
+        workers.await();
+    }
+
+    /**
+     * Sends a random request of the mix and records its latency.
+     * @param connection Connection used to send the request.
+     * @param scheduledTime Time when the request should be sent.
+     * @param measureStart Time when the warmup ends.
+     * @param expectedInterval Expected interval used to correct the coordinated omission, zero to not correct it.
+     */
+    private void send(ConsoleConnection connection, long scheduledTime, long measureStart, long expectedInterval) {
+        Request request = pickRequest();
+        long sendTime = System.nanoTime();
+        boolean failed = false;
+        try {
+            if(request.evaluate) {
+                connection.evaluate(request.queryable);
+            } else {
+                connection.execute(request.command.getCommand(), request.command.getParameters());
+            }
+        } catch (Throwable throwable) {
+            failed = true;
+        }
+        long responseTime = System.nanoTime();
+        long serviceTime = TimeUnit.NANOSECONDS.toMicros(responseTime - sendTime);
+        if(scheduledTime < measureStart) {
+            warmupLatencies.record(serviceTime);
+        } else {
+            completed.incrementAndGet();
+            if(failed) {
+                errors.incrementAndGet();
+            }
+            serviceTimes.record(serviceTime);
+            correctedLatencies.recordWithExpectedInterval(
+                    TimeUnit.NANOSECONDS.toMicros(responseTime - scheduledTime), expectedInterval);
+        }
+    }
+
+    /**
+     * Returns a random request according to the weights of the mix.
+     * @return Request of the mix.
+     */
+    private Request pickRequest() {
+        long value = ThreadLocalRandom.current().nextLong(totalWeight);
+        Request result = requests.get(requests.size() - 1);
+        for(Request request : requests) {
+            value -= request.weight;
+            if(value < 0) {
+                result = request;
+                break;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Prints the throughput and the percentiles of the latencies in milliseconds.
+     * @param duration Duration of the measurement in seconds.
+     */
+    public void printReport(int duration) {
+        System.out.printf(REPORT_SUMMARY, completed.get(), errors.get(), completed.get() / (double) duration);
+        System.out.printf(REPORT_HEADER, "", "mean", "p50", "p90", "p99", "p99.9", "p99.99", "max");
+        printLatencies(SERVICE_TIME, serviceTimes);
+        printLatencies(CORRECTED, correctedLatencies);
+        System.out.flush();
+    }
+
+    private void printLatencies(String name, LatencyHistogram histogram) {
+        System.out.printf(REPORT_LINE, name, histogram.getMean() / 1000.0,
+                histogram.getValueAtPercentile(50) / 1000.0, histogram.getValueAtPercentile(90) / 1000.0,
+                histogram.getValueAtPercentile(99) / 1000.0, histogram.getValueAtPercentile(99.9) / 1000.0,
+                histogram.getValueAtPercentile(99.99) / 1000.0, histogram.getMax() / 1000.0);
+    }
+
+    /**
+     * Request of the mix, the command is parsed and the query is compiled only once.
+     */
+    public static class Request {
+
+        private final boolean evaluate;
+        private final long weight;
+        private final Command command;
+        private final Queryable queryable;
+
+        public Request(boolean evaluate, long weight, String line) {
+            this.evaluate = evaluate;
+            this.weight = weight;
+            if(evaluate) {
+                this.command = null;
+                this.queryable = QueryCache.compile(line, new ArrayList<>());
+            } else {
+                this.command = new Command(line, SystemProperties.getDateFormat(SystemProperties.HCJF_DEFAULT_DATE_FORMAT));
+                this.queryable = null;
+            }
+        }
+    }
+}
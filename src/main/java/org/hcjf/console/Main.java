@@ -1,40 +1,241 @@
 package org.hcjf.console;
 
+import org.hcjf.console.jfr.ConsoleRecording;
+import org.hcjf.console.shell.Command;
+import org.hcjf.console.shell.CommandRegistry;
+import org.hcjf.console.traffic.TrafficRecorder;
+import org.hcjf.console.traffic.TrafficReplayer;
+import org.hcjf.console.shell.DefaultShell;
+import org.hcjf.console.shell.ProcessingSpinner;
+import org.hcjf.console.shell.QueryShell;
+import org.hcjf.layers.query.Query;
+import org.hcjf.properties.SystemProperties;
 import org.hcjf.utils.Strings;
 
-import java.security.Provider;
-import java.security.Security;
+import java.net.SocketException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 
 /**
  * @author javaito
  */
 public class Main {
 
+    private static final String OPTION_PREFIX = "--";
+    private static final String FAST_START_OPTION = "--fast-start";
+    private static final String WARMUP_OPTION = "--warmup";
+    private static final String DAEMON_OPTION = "--daemon";
+    private static final String EXEC_OPTION = "--exec";
+    private static final String JFR_OPTION = "--jfr";
+    private static final String RECORD_OPTION = "--record";
+    private static final String REPLAY_OPTION = "--replay";
+    private static final String SPEED_OPTION = "--speed";
+    private static final String MAX_SPEED = "max";
+    private static final String LOAD_TEST_OPTION = "--loadtest";
+
+    private static final String WARMUP_COMMAND = "evaluate 'SELECT * FROM resource WHERE field = ?' 1 true null 2.5";
+    private static final String WARMUP_QUERY = "SELECT field, count(field) FROM resource WHERE field = 1 AND other > 2 GROUP BY field";
+
     public static void main(String[] args) {
 
-        if(args.length != 2) {
-            System.out.print(Strings.StandardOutput.RED);
-            System.out.println("You must indicate the host and port to connect the console: java -jar hcjf-client localhost 5900");
-            System.out.print(Strings.StandardOutput.RESET);
+        boolean fastStart = ConsoleProperties.getBoolean(ConsoleProperties.HCJF_CONSOLE_FAST_START, false);
+        boolean exec = false;
+        String replay = null;
+        double speed = 1.0;
+        List<String> arguments = new ArrayList<>();
+        for (int i = 0; i < args.length; i++) {
+            String arg = args[i];
+            if(arg.startsWith(OPTION_PREFIX)) {
+                switch (arg) {
+                    case FAST_START_OPTION: {
+                        fastStart = true;
+                        break;
+                    }
+                    case WARMUP_OPTION: {
+                        warmup();
+                        System.exit(0);
+                        return;
+                    }
+                    case DAEMON_OPTION: {
+                        try {
+                            new ConsoleDaemon().start();
+                        } catch (Exception ex) {
+                            printError(ex.getMessage());
+                            System.exit(1);
+                        }
+                        System.exit(0);
+                        return;
+                    }
+                    case LOAD_TEST_OPTION: {
+                        LoadTest.main(Arrays.copyOfRange(args, i + 1, args.length));
+                        return;
+                    }
+                    case EXEC_OPTION: {
+                        exec = true;
+                        break;
+                    }
+                    case JFR_OPTION: {
+                        if(i + 1 == args.length) {
+                            printError("You must indicate the file of the recording: --jfr console.jfr");
+                            System.exit(1);
+                            return;
+                        }
+                        try {
+                            ConsoleRecording.start(Paths.get(args[++i]));
+                        } catch (Exception ex) {
+                            printError(String.format("Unable to start the recording: %s", ex.getMessage()));
+                            System.exit(1);
+                            return;
+                        }
+                        break;
+                    }
+                    case RECORD_OPTION: {
+                        if(i + 1 == args.length) {
+                            printError("You must indicate the file of the traffic log: --record traffic.log");
+                            System.exit(1);
+                            return;
+                        }
+                        try {
+                            TrafficRecorder.start(Paths.get(args[++i]));
+                        } catch (Exception ex) {
+                            printError(String.format("Unable to create the traffic log: %s", ex.getMessage()));
+                            System.exit(1);
+                            return;
+                        }
+                        break;
+                    }
+                    case REPLAY_OPTION: {
+                        if(i + 1 == args.length) {
+                            printError("You must indicate the file of the traffic log: --replay traffic.log");
+                            System.exit(1);
+                            return;
+                        }
+                        replay = args[++i];
+                        break;
+                    }
+                    case SPEED_OPTION: {
+                        try {
+                            speed = args[i + 1].equals(MAX_SPEED) ? 0 : Double.parseDouble(args[i + 1]);
+                            i++;
+                        } catch (Exception ex) {
+                            printError("You must indicate the speed factor or 'max': --speed 2");
+                            System.exit(1);
+                            return;
+                        }
+                        break;
+                    }
+                    default: {
+                        printError(String.format("Unknown option %s", arg));
+                        System.exit(1);
+                        return;
+                    }
+                }
+            } else {
+                arguments.add(arg);
+            }
+        }
+
+        if(exec ? arguments.size() != 3 : arguments.size() != 2) {
+            printError("You must indicate the host and port to connect the console: java -jar hcjf-client [--fast-start] [--jfr file] [--record file] localhost 5900\r\n" +
+                    "or the command to send using the daemon: java -jar hcjf-client --exec localhost 5900 \"command\"\r\n" +
+                    "or the traffic log to replay: java -jar hcjf-client --replay file [--speed factor|max] localhost 5900");
             System.exit(1);
         }
 
         String host;
         Integer port;
         try {
-            host = args[0];
-            port = Integer.parseInt(args[1]);
+            host = arguments.get(0);
+            port = Integer.parseInt(arguments.get(1));
         } catch (Exception ex){
-            System.out.print(Strings.StandardOutput.RED);
-            System.out.println("Fail parsing arguments");
-            System.out.print(Strings.StandardOutput.RESET);
+            printError("Fail parsing arguments");
             System.exit(1);
             return;
         }
 
+        if(exec) {
+            int status;
+            try {
+                status = ConsoleDaemon.send(ConsoleDaemon.getDefaultSocketPath(), host, port, arguments.get(2));
+            } catch (SocketException ex) {
+                printError("Unable to connect with the daemon, start it using: java -jar hcjf-client --daemon");
+                status = 1;
+            } catch (Exception ex) {
+                printError(ex.getMessage());
+                status = 1;
+            }
+            System.exit(status);
+            return;
+        }
+
+        if(replay != null) {
+            System.exit(replay(Paths.get(replay), speed, host, port));
+            return;
+        }
+
         Console console = new Console(host, port);
         console.setPrompt(":");
+        console.setFastStart(fastStart);
         console.init();
     }
 
+    /**
+     * Replays a traffic log against the server and prints the latency report, if the server requires login
+     * then the login parameters are read from the terminal.
+     * @param path Path of the traffic log.
+     * @param speed Speed factor, zero to replay at maximum speed.
+     * @param host Host of the server.
+     * @param port Port of the server.
+     * @return Returns the exit status, zero if all the requests were successful.
+     */
+    private static int replay(Path path, double speed, String host, Integer port) {
+        int status;
+        try {
+            ConsoleConnection connection = new ConsoleConnection(host, port);
+            connection.connect();
+            if(connection.isLoginRequired()) {
+                connection.login(ConsoleDaemon.readLoginParameters(connection.getMetadata().getLoginFields(),
+                        connection.getMetadata().getLoginSecretFields()));
+            }
+            TrafficReplayer replayer = new TrafficReplayer(connection, speed);
+            replayer.replay(path);
+            replayer.printReport(System.out);
+            status = replayer.isSuccessful() ? 0 : 1;
+        } catch (Throwable throwable) {
+            printError(String.format("Replay fail: %s", throwable.getMessage()));
+            status = 1;
+        }
+        return status;
+    }
+
+    private static void printError(String message) {
+        System.out.print(Strings.StandardOutput.RED);
+        System.out.println(message);
+        System.out.print(Strings.StandardOutput.RESET);
+    }
+
+    /**
+     * Loads and initializes the classes used by the console start and the most common commands,
+     * without connect to any server. This mode is used as training run to create the
+     * class-data-sharing archive of the assembled jar.
+     */
+    private static void warmup() {
+        new Command(WARMUP_COMMAND, SystemProperties.getDateFormat(SystemProperties.HCJF_DEFAULT_DATE_FORMAT));
+        Query.compile(WARMUP_QUERY);
+        new TtyListener();
+        new MetadataCache(Strings.EMPTY_STRING, 0).load();
+        CommandRegistry.getInstance();
+        try {
+            Class.forName(Console.class.getName());
+            Class.forName(ConsoleClient.class.getName());
+            Class.forName(DefaultShell.class.getName());
+            Class.forName(QueryShell.class.getName());
+            Class.forName(ProcessingSpinner.class.getName());
+        } catch (ClassNotFoundException ex) {
+        }
+    }
+
 }
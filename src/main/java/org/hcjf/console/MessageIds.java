@@ -0,0 +1,33 @@
+package org.hcjf.console;
+
+import java.security.SecureRandom;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * This class generates the ids of the messages sent by the console. The most significant bits are
+ * random and generated only once by process, the least significant bits are a counter, then each id is
+ * unique without use the blocking secure random generator for each message.
+ * @author javaito
+ */
+public final class MessageIds {
+
+    private static final long VERSION_MASK = 0xFFFFFFFFFFFF0FFFL;
+    private static final long VERSION = 0x0000000000004000L;
+    private static final long VARIANT_MASK = 0x3FFFFFFFFFFFFFFFL;
+    private static final long VARIANT = 0x8000000000000000L;
+
+    private static final long PREFIX = (new SecureRandom().nextLong() & VERSION_MASK) | VERSION;
+    private static final AtomicLong COUNTER = new AtomicLong(new SecureRandom().nextLong() & VARIANT_MASK);
+
+    private MessageIds() {
+    }
+
+    /**
+     * Returns a new message id.
+     * @return Message id.
+     */
+    public static UUID next() {
+        return new UUID(PREFIX, (COUNTER.incrementAndGet() & VARIANT_MASK) | VARIANT);
+    }
+}
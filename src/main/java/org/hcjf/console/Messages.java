@@ -0,0 +1,50 @@
+package org.hcjf.console;
+
+import org.hcjf.io.console.messages.EvaluateQueryableMessage;
+import org.hcjf.io.console.messages.ExecuteMessage;
+import org.hcjf.layers.query.Queryable;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * This class creates the messages sent by the console, the ids of the messages are created by
+ * {@link MessageIds}.
+ * @author javaito
+ */
+public final class Messages {
+
+    private Messages() {
+    }
+
+    /**
+     * Creates a message to execute a command.
+     * @param commandName Name of the command.
+     * @param parameters Parameters of the command.
+     * @param sessionId Id of the session.
+     * @return Message instance.
+     */
+    public static ExecuteMessage execute(String commandName, List<Object> parameters, UUID sessionId) {
+        ExecuteMessage executeMessage = new ExecuteMessage();
+        executeMessage.setId(MessageIds.next());
+        executeMessage.setSessionId(sessionId);
+        executeMessage.setCommandName(commandName);
+        executeMessage.setParameters(parameters);
+        return executeMessage;
+    }
+
+    /**
+     * Creates a message to evaluate a queryable.
+     * @param queryable Queryable instance.
+     * @param sessionId Id of the session.
+     * @return Message instance.
+     */
+    public static EvaluateQueryableMessage evaluate(Queryable queryable, UUID sessionId) {
+        EvaluateQueryableMessage evaluateQueryableMessage = new EvaluateQueryableMessage();
+        evaluateQueryableMessage.setId(MessageIds.next());
+        evaluateQueryableMessage.setTimestamp(System.currentTimeMillis());
+        evaluateQueryableMessage.setSessionId(sessionId);
+        evaluateQueryableMessage.setQueryable(queryable);
+        return evaluateQueryableMessage;
+    }
+}
@@ -0,0 +1,130 @@
+package org.hcjf.console;
+
+import org.hcjf.io.console.ServerMetadata;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.Properties;
+import java.util.UUID;
+
+/**
+ * This class stores into the disk the last metadata obtained from a server, in order to
+ * start the console without waiting the metadata round trip.
+ * @author javaito
+ */
+public class MetadataCache {
+
+    private static final String METADATA_DIRECTORY = "metadata";
+    private static final String FILE_NAME = "%s_%d.properties";
+    private static final String TEMPORAL_SUFFIX = ".tmp";
+    private static final String LIST_SEPARATOR = ",";
+
+    private static final String INSTANCE_ID = "instanceId";
+    private static final String CLUSTER_NAME = "clusterName";
+    private static final String SERVER_NAME = "serverName";
+    private static final String SERVER_VERSION = "serverVersion";
+    private static final String LOGIN_REQUIRED = "loginRequired";
+    private static final String LOGIN_FIELDS = "loginFields";
+    private static final String LOGIN_SECRET_FIELDS = "loginSecretFields";
+
+    private final Path path;
+
+    public MetadataCache(String host, Integer port) {
+        this.path = ConsoleProperties.getHome().resolve(METADATA_DIRECTORY).resolve(String.format(FILE_NAME, host, port));
+    }
+
+    /**
+     * Returns the metadata stored for the host and port of this cache.
+     * @return Metadata instance or null if there are not metadata stored or the file is unreadable.
+     */
+    public ServerMetadata load() {
+        ServerMetadata result = null;
+        if(Files.isReadable(path)) {
+            Properties properties = new Properties();
+            try (InputStream inputStream = Files.newInputStream(path)) {
+                properties.load(inputStream);
+                result = new ServerMetadata();
+                String instanceId = properties.getProperty(INSTANCE_ID);
+                result.setInstanceId(instanceId == null ? null : UUID.fromString(instanceId));
+                result.setClusterName(properties.getProperty(CLUSTER_NAME));
+                result.setServerName(properties.getProperty(SERVER_NAME));
+                result.setServerVersion(properties.getProperty(SERVER_VERSION));
+                result.setLoginRequired(Boolean.parseBoolean(properties.getProperty(LOGIN_REQUIRED)));
+                result.setLoginFields(toList(properties.getProperty(LOGIN_FIELDS)));
+                result.setLoginSecretFields(toList(properties.getProperty(LOGIN_SECRET_FIELDS)));
+            } catch (Exception ex) {
+                result = null;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Stores the metadata into the disk, the file is replaced atomically in order to
+     * avoid that other console process reads a partial file.
+     * @param metadata Metadata instance to store.
+     */
+    public void store(ServerMetadata metadata) {
+        Properties properties = new Properties();
+        put(properties, INSTANCE_ID, metadata.getInstanceId());
+        put(properties, CLUSTER_NAME, metadata.getClusterName());
+        put(properties, SERVER_NAME, metadata.getServerName());
+        put(properties, SERVER_VERSION, metadata.getServerVersion());
+        put(properties, LOGIN_REQUIRED, metadata.getLoginRequired());
+        put(properties, LOGIN_FIELDS, toString(metadata.getLoginFields()));
+        put(properties, LOGIN_SECRET_FIELDS, toString(metadata.getLoginSecretFields()));
+        try {
+            Files.createDirectories(path.getParent());
+            Path temporalPath = path.resolveSibling(path.getFileName() + TEMPORAL_SUFFIX);
+            try (OutputStream outputStream = Files.newOutputStream(temporalPath)) {
+                properties.store(outputStream, null);
+            }
+            Files.move(temporalPath, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException ex) {
+            //The cache is only an optimization, if it is not possible to store the metadata then
+            //the next start is going to wait for the server.
+        }
+    }
+
+    /**
+     * Verify if two metadata instances contains the same information.
+     * @param metadata First metadata instance.
+     * @param otherMetadata Second metadata instance.
+     * @return Returns true if the both instances contains the same information.
+     */
+    public static boolean equals(ServerMetadata metadata, ServerMetadata otherMetadata) {
+        return Objects.equals(metadata.getInstanceId(), otherMetadata.getInstanceId()) &&
+                Objects.equals(metadata.getClusterName(), otherMetadata.getClusterName()) &&
+                Objects.equals(metadata.getServerName(), otherMetadata.getServerName()) &&
+                Objects.equals(metadata.getServerVersion(), otherMetadata.getServerVersion()) &&
+                Objects.equals(metadata.getLoginRequired(), otherMetadata.getLoginRequired()) &&
+                Objects.equals(toString(metadata.getLoginFields()), toString(otherMetadata.getLoginFields())) &&
+                Objects.equals(toString(metadata.getLoginSecretFields()), toString(otherMetadata.getLoginSecretFields()));
+    }
+
+    private static void put(Properties properties, String key, Object value) {
+        if(value != null) {
+            properties.setProperty(key, value.toString());
+        }
+    }
+
+    private static String toString(List<String> values) {
+        return values == null ? null : String.join(LIST_SEPARATOR, values);
+    }
+
+    private static List<String> toList(String value) {
+        List<String> result = new ArrayList<>();
+        if(value != null && !value.isEmpty()) {
+            result.addAll(Arrays.asList(value.split(LIST_SEPARATOR)));
+        }
+        return result;
+    }
+}
@@ -0,0 +1,24 @@
+package org.hcjf.console;
+
+/**
+ * This enum contains the priority classes of the requests, the bulk class could be limited to a max rate
+ * and the striped client writes the bulk requests using its own connection.
+ * @author javaito
+ */
+public enum Priority {
+
+    /**
+     * Requests typed by the user at the prompt, the user is waiting for the response.
+     */
+    INTERACTIVE,
+
+    /**
+     * Requests without a specific class.
+     */
+    NORMAL,
+
+    /**
+     * Requests sent by scripts, sweeps and background jobs.
+     */
+    BULK
+}
@@ -0,0 +1,67 @@
+package org.hcjf.console;
+
+import org.hcjf.console.jfr.QueryCompileEvent;
+import org.hcjf.layers.query.ParameterizedQuery;
+import org.hcjf.layers.query.Query;
+import org.hcjf.layers.query.Queryable;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * This class keeps the last queries compiled by the console. The queries are compiled only once for each
+ * text and the compiled instance is reused for all the messages that evaluate the same text, only the
+ * parameters of each evaluation are new.
+ * @author javaito
+ */
+public final class QueryCache {
+
+    private static final int COMPILED_QUERIES_CAPACITY = ConsoleProperties.getInteger(
+            ConsoleProperties.HCJF_CONSOLE_COMPILED_QUERIES_CACHE_SIZE, 256);
+
+    private static final Map<String, Query> compiledQueries = Collections.synchronizedMap(
+            new LinkedHashMap<String, Query>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, Query> eldest) {
+                    return size() > COMPILED_QUERIES_CAPACITY;
+                }
+            });
+
+    private QueryCache() {
+    }
+
+    /**
+     * Returns the compiled query for the text, if there are parameters then the result is a parameterized
+     * query created from the compiled query.
+     * @param query Query text.
+     * @param parameters Parameters of the query, could be empty.
+     * @return Queryable instance.
+     */
+    public static Queryable compile(String query, List<Object> parameters) {
+        QueryCompileEvent event = new QueryCompileEvent();
+        event.begin();
+        Query compiledQuery = compiledQueries.get(query);
+        event.cached = compiledQuery != null;
+        if(compiledQuery == null) {
+            compiledQuery = Query.compile(query);
+            compiledQueries.put(query, compiledQuery);
+        }
+
+        Queryable result = compiledQuery;
+        if(!parameters.isEmpty()) {
+            ParameterizedQuery parameterizedQuery = compiledQuery.getParameterizedQuery();
+            for(Object parameter : parameters) {
+                parameterizedQuery.add(parameter);
+            }
+            result = parameterizedQuery;
+        }
+        if(event.shouldCommit()) {
+            event.query = query;
+            event.parameters = parameters.size();
+            event.commit();
+        }
+        return result;
+    }
+}
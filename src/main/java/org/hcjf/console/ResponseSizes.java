@@ -0,0 +1,128 @@
+package org.hcjf.console;
+
+import org.hcjf.io.console.messages.EvaluateQueryableMessage;
+import org.hcjf.io.console.messages.ExecuteMessage;
+import org.hcjf.io.net.messages.Message;
+import org.hcjf.io.net.messages.ResponseMessage;
+import org.hcjf.service.Service;
+import org.hcjf.service.ServiceSession;
+
+import java.io.IOException;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * This class remembers the size of the last response of each query or command (shape), the size is used
+ * to classify and route the next requests with the same shape before send them.
+ * The responses arrive into the thread that reads the connection, then the first response of each shape is
+ * sampled into other thread and only one sample by shape is running at the same time. The average size of
+ * the rows of the sample is remembered too, then the size of the next responses with the same shape is the
+ * number of rows by the average size, without encode the rows again.
+ * @author javaito
+ */
+public class ResponseSizes {
+
+    public static final long DEFAULT_RESPONSE_BYTES = 1024L;
+    private static final int SHAPES_CAPACITY = 256;
+
+    private final Map<String, Long> responseBytes;
+    private final Map<String, Double> rowBytes;
+    private final Set<String> estimating;
+
+    public ResponseSizes() {
+        responseBytes = Collections.synchronizedMap(new LinkedHashMap<String, Long>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Long> eldest) {
+                return size() > SHAPES_CAPACITY;
+            }
+        });
+        rowBytes = Collections.synchronizedMap(new LinkedHashMap<String, Double>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Double> eldest) {
+                return size() > SHAPES_CAPACITY;
+            }
+        });
+        estimating = ConcurrentHashMap.newKeySet();
+    }
+
+    /**
+     * Returns the key used to remember the size of the responses: the query for the evaluations and the
+     * name of the command for the executions.
+     * @param message Message to send.
+     * @return Shape of the message or null if the message has not shape.
+     */
+    public static String getShape(Message message) {
+        String result = null;
+        if(message instanceof EvaluateQueryableMessage && ((EvaluateQueryableMessage) message).getQueryable() != null) {
+            result = ((EvaluateQueryableMessage) message).getQueryable().toString();
+        } else if(message instanceof ExecuteMessage) {
+            result = ((ExecuteMessage) message).getCommandName();
+        }
+        return result;
+    }
+
+    /**
+     * Returns the size of the last response with the shape.
+     * @param shape Shape of the request, could be null.
+     * @return Size in bytes or null if there is not a response with the shape yet.
+     */
+    public Long get(String shape) {
+        return shape == null ? null : responseBytes.get(shape);
+    }
+
+    /**
+     * Returns the expected size of the response of the message.
+     * @param message Message to send.
+     * @return Size of the last response with the same shape or the default size.
+     */
+    public long getExpectedBytes(Message message) {
+        Long result = get(getShape(message));
+        return result == null ? DEFAULT_RESPONSE_BYTES : result;
+    }
+
+    /**
+     * Stores the size of the response for the next requests with the same shape.
+     * @param shape Shape of the request, could be null.
+     * @param response Response of the request.
+     */
+    public void record(String shape, ResponseMessage response) {
+        if(shape != null && response.getThrowable() == null) {
+            Object value = response.getValue();
+            if(value instanceof Collection && !((Collection<?>) value).isEmpty()) {
+                Collection<?> rows = (Collection<?>) value;
+                Double averageBytes = rowBytes.get(shape);
+                if(averageBytes != null) {
+                    responseBytes.put(shape, getBytes(rows, averageBytes));
+                } else if(estimating.add(shape)) {
+                    Service.run(() -> {
+                        try {
+                            double sampleBytes = SpilledResultSet.estimateRowBytes(rows);
+                            rowBytes.put(shape, sampleBytes);
+                            responseBytes.put(shape, getBytes(rows, sampleBytes));
+                        } catch (IOException | RuntimeException ex) {
+                            responseBytes.put(shape, DEFAULT_RESPONSE_BYTES);
+                        } finally {
+                            estimating.remove(shape);
+                        }
+                    }, ServiceSession.getGuestSession());
+                }
+            } else {
+                responseBytes.put(shape, DEFAULT_RESPONSE_BYTES);
+            }
+        }
+    }
+
+    /**
+     * Returns the size of the rows using the average size of a row.
+     * @param rows Rows of the response.
+     * @param averageBytes Average size of a row.
+     * @return Size in bytes, never less than the default size.
+     */
+    private long getBytes(Collection<?> rows, double averageBytes) {
+        return Math.max(DEFAULT_RESPONSE_BYTES, (long) (averageBytes * rows.size()));
+    }
+}
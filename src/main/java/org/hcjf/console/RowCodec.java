@@ -0,0 +1,163 @@
+package org.hcjf.console;
+
+import java.io.DataOutput;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+
+/**
+ * This class serializes the rows of a result set into a compact binary format, each value starts with
+ * a byte that indicates its type. The types that are not supported are stored as strings.
+ * @author javaito
+ */
+public final class RowCodec {
+
+    private static final byte NULL = 0;
+    private static final byte STRING = 1;
+    private static final byte LONG = 2;
+    private static final byte INTEGER = 3;
+    private static final byte DOUBLE = 4;
+    private static final byte FLOAT = 5;
+    private static final byte BOOLEAN = 6;
+    private static final byte DATE = 7;
+    private static final byte UUID_VALUE = 8;
+    private static final byte BIG_DECIMAL = 9;
+    private static final byte MAP = 10;
+    private static final byte COLLECTION = 11;
+
+    private static final String UNKNOWN_TYPE = "Unknown type %d";
+
+    private RowCodec() {
+    }
+
+    /**
+     * Writes the value into the output.
+     * @param value Value to write.
+     * @param output Data output.
+     * @throws IOException
+     */
+    public static void encode(Object value, DataOutput output) throws IOException {
+        if(value == null) {
+            output.writeByte(NULL);
+        } else if(value instanceof String) {
+            output.writeByte(STRING);
+            writeString((String) value, output);
+        } else if(value instanceof Long) {
+            output.writeByte(LONG);
+            output.writeLong((Long) value);
+        } else if(value instanceof Integer) {
+            output.writeByte(INTEGER);
+            output.writeInt((Integer) value);
+        } else if(value instanceof Double) {
+            output.writeByte(DOUBLE);
+            output.writeDouble((Double) value);
+        } else if(value instanceof Float) {
+            output.writeByte(FLOAT);
+            output.writeFloat((Float) value);
+        } else if(value instanceof Boolean) {
+            output.writeByte(BOOLEAN);
+            output.writeBoolean((Boolean) value);
+        } else if(value instanceof Date) {
+            output.writeByte(DATE);
+            output.writeLong(((Date) value).getTime());
+        } else if(value instanceof UUID) {
+            output.writeByte(UUID_VALUE);
+            output.writeLong(((UUID) value).getMostSignificantBits());
+            output.writeLong(((UUID) value).getLeastSignificantBits());
+        } else if(value instanceof BigDecimal) {
+            output.writeByte(BIG_DECIMAL);
+            writeString(value.toString(), output);
+        } else if(value instanceof Map) {
+            output.writeByte(MAP);
+            output.writeInt(((Map) value).size());
+            for(Object entry : ((Map) value).entrySet()) {
+                encode(((Map.Entry) entry).getKey(), output);
+                encode(((Map.Entry) entry).getValue(), output);
+            }
+        } else if(value instanceof Collection) {
+            output.writeByte(COLLECTION);
+            output.writeInt(((Collection) value).size());
+            for(Object element : (Collection) value) {
+                encode(element, output);
+            }
+        } else {
+            output.writeByte(STRING);
+            writeString(Objects.toString(value), output);
+        }
+    }
+
+    /**
+     * Reads a value from the current position of the buffer.
+     * @param buffer Buffer with the serialized value.
+     * @return Value instance, the maps are decoded as linked hash maps and the collections as lists.
+     */
+    public static Object decode(ByteBuffer buffer) {
+        Object result;
+        byte type = buffer.get();
+        switch (type) {
+            case NULL: result = null; break;
+            case STRING: result = readString(buffer); break;
+            case LONG: result = buffer.getLong(); break;
+            case INTEGER: result = buffer.getInt(); break;
+            case DOUBLE: result = buffer.getDouble(); break;
+            case FLOAT: result = buffer.getFloat(); break;
+            case BOOLEAN: result = buffer.get() != 0; break;
+            case DATE: result = new Date(buffer.getLong()); break;
+            case UUID_VALUE: result = new UUID(buffer.getLong(), buffer.getLong()); break;
+            case BIG_DECIMAL: result = new BigDecimal(readString(buffer)); break;
+            case MAP: {
+                int size = buffer.getInt();
+                Map<Object,Object> map = new LinkedHashMap<>();
+                for (int i = 0; i < size; i++) {
+                    Object key = decode(buffer);
+                    map.put(key, decode(buffer));
+                }
+                result = map;
+                break;
+            }
+            case COLLECTION: {
+                int size = buffer.getInt();
+                List<Object> list = new ArrayList<>(size);
+                for (int i = 0; i < size; i++) {
+                    list.add(decode(buffer));
+                }
+                result = list;
+                break;
+            }
+            default: throw new IllegalArgumentException(String.format(UNKNOWN_TYPE, type));
+        }
+        return result;
+    }
+
+    /**
+     * Writes the length and the utf-8 bytes of the string.
+     * @param value String value.
+     * @param output Data output.
+     * @throws IOException
+     */
+    private static void writeString(String value, DataOutput output) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        output.writeInt(bytes.length);
+        output.write(bytes);
+    }
+
+    /**
+     * Reads a string written with the method write string.
+     * @param buffer Buffer with the serialized value.
+     * @return String value.
+     */
+    private static String readString(ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.getInt()];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,155 @@
+package org.hcjf.console;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * This class replaces the map rows of a result set by compact rows, the rows with the same fields share
+ * the same schema. The rows are replaced in place one by one, then each decoded map is released as soon
+ * as its compact row is created and the result set is never stored twice in the heap.
+ * If there is a projection then the compact rows contain only the projected fields, in the order of the
+ * projection.
+ * @author javaito
+ */
+public class RowCompactor {
+
+    private static final int SCHEMAS_CAPACITY = 64;
+
+    private final List<String> projection;
+    private final Map<List<String>, CompactRow.Schema> schemas;
+    private CompactRow.Schema lastSchema;
+
+    /**
+     * Creates a compactor that keeps all the fields of the rows.
+     */
+    public RowCompactor() {
+        this(null);
+    }
+
+    /**
+     * Creates a compactor that keeps only the projected fields.
+     * @param projection Fields to keep, null or empty to keep all the fields.
+     */
+    public RowCompactor(List<String> projection) {
+        this.projection = projection == null || projection.isEmpty() ? null : new ArrayList<>(projection);
+        this.schemas = new LinkedHashMap<List<String>, CompactRow.Schema>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<List<String>, CompactRow.Schema> eldest) {
+                return size() > SCHEMAS_CAPACITY;
+            }
+        };
+    }
+
+    /**
+     * Returns a list whose rows can be replaced, if the collection is an array list then the same instance
+     * is returned, otherwise only the references of the rows are copied.
+     * @param rows Rows of the result set.
+     * @return Mutable list with the rows.
+     */
+    @SuppressWarnings("unchecked")
+    public static List<Object> toList(Collection<?> rows) {
+        //The compactor only replaces maps by compact rows, which are maps too, then the elements keep their type.
+        return rows instanceof ArrayList ? (List<Object>) rows : new ArrayList<>(rows);
+    }
+
+    /**
+     * Replaces the map rows into the range by compact rows, the rest of the rows are not modified.
+     * @param rows Rows of the result set.
+     * @param from Index of the first row, inclusive.
+     * @param to Index of the last row, exclusive.
+     */
+    public void compact(List<Object> rows, int from, int to) {
+        for (int i = Math.max(0, from); i < to && i < rows.size(); i++) {
+            rows.set(i, compact(rows.get(i)));
+        }
+    }
+
+    /**
+     * Returns the compact version of the row.
+     * @param row Row of the result set.
+     * @return Compact row if the row is a map, otherwise the same row.
+     */
+    public Object compact(Object row) {
+        Object result = row;
+        if(row instanceof Map && !(row instanceof CompactRow && projection == null)) {
+            Map<?,?> map = (Map<?,?>) row;
+            CompactRow.Schema schema = getSchema(map);
+            Object[] values = new Object[schema.size()];
+            if(projection == null) {
+                //The schema was selected using the order of the map, then the values are in the same order.
+                int index = 0;
+                for(Object value : map.values()) {
+                    values[index++] = value;
+                }
+            } else {
+                for (int i = 0; i < values.length; i++) {
+                    values[i] = map.get(schema.getField(i));
+                }
+            }
+            result = new CompactRow(schema, values);
+        }
+        return result;
+    }
+
+    /**
+     * Returns the schema for the fields of the map, the schema of the previous row is verified first
+     * because the rows of a result set usually have the same fields.
+     * @param map Map row.
+     * @return Shared schema.
+     */
+    private CompactRow.Schema getSchema(Map<?,?> map) {
+        CompactRow.Schema result = lastSchema;
+        if(result == null || !matches(result, map)) {
+            List<String> fields = new ArrayList<>();
+            if(projection == null) {
+                for(Object key : map.keySet()) {
+                    fields.add(String.valueOf(key));
+                }
+            } else {
+                for(String field : projection) {
+                    if(map.containsKey(field)) {
+                        fields.add(field);
+                    }
+                }
+            }
+            fields = Collections.unmodifiableList(fields);
+            result = schemas.computeIfAbsent(fields, CompactRow.Schema::new);
+            lastSchema = result;
+        }
+        return result;
+    }
+
+    /**
+     * Verify if the schema contains the same fields that the map.
+     * @param schema Schema to verify.
+     * @param map Map row.
+     * @return Returns true if the schema can be used for the map.
+     */
+    private boolean matches(CompactRow.Schema schema, Map<?,?> map) {
+        boolean result;
+        if(projection == null) {
+            result = schema.size() == map.size();
+            Iterator<?> keys = map.keySet().iterator();
+            for (int i = 0; result && i < schema.size(); i++) {
+                result = schema.getField(i).equals(keys.next());
+            }
+        } else {
+            int present = 0;
+            for(String field : projection) {
+                if(map.containsKey(field)) {
+                    present++;
+                }
+            }
+            result = present == schema.size();
+            for (int i = 0; result && i < schema.size(); i++) {
+                result = map.containsKey(schema.getField(i));
+            }
+        }
+        return result;
+    }
+}
@@ -0,0 +1,146 @@
+package org.hcjf.console;
+
+import org.hcjf.io.console.SessionMetadata;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileAttribute;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.Objects;
+import java.util.Properties;
+import java.util.UUID;
+
+/**
+ * This class stores into the disk the session obtained by the last login into a server, in order to resume
+ * the session on the next start without login again. The file is readable only by the owner and the
+ * session expires after the time to live or when the instance of the server changes.
+ * @author javaito
+ */
+public class SessionCache {
+
+    private static final String SESSIONS_DIRECTORY = "sessions";
+    private static final String FILE_NAME = "%s_%d.properties";
+    private static final String TEMPORAL_SUFFIX = ".tmp";
+    private static final String OWNER_ONLY_DIRECTORY = "rwx------";
+    private static final String OWNER_ONLY_FILE = "rw-------";
+
+    private static final String SESSION_ID = "sessionId";
+    private static final String SESSION_NAME = "sessionName";
+    private static final String INSTANCE_ID = "instanceId";
+    private static final String EXPIRES = "expires";
+
+    private final Path path;
+    private final long timeToLive;
+
+    public SessionCache(String host, Integer port) {
+        this.path = ConsoleProperties.getHome().resolve(SESSIONS_DIRECTORY).resolve(String.format(FILE_NAME, host, port));
+        this.timeToLive = ConsoleProperties.getLong(ConsoleProperties.HCJF_CONSOLE_SESSION_TTL, 8L * 60 * 60 * 1000);
+    }
+
+    /**
+     * Returns the session stored for the host and port of this cache.
+     * @param instanceId Id of the server instance, the sessions of other instances are not resumed.
+     * @return Session metadata or null if there are not a valid session stored.
+     */
+    public SessionMetadata load(UUID instanceId) {
+        SessionMetadata result = null;
+        if(timeToLive > 0 && Files.isReadable(path)) {
+            Properties properties = new Properties();
+            try (InputStream inputStream = Files.newInputStream(path)) {
+                properties.load(inputStream);
+                long expires = Long.parseLong(properties.getProperty(EXPIRES));
+                if(expires > System.currentTimeMillis() &&
+                        Objects.equals(Objects.toString(instanceId, null), properties.getProperty(INSTANCE_ID))) {
+                    result = new SessionMetadata();
+                    result.setId(UUID.fromString(properties.getProperty(SESSION_ID)));
+                    result.setSessionName(properties.getProperty(SESSION_NAME));
+                } else {
+                    invalidate();
+                }
+            } catch (Exception ex) {
+                result = null;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Stores the session into the disk, the file is created readable only by the owner and it's replaced
+     * atomically in order to avoid that other console process reads a partial file.
+     * @param sessionMetadata Session obtained by the login.
+     * @param instanceId Id of the server instance that creates the session.
+     */
+    public void store(SessionMetadata sessionMetadata, UUID instanceId) {
+        if(timeToLive <= 0 || sessionMetadata.getId() == null) {
+            return;
+        }
+        Properties properties = new Properties();
+        properties.setProperty(SESSION_ID, sessionMetadata.getId().toString());
+        if(sessionMetadata.getSessionName() != null) {
+            properties.setProperty(SESSION_NAME, sessionMetadata.getSessionName());
+        }
+        if(instanceId != null) {
+            properties.setProperty(INSTANCE_ID, instanceId.toString());
+        }
+        properties.setProperty(EXPIRES, Long.toString(System.currentTimeMillis() + timeToLive));
+        try {
+            createDirectory(path.getParent());
+            Path temporalPath = path.resolveSibling(path.getFileName() + TEMPORAL_SUFFIX);
+            Files.deleteIfExists(temporalPath);
+            createFile(temporalPath);
+            try (OutputStream outputStream = Files.newOutputStream(temporalPath)) {
+                properties.store(outputStream, null);
+            }
+            Files.move(temporalPath, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException ex) {
+            //The cache is only an optimization, if it is not possible to store the session then
+            //the next start is going to login again.
+        }
+    }
+
+    /**
+     * Removes the stored session.
+     */
+    public void invalidate() {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException ex) {
+        }
+    }
+
+    /**
+     * Creates the directory accessible only by the owner, if the file system doesn't support posix
+     * permissions then the directory is created with the default permissions.
+     * @param directory Directory to create.
+     * @throws IOException
+     */
+    private void createDirectory(Path directory) throws IOException {
+        if(!Files.isDirectory(directory)) {
+            try {
+                Files.createDirectories(directory, PosixFilePermissions.asFileAttribute(
+                        PosixFilePermissions.fromString(OWNER_ONLY_DIRECTORY)));
+            } catch (UnsupportedOperationException ex) {
+                Files.createDirectories(directory);
+            }
+        }
+    }
+
+    /**
+     * Creates the file readable only by the owner, if the file system doesn't support posix
+     * permissions then the file is created with the default permissions.
+     * @param file File to create.
+     * @throws IOException
+     */
+    private void createFile(Path file) throws IOException {
+        FileAttribute<?> ownerOnly = PosixFilePermissions.asFileAttribute(PosixFilePermissions.fromString(OWNER_ONLY_FILE));
+        try {
+            Files.createFile(file, ownerOnly);
+        } catch (UnsupportedOperationException ex) {
+            Files.createFile(file);
+        }
+    }
+}
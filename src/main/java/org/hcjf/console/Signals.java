@@ -0,0 +1,66 @@
+package org.hcjf.console;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+
+/**
+ * This class registers handlers for the signals of the operating system. The only api to do it is the
+ * internal api of the jdk (sun.misc.Signal), then the api is used by reflection in this class only and
+ * the console works without signals if the api is not available.
+ * @author javaito
+ */
+public final class Signals {
+
+    private static final String SIGNAL_CLASS = "sun.misc.Signal";
+    private static final String SIGNAL_HANDLER_CLASS = "sun.misc.SignalHandler";
+    private static final String HANDLE_METHOD = "handle";
+    private static final String EQUALS_METHOD = "equals";
+    private static final String HASH_CODE_METHOD = "hashCode";
+
+    private Signals() {
+    }
+
+    /**
+     * Register the handler for the signal, the previous handler is replaced.
+     * @param name Name of the signal without the 'SIG' prefix (i.e. INT).
+     * @param handler Action executed each time the signal is received.
+     * @return Returns false if the signal or the api is not available into the platform.
+     */
+    public static boolean handle(String name, Runnable handler) {
+        boolean result;
+        try {
+            Class<?> signalClass = Class.forName(SIGNAL_CLASS);
+            Class<?> handlerClass = Class.forName(SIGNAL_HANDLER_CLASS);
+            Object signal = signalClass.getConstructor(String.class).newInstance(name);
+            Object proxy = Proxy.newProxyInstance(handlerClass.getClassLoader(), new Class<?>[]{handlerClass},
+                    (instance, method, arguments) -> invoke(instance, method, arguments, name, handler));
+            signalClass.getMethod(HANDLE_METHOD, signalClass, handlerClass).invoke(null, signal, proxy);
+            result = true;
+        } catch (ReflectiveOperationException | LinkageError ex) {
+            //The signal is not available into the platform (the constructor and the handle method throw
+            //illegal argument exception) or the api was removed.
+            result = false;
+        }
+        return result;
+    }
+
+    /**
+     * Implements the methods of the signal handler proxy.
+     * @param instance Proxy instance.
+     * @param method Method invoked.
+     * @param arguments Arguments of the invocation.
+     * @param name Name of the signal.
+     * @param handler Action of the signal.
+     * @return Result of the invocation.
+     */
+    private static Object invoke(Object instance, Method method, Object[] arguments, String name, Runnable handler) {
+        Object result = null;
+        switch (method.getName()) {
+            case HANDLE_METHOD: handler.run(); break;
+            case EQUALS_METHOD: result = instance == arguments[0]; break;
+            case HASH_CODE_METHOD: result = System.identityHashCode(instance); break;
+            default: result = name;
+        }
+        return result;
+    }
+}
@@ -0,0 +1,301 @@
+package org.hcjf.console;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * This class implements a read only list whose rows are stored into a temporary file. The file is mapped in
+ * memory by segments and the heap only contains the offset of each row, then the size of the list is not
+ * limited by the heap size and the access to any row has the same cost.
+ * The compact rows are stored as the id of their schema followed by their values, the schemas are kept once
+ * into the heap, then the names of the fields are not repeated on each row and the rows are read back as
+ * compact rows.
+ * The spill files are removed when the result set is closed, the files left by a process that ends without
+ * close its result sets are removed by the next console when it starts.
+ * @author javaito
+ */
+public class SpilledResultSet extends AbstractList<Object> implements RandomAccess, Closeable {
+
+    private static final String SPILL_FILE_PREFIX = "result-";
+    private static final String SPILL_FILE_SUFFIX = ".spill";
+    private static final long SEGMENT_SIZE = 1L << 30;
+    private static final int WRITE_BUFFER_SIZE = 1 << 16;
+    private static final int SAMPLE_SIZE = 100;
+    private static final int MINIMUM_ROW_BYTES = 2;
+    private static final long STALE_FILE_AGE = TimeUnit.HOURS.toMillis(1);
+    private static final String SPILL_DIRECTORY = "spill";
+    private static final byte VALUE_ROW = 0;
+    private static final byte COMPACT_ROW = 1;
+
+    private final Path path;
+    private final long[] offsets;
+    private final long[] segmentStarts;
+    private final MappedByteBuffer[] segments;
+    private final CompactRow.Schema[] schemas;
+
+    private SpilledResultSet(Path path, long[] offsets, long[] segmentStarts, MappedByteBuffer[] segments,
+                             CompactRow.Schema[] schemas) {
+        this.path = path;
+        this.offsets = offsets;
+        this.segmentStarts = segmentStarts;
+        this.segments = segments;
+        this.schemas = schemas;
+    }
+
+    /**
+     * Removes the files of the spill directory that were not modified in the last hour. The files of the
+     * result sets are mapped as soon as they are written and the partition files live only during a join,
+     * then an old file was left by a console that ended without remove it.
+     */
+    public static void deleteStaleFiles() {
+        Path directory = ConsoleProperties.getHome().resolve(SPILL_DIRECTORY);
+        if(Files.isDirectory(directory)) {
+            long limit = System.currentTimeMillis() - STALE_FILE_AGE;
+            try (DirectoryStream<Path> files = Files.newDirectoryStream(directory)) {
+                for(Path file : files) {
+                    try {
+                        if(Files.isRegularFile(file) && Files.getLastModifiedTime(file).toMillis() < limit) {
+                            Files.deleteIfExists(file);
+                        }
+                    } catch (IOException ex) {
+                    }
+                }
+            } catch (IOException ex) {
+            }
+        }
+    }
+
+    /**
+     * Returns a list with the rows, if the estimated size of the rows is greater than the spill threshold
+     * then the rows are moved to a spill file and the heap instances could be released. The rows are not
+     * sampled when their number is enough to exceed the threshold with the minimum size of a row.
+     * @param rows Rows of the result set.
+     * @return List in heap or spilled result set.
+     * @throws IOException
+     */
+    public static List<Object> toList(Collection<?> rows) throws IOException {
+        List<Object> result;
+        long threshold = ConsoleProperties.getLong(ConsoleProperties.HCJF_CONSOLE_SPILL_THRESHOLD, 64L * 1024 * 1024);
+        if(rows.size() > 0 && ((long) rows.size() * MINIMUM_ROW_BYTES > threshold || estimateBytes(rows) > threshold)) {
+            result = spill(rows, ConsoleProperties.getHome().resolve(SPILL_DIRECTORY));
+        } else if(rows instanceof List) {
+            result = Collections.unmodifiableList((List<?>) rows);
+        } else {
+            result = new ArrayList<>(rows);
+        }
+        return result;
+    }
+
+    /**
+     * Estimates the size of the serialized rows using the average size of the first rows.
+     * @param rows Rows of the result set.
+     * @return Estimated size in bytes.
+     * @throws IOException
+     */
+    static long estimateBytes(Collection<?> rows) throws IOException {
+        return (long) (estimateRowBytes(rows) * rows.size());
+    }
+
+    /**
+     * Estimates the average size of a serialized row using the first rows.
+     * @param rows Rows of the result set, not empty.
+     * @return Estimated size in bytes of each row.
+     * @throws IOException
+     */
+    static double estimateRowBytes(Collection<?> rows) throws IOException {
+        ByteArrayOutputStream sampleBuffer = new ByteArrayOutputStream();
+        DataOutputStream sampleOutput = new DataOutputStream(sampleBuffer);
+        Map<CompactRow.Schema, Integer> schemaIds = new IdentityHashMap<>();
+        int count = 0;
+        for(Object row : rows) {
+            if(count == SAMPLE_SIZE) {
+                break;
+            }
+            encodeRow(row, schemaIds, sampleOutput);
+            count++;
+        }
+        sampleOutput.flush();
+        return (double) sampleBuffer.size() / count;
+    }
+
+    /**
+     * Serializes the rows into a new spill file and maps the file in memory.
+     * @param rows Rows to store.
+     * @param directory Directory of the spill files.
+     * @return Spilled result set.
+     * @throws IOException
+     */
+    public static SpilledResultSet spill(Collection<?> rows, Path directory) throws IOException {
+        return spill(rows, directory, SEGMENT_SIZE);
+    }
+
+    /**
+     * Serializes the rows into a new spill file and maps the file in memory by segments of the size.
+     * @param rows Rows to store.
+     * @param directory Directory of the spill files.
+     * @param segmentSize Max size of a segment, a row larger than the size is mapped alone.
+     * @return Spilled result set.
+     * @throws IOException
+     */
+    static SpilledResultSet spill(Collection<?> rows, Path directory, long segmentSize) throws IOException {
+        Files.createDirectories(directory);
+        Path path = Files.createTempFile(directory, SPILL_FILE_PREFIX, SPILL_FILE_SUFFIX);
+
+        //The rows never cross the limit of a segment, then each row is decoded from only one mapped buffer.
+        long[] offsets = new long[rows.size() + 1];
+        List<Long> segmentStarts = new ArrayList<>();
+        segmentStarts.add(0L);
+        ByteArrayOutputStream rowBuffer = new ByteArrayOutputStream();
+        DataOutputStream rowOutput = new DataOutputStream(rowBuffer);
+        Map<CompactRow.Schema, Integer> schemaIds = new IdentityHashMap<>();
+        int index = 0;
+        long offset = 0;
+        try (OutputStream outputStream = new BufferedOutputStream(
+                Files.newOutputStream(path, StandardOpenOption.WRITE), WRITE_BUFFER_SIZE)) {
+            for (Object row : rows) {
+                rowBuffer.reset();
+                encodeRow(row, schemaIds, rowOutput);
+                rowOutput.flush();
+                if (offset > segmentStarts.get(segmentStarts.size() - 1) &&
+                        offset + rowBuffer.size() - segmentStarts.get(segmentStarts.size() - 1) > segmentSize) {
+                    segmentStarts.add(offset);
+                }
+                offsets[index++] = offset;
+                offset += rowBuffer.size();
+                rowBuffer.writeTo(outputStream);
+            }
+        } catch (IOException | RuntimeException ex) {
+            Files.deleteIfExists(path);
+            throw ex;
+        }
+        offsets[index] = offset;
+
+        MappedByteBuffer[] segments = new MappedByteBuffer[segmentStarts.size()];
+        long[] starts = new long[segmentStarts.size()];
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            for (int i = 0; i < segments.length; i++) {
+                starts[i] = segmentStarts.get(i);
+                long end = i + 1 < segments.length ? segmentStarts.get(i + 1) : offset;
+                segments[i] = channel.map(FileChannel.MapMode.READ_ONLY, starts[i], end - starts[i]);
+            }
+        }
+        CompactRow.Schema[] schemas = new CompactRow.Schema[schemaIds.size()];
+        for(Map.Entry<CompactRow.Schema, Integer> entry : schemaIds.entrySet()) {
+            schemas[entry.getValue()] = entry.getKey();
+        }
+        return new SpilledResultSet(path, Arrays.copyOf(offsets, index + 1), starts, segments, schemas);
+    }
+
+    /**
+     * Writes the row into the output. A compact row is written as the id of its schema followed by its
+     * values, and the id of each new schema is added to the schema ids.
+     * @param row Row to write.
+     * @param schemaIds Ids of the schemas of the rows already written.
+     * @param output Data output.
+     * @throws IOException
+     */
+    private static void encodeRow(Object row, Map<CompactRow.Schema, Integer> schemaIds, DataOutput output) throws IOException {
+        if(row instanceof CompactRow) {
+            CompactRow compactRow = (CompactRow) row;
+            Integer schemaId = schemaIds.get(compactRow.getSchema());
+            if(schemaId == null) {
+                schemaId = schemaIds.size();
+                schemaIds.put(compactRow.getSchema(), schemaId);
+            }
+            output.writeByte(COMPACT_ROW);
+            output.writeInt(schemaId);
+            for (int i = 0; i < compactRow.size(); i++) {
+                RowCodec.encode(compactRow.getValue(i), output);
+            }
+        } else {
+            output.writeByte(VALUE_ROW);
+            RowCodec.encode(row, output);
+        }
+    }
+
+    /**
+     * Returns the path of the spill file.
+     * @return Spill file path.
+     */
+    public Path getPath() {
+        return path;
+    }
+
+    /**
+     * Returns the number of bytes used by the rows into the spill file.
+     * @return Size in bytes.
+     */
+    public long getBytes() {
+        return offsets[offsets.length - 1];
+    }
+
+    /**
+     * Returns the number of segments mapped in memory.
+     * @return Number of segments.
+     */
+    int getSegmentCount() {
+        return segments.length;
+    }
+
+    @Override
+    public Object get(int index) {
+        if(index < 0 || index >= size()) {
+            throw new IndexOutOfBoundsException(Integer.toString(index));
+        }
+        long offset = offsets[index];
+        int segment = Arrays.binarySearch(segmentStarts, offset);
+        if(segment < 0) {
+            segment = -segment - 2;
+        }
+        ByteBuffer buffer = segments[segment].duplicate();
+        buffer.position((int) (offset - segmentStarts[segment]));
+        Object result;
+        if(buffer.get() == COMPACT_ROW) {
+            CompactRow.Schema schema = schemas[buffer.getInt()];
+            Object[] values = new Object[schema.size()];
+            for (int i = 0; i < values.length; i++) {
+                values[i] = RowCodec.decode(buffer);
+            }
+            result = new CompactRow(schema, values);
+        } else {
+            result = RowCodec.decode(buffer);
+        }
+        return result;
+    }
+
+    @Override
+    public int size() {
+        return offsets.length - 1;
+    }
+
+    /**
+     * Removes the spill file, the mapped segments are released by the garbage collector.
+     * @throws IOException
+     */
+    @Override
+    public void close() throws IOException {
+        Files.deleteIfExists(path);
+    }
+}
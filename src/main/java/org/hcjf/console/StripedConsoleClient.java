@@ -0,0 +1,282 @@
+package org.hcjf.console;
+
+import org.hcjf.io.net.NetService;
+import org.hcjf.io.net.messages.Message;
+import org.hcjf.io.net.messages.ResponseMessage;
+import org.hcjf.utils.Cryptography;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Function;
+
+/**
+ * This class implements a client that opens many connections (lanes) with the same server and stripes the
+ * requests over the connections, all the requests use the same session because the session travels into
+ * each message. The first lane is the connection of this client and the rest are created when the client
+ * connects.
+ * Each request is sent by the interactive lane with the lowest number of outstanding bytes, the bytes of a
+ * request are estimated using the size of the last response to the same query or command, all the lanes
+ * share the same response sizes. The requests
+ * whose estimated response is greater than the bulk threshold and the requests of the bulk class are sent by
+ * the last lane, then the transfer of a large result set doesn't delay the responses of the small requests.
+ * Each lane is probed by its own connection monitor, a dead lane only fails its own requests and the next
+ * requests are routed to the lanes that are alive.
+ * @author javaito
+ */
+public class StripedConsoleClient extends ConsoleClient {
+
+    private final ConsoleClient[] lanes;
+    private final AtomicLongArray outstandingBytes;
+    private final Map<UUID, Route> routes;
+    private final AtomicInteger nextLane;
+
+    public StripedConsoleClient(String host, Integer port, Cryptography cryptography, int connections) {
+        this(host, port, cryptography, connections, S -> new ConsoleClient(host, port, cryptography, S));
+    }
+
+    /**
+     * Creates a client whose lanes are created by the factory, the factory receives the response sizes that
+     * the lanes must share.
+     * @param host Host of the server.
+     * @param port Port of the server.
+     * @param cryptography Cryptography used by the connection of this client.
+     * @param connections Number of connections.
+     * @param laneFactory Factory of the lanes after the first one.
+     */
+    StripedConsoleClient(String host, Integer port, Cryptography cryptography, int connections,
+                         Function<ResponseSizes, ConsoleClient> laneFactory) {
+        super(host, port, cryptography);
+        lanes = new ConsoleClient[Math.max(1, connections)];
+        lanes[0] = this;
+        for (int i = 1; i < lanes.length; i++) {
+            lanes[i] = laneFactory.apply(getResponseSizes());
+        }
+        outstandingBytes = new AtomicLongArray(lanes.length);
+        routes = new ConcurrentHashMap<>();
+        nextLane = new AtomicInteger();
+    }
+
+    /**
+     * Returns the number of connections used by the client.
+     * @return Number of lanes.
+     */
+    public int getLanes() {
+        return lanes.length;
+    }
+
+    /**
+     * Returns the estimated bytes of the responses that are not arrived yet for each lane.
+     * @param lane Index of the lane.
+     * @return Outstanding bytes.
+     */
+    public long getOutstandingBytes(int lane) {
+        return outstandingBytes.get(lane);
+    }
+
+    /**
+     * Waits for the connection of this client and then registers and waits for the rest of the lanes.
+     */
+    @Override
+    public void waitForConnect() {
+        super.waitForConnect();
+        for (int i = 1; i < lanes.length && super.isConnected(); i++) {
+            NetService.getInstance().registerConsumer(lanes[i]);
+            lanes[i].waitForConnect();
+        }
+    }
+
+    /**
+     * Returns true if at least one lane is connected, the requests are routed only to the connected lanes.
+     * @return Connected flag.
+     */
+    @Override
+    public boolean isConnected() {
+        boolean result = false;
+        for (int i = 0; i < lanes.length && !result; i++) {
+            result = lanes[i].isConnectionAlive();
+        }
+        return result;
+    }
+
+    /**
+     * Returns the cause of the failure of the first lane only if all the lanes are dead.
+     * @return Cause of the failure or null if some lane is alive.
+     */
+    @Override
+    public Throwable getFailure() {
+        return isConnected() ? null : super.getFailure();
+    }
+
+    /**
+     * Starts the probes of all the lanes, each lane is declared dead by its own probes.
+     */
+    @Override
+    public void startConnectionMonitor() {
+        super.startConnectionMonitor();
+        for (int i = 1; i < lanes.length; i++) {
+            lanes[i].startConnectionMonitor();
+        }
+    }
+
+    @Override
+    public void disconnect() {
+        for (int i = 1; i < lanes.length; i++) {
+            lanes[i].disconnect();
+        }
+        super.disconnect();
+    }
+
+    @Override
+    public CompletableFuture<ResponseMessage> request(Message message, long deadline, Priority priority) throws IOException {
+        Route route = route(message, priority);
+        CompletableFuture<ResponseMessage> result;
+        try {
+            result = route.lane == 0 ? super.request(message, deadline, priority) :
+                    lanes[route.lane].request(message, deadline, priority);
+        } catch (IOException | RuntimeException ex) {
+            routes.remove(message.getId());
+            release(route);
+            throw ex;
+        }
+        result.whenComplete((response, throwable) -> {
+            //The response stays into its lane until somebody waits for it, then the route is not needed
+            //anymore and it's not leaked by the callers that never wait.
+            routes.remove(message.getId());
+            release(route);
+        });
+        return result;
+    }
+
+    @Override
+    public CompletableFuture<ResponseMessage> requestAsync(Message message, long deadline, Priority priority) {
+        Route route = route(message, priority);
+        CompletableFuture<ResponseMessage> result = route.lane == 0 ?
+                super.requestAsync(message, deadline, priority) : lanes[route.lane].requestAsync(message, deadline, priority);
+        result.whenComplete((response, throwable) -> {
+            routes.remove(message.getId());
+            release(route);
+        });
+        return result;
+    }
+
+    @Override
+    public ResponseMessage getResult(UUID messageId, long deadline) throws TimeoutException {
+        int lane = getLane(messageId);
+        try {
+            return lane == 0 ? super.getResult(messageId, deadline) : lanes[lane].getResult(messageId, deadline);
+        } finally {
+            routes.remove(messageId);
+        }
+    }
+
+    @Override
+    public boolean cancel(UUID messageId) {
+        int lane = getLane(messageId);
+        routes.remove(messageId);
+        return lane == 0 ? super.cancel(messageId) : lanes[lane].cancel(messageId);
+    }
+
+    /**
+     * Returns the lane of the message, if the route was already removed because the response arrived then
+     * the lane is the one that contains the response.
+     * @param messageId Id of the message.
+     * @return Index of the lane.
+     */
+    private int getLane(UUID messageId) {
+        Route route = routes.get(messageId);
+        int result = 0;
+        if(route != null) {
+            result = route.lane;
+        } else {
+            for (int i = 1; i < lanes.length; i++) {
+                if(lanes[i].isPending(messageId)) {
+                    result = i;
+                    break;
+                }
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public int cancelAll() {
+        int result = super.cancelAll();
+        for (int i = 1; i < lanes.length; i++) {
+            result += lanes[i].cancelAll();
+        }
+        return result;
+    }
+
+    /**
+     * Selects the alive lane for the message and adds the estimated bytes of its response to the lane.
+     * @param message Message to send.
+     * @param priority Priority class of the message, the bulk messages use the bulk lane.
+     * @return Route of the message.
+     */
+    private Route route(Message message, Priority priority) {
+        long estimatedBytes = getResponseSizes().getExpectedBytes(message);
+        int bulkLane = lanes.length - 1;
+        int lane;
+        if(lanes.length == 1) {
+            lane = 0;
+        } else if((priority == Priority.BULK || estimatedBytes >= getBulkThreshold()) && lanes[bulkLane].isConnectionAlive()) {
+            lane = bulkLane;
+        } else {
+            //The interactive lanes are all except the last one, the search starts on a different lane each
+            //time in order to distribute the requests when the lanes are tied.
+            int interactiveLanes = lanes.length - 1;
+            int start = Math.floorMod(nextLane.getAndIncrement(), interactiveLanes);
+            lane = -1;
+            for (int i = 0; i < interactiveLanes; i++) {
+                int candidate = (start + i) % interactiveLanes;
+                if(lanes[candidate].isConnectionAlive() &&
+                        (lane < 0 || outstandingBytes.get(candidate) < outstandingBytes.get(lane))) {
+                    lane = candidate;
+                }
+            }
+            if(lane < 0) {
+                //All the interactive lanes are dead, if the bulk lane is dead too then the request fails
+                //into the first lane.
+                lane = lanes[bulkLane].isConnectionAlive() ? bulkLane : 0;
+            }
+        }
+        outstandingBytes.addAndGet(lane, estimatedBytes);
+        Route route = new Route(lane, estimatedBytes);
+        routes.put(message.getId(), route);
+        return route;
+    }
+
+    /**
+     * Removes the estimated bytes of the request from its lane, the size of the response is stored by
+     * the lane that receives it.
+     * @param route Route of the request.
+     */
+    private void release(Route route) {
+        if(route.released.compareAndSet(false, true)) {
+            outstandingBytes.addAndGet(route.lane, -route.estimatedBytes);
+        }
+    }
+
+    /**
+     * Lane selected for a request and the bytes added to the lane.
+     */
+    private static class Route {
+
+        private final int lane;
+        private final long estimatedBytes;
+        private final AtomicBoolean released;
+
+        private Route(int lane, long estimatedBytes) {
+            this.lane = lane;
+            this.estimatedBytes = estimatedBytes;
+            this.released = new AtomicBoolean();
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package org.hcjf.console;
+
+/**
+ * This class limits the number of bytes per second, the bucket is refilled with the rate bytes per second
+ * up to the rate (bursts of one second). An operation is allowed while the bucket is not empty and takes
+ * all its bytes even if the bucket hasn't enough, then a large operation leaves the bucket in debt and the
+ * next operations wait until the debt is paid instead of be rejected forever.
+ * @author javaito
+ */
+public class TokenBucket {
+
+    private static final double NANOS_PER_SECOND = 1_000_000_000.0;
+
+    private final long rate;
+    private double tokens;
+    private long lastRefill;
+
+    /**
+     * Creates the bucket.
+     * @param rate Max number of bytes per second, zero or negative to disable the limit.
+     */
+    public TokenBucket(long rate) {
+        this.rate = rate;
+        this.tokens = rate;
+        this.lastRefill = System.nanoTime();
+    }
+
+    /**
+     * Returns true if the bucket limits the rate.
+     * @return Limited flag.
+     */
+    public boolean isLimited() {
+        return rate > 0;
+    }
+
+    /**
+     * Verify if the bucket allows an operation now without take any byte.
+     * @return True if the bucket is not empty.
+     */
+    public synchronized boolean hasToken() {
+        refill();
+        return rate <= 0 || tokens > 0;
+    }
+
+    /**
+     * Takes the bytes of an operation if the bucket is not empty.
+     * @param bytes Number of bytes of the operation.
+     * @return True if the bytes were taken.
+     */
+    public synchronized boolean tryAcquire(long bytes) {
+        boolean result = hasToken();
+        if(result && rate > 0) {
+            tokens -= bytes;
+        }
+        return result;
+    }
+
+    /**
+     * Returns the time until the bucket allows the next operation.
+     * @return Time in milliseconds.
+     */
+    public synchronized long getWaitTime() {
+        refill();
+        return rate <= 0 || tokens > 0 ? 0 : (long) Math.floor(-tokens * 1000.0 / rate) + 1;
+    }
+
+    /**
+     * Adds the bytes generated since the last refill.
+     */
+    private void refill() {
+        if(rate > 0) {
+            long now = System.nanoTime();
+            tokens = Math.min(rate, tokens + (now - lastRefill) * rate / NANOS_PER_SECOND);
+            lastRefill = now;
+        }
+    }
+}
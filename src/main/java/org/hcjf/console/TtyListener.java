@@ -1,17 +1,17 @@
 package org.hcjf.console;
 
-import javafx.scene.input.KeyCode;
 import org.hcjf.utils.Strings;
 
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
-import java.util.ArrayList;
-import java.util.Arrays;
-import java.util.List;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.locks.LockSupport;
 
 /**
- * This class implements all the functions for the different inputs.
+ * This class implements all the functions for the different inputs. The thread of the listener reads and
+ * decodes the input all the time and queues the keys, the thread reading a line consumes the keys and edits
+ * the line, then the keys typed while a command is running are processed by the next read.
  * @author javaito
  */
 public class TtyListener implements Runnable {
@@ -20,27 +20,72 @@ public class TtyListener implements Runnable {
     private static final String CHARACTER_BUFFERED_COMMAND = "-icanon min 1";
     private static final String DISABLE_ECHOING_COMMAND = "-echo";
     private static final String STTY_COMMAND = "stty %s < /dev/tty";
-    private static final String SECRET_CHARACTER = "*";
-
-    private static final Long LEFT = 4479771L;
-    private static final Long RIGHT = 4414235L;
-    private static final Long UP = 4283163L;
-    private static final Long DOWN = 4348699L;
+    private static final String STTY_GET_AND_SET_COMMAND = "stty %s < /dev/tty && stty %s %s < /dev/tty";
+    private static final String HISTORY_FILE_NAME = "history";
+    private static final String REVERSE_SEARCH_PROMPT = "(reverse-i-search)`%s': ";
+    private static final String FAILED_REVERSE_SEARCH_PROMPT = "(failed reverse-i-search)`%s': ";
+    private static final String CANDIDATES_SEPARATOR = "  ";
+
+    private static final String TERMINAL_SIZE_COMMAND = "size";
+    private static final String WINDOW_CHANGE_SIGNAL = "WINCH";
+    private static final int DEFAULT_ROWS = 24;
+    private static final int DEFAULT_COLUMNS = 80;
+    private static final int READ_BUFFER_SIZE = 256;
+    private static final int KEYS_CAPACITY = 4096;
+    private static final long FULL_QUEUE_WAIT = 1_000_000L;
+    private static final byte CONTROL_SEQUENCE = '[';
+    private static final byte SINGLE_SHIFT = 'O';
+
+    public static final Long LEFT = 4479771L;
+    public static final Long RIGHT = 4414235L;
+    public static final Long UP = 4283163L;
+    public static final Long DOWN = 4348699L;
+    public static final Long PAGE_UP = 2117425947L;
+    public static final Long PAGE_DOWN = 2117491483L;
+    public static final Long HOME = 4741915L;
+    public static final Long END = 4610843L;
+    public static final Long ESCAPE = 27L;
     private static final Long DEL = 2117294875L;
+    private static final Long CTRL_G = 7L;
+    private static final Long TAB = 9L;
+    private static final Long CTRL_R = 18L;
+    private static final Long CTRL_W = 23L;
+    private static final Long CTRL_LEFT = 74995417045787L;
+    private static final Long CTRL_RIGHT = 73895905418011L;
+    private static final Long ALT_B = 25115L;
+    private static final Long ALT_F = 26139L;
+    private static final Long ALT_ENTER = 3355L;
+    private static final int ENTER = 10;
+    private static final int DELETE = 127;
+    private static final char LINE_CONTINUATION = '\\';
+    private static final char LINE_SEPARATOR = '\n';
 
     private String ttyConfig;
-    private final StringBuilder line;
-    private int linePosition;
-    private boolean listening;
+    private final LineEditor line;
     private boolean secret;
-    private final List<String> history;
+    private final CommandHistory history;
     private int historyPosition;
+    private String historyPrefix;
+    private boolean searching;
+    private final StringBuilder searchQuery;
+    private int searchPosition;
+    private String originalLine;
     private String prompt;
     private String promptColor;
+    private String originalPrompt;
+    private String originalPromptColor;
+    private Completion completion;
+    private boolean lastKeyWasTab;
+    private final KeyRing keys;
+    private volatile int[] terminalSize;
+    private volatile boolean resizeSignal;
 
     public TtyListener() {
-        line = new StringBuilder();
-        history = new ArrayList<>();
+        line = new LineEditor(System.out);
+        history = new CommandHistory(ConsoleProperties.getHome().resolve(HISTORY_FILE_NAME));
+        searchQuery = new StringBuilder();
+        keys = new KeyRing(KEYS_CAPACITY);
+        terminalSize = new int[]{DEFAULT_ROWS, DEFAULT_COLUMNS};
     }
 
     @Override
@@ -50,97 +95,25 @@ public class TtyListener implements Runnable {
             //Config the system console, deshabling the echoing mode and setting a buffer size in 1.
             configTty();
 
-            //Internal buffer to read from the input.
-            byte[] buffer = new byte[8];
-            //Long representation of the input.
-            long command;
-            long bufferPart;
-            while (!Thread.currentThread().isInterrupted()) {
-
-                //Read something only if the listener is blocking some thread.
-                if (System.in.available() != 0 && listening) {
-                    try {
-                        System.in.read(buffer);
-
-                        //Creates the long representation of the internal buffer.
-                        command = 0;
-                        for (int i = 0; i < 8; i++) {
-                            bufferPart = buffer[i];
-                            command += bufferPart << i * 8;
-                        }
-
-                        if (command == KeyCode.ENTER.getCode()) {
-                            //If the command is equals to the enter code then the current editing line
-                            //is complete and the thread blocking is notified.
-
-                            if(!secret) {
-                                //If the listener is not in secret mode then the line is stored into the history.
-                                history.add(line.toString());
-                                historyPosition = history.size() + 1;
-                            }
-                            synchronized (line) {
-                                line.notifyAll();
-                                listening = false;
-                            }
-                            System.out.println();
-                        } else if(command == KeyCode.DELETE.getCode()) {
-                            //If the command is equals to the delete code then erase the character
-                            if(line.length() > 0 && linePosition > 0) {
-                                System.out.print("\033[1D");
-                                linePosition--;
-                                line.delete(linePosition, linePosition+1);
-                                printLine();
-                            }
-                        } else if(command == LEFT) {
-                            if(linePosition > 0) {
-                                System.out.print("\033[1D");
-                                linePosition--;
-                            }
-                        } else if(command == RIGHT) {
-                            if(linePosition < line.length()) {
-                                System.out.print("\033[1C");
-                                linePosition++;
-                            }
-                        } else if(command == UP) {
-                            if(!history.isEmpty() && !secret) {
-                                if (historyPosition > 1) {
-                                    historyPosition--;
-                                }
-                                resetLine();
-                                line.setLength(0);
-                                line.append(history.get(historyPosition-1));
-                                linePosition = line.length();
-                                printLine();
-                            }
-                        } else if(command == DOWN) {
-                            if(!history.isEmpty() && !secret) {
-                                if(historyPosition == history.size()) {
-                                    resetLine();
-                                    printLine();
-                                } else {
-                                    if (historyPosition < history.size()) {
-                                        historyPosition++;
-                                    }
-                                    resetLine();
-                                    line.setLength(0);
-                                    line.append(history.get(historyPosition - 1));
-                                    linePosition = line.length();
-                                    printLine();
-                                }
-                            }
-                        } else {
-                            if(command == (byte)command) {
-                                line.insert(linePosition++, (char) command);
-                                printLine();
-                            }
-                        }
-                        Arrays.fill(buffer, (byte) 0);
-                    } catch (Throwable ex) {
-                        ex.printStackTrace();
-                    }
-                }
+            //The size of the terminal is read only when the terminal is resized, if the platform doesn't
+            //deliver the signal then the size is read each time it's needed.
+            terminalSize = readTerminalSize();
+            resizeSignal = Signals.handle(WINDOW_CHANGE_SIGNAL, () -> terminalSize = readTerminalSize());
+
+            //Opens the history shared with the others console processes.
+            try {
+                history.load();
+            } catch (IOException ex) {
+            }
 
-                Thread.sleep(5);
+            //The input is always read and decoded, the keys are queued until some thread reads them
+            //then the keys typed while a command is running are not lost.
+            byte[] buffer = new byte[READ_BUFFER_SIZE];
+            int length = 0;
+            int size;
+            while (!Thread.currentThread().isInterrupted() &&
+                    (size = System.in.read(buffer, length, buffer.length - length)) != -1) {
+                length = decode(buffer, length + size);
             }
         } catch (Exception ex) {
         } finally {
@@ -153,75 +126,353 @@ public class TtyListener implements Runnable {
     }
 
     /**
-     * Print the prompt.
+     * Splits the bytes read into keys and adds the keys into the queue. Each key is represented by a long
+     * with its bytes in little endian order: a character, an escape sequence (arrows, home, alt + key, etc.)
+     * or all the bytes of an utf-8 character.
+     * @param buffer Bytes read.
+     * @param length Number of bytes into the buffer.
+     * @return Number of bytes of an incomplete utf-8 character moved to the start of the buffer.
      */
-    private void printPrompt() {
-        if(promptColor != null) {
-            System.out.print(promptColor);
-            System.out.print(prompt);
-            System.out.print(Strings.StandardOutput.RESET);
-        } else {
-            System.out.print(prompt);
+    private int decode(byte[] buffer, int length) {
+        int position = 0;
+        while(position < length) {
+            int keyLength;
+            int first = buffer[position] & 0xFF;
+            if(first == ESCAPE) {
+                if(position + 1 == length) {
+                    keyLength = 1;
+                } else if(buffer[position + 1] == CONTROL_SEQUENCE || buffer[position + 1] == SINGLE_SHIFT) {
+                    //The sequence ends with the first byte between '@' and '~'.
+                    keyLength = 2;
+                    while(position + keyLength < length &&
+                            (buffer[position + keyLength] < '@' || buffer[position + keyLength] > '~')) {
+                        keyLength++;
+                    }
+                    keyLength = Math.min(length - position, keyLength + 1);
+                } else {
+                    keyLength = 2;
+                }
+            } else if(first >= 0xF0) {
+                keyLength = 4;
+            } else if(first >= 0xE0) {
+                keyLength = 3;
+            } else if(first >= 0xC0) {
+                keyLength = 2;
+            } else {
+                keyLength = 1;
+            }
+            if(position + keyLength > length) {
+                //The rest of the character is not read yet.
+                break;
+            }
+            long key = 0;
+            for (int i = 0; i < Math.min(keyLength, Long.BYTES); i++) {
+                key |= (long) (buffer[position + i] & 0xFF) << i * 8;
+            }
+            if(key != KeyRing.NO_KEY) {
+                while(!keys.offer(key)) {
+                    LockSupport.parkNanos(FULL_QUEUE_WAIT);
+                }
+            }
+            position += keyLength;
         }
+        System.arraycopy(buffer, position, buffer, 0, length - position);
+        return length - position;
     }
 
     /**
-     * Print the current editing line.
+     * Process a key over the editing line.
+     * @param command Key code.
+     * @return Returns true if the key completes the line.
      */
-    private void printLine() {
-        //Erases the entire current line.
-        System.out.print("\033[2K");
-
-        //Verify if the internal buffer contains something.
-        if(line.length() > 0) {
-            //If the internal buffer is not empty then move the cursor to the start of the screen
-            //using the prompt length and the current line length, and print the prompt.
-            System.out.printf("\033[%dD", prompt.length() + line.length());
-            printPrompt();
-
-            //Verify if the listener instance is the secret mode.
-            if(secret) {
-                //If the secret mode is available then print one secret character for
-                //each char into the current editing line
-                for (int i = 0; i < line.length(); i++) {
-                    System.out.print(SECRET_CHARACTER);
+    private boolean processKey(long command) {
+        boolean tab = command == TAB;
+        boolean complete = false;
+        if(searching && processSearchKey(command)) {
+            //The key was consumed by the reverse search.
+        } else if(tab) {
+            if(!secret && completion != null) {
+                complete();
+            }
+        } else if (command == ENTER && !secret && isContinued()) {
+            //The line ends with the continuation character, then the character is
+            //replaced by a new line.
+            line.deleteBackward();
+            line.insert(LINE_SEPARATOR);
+            printLine();
+        } else if (command == ENTER) {
+            //If the command is equals to the enter code then the current editing line is complete.
+
+            if(!secret) {
+                //If the listener is not in secret mode then the line is stored into the history.
+                history.add(line.toString());
+            }
+            historyPosition = history.size();
+            historyPrefix = null;
+            line.end();
+            while(line.down()) {
+                line.end();
+            }
+            line.render();
+            line.detach();
+            complete = true;
+        } else if(command == ALT_ENTER) {
+            if(!secret) {
+                line.insert(LINE_SEPARATOR);
+                printLine();
+                historyPrefix = null;
+            }
+        } else if(command == DELETE) {
+            //If the command is equals to the delete code then erase the character
+            line.deleteBackward();
+            printLine();
+            historyPrefix = null;
+        } else if(command == DEL) {
+            line.deleteForward();
+            printLine();
+            historyPrefix = null;
+        } else if(command == CTRL_W) {
+            line.deleteWordBackward();
+            printLine();
+            historyPrefix = null;
+        } else if(command == LEFT) {
+            line.left();
+            printLine();
+        } else if(command == RIGHT) {
+            line.right();
+            printLine();
+        } else if(command == CTRL_LEFT || command == ALT_B) {
+            line.wordLeft();
+            printLine();
+        } else if(command == CTRL_RIGHT || command == ALT_F) {
+            line.wordRight();
+            printLine();
+        } else if(command == HOME) {
+            line.home();
+            printLine();
+        } else if(command == END) {
+            line.end();
+            printLine();
+        } else if(command == UP && line.up()) {
+            //The cursor was moved to the previous line of the text.
+            printLine();
+        } else if(command == DOWN && line.down()) {
+            //The cursor was moved to the next line of the text.
+            printLine();
+        } else if(command == UP) {
+            if(!secret) {
+                //The text typed before start to walk the history is used as prefix.
+                if(historyPrefix == null) {
+                    historyPrefix = line.toString();
+                    historyPosition = history.size();
                 }
-            } else {
-                //If the secret mode is not available then print the current editing lien.
-                System.out.print(line.toString());
+                int position = history.searchPrefixBackward(historyPrefix, historyPosition);
+                if(position >= 0) {
+                    historyPosition = position;
+                    setLine(history.get(position));
+                }
+            }
+        } else if(command == DOWN) {
+            if(!secret && historyPrefix != null) {
+                int position = history.searchPrefixForward(historyPrefix, historyPosition);
+                if(position >= 0) {
+                    historyPosition = position;
+                    setLine(history.get(position));
+                } else {
+                    historyPosition = history.size();
+                    setLine(historyPrefix);
+                    historyPrefix = null;
+                }
+            }
+        } else if(command == CTRL_R) {
+            if(!secret) {
+                startSearch();
+            }
+        } else {
+            int codePoint = toCodePoint(command);
+            if(codePoint >= 0) {
+                line.insert(new String(Character.toChars(codePoint)));
+                printLine();
+                historyPrefix = null;
+            }
+        }
+        lastKeyWasTab = tab;
+        return complete;
+    }
+
+    /**
+     * Returns the character typed with the key, the key contains one ascii character or the bytes of an utf-8
+     * character.
+     * @param key Key code.
+     * @return Code point of the character or -1 if the key is not a printable character.
+     */
+    private static int toCodePoint(long key) {
+        int first = (int) (key & 0xFF);
+        int result = -1;
+        if(key == first && first >= ' ' && first < DELETE) {
+            result = first;
+        } else if(first >= 0xC0) {
+            int length = first >= 0xF0 ? 4 : first >= 0xE0 ? 3 : 2;
+            byte[] bytes = new byte[length];
+            for (int i = 0; i < length; i++) {
+                bytes[i] = (byte) (key >>> i * 8);
+            }
+            String character = new String(bytes, StandardCharsets.UTF_8);
+            int codePoint = character.codePointAt(0);
+            if(character.codePointCount(0, character.length()) == 1 && codePoint != 0xFFFD &&
+                    !Character.isISOControl(codePoint)) {
+                result = codePoint;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns the completion used to complete the words of the line.
+     * @return Completion instance.
+     */
+    public Completion getCompletion() {
+        return completion;
+    }
+
+    /**
+     * Set the completion used to complete the words of the line.
+     * @param completion Completion instance.
+     */
+    public void setCompletion(Completion completion) {
+        this.completion = completion;
+    }
+
+    /**
+     * Complete the word before the cursor. If there are only one candidate then the word is completed,
+     * if there are many candidates then the common prefix is inserted and if the key is pressed
+     * again then all the candidates are printed.
+     */
+    private void complete() {
+        Completion.Candidates candidates = completion.complete(line.toString(), line.getPosition());
+        if(!candidates.getValues().isEmpty()) {
+            String commonPrefix = candidates.getCommonPrefix();
+            if(commonPrefix.length() > candidates.getWord().length()) {
+                line.insert(commonPrefix.substring(candidates.getWord().length()));
+                printLine();
+            } else if(candidates.getValues().size() > 1 && lastKeyWasTab) {
+                line.detach();
+                System.out.print(Strings.CARRIAGE_RETURN);
+                System.out.print(String.join(CANDIDATES_SEPARATOR, candidates.getValues()));
+                System.out.println();
+                printLine();
             }
+        }
+    }
+
+    /**
+     * Replace the current editing line and move the cursor to the end of the line.
+     * @param value New value of the line.
+     */
+    private void setLine(String value) {
+        line.set(value);
+        printLine();
+    }
+
+    /**
+     * Starts the incremental reverse search, the prompt is replaced by the search query.
+     */
+    private void startSearch() {
+        searching = true;
+        searchQuery.setLength(0);
+        searchPosition = history.size();
+        originalLine = line.toString();
+        originalPrompt = prompt;
+        originalPromptColor = promptColor;
+        printSearch(true);
+    }
 
-            //Move the cursor to the start of the screen again, then move forward until
-            //the prompt length plus the line position.
-            System.out.printf("\033[%dD", prompt.length() + line.length());
-            if(linePosition > 0) {
-                System.out.printf("\033[%dC", prompt.length() + linePosition);
+    /**
+     * Process a key during the reverse search.
+     * @param command Key code.
+     * @return Returns true if the key was consumed by the search, and false if the search ends and the
+     * key must be processed as a normal key.
+     */
+    private boolean processSearchKey(long command) {
+        boolean result = true;
+        if(command == CTRL_R) {
+            //Search the next older match.
+            int position = history.searchBackward(searchQuery.toString(), searchPosition);
+            if(position >= 0) {
+                searchPosition = position;
+            }
+            printSearch(position >= 0 || searchQuery.length() == 0);
+        } else if(command == DELETE) {
+            if(searchQuery.length() > 0) {
+                searchQuery.setLength(searchQuery.length() - 1);
             }
+            searchPosition = history.size();
+            updateSearch();
+        } else if(command == CTRL_G || command == ESCAPE) {
+            //Cancel the search and restore the original line.
+            endSearch(originalLine);
+        } else if(toCodePoint(command) >= 0) {
+            searchQuery.appendCodePoint(toCodePoint(command));
+            updateSearch();
         } else {
-            //If the internal buffer is empty then move the cursor to the start of the screen
-            //using the prompt length, and print only the prompt.
-            System.out.printf("\033[%dD", prompt.length());
-            printPrompt();
+            //Any other key accepts the match and it's processed as a normal key.
+            endSearch(line.toString());
+            result = false;
+        }
+        return result;
+    }
+
+    /**
+     * Search the query starting on the current match.
+     */
+    private void updateSearch() {
+        int position = history.searchBackward(searchQuery.toString(), Math.min(searchPosition + 1, history.size()));
+        if(position >= 0) {
+            searchPosition = position;
         }
+        printSearch(position >= 0 || searchQuery.length() == 0);
+    }
+
+    /**
+     * Print the search query as prompt and the current match as line.
+     * @param found True if the query was found.
+     */
+    private void printSearch(boolean found) {
+        prompt = String.format(found ? REVERSE_SEARCH_PROMPT : FAILED_REVERSE_SEARCH_PROMPT, searchQuery);
+        promptColor = originalPromptColor;
+        line.setPrompt(prompt, promptColor);
+        line.set(searchPosition < history.size() ? history.get(searchPosition) : Strings.EMPTY_STRING);
+        printLine();
     }
 
     /**
-     * Erase the the text line, print prompt again, and clean the internal buffer.
+     * Ends the reverse search restoring the original prompt.
+     * @param value Value of the editing line.
      */
-    private void resetLine() {
-        System.out.printf("\033[%dD", prompt.length() + linePosition);
-        printPrompt();
-        line.setLength(0);
-        linePosition = 0;
+    private void endSearch(String value) {
+        searching = false;
+        prompt = originalPrompt;
+        promptColor = originalPromptColor;
+        line.setPrompt(prompt, promptColor);
+        historyPrefix = null;
+        historyPosition = history.size();
+        setLine(value);
     }
 
     /**
-     * Erase the text line, and clean the internal buffer.
+     * Verify if the last character of the line is the continuation character.
+     * @return True if the line continues into a new line.
      */
-    private void cleanLine() {
-        System.out.printf("\033[%dD", prompt.length() + linePosition);
-        line.setLength(0);
-        linePosition = 0;
+    private boolean isContinued() {
+        return line.getPosition() == line.length() && line.length() > 0 &&
+                line.charAt(line.length() - 1) == LINE_CONTINUATION;
+    }
+
+    /**
+     * Print the changes of the current editing line.
+     */
+    private void printLine() {
+        line.render();
     }
 
     /**
@@ -230,8 +481,7 @@ public class TtyListener implements Runnable {
     public void clear() {
         System.out.printf("\033[1J");
         System.out.printf("\033[H");
-        line.setLength(0);
-        linePosition = 0;
+        line.clear();
     }
 
     /**
@@ -250,7 +500,8 @@ public class TtyListener implements Runnable {
     }
 
     /**
-     * This method block the current thread until obtain a command from the input.
+     * This method block the current thread until obtain a command from the input, the keys typed before
+     * the call are processed first. All the reads must be done by the same thread.
      * @param prompt Text to show into the screen.
      * @param color Color of the prompt text.
      * @param arguments Arguments to replace into the prompt text.
@@ -259,22 +510,61 @@ public class TtyListener implements Runnable {
     public String read(String prompt, String color, String... arguments) {
         this.prompt = String.format(prompt, arguments);
         this.promptColor = color;
-        String result;
-        synchronized (line) {
-            resetLine();
-            listening = true;
+        line.setColumns(getTerminalSize()[1]);
+        line.start(this.prompt, color, secret);
+        long key;
+        boolean complete = false;
+        while(!complete && (key = keys.take(0)) != KeyRing.NO_KEY) {
             try {
-                line.wait();
-            } catch (InterruptedException e) {
+                complete = processKey(key);
+            } catch (Throwable ex) {
+                ex.printStackTrace();
             }
-            listening = false;
-            result = line.toString();
-            cleanLine();
         }
+        String result = line.toString();
+        line.clear();
         return result;
     }
 
 
+    /**
+     * This method blocks the current thread until a key is pressed, the key is not printed and
+     * is not part of the editing line. If some key was typed before then the key is returned immediately.
+     * @param timeout Max time to wait in milliseconds, zero to wait without timeout.
+     * @return Returns the code of the key or null if the timeout is reached.
+     */
+    public Long readKey(long timeout) {
+        long key = keys.take(timeout);
+        return key == KeyRing.NO_KEY ? null : key;
+    }
+
+    /**
+     * Returns the size of the terminal, the size is updated when the terminal is resized or read each time
+     * if the resize signal is not available.
+     * @return Array with the number of rows and the number of columns.
+     */
+    public int[] getTerminalSize() {
+        return resizeSignal ? terminalSize.clone() : readTerminalSize();
+    }
+
+    /**
+     * Reads the size of the terminal, if the size is not available then a screen of 24 rows
+     * and 80 columns is assumed.
+     * @return Array with the number of rows and the number of columns.
+     */
+    private int[] readTerminalSize() {
+        int[] result = new int[]{DEFAULT_ROWS, DEFAULT_COLUMNS};
+        try {
+            String[] size = stty(TERMINAL_SIZE_COMMAND).trim().split(Strings.WHITE_SPACE);
+            if(size.length == 2) {
+                result[0] = Integer.parseInt(size[0]);
+                result[1] = Integer.parseInt(size[1]);
+            }
+        } catch (Exception ex) {
+        }
+        return result;
+    }
+
     /**
      * This method set a tty configuration in order to read one character at time and
      * disabling the echo of each character.
@@ -283,14 +573,11 @@ public class TtyListener implements Runnable {
      * @throws InterruptedException
      */
     private void configTty() throws IOException, InterruptedException {
-        //Getting current tty config
-        ttyConfig = stty(GET_TTY_CONFIG);
-
-        //Set the console to be character-buffered instead of line-buffered
-        stty(CHARACTER_BUFFERED_COMMAND);
-
-        //Disable character echoing
-        stty(DISABLE_ECHOING_COMMAND);
+        //Getting current tty config, set the console to be character-buffered instead of line-buffered
+        //and disable character echoing, all into the same process in order to spawn only one process.
+        String cmd = String.format(STTY_GET_AND_SET_COMMAND, GET_TTY_CONFIG,
+                CHARACTER_BUFFERED_COMMAND, DISABLE_ECHOING_COMMAND);
+        ttyConfig = exec(new String[]{"sh", "-c", cmd});
     }
 
     /**
@@ -0,0 +1,27 @@
+package org.hcjf.console.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Event emitted when a line typed by the user is parsed as a command.
+ * @author javaito
+ */
+@Name("org.hcjf.console.CommandParse")
+@Label("Command Parse")
+@Category({"HCJF Console"})
+@Description("Event emitted when a line typed by the user is parsed as a command.")
+public class CommandParseEvent extends Event {
+
+    @Label("Line")
+    public String line;
+
+    @Label("Command")
+    public String command;
+
+    @Label("Parameters")
+    public int parameters;
+}
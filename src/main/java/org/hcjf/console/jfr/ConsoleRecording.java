@@ -0,0 +1,46 @@
+package org.hcjf.console.jfr;
+
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.text.ParseException;
+
+/**
+ * This class starts a flight recording that contains the events of the console and the events of the jvm,
+ * the recording is written into the file when the process ends.
+ * @author javaito
+ */
+public final class ConsoleRecording {
+
+    private static final String CONFIGURATION_NAME = "default";
+    private static final String RECORDING_NAME = "hcjf-console";
+
+    private ConsoleRecording() {
+    }
+
+    /**
+     * Starts the recording.
+     * @param destination File where the recording is written when the process ends.
+     * @return Recording instance.
+     * @throws IOException
+     * @throws ParseException
+     */
+    public static Recording start(Path destination) throws IOException, ParseException {
+        Recording recording = new Recording(Configuration.getConfiguration(CONFIGURATION_NAME));
+        recording.setName(RECORDING_NAME);
+        recording.enable(CommandParseEvent.class);
+        recording.enable(QueryCompileEvent.class);
+        recording.enable(MessageSendEvent.class);
+        recording.enable(ResponseArrivalEvent.class);
+        recording.enable(ResultWaitEvent.class);
+        recording.enable(RenderEvent.class);
+        recording.enable(StartupEvent.class);
+        recording.setToDisk(true);
+        recording.setDestination(destination);
+        recording.setDumpOnExit(true);
+        recording.start();
+        return recording;
+    }
+}
@@ -0,0 +1,29 @@
+package org.hcjf.console.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timestamp;
+
+/**
+ * Event emitted when a message is serialized and sent to the server.
+ * @author javaito
+ */
+@Name("org.hcjf.console.MessageSend")
+@Label("Message Send")
+@Category({"HCJF Console"})
+@Description("Event emitted when a message is serialized and sent to the server.")
+public class MessageSendEvent extends Event {
+
+    @Label("Message Id")
+    public String messageId;
+
+    @Label("Message Type")
+    public String messageType;
+
+    @Label("Deadline")
+    @Timestamp
+    public long deadline;
+}
@@ -0,0 +1,27 @@
+package org.hcjf.console.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Event emitted when a query is compiled or obtained from the compiled queries cache.
+ * @author javaito
+ */
+@Name("org.hcjf.console.QueryCompile")
+@Label("Query Compile")
+@Category({"HCJF Console"})
+@Description("Event emitted when a query is compiled or obtained from the compiled queries cache.")
+public class QueryCompileEvent extends Event {
+
+    @Label("Query")
+    public String query;
+
+    @Label("Cached")
+    public boolean cached;
+
+    @Label("Parameters")
+    public int parameters;
+}
@@ -0,0 +1,24 @@
+package org.hcjf.console.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Event emitted when a result is rendered into the terminal.
+ * @author javaito
+ */
+@Name("org.hcjf.console.Render")
+@Label("Render")
+@Category({"HCJF Console"})
+@Description("Event emitted when a result is rendered into the terminal.")
+public class RenderEvent extends Event {
+
+    @Label("Renderer")
+    public String renderer;
+
+    @Label("Rows")
+    public int rows;
+}
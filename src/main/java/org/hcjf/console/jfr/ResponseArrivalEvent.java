@@ -0,0 +1,32 @@
+package org.hcjf.console.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Event emitted when a response message is received from the server.
+ * @author javaito
+ */
+@Name("org.hcjf.console.ResponseArrival")
+@Label("Response Arrival")
+@Category({"HCJF Console"})
+@Description("Event emitted when a response message is received from the server.")
+public class ResponseArrivalEvent extends Event {
+
+    @Label("Message Id")
+    public String messageId;
+
+    @Label("Failed")
+    public boolean failed;
+
+    @Label("Abandoned")
+    @Description("The request was cancelled before the response arrives")
+    public boolean abandoned;
+
+    @Label("Unregistered")
+    @Description("There was not a request waiting for the response, then the response was dropped")
+    public boolean unregistered;
+}
@@ -0,0 +1,25 @@
+package org.hcjf.console.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Event emitted when a thread stops waiting the response of a message.
+ * @author javaito
+ */
+@Name("org.hcjf.console.ResultWait")
+@Label("Result Wait")
+@Category({"HCJF Console"})
+@Description("Event emitted when a thread stops waiting the response of a message.")
+public class ResultWaitEvent extends Event {
+
+    @Label("Message Id")
+    public String messageId;
+
+    @Label("Outcome")
+    @Description("Response, timeout or cancelled")
+    public String outcome;
+}
@@ -0,0 +1,29 @@
+package org.hcjf.console.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+/**
+ * Event emitted when the first prompt of the console is ready.
+ * @author javaito
+ */
+@Name("org.hcjf.console.Startup")
+@Label("Startup")
+@Category({"HCJF Console"})
+@Description("Event emitted when the first prompt of the console is ready.")
+public class StartupEvent extends Event {
+
+    @Label("Uptime")
+    @Timespan(Timespan.MILLISECONDS)
+    public long uptime;
+
+    @Label("Cached Metadata")
+    public boolean cachedMetadata;
+
+    @Label("Session Resumed")
+    public boolean sessionResumed;
+}
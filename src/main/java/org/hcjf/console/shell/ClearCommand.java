@@ -0,0 +1,15 @@
+package org.hcjf.console.shell;
+
+/**
+ * This command clears the terminal and prints the head of the console.
+ * @author javaito
+ */
+@CommandDescriptor(name = "clear", timeoutClass = TimeoutClass.LOCAL)
+public class ClearCommand implements ShellCommand {
+
+    @Override
+    public void execute(Shell shell, Command command) {
+        shell.getTtyListener().clear();
+        shell.printHead();
+    }
+}
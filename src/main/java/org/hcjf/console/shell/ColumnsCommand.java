@@ -0,0 +1,15 @@
+package org.hcjf.console.shell;
+
+/**
+ * This command selects the columns kept for the rows of the next queries, the rest of the columns are
+ * dropped when the response arrives. Without arguments all the columns are kept.
+ * @author javaito
+ */
+@CommandDescriptor(name = "columns", arguments = "[columns...]", timeoutClass = TimeoutClass.LOCAL, scope = QueryShell.SCOPE)
+public class ColumnsCommand implements ShellCommand {
+
+    @Override
+    public void execute(Shell shell, Command command) {
+        ((QueryShell) shell).changeColumns(command);
+    }
+}
@@ -1,58 +1,104 @@
 package org.hcjf.console.shell;
 
+import org.hcjf.console.jfr.CommandParseEvent;
 import org.hcjf.properties.SystemProperties;
 import org.hcjf.utils.Strings;
 
 import java.text.DateFormat;
 import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
 
 /**
  * @author javaito
  */
 public class Command {
 
+    private static final Map<String, Pattern> patterns = new ConcurrentHashMap<>();
+    private static final char LINE_SEPARATOR = '\n';
+    private static final char WHITE_SPACE = ' ';
+
     private final String line;
     private String command;
     private List<Object> parameters;
+    private final BitSet quoted;
 
     public Command(String line, DateFormat dateFormat) {
+        CommandParseEvent event = new CommandParseEvent();
+        event.begin();
         this.line = line;
         List<String> richTexts = Strings.groupRichText(line.trim());
-        String newLine = richTexts.get(richTexts.size() - 1);
+        //The lines of a multi-line command are separated like the words of the command.
+        String newLine = richTexts.get(richTexts.size() - 1).replace(LINE_SEPARATOR, WHITE_SPACE);
         String[] parts = newLine.split(Strings.WHITE_SPACE);
         command = parts[0];
         parameters = new ArrayList<>();
+        quoted = new BitSet();
         for (int i = 1; i < parts.length; i++) {
             String trimmedPart = parts[i].trim();
-            if (trimmedPart.equals("true")) {
-                parameters.add(Boolean.TRUE);
-            } else if (trimmedPart.equals("false")) {
-                parameters.add(Boolean.FALSE);
-            } else if (trimmedPart.equals("null")) {
-                parameters.add(null);
-            } else if (trimmedPart.startsWith(Strings.RICH_TEXT_SEPARATOR)) {
+            if (trimmedPart.startsWith(Strings.RICH_TEXT_SEPARATOR)) {
                 trimmedPart = trimmedPart.substring(1, trimmedPart.length() - 1);
                 trimmedPart = richTexts.get(Integer.parseInt(trimmedPart.replace(Strings.REPLACEABLE_RICH_TEXT, Strings.EMPTY_STRING)));
                 trimmedPart = trimmedPart.replace(
                         Strings.RICH_TEXT_SKIP_CHARACTER + Strings.RICH_TEXT_SEPARATOR,
                         Strings.RICH_TEXT_SEPARATOR);
+                quoted.set(parameters.size());
                 try {
                     parameters.add(dateFormat.parse(trimmedPart));
                 } catch (Exception ex) {
                     parameters.add(trimmedPart);
                 }
-            } else if (trimmedPart.matches(SystemProperties.get(SystemProperties.HCJF_UUID_REGEX))) {
-                parameters.add(UUID.fromString(trimmedPart));
-            } else if (trimmedPart.matches(SystemProperties.get(SystemProperties.HCJF_INTEGER_NUMBER_REGEX))) {
-                parameters.add(Long.parseLong(trimmedPart));
-            } else if (trimmedPart.matches(SystemProperties.get(SystemProperties.HCJF_DECIMAL_NUMBER_REGEX))) {
-                parameters.add(Double.parseDouble(trimmedPart));
             } else {
-                parameters.add(trimmedPart);
+                parameters.add(parseValue(trimmedPart));
             }
         }
+        if(event.shouldCommit()) {
+            event.line = line;
+            event.command = command;
+            event.parameters = parameters.size();
+            event.commit();
+        }
+    }
+
+    /**
+     * Returns the typed value of a word that is not a rich text: booleans, null, uuids, integer and
+     * decimal numbers, the rest of the words are returned as strings.
+     * @param value Word to parse.
+     * @return Typed value.
+     */
+    static Object parseValue(String value) {
+        Object result;
+        if (value.equals("true")) {
+            result = Boolean.TRUE;
+        } else if (value.equals("false")) {
+            result = Boolean.FALSE;
+        } else if (value.equals("null")) {
+            result = null;
+        } else if (matches(value, SystemProperties.HCJF_UUID_REGEX)) {
+            result = UUID.fromString(value);
+        } else if (matches(value, SystemProperties.HCJF_INTEGER_NUMBER_REGEX)) {
+            result = Long.parseLong(value);
+        } else if (matches(value, SystemProperties.HCJF_DECIMAL_NUMBER_REGEX)) {
+            result = Double.parseDouble(value);
+        } else {
+            result = value;
+        }
+        return result;
+    }
+
+    /**
+     * Verify if the value matches with the regular expression stored into the system property, the
+     * compiled pattern is reused while the property doesn't change.
+     * @param value Value to verify.
+     * @param propertyName Name of the property that contains the regular expression.
+     * @return Returns true if the value matches.
+     */
+    private static boolean matches(String value, String propertyName) {
+        return patterns.computeIfAbsent(SystemProperties.get(propertyName), Pattern::compile).matcher(value).matches();
     }
 
     public String getLine() {
@@ -66,4 +112,13 @@ public class Command {
     public List<Object> getParameters() {
         return parameters;
     }
+
+    /**
+     * Verify if the parameter was written between quotes, the quoted parameters are always literal values.
+     * @param index Index of the parameter.
+     * @return True if the parameter was quoted.
+     */
+    public boolean isQuoted(int index) {
+        return quoted.get(index);
+    }
 }
@@ -0,0 +1,48 @@
+package org.hcjf.console.shell;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * This annotation contains the metadata of a shell command, the registry reads the metadata
+ * without create instances of the command.
+ * @author javaito
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.TYPE)
+public @interface CommandDescriptor {
+
+    /**
+     * Names of the command, the first one is the main name and the rest are aliases.
+     * @return Names of the command.
+     */
+    String[] name();
+
+    /**
+     * Description of the arguments of the command, used by the help.
+     * @return Arguments description.
+     */
+    String arguments() default "";
+
+    /**
+     * Words offered by the completion for the arguments of the command.
+     * @return Completion hints.
+     */
+    String[] completion() default {};
+
+    /**
+     * Timeout applied to the requests sent by the command.
+     * @return Timeout class.
+     */
+    TimeoutClass timeoutClass() default TimeoutClass.DEFAULT;
+
+    /**
+     * Scope of the shell where the command is available, the commands of the global scope are
+     * available into all the shells.
+     * @return Scope of the command.
+     */
+    String scope() default Shell.GLOBAL_SCOPE;
+
+}
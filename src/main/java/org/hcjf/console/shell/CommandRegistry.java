@@ -0,0 +1,163 @@
+package org.hcjf.console.shell;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.ServiceLoader;
+
+/**
+ * This class indexes the shell commands by scope and name and the shell providers by scope. The index is
+ * created the first time that the registry is used, reading the descriptors of the providers found by the
+ * service loader; the classes of the commands are loaded in order to read the descriptors but they are not
+ * initialized or instantiated until the command is executed for the first time.
+ * Two commands with the same name into the same scope, or two shell providers for the same scope, are
+ * rejected when the index is created.
+ * @author javaito
+ */
+public final class CommandRegistry {
+
+    private static final String WITHOUT_DESCRIPTOR = "The shell command %s must be annotated with @CommandDescriptor";
+    private static final String DUPLICATED_COMMAND = "The shell commands %s and %s use the same name '%s' into the scope '%s'";
+    private static final String DUPLICATED_SHELL = "The shell providers %s and %s use the same scope '%s'";
+
+    private final Map<String, Map<String, Entry>> scopes;
+    private final Map<String, ShellProvider> shells;
+
+    private CommandRegistry() {
+        this.scopes = new HashMap<>();
+        this.shells = new HashMap<>();
+        ServiceLoader.load(ShellCommand.class).stream().forEach(this::register);
+        ServiceLoader.load(ShellProvider.class).forEach(this::register);
+    }
+
+    /**
+     * Add the provider into the index using the names and the scope of its descriptor.
+     * @param provider Command provider.
+     */
+    private void register(ServiceLoader.Provider<ShellCommand> provider) {
+        CommandDescriptor descriptor = provider.type().getAnnotation(CommandDescriptor.class);
+        if(descriptor == null) {
+            throw new IllegalStateException(String.format(WITHOUT_DESCRIPTOR, provider.type().getName()));
+        }
+        Entry entry = new Entry(provider, descriptor);
+        Map<String, Entry> scope = scopes.computeIfAbsent(descriptor.scope(), S -> new HashMap<>());
+        for(String name : descriptor.name()) {
+            Entry previous = scope.put(name, entry);
+            if(previous != null) {
+                throw new IllegalStateException(String.format(DUPLICATED_COMMAND,
+                        previous.provider.type().getName(), provider.type().getName(), name, descriptor.scope()));
+            }
+        }
+    }
+
+    /**
+     * Add the shell provider into the index using its scope.
+     * @param shellProvider Shell provider.
+     */
+    private void register(ShellProvider shellProvider) {
+        ShellProvider previous = shells.put(shellProvider.getScope(), shellProvider);
+        if(previous != null) {
+            throw new IllegalStateException(String.format(DUPLICATED_SHELL,
+                    previous.getClass().getName(), shellProvider.getClass().getName(), shellProvider.getScope()));
+        }
+    }
+
+    /**
+     * Returns the registry instance, the instance is created the first time that the method is called.
+     * @return Registry instance.
+     */
+    public static CommandRegistry getInstance() {
+        return Holder.INSTANCE;
+    }
+
+    /**
+     * Returns the command registered with the name into the scope.
+     * @param scope Scope of the command.
+     * @param name Name of the command.
+     * @return Command entry or null if there is not a command with the name.
+     */
+    public Entry get(String scope, String name) {
+        Map<String, Entry> commands = scopes.get(scope);
+        return commands == null ? null : commands.get(name);
+    }
+
+    /**
+     * Returns the provider of the shells of the scope.
+     * @param scope Scope of the shell.
+     * @return Shell provider or null if there is not a provider for the scope.
+     */
+    public ShellProvider getShellProvider(String scope) {
+        return shells.get(scope);
+    }
+
+    /**
+     * Returns all the commands of the scope, the commands with aliases are returned only once.
+     * @param scope Scope of the commands.
+     * @return Command entries.
+     */
+    public Collection<Entry> getEntries(String scope) {
+        Collection<Entry> result = new ArrayList<>();
+        for(Entry entry : scopes.getOrDefault(scope, Collections.emptyMap()).values()) {
+            if(!result.contains(entry)) {
+                result.add(entry);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns the names (including aliases) of the commands of the scope.
+     * @param scope Scope of the commands.
+     * @return Command names.
+     */
+    public Collection<String> getNames(String scope) {
+        return new ArrayList<>(scopes.getOrDefault(scope, Collections.emptyMap()).keySet());
+    }
+
+    /**
+     * Registered command, the instance is created by the provider the first time that it is needed.
+     */
+    public static final class Entry {
+
+        private final ServiceLoader.Provider<ShellCommand> provider;
+        private final CommandDescriptor descriptor;
+        private volatile ShellCommand command;
+
+        private Entry(ServiceLoader.Provider<ShellCommand> provider, CommandDescriptor descriptor) {
+            this.provider = provider;
+            this.descriptor = descriptor;
+        }
+
+        /**
+         * Returns the metadata of the command.
+         * @return Command descriptor.
+         */
+        public CommandDescriptor getDescriptor() {
+            return descriptor;
+        }
+
+        /**
+         * Returns the command instance.
+         * @return Command instance.
+         */
+        public ShellCommand getCommand() {
+            ShellCommand result = command;
+            if(result == null) {
+                synchronized (this) {
+                    result = command;
+                    if(result == null) {
+                        result = provider.get();
+                        command = result;
+                    }
+                }
+            }
+            return result;
+        }
+    }
+
+    private static final class Holder {
+        private static final CommandRegistry INSTANCE = new CommandRegistry();
+    }
+}
@@ -0,0 +1,49 @@
+package org.hcjf.console.shell;
+
+import java.nio.file.Paths;
+import java.util.List;
+
+/**
+ * This command evaluates the query of the first parameter using the rest of the parameters, without
+ * parameters the command opens the query shell. If the second parameter is a csv file (@input.csv without
+ * quotes) then the query is evaluated for each row of the file, see {@link ParameterSweep}; a quoted parameter
+ * that starts with @ ('@user') is a literal value.
+ * @author javaito
+ */
+@CommandDescriptor(name = "evaluate", arguments = "['query' [parameters...|@input.csv ['output.csv']]]",
+        completion = {"SELECT", "FROM", "WHERE", "GROUP BY", "ORDER BY", "LIMIT", "JOIN", "AND", "OR"},
+        scope = DefaultShell.SCOPE)
+public class EvaluateCommand implements ShellCommand {
+
+    private static final String INPUT_FILE_PREFIX = "@";
+
+    @Override
+    public void execute(Shell shell, Command command) throws Throwable {
+        if(command.getParameters().size() == 0) {
+            shell.openShell(QueryShell.SCOPE);
+        } else if(isSweep(command)) {
+            List<Object> parameters = command.getParameters();
+            new ParameterSweep(shell, (String) parameters.get(0)).run(
+                    Paths.get(((String) parameters.get(1)).substring(INPUT_FILE_PREFIX.length())),
+                    parameters.size() == 3 ? Paths.get((String) parameters.get(2)) : null);
+        } else {
+            Object result = shell.evaluateQueryable((String) command.getParameters().get(0),
+                    command.getParameters().subList(1, command.getParameters().size()));
+            shell.learnQuery((String) command.getParameters().get(0), result);
+            shell.printObject(result);
+        }
+    }
+
+    /**
+     * Verify if the parameters are the query, the input file and optionally the output file. The input file
+     * is an unquoted parameter that starts with @.
+     * @param command Command typed by the user.
+     * @return True if the command is a parameter sweep.
+     */
+    private boolean isSweep(Command command) {
+        List<Object> parameters = command.getParameters();
+        return (parameters.size() == 2 || (parameters.size() == 3 && parameters.get(2) instanceof String)) &&
+                parameters.get(0) instanceof String && parameters.get(1) instanceof String &&
+                !command.isQuoted(1) && ((String) parameters.get(1)).startsWith(INPUT_FILE_PREFIX);
+    }
+}
@@ -0,0 +1,24 @@
+package org.hcjf.console.shell;
+
+/**
+ * This command closes the deepest open shell, if there is no open shell then the console ends.
+ * @author javaito
+ */
+@CommandDescriptor(name = {"exit", "quit"}, timeoutClass = TimeoutClass.LOCAL)
+public class ExitCommand implements ShellCommand {
+
+    @Override
+    public void execute(Shell shell, Command command) {
+        Shell parent = null;
+        Shell currentShell = shell;
+        while(currentShell.getOpenShell() != null) {
+            parent = currentShell;
+            currentShell = currentShell.getOpenShell();
+        }
+        if(currentShell.equals(shell)) {
+            System.exit(0);
+        } else {
+            parent.setOpenShell(null);
+        }
+    }
+}
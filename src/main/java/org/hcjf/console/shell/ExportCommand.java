@@ -0,0 +1,14 @@
+package org.hcjf.console.shell;
+
+/**
+ * This command exports the result set of the query shell into a csv file.
+ * @author javaito
+ */
+@CommandDescriptor(name = "export", arguments = "'path'", timeoutClass = TimeoutClass.LOCAL, scope = QueryShell.SCOPE)
+public class ExportCommand implements ShellCommand {
+
+    @Override
+    public void execute(Shell shell, Command command) throws Throwable {
+        ((QueryShell) shell).export(command);
+    }
+}
@@ -0,0 +1,47 @@
+package org.hcjf.console.shell;
+
+import org.hcjf.utils.Strings;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * This command prints the names and arguments of the commands available into the current shell.
+ * @author javaito
+ */
+@CommandDescriptor(name = "help", timeoutClass = TimeoutClass.LOCAL)
+public class HelpCommand implements ShellCommand {
+
+    private static final String ALIASES = " (%s)";
+    private static final String ALIASES_SEPARATOR = ", ";
+
+    @Override
+    public void execute(Shell shell, Command command) {
+        Shell currentShell = shell;
+        while(currentShell.getOpenShell() != null) {
+            currentShell = currentShell.getOpenShell();
+        }
+        List<CommandRegistry.Entry> entries = new ArrayList<>();
+        entries.addAll(CommandRegistry.getInstance().getEntries(Shell.GLOBAL_SCOPE));
+        entries.addAll(CommandRegistry.getInstance().getEntries(currentShell.getScope()));
+        for(CommandRegistry.Entry entry : entries) {
+            CommandDescriptor descriptor = entry.getDescriptor();
+            System.out.print(Strings.StandardOutput.GREEN);
+            System.out.print(descriptor.name()[0]);
+            System.out.print(Strings.StandardOutput.RESET);
+            if(!descriptor.arguments().isEmpty()) {
+                System.out.print(Strings.WHITE_SPACE);
+                System.out.print(descriptor.arguments());
+            }
+            if(descriptor.name().length > 1) {
+                Collection<String> aliases = new ArrayList<>();
+                for (int i = 1; i < descriptor.name().length; i++) {
+                    aliases.add(descriptor.name()[i]);
+                }
+                System.out.print(String.format(ALIASES, String.join(ALIASES_SEPARATOR, aliases)));
+            }
+            System.out.println();
+        }
+    }
+}
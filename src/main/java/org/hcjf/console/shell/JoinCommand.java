@@ -0,0 +1,153 @@
+package org.hcjf.console.shell;
+
+import org.hcjf.console.ConsoleClient;
+import org.hcjf.console.ConsoleConnection;
+import org.hcjf.console.HashJoin;
+import org.hcjf.console.Messages;
+import org.hcjf.console.QueryCache;
+import org.hcjf.console.SpilledResultSet;
+import org.hcjf.io.console.messages.EvaluateQueryableMessage;
+import org.hcjf.io.net.messages.ResponseMessage;
+import org.hcjf.service.ServiceSession;
+import org.hcjf.utils.Strings;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * This command evaluates two queries at the same time and joins the result sets into the console, the
+ * right query could be evaluated into other server indicating its host and port. The joined rows are
+ * available into a query shell in order to page or export them.
+ * @author javaito
+ */
+@CommandDescriptor(name = "join", arguments = "'left query' 'right query' leftField rightField ['host:port']",
+        completion = {"SELECT", "FROM", "WHERE"}, timeoutClass = TimeoutClass.LONG, scope = DefaultShell.SCOPE)
+public class JoinCommand implements ShellCommand {
+
+    private static final String JOIN_USAGE = "You must indicate the queries and the fields to join, and optionally the server of the right query (i.e. join 'SELECT * FROM a' 'SELECT * FROM b' id aId 'localhost:5900')";
+    private static final String JOIN_RESULT = "%d rows joined (left: %d, right: %d, partitions: %d)";
+    private static final String NOT_A_RESULT_SET = "The %s query doesn't return a result set";
+    private static final String LEFT = "left";
+    private static final String RIGHT = "right";
+    private static final String JOIN_PROMPT = "join";
+    private static final String READ_FIELD = "%s: ";
+    private static final String HOST_SEPARATOR = ":";
+
+    private final Map<String, ConsoleConnection> connections;
+
+    public JoinCommand() {
+        connections = new ConcurrentHashMap<>();
+    }
+
+    @Override
+    public void execute(Shell shell, Command command) throws Throwable {
+        List<Object> parameters = command.getParameters();
+        if(parameters.size() < 4 || parameters.size() > 5) {
+            shell.printError(JOIN_USAGE);
+            return;
+        }
+        for(Object parameter : parameters) {
+            if(!(parameter instanceof String)) {
+                shell.printError(JOIN_USAGE);
+                return;
+            }
+        }
+
+        ConsoleClient leftClient = shell.getConsoleClient();
+        UUID leftSessionId = ServiceSession.getSystemSession().getId();
+        ConsoleClient rightClient = leftClient;
+        UUID rightSessionId = leftSessionId;
+        if(parameters.size() == 5) {
+            ConsoleConnection connection = getConnection(shell, (String) parameters.get(4));
+            rightClient = connection.getConsoleClient();
+            rightSessionId = connection.getSessionId();
+        }
+
+        //Both queries are sent before wait for any response, then the servers evaluate the queries at the same time.
+        long deadline = System.currentTimeMillis() + shell.getTimeout(Shell.EVALUATE_LATENCY_KEY);
+        EvaluateQueryableMessage leftMessage = Messages.evaluate(
+                QueryCache.compile((String) parameters.get(0), Collections.emptyList()), leftSessionId);
+        EvaluateQueryableMessage rightMessage = Messages.evaluate(
+                QueryCache.compile((String) parameters.get(1), Collections.emptyList()), rightSessionId);
+        leftClient.request(leftMessage, deadline);
+        try {
+            rightClient.request(rightMessage, deadline);
+        } catch (Throwable throwable) {
+            leftClient.cancel(leftMessage.getId());
+            throw throwable;
+        }
+        Collection<?> left;
+        try {
+            left = getResultSet(leftClient.getResult(leftMessage.getId(), deadline), LEFT);
+        } catch (Throwable throwable) {
+            rightClient.cancel(rightMessage.getId());
+            throw throwable;
+        }
+        Collection<?> right = getResultSet(rightClient.getResult(rightMessage.getId(), deadline), RIGHT);
+
+        HashJoin hashJoin = new HashJoin((String) parameters.get(2), (String) parameters.get(3));
+        List<Object> result = hashJoin.join(left, right);
+        System.out.println(String.format(JOIN_RESULT, result.size(), left.size(), right.size(), hashJoin.getPartitions()));
+
+        QueryShell queryShell = new QueryShell(shell.getTtyListener(), shell.getServerMetadata(), shell.getConsoleClient());
+        queryShell.setPrompt(JOIN_PROMPT);
+        shell.setOpenShell(queryShell);
+        queryShell.setResultSet(SpilledResultSet.toList(result));
+        queryShell.printPage();
+    }
+
+    /**
+     * Returns the result set of the response.
+     * @param responseMessage Response of the evaluation.
+     * @param side Name of the side of the join.
+     * @return Result set.
+     * @throws Throwable Throws the exception returned by the server.
+     */
+    private Collection<?> getResultSet(ResponseMessage responseMessage, String side) throws Throwable {
+        if(responseMessage.getThrowable() != null) {
+            throw responseMessage.getThrowable();
+        }
+        if(!(responseMessage.getValue() instanceof Collection)) {
+            throw new IllegalArgumentException(String.format(NOT_A_RESULT_SET, side));
+        }
+        return (Collection<?>) responseMessage.getValue();
+    }
+
+    /**
+     * Returns the connection with the server, the connections are reused by all the joins and if the
+     * server requires login then the login fields are read from the terminal.
+     * @param shell Shell where the command is executed.
+     * @param server Host and port of the server (host:port).
+     * @return Connection instance.
+     * @throws Throwable
+     */
+    private ConsoleConnection getConnection(Shell shell, String server) throws Throwable {
+        ConsoleConnection connection = connections.get(server);
+        if(connection == null || !connection.isConnected()) {
+            String[] hostAndPort = server.split(HOST_SEPARATOR);
+            if(hostAndPort.length != 2) {
+                throw new IllegalArgumentException(JOIN_USAGE);
+            }
+            connection = new ConsoleConnection(hostAndPort[0], Integer.parseInt(hostAndPort[1].trim()));
+            connection.connect();
+            if(connection.isLoginRequired()) {
+                System.out.printf(Strings.CARRIAGE_RETURN_AND_LINE_SEPARATOR);
+                Map<String,Object> loginParameters = new HashMap<>();
+                for(String field : connection.getMetadata().getLoginFields()) {
+                    loginParameters.put(field, shell.getTtyListener().read(READ_FIELD, null, field));
+                }
+                for(String field : connection.getMetadata().getLoginSecretFields()) {
+                    loginParameters.put(field, shell.getTtyListener().readSecret(READ_FIELD, null, field));
+                }
+                connection.login(loginParameters);
+            }
+            connections.put(server, connection);
+        }
+        return connection;
+    }
+}
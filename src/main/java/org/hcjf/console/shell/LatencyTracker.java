@@ -0,0 +1,83 @@
+package org.hcjf.console.shell;
+
+import java.util.Arrays;
+
+/**
+ * This class keeps the last latencies observed for some command and calculates the timeout
+ * of the command as a multiple of the 99th percentile of these latencies.
+ * A request that reaches its timeout is stored with the timeout as latency (the real latency is unknown but
+ * greater) and the timeout is doubled after each consecutive timeout until a response arrives in time, then
+ * the timeout grows again when the latency of the command grows.
+ * @author javaito
+ */
+public class LatencyTracker {
+
+    private static final int CAPACITY = 256;
+    private static final int MIN_SAMPLES = 20;
+    private static final int MAX_BACKOFF = 16;
+
+    private final long[] samples;
+    private int count;
+    private int next;
+    private int timeouts;
+
+    public LatencyTracker() {
+        this.samples = new long[CAPACITY];
+    }
+
+    /**
+     * Add a latency, when the tracker is full the oldest latency is overwritten.
+     * @param latency Latency in milliseconds.
+     */
+    public synchronized void add(long latency) {
+        store(latency);
+        timeouts = 0;
+    }
+
+    /**
+     * Add a request that reaches its timeout, the timeout is stored as latency and the next timeout
+     * is doubled.
+     * @param timeout Timeout of the request in milliseconds.
+     */
+    public synchronized void addTimeout(long timeout) {
+        store(timeout);
+        timeouts = Math.min(timeouts + 1, MAX_BACKOFF);
+    }
+
+    /**
+     * Stores the latency, when the tracker is full the oldest latency is overwritten.
+     * @param latency Latency in milliseconds.
+     */
+    private void store(long latency) {
+        samples[next] = latency;
+        next = (next + 1) % CAPACITY;
+        count = Math.min(count + 1, CAPACITY);
+    }
+
+    /**
+     * Returns the percentile of the latencies stored.
+     * @param percentile Percentile between 0 and 1.
+     * @return Latency in milliseconds or null if there are not enough samples.
+     */
+    public synchronized Long getPercentile(double percentile) {
+        Long result = null;
+        if(count >= MIN_SAMPLES) {
+            long[] sorted = Arrays.copyOf(samples, count);
+            Arrays.sort(sorted);
+            result = sorted[(int) Math.min(count - 1, Math.ceil(percentile * count) - 1)];
+        }
+        return result;
+    }
+
+    /**
+     * Returns the timeout adapted to the latencies observed.
+     * @param factor Multiplier of the 99th percentile.
+     * @param min Min value of the timeout.
+     * @param max Max value of the timeout, used when there are not enough samples.
+     * @return Timeout in milliseconds.
+     */
+    public synchronized Long getTimeout(double factor, long min, long max) {
+        Long p99 = getPercentile(0.99);
+        return p99 == null ? max : Math.max(min, Math.min(max, (long) (p99 * factor * (1L << timeouts))));
+    }
+}
@@ -0,0 +1,14 @@
+package org.hcjf.console.shell;
+
+/**
+ * This command moves to the next page of the result set.
+ * @author javaito
+ */
+@CommandDescriptor(name = "next", timeoutClass = TimeoutClass.LOCAL, scope = QueryShell.SCOPE)
+public class NextCommand implements ShellCommand {
+
+    @Override
+    public void execute(Shell shell, Command command) {
+        ((QueryShell) shell).nextPage();
+    }
+}
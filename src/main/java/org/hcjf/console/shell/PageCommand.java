@@ -0,0 +1,14 @@
+package org.hcjf.console.shell;
+
+/**
+ * This command moves to the indicated page of the result set.
+ * @author javaito
+ */
+@CommandDescriptor(name = "page", arguments = "number", timeoutClass = TimeoutClass.LOCAL, scope = QueryShell.SCOPE)
+public class PageCommand implements ShellCommand {
+
+    @Override
+    public void execute(Shell shell, Command command) {
+        ((QueryShell) shell).goToPage(command);
+    }
+}
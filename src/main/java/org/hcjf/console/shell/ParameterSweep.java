@@ -0,0 +1,218 @@
+package org.hcjf.console.shell;
+
+import org.hcjf.console.ConsoleClient;
+import org.hcjf.console.ConsoleProperties;
+import org.hcjf.console.Messages;
+import org.hcjf.console.Priority;
+import org.hcjf.console.QueryCache;
+import org.hcjf.console.stats.LatencyHistogram;
+import org.hcjf.io.console.messages.EvaluateQueryableMessage;
+import org.hcjf.io.net.messages.ResponseMessage;
+import org.hcjf.service.ServiceSession;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * This class evaluates a query once for each row of a csv file, the values of the row are the parameters
+ * of the query. The query is compiled only once and the requests are pipelined: a new request is sent
+ * without wait the previous responses while the number of requests in flight is lower than the window.
+ * The results are printed (or written into a csv file) in the order of the input, tagged with the number
+ * of the input line.
+ * @author javaito
+ */
+public class ParameterSweep {
+
+    private static final String COMMENT = "#";
+    private static final char CSV_SEPARATOR = ',';
+    private static final char CSV_QUOTE = '"';
+    private static final String ROW_RESULT = "%d: %s%n";
+    private static final String ROW_ERROR = "%d: %s";
+    private static final String REPORT = "%d requests in %.2fs (%.1f req/s), %d failed, %d rows, latency p50: %dms p99: %dms max: %dms%n";
+    private static final int DEFAULT_WINDOW = 32;
+
+    private final Shell shell;
+    private final String query;
+    private final int window;
+    private final LatencyHistogram latencies;
+    private int requests;
+    private int failed;
+    private long rows;
+
+    public ParameterSweep(Shell shell, String query) {
+        this.shell = shell;
+        this.query = query;
+        this.window = Math.max(1, ConsoleProperties.getInteger(ConsoleProperties.HCJF_CONSOLE_SWEEP_WINDOW, DEFAULT_WINDOW));
+        this.latencies = new LatencyHistogram();
+    }
+
+    /**
+     * Evaluates the query for each row of the input, the empty lines and the lines starting with '#'
+     * are skipped.
+     * @param input Path of the csv file with the parameters.
+     * @param output Path of the csv file to write the results, if it's null then the results are printed.
+     * @throws Throwable
+     */
+    public void run(Path input, Path output) throws Throwable {
+        ConsoleClient client = shell.getConsoleClient();
+        UUID sessionId = ServiceSession.getSystemSession().getId();
+        Long timeout = shell.getTimeout(Shell.EVALUATE_LATENCY_KEY);
+        Deque<Pending> inFlight = new ArrayDeque<>();
+        long startTime = System.currentTimeMillis();
+        try (BufferedReader reader = Files.newBufferedReader(input, StandardCharsets.UTF_8);
+             Writer writer = output == null ? null : Files.newBufferedWriter(output, StandardCharsets.UTF_8)) {
+            String line;
+            int lineNumber = 0;
+            try {
+                while ((line = reader.readLine()) != null) {
+                    lineNumber++;
+                    if (line.trim().isEmpty() || line.startsWith(COMMENT)) {
+                        continue;
+                    }
+                    if (inFlight.size() >= window) {
+                        complete(client, inFlight.poll(), writer);
+                    }
+                    EvaluateQueryableMessage message = Messages.evaluate(
+                            QueryCache.compile(query, parseCsvLine(line)), sessionId);
+                    long now = System.currentTimeMillis();
+                    client.request(message, now + timeout, Priority.BULK);
+                    inFlight.add(new Pending(lineNumber, message.getId(), now, now + timeout));
+                    requests++;
+                }
+                while (!inFlight.isEmpty()) {
+                    complete(client, inFlight.poll(), writer);
+                }
+            } finally {
+                for (Pending pending : inFlight) {
+                    client.cancel(pending.id);
+                }
+            }
+        }
+        double seconds = Math.max(1, System.currentTimeMillis() - startTime) / 1000.0;
+        System.out.printf(REPORT, requests, seconds, requests / seconds, failed, rows,
+                latencies.getValueAtPercentile(50), latencies.getValueAtPercentile(99), latencies.getMax());
+    }
+
+    /**
+     * Waits for the response of the oldest request and prints or writes the result.
+     * @param client Client used to send the request.
+     * @param pending Pending request.
+     * @param writer Output file writer, could be null.
+     * @throws IOException
+     */
+    private void complete(ConsoleClient client, Pending pending, Writer writer) throws IOException {
+        try {
+            ResponseMessage responseMessage = client.getResult(pending.id, pending.deadline);
+            latencies.record(System.currentTimeMillis() - pending.startTime);
+            if(responseMessage.getThrowable() != null) {
+                failed++;
+                shell.printError(String.format(ROW_ERROR, pending.lineNumber, responseMessage.getThrowable().getMessage()));
+            } else if(responseMessage.getValue() instanceof Collection) {
+                for(Object row : (Collection<?>) responseMessage.getValue()) {
+                    write(pending.lineNumber, row, writer);
+                }
+            } else {
+                write(pending.lineNumber, responseMessage.getValue(), writer);
+            }
+        } catch (TimeoutException ex) {
+            failed++;
+            shell.printError(String.format(ROW_ERROR, pending.lineNumber, ex.getMessage()));
+        }
+    }
+
+    /**
+     * Prints or writes a row of the result tagged with the number of the input line.
+     * @param lineNumber Number of the input line.
+     * @param row Result row.
+     * @param writer Output file writer, could be null.
+     * @throws IOException
+     */
+    private void write(int lineNumber, Object row, Writer writer) throws IOException {
+        rows++;
+        if(writer == null) {
+            System.out.printf(ROW_RESULT, lineNumber, row);
+        } else {
+            List<Object> values = new ArrayList<>();
+            values.add(lineNumber);
+            if(row instanceof Map) {
+                values.addAll(((Map<?,?>) row).values());
+            } else {
+                values.add(row);
+            }
+            QueryShell.writeCsvLine(writer, values, shell.getDateFormat());
+        }
+    }
+
+    /**
+     * Parses a csv line, the quoted values are strings and the rest of the values are typed like the
+     * parameters of the commands.
+     * @param line Csv line.
+     * @return Values of the line.
+     */
+    static List<Object> parseCsvLine(String line) {
+        List<Object> result = new ArrayList<>();
+        StringBuilder value = new StringBuilder();
+        boolean quoted = false;
+        boolean wasQuoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char character = line.charAt(i);
+            if(quoted) {
+                if(character == CSV_QUOTE) {
+                    if(i + 1 < line.length() && line.charAt(i + 1) == CSV_QUOTE) {
+                        value.append(CSV_QUOTE);
+                        i++;
+                    } else {
+                        quoted = false;
+                    }
+                } else {
+                    value.append(character);
+                }
+            } else if(character == CSV_QUOTE) {
+                //The spaces before the opening quote are not part of the value.
+                if(value.toString().trim().isEmpty()) {
+                    value.setLength(0);
+                }
+                quoted = true;
+                wasQuoted = true;
+            } else if(character == CSV_SEPARATOR) {
+                result.add(wasQuoted ? value.toString() : Command.parseValue(value.toString().trim()));
+                value.setLength(0);
+                wasQuoted = false;
+            } else {
+                value.append(character);
+            }
+        }
+        result.add(wasQuoted ? value.toString() : Command.parseValue(value.toString().trim()));
+        return result;
+    }
+
+    /**
+     * Request sent and waiting for its response.
+     */
+    private static class Pending {
+
+        private final int lineNumber;
+        private final UUID id;
+        private final long startTime;
+        private final long deadline;
+
+        private Pending(int lineNumber, UUID id, long startTime, long deadline) {
+            this.lineNumber = lineNumber;
+            this.id = id;
+            this.startTime = startTime;
+            this.deadline = deadline;
+        }
+    }
+}
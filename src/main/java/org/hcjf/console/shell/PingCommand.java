@@ -0,0 +1,31 @@
+package org.hcjf.console.shell;
+
+import org.hcjf.console.ConnectionMonitor;
+
+import java.util.concurrent.TimeoutException;
+
+/**
+ * This command sends a probe to the server and prints the round trip time and the estimation
+ * maintained by the connection monitor.
+ * @author javaito
+ */
+@CommandDescriptor(name = "ping")
+public class PingCommand implements ShellCommand {
+
+    private static final String PING_RESULT = "rtt: %dms, srtt: %.1fms, jitter: %.1fms, missed: %d/%d, probes: %d%n";
+    private static final String PING_TIMEOUT = "No response in %dms (srtt: %.1fms, missed: %d/%d)";
+
+    @Override
+    public void execute(Shell shell, Command command) throws Throwable {
+        ConnectionMonitor monitor = shell.getConsoleClient().getConnectionMonitor();
+        long timeout = shell.getTimeout();
+        try {
+            long rtt = monitor.probe(timeout, false);
+            System.out.printf(PING_RESULT, rtt, monitor.getSmoothedRtt(), monitor.getJitter(),
+                    monitor.getMissed(), monitor.getMaxMissed(), monitor.getProbes());
+        } catch (TimeoutException ex) {
+            shell.printError(String.format(PING_TIMEOUT, timeout, monitor.getSmoothedRtt(),
+                    monitor.getMissed(), monitor.getMaxMissed()));
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package org.hcjf.console.shell;
+
+/**
+ * This command moves to the previous page of the result set.
+ * @author javaito
+ */
+@CommandDescriptor(name = "previous", timeoutClass = TimeoutClass.LOCAL, scope = QueryShell.SCOPE)
+public class PreviousCommand implements ShellCommand {
+
+    @Override
+    public void execute(Shell shell, Command command) {
+        ((QueryShell) shell).previousPage();
+    }
+}
@@ -1,12 +1,27 @@
 package org.hcjf.console.shell;
 
 import org.hcjf.console.ConsoleClient;
+import org.hcjf.console.RowCompactor;
+import org.hcjf.console.SpilledResultSet;
 import org.hcjf.console.TtyListener;
 import org.hcjf.io.console.ServerMetadata;
-import org.hcjf.layers.query.JoinableMap;
-import org.hcjf.layers.query.Query;
+import org.hcjf.utils.Strings;
 
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.text.DateFormat;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.Date;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
 
 /**
  * @author javaito
@@ -15,12 +30,21 @@ public class QueryShell extends Shell {
 
     private static final String PROMPT_WITH_RESULT_SET = "%s[size:%d, page%d/%d]";
 
-    private static final String NEXT = "next";
-    private static final String PREVIOUS = "previous";
-    private static final String PAGE = "page";
-    private static final String SET_PAGE_SIZE = "setPageSize";
+    public static final String SCOPE = "query";
 
-    private Collection<JoinableMap> resultSet;
+    private static final String EXPORT_USAGE = "You must indicate the path of the file (i.e. export /tmp/result.csv)";
+    private static final String EXPORTED = "%d rows exported to %s";
+    private static final String CSV_SEPARATOR = ",";
+    private static final String CSV_QUOTE = "\"";
+    private static final String CSV_ESCAPED_QUOTE = "\"\"";
+    private static final String CSV_LINE_SEPARATOR = "\r\n";
+    private static final String VALUE_COLUMN = "value";
+    private static final int COLUMNS_SAMPLE_SIZE = 100;
+    private static final String ALL_COLUMNS = "All the columns are kept";
+    private static final String KEPT_COLUMNS = "Columns kept: %s";
+
+    private List<Object> resultSet;
+    private List<String> columns;
     private Integer currentPage;
     private Integer pageSize;
     private String originalPrompt;
@@ -39,62 +63,208 @@ public class QueryShell extends Shell {
         this.pageSize = pageSize;
     }
 
+    /**
+     * The commands that are not registered are evaluated as queries. The rows are replaced by compact rows,
+     * the rows of the first page are replaced and printed before the rest of the rows.
+     * @param command Command to execute.
+     * @throws Throwable
+     */
     @Override
     public void delegateCommand(Command command) throws Throwable {
-        switch (command.getCommand()) {
-            case NEXT: {
-                if(resultSet != null) {
-                    if (currentPage < getMaxPage()) {
-                        currentPage++;
-                    }
-                }
-                printPage();
-                break;
+        Collection<?> result = (Collection<?>) evaluateQueryable(command.getLine(), Collections.emptyList());
+        learnQuery(command.getLine(), result);
+        if(result == null) {
+            setResultSet(null);
+            printPage();
+        } else {
+            RowCompactor compactor = new RowCompactor(columns);
+            List<Object> rows = RowCompactor.toList(result);
+            compactor.compact(rows, 0, pageSize);
+            setResultSet(rows);
+            printPage();
+            compactor.compact(rows, pageSize, rows.size());
+            //The spill decision is taken with the compact rows, then the current page is not changed.
+            this.resultSet = SpilledResultSet.toList(rows);
+        }
+    }
+
+    /**
+     * Changes the columns kept for the rows of the next queries, without parameters all the columns are kept.
+     * @param command Columns command.
+     */
+    void changeColumns(Command command) {
+        if(command.getParameters().isEmpty()) {
+            columns = null;
+            System.out.println(ALL_COLUMNS);
+        } else {
+            List<String> columns = new ArrayList<>();
+            for(Object parameter : command.getParameters()) {
+                columns.add(Objects.toString(parameter));
             }
-            case PREVIOUS: {
-                if(resultSet != null) {
-                    if (currentPage > 1) {
-                        currentPage--;
-                    }
-                }
-                printPage();
-                break;
+            this.columns = columns;
+            System.out.printf(KEPT_COLUMNS, String.join(CSV_SEPARATOR, columns));
+            System.out.printf(Strings.CARRIAGE_RETURN_AND_LINE_SEPARATOR);
+        }
+    }
+
+    @Override
+    public String getScope() {
+        return SCOPE;
+    }
+
+    /**
+     * Moves to the next page of the result set.
+     */
+    void nextPage() {
+        if(resultSet != null) {
+            if (currentPage < getMaxPage()) {
+                currentPage++;
             }
-            case PAGE: {
-                if(command.getParameters().size() == 1) {
-                    try {
-                        currentPage = ((Long) command.getParameters().get(0)).intValue();
-                    } catch (Exception ex) {
-                        printError("You must indicate the page number (i.e. page 1)");
-                    }
-                } else {
-                    printError("You must indicate the page number (i.e. page 1)");
-                }
-                printPage();
-                break;
+        }
+        printPage();
+    }
+
+    /**
+     * Moves to the previous page of the result set.
+     */
+    void previousPage() {
+        if(resultSet != null) {
+            if (currentPage > 1) {
+                currentPage--;
+            }
+        }
+        printPage();
+    }
+
+    /**
+     * Moves to the page indicated by the first parameter of the command.
+     * @param command Page command.
+     */
+    void goToPage(Command command) {
+        if(command.getParameters().size() == 1) {
+            try {
+                currentPage = ((Long) command.getParameters().get(0)).intValue();
+            } catch (Exception ex) {
+                printError("You must indicate the page number (i.e. page 1)");
             }
-            case SET_PAGE_SIZE: {
-                if(command.getParameters().size() == 1) {
-                    try {
-                        pageSize = (int) ((Long) command.getParameters().get(0)).intValue();
-                        currentPage = 1;
-                    } catch (Exception ex) {
-                        printError("You must indicate the page size (i.e. page 1)");
+        } else {
+            printError("You must indicate the page number (i.e. page 1)");
+        }
+        printPage();
+    }
+
+    /**
+     * Changes the page size using the first parameter of the command.
+     * @param command Set page size command.
+     */
+    void changePageSize(Command command) {
+        if(command.getParameters().size() == 1) {
+            try {
+                pageSize = (int) ((Long) command.getParameters().get(0)).intValue();
+                currentPage = 1;
+            } catch (Exception ex) {
+                printError("You must indicate the page size (i.e. page 1)");
+            }
+        } else {
+            printError("You must indicate the page size (i.e. page 1)");
+        }
+        printPage();
+    }
+
+    /**
+     * Exports the result set into the file indicated by the first parameter of the command.
+     * @param command Export command.
+     * @throws IOException
+     */
+    void export(Command command) throws IOException {
+        if(command.getParameters().size() == 1 && command.getParameters().get(0) instanceof String) {
+            if(resultSet != null) {
+                export((String) command.getParameters().get(0));
+            } else {
+                System.out.println("Make some query first");
+            }
+        } else {
+            printError(EXPORT_USAGE);
+        }
+    }
+
+    /**
+     * Set the current result set, if the previous result set was spilled then the spill file is removed.
+     * @param resultSet Result set.
+     * @throws IOException
+     */
+    void setResultSet(List<Object> resultSet) throws IOException {
+        if(this.resultSet instanceof SpilledResultSet) {
+            ((SpilledResultSet) this.resultSet).close();
+        }
+        this.resultSet = resultSet;
+        currentPage = 1;
+    }
+
+    /**
+     * Writes the current result set into a csv file, the columns are the fields of the first rows.
+     * @param path Path of the file.
+     * @throws IOException
+     */
+    private void export(String path) throws IOException {
+        Set<Object> columns = new LinkedHashSet<>();
+        for (int i = 0; i < resultSet.size() && i < COLUMNS_SAMPLE_SIZE; i++) {
+            Object row = resultSet.get(i);
+            if(row instanceof Map) {
+                columns.addAll(((Map<?,?>) row).keySet());
+            }
+        }
+        boolean mapRows = !columns.isEmpty();
+        if(!mapRows) {
+            columns.add(VALUE_COLUMN);
+        }
+
+        try (Writer writer = Files.newBufferedWriter(Paths.get(path), StandardCharsets.UTF_8)) {
+            List<Object> values = new ArrayList<>(columns);
+            writeCsvLine(writer, values, getDateFormat());
+            for (int i = 0; i < resultSet.size(); i++) {
+                Object row = resultSet.get(i);
+                values.clear();
+                if(mapRows) {
+                    for (Object column : columns) {
+                        values.add(row instanceof Map ? ((Map<?,?>) row).get(column) : null);
                     }
                 } else {
-                    printError("You must indicate the page size (i.e. page 1)");
+                    values.add(row);
                 }
-                printPage();
-                break;
+                writeCsvLine(writer, values, getDateFormat());
+            }
+        }
+        System.out.printf(EXPORTED, resultSet.size(), path);
+        System.out.printf(Strings.CARRIAGE_RETURN_AND_LINE_SEPARATOR);
+    }
+
+    /**
+     * Writes a csv line, the values that contains separators, quotes or line separators are quoted.
+     * @param writer Writer of the file.
+     * @param values Values of the line.
+     * @param dateFormat Format of the dates.
+     * @throws IOException
+     */
+    static void writeCsvLine(Writer writer, List<Object> values, DateFormat dateFormat) throws IOException {
+        boolean first = true;
+        for(Object value : values) {
+            if(!first) {
+                writer.write(CSV_SEPARATOR);
             }
-            default:{
-                resultSet = (Collection<JoinableMap>) evaluateQueryable(Query.compile(command.getLine()));
-                printPage();
+            first = false;
+            if(value != null) {
+                String text = value instanceof Date ? dateFormat.format((Date) value) : value.toString();
+                if(text.contains(CSV_SEPARATOR) || text.contains(CSV_QUOTE) || text.indexOf('\n') >= 0 || text.indexOf('\r') >= 0) {
+                    text = CSV_QUOTE + text.replace(CSV_QUOTE, CSV_ESCAPED_QUOTE) + CSV_QUOTE;
+                }
+                writer.write(text);
             }
         }
+        writer.write(CSV_LINE_SEPARATOR);
     }
 
-    private void printPage() {
+    void printPage() {
         if(originalPrompt == null) {
             originalPrompt = getPrompt();
         }
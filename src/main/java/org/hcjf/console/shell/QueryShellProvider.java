@@ -0,0 +1,29 @@
+package org.hcjf.console.shell;
+
+import org.hcjf.console.ConsoleClient;
+import org.hcjf.console.TtyListener;
+import org.hcjf.io.console.ServerMetadata;
+
+/**
+ * This class creates the query shell opened by the evaluate command without parameters.
+ * @author javaito
+ */
+public class QueryShellProvider implements ShellProvider {
+
+    private static final String PROMPT = "query";
+
+    @Override
+    public String getScope() {
+        return QueryShell.SCOPE;
+    }
+
+    @Override
+    public String getPrompt() {
+        return PROMPT;
+    }
+
+    @Override
+    public Shell create(TtyListener ttyListener, ServerMetadata serverMetadata, ConsoleClient consoleClient) {
+        return new QueryShell(ttyListener, serverMetadata, consoleClient);
+    }
+}
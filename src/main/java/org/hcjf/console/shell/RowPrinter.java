@@ -0,0 +1,132 @@
+package org.hcjf.console.shell;
+
+import org.hcjf.console.ConsoleProperties;
+import org.hcjf.console.jfr.RenderEvent;
+import org.hcjf.utils.Strings;
+
+import java.io.PrintStream;
+import java.nio.charset.Charset;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+/**
+ * This class prints a range of rows with alternating background colors. The big ranges are split into chunks
+ * that are formatted in parallel into byte arrays and the arrays are written in the original order as soon as
+ * each chunk and its predecessors are ready, then the output is the same as the sequential output.
+ * @author javaito
+ */
+public class RowPrinter {
+
+    private static final String INDEX = "%d: ";
+    private static final String FIELD_SEPARATOR = "  ";
+    private static final int CHUNK_SIZE = 256;
+
+    private final PrintStream output;
+    private final Charset charset;
+    private final ForkJoinPool pool;
+    private final int parallelThreshold;
+
+    public RowPrinter(PrintStream output) {
+        this(output, Charset.defaultCharset(), ForkJoinPool.commonPool());
+    }
+
+    public RowPrinter(PrintStream output, Charset charset, ForkJoinPool pool) {
+        this.output = output;
+        this.charset = charset;
+        this.pool = pool;
+        this.parallelThreshold = ConsoleProperties.getInteger(
+                ConsoleProperties.HCJF_CONSOLE_PARALLEL_RENDER_THRESHOLD, CHUNK_SIZE * 2);
+    }
+
+    /**
+     * Prints the rows of the range.
+     * @param rows List of rows.
+     * @param start First row (inclusive).
+     * @param end Last row (exclusive).
+     */
+    public void print(List<?> rows, int start, int end) {
+        RenderEvent event = new RenderEvent();
+        event.begin();
+        end = Math.min(end, rows.size());
+        if(end - start < parallelThreshold || pool.getParallelism() < 2) {
+            write(format(rows, start, end));
+        } else {
+            //The number of chunks in flight is bounded in order to bound the memory used by the formatted chunks.
+            int maxChunksInFlight = pool.getParallelism() * 2;
+            Deque<ForkJoinTask<byte[]>> chunks = new ArrayDeque<>();
+            for (int chunkStart = start; chunkStart < end; chunkStart += CHUNK_SIZE) {
+                int from = chunkStart;
+                int to = Math.min(end, chunkStart + CHUNK_SIZE);
+                chunks.add(pool.submit(() -> format(rows, from, to)));
+                if(chunks.size() >= maxChunksInFlight) {
+                    write(chunks.poll().join());
+                }
+            }
+            while(!chunks.isEmpty()) {
+                write(chunks.poll().join());
+            }
+        }
+        output.flush();
+        if(event.shouldCommit()) {
+            event.renderer = getClass().getSimpleName();
+            event.rows = Math.max(0, end - start);
+            event.commit();
+        }
+    }
+
+    /**
+     * Writes the formatted chunk into the output.
+     * @param bytes Formatted chunk.
+     */
+    private void write(byte[] bytes) {
+        output.write(bytes, 0, bytes.length);
+    }
+
+    /**
+     * Formats the rows of the range.
+     * @param rows List of rows.
+     * @param start First row (inclusive).
+     * @param end Last row (exclusive).
+     * @return Bytes to print.
+     */
+    private byte[] format(List<?> rows, int start, int end) {
+        StringBuilder builder = new StringBuilder();
+        for (int count = start; count < end; count++) {
+            appendRow(builder, rows.get(count), count);
+        }
+        return builder.toString().getBytes(charset);
+    }
+
+    /**
+     * Appends the row with the background color according to its position.
+     * @param builder Output builder.
+     * @param row Row instance.
+     * @param count Position of the row.
+     */
+    private void appendRow(StringBuilder builder, Object row, int count) {
+        String backgroundColor = count % 2 == 0 ? Strings.StandardOutput.BLUE_BACKGROUND : Strings.StandardOutput.YELLOW_BACKGROUND;
+        builder.append(backgroundColor);
+        if (row instanceof Map) {
+            builder.append(String.format(INDEX, count + 1));
+            for(Object entry : ((Map) row).entrySet()) {
+                builder.append(Strings.StandardOutput.BLACK_BOLD_BRIGHT);
+                builder.append(backgroundColor);
+                builder.append(Objects.toString(((Map.Entry) entry).getKey()));
+                builder.append(Strings.StandardOutput.WHITE);
+                builder.append(backgroundColor);
+                builder.append(Strings.OBJETC_FIELD_SEPARATOR);
+                builder.append(Objects.toString(((Map.Entry) entry).getValue()));
+                builder.append(FIELD_SEPARATOR);
+            }
+        } else {
+            builder.append(Objects.toString(row));
+        }
+        builder.append(Strings.StandardOutput.RESET);
+        builder.append(System.lineSeparator());
+    }
+}
@@ -0,0 +1,14 @@
+package org.hcjf.console.shell;
+
+/**
+ * This command changes the number of rows of each page of the result set.
+ * @author javaito
+ */
+@CommandDescriptor(name = "setPageSize", arguments = "size", timeoutClass = TimeoutClass.LOCAL, scope = QueryShell.SCOPE)
+public class SetPageSizeCommand implements ShellCommand {
+
+    @Override
+    public void execute(Shell shell, Command command) {
+        ((QueryShell) shell).changePageSize(command);
+    }
+}
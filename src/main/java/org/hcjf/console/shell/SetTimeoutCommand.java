@@ -0,0 +1,20 @@
+package org.hcjf.console.shell;
+
+/**
+ * This command changes the timeout of the requests sent by the shells.
+ * @author javaito
+ */
+@CommandDescriptor(name = "setTimeout", arguments = "milliseconds", timeoutClass = TimeoutClass.LOCAL)
+public class SetTimeoutCommand implements ShellCommand {
+
+    private static final String USAGE = "You must indicate the timeout in milliseconds (i.e. setTimeout 10000)";
+
+    @Override
+    public void execute(Shell shell, Command command) {
+        if(command.getParameters().size() == 1 && command.getParameters().get(0) instanceof Number) {
+            shell.setTimeout(((Number) command.getParameters().get(0)).longValue());
+        } else {
+            shell.printError(USAGE);
+        }
+    }
+}
@@ -1,10 +1,17 @@
 package org.hcjf.console.shell;
 
+import org.hcjf.console.Completion;
 import org.hcjf.console.ConsoleClient;
+import org.hcjf.console.ConsoleProperties;
+import org.hcjf.console.Messages;
+import org.hcjf.console.QueryCache;
 import org.hcjf.console.TtyListener;
+import org.hcjf.console.traffic.TrafficRecord;
+import org.hcjf.console.traffic.TrafficRecorder;
 import org.hcjf.io.console.ServerMetadata;
 import org.hcjf.io.console.messages.EvaluateQueryableMessage;
 import org.hcjf.io.console.messages.ExecuteMessage;
+import org.hcjf.io.net.messages.Message;
 import org.hcjf.io.net.messages.ResponseMessage;
 import org.hcjf.layers.query.Queryable;
 import org.hcjf.properties.SystemProperties;
@@ -13,11 +20,19 @@ import org.hcjf.utils.Strings;
 
 import java.io.IOException;
 import java.text.DateFormat;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
-import java.util.UUID;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeoutException;
 import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
 
 /**
  * @author javaito
@@ -28,64 +43,143 @@ public abstract class Shell {
     private static final String RESULT_SET_SIZE = "Result set size: %d";
     private static final String SERVER_DATA = "Protocol Version: 1.0.0 | Server: %s | Version: %s | Cluster: %s | Id: %s";
 
-    private static final String CLEAR_COMMAND = "clear";
-    private static final String SET_TIMEOUT = "setTimeout";
-    private static final String EXIT_COMMAND = "exit";
-    private static final String QUIT_COMMAND = "quit";
+    private static final String UNKNOWN_SHELL = "There is not a shell for the scope '%s'";
+
+    public static final String GLOBAL_SCOPE = "*";
+
+    static final String EVALUATE_LATENCY_KEY = "evaluate";
+    private static final int LATENCY_TRACKERS_CAPACITY = 64;
+    private static final Map<String, LatencyTracker> LATENCY_TRACKERS = Collections.synchronizedMap(
+            new LinkedHashMap<String, LatencyTracker>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, LatencyTracker> eldest) {
+                    return size() > LATENCY_TRACKERS_CAPACITY;
+                }
+            });
 
     private final TtyListener ttyListener;
-    private final ServerMetadata serverMetadata;
-    private final ConsoleClient consoleClient;
+    private ServerMetadata serverMetadata;
+    private ConsoleClient consoleClient;
     private String prompt;
     private Shell openShell;
     private Long timeout;
     private DateFormat dateFormat;
+    private TimeoutClass timeoutClass;
 
     public Shell(TtyListener ttyListener, ServerMetadata serverMetadata, ConsoleClient consoleClient) {
         this.ttyListener = ttyListener;
         this.serverMetadata = serverMetadata;
         this.consoleClient = consoleClient;
-        this.timeout = 10000L;
+        this.timeout = ConsoleProperties.getLong(ConsoleProperties.HCJF_CONSOLE_TIMEOUT, 10000L);
         this.dateFormat = SystemProperties.getDateFormat(SystemProperties.HCJF_DEFAULT_DATE_FORMAT);
+        this.timeoutClass = TimeoutClass.DEFAULT;
     }
 
+    /**
+     * Executes the command. The command is resolved from the deepest open shell to this shell and each shell
+     * resolves it in this order:
+     * 1. the commands registered with the scope of the shell (the verbs of the shell),
+     * 2. the commands of the global scope, executed by the outermost shell,
+     * 3. the shell implementation, for example the server commands or the queries.
+     * Then the verbs of an open shell are never shadowed by the global commands and the commands of the
+     * console shadow the server commands with the same name.
+     * @param command Command to execute.
+     * @throws Throwable
+     */
     public final void execute(Command command) throws Throwable {
-        switch (command.getCommand()) {
-            case CLEAR_COMMAND: {
-                getTtyListener().clear();
-                printHead();
-                break;
-            }
-            case SET_TIMEOUT: {
-                setTimeout((Long) command.getParameters().get(0));
-                break;
-            }
-            case QUIT_COMMAND: case EXIT_COMMAND: {
-                Shell parent = null;
-                Shell currentShell = this;
-                while(currentShell.getOpenShell() != null) {
-                    parent = currentShell;
-                    currentShell = currentShell.getOpenShell();
-                }
-                if(currentShell.equals(this)) {
-                    System.exit(0);
-                } else {
-                    parent.setOpenShell(null);
-                }
-                break;
+        CommandRegistry registry = CommandRegistry.getInstance();
+        String name = command.getCommand();
+        if(getOpenShell() != null && (getOpenShell().resolves(name) || registry.get(GLOBAL_SCOPE, name) == null)) {
+            getOpenShell().execute(command);
+        } else {
+            CommandRegistry.Entry entry = registry.get(getScope(), name);
+            if(entry == null) {
+                entry = registry.get(GLOBAL_SCOPE, name);
             }
-            default: {
-                if(getOpenShell() != null) {
-                    getOpenShell().execute(command);
-                } else {
-                    delegateCommand(command);
+            if(entry == null) {
+                delegateCommand(command);
+            } else {
+                timeoutClass = entry.getDescriptor().timeoutClass();
+                try {
+                    entry.getCommand().execute(this, command);
+                } finally {
+                    timeoutClass = TimeoutClass.DEFAULT;
                 }
             }
         }
     }
 
+    /**
+     * Verify if the command is registered with the scope of this shell or the scope of its open shells.
+     * @param name Name of the command.
+     * @return True if some of the shells has a verb with the name.
+     */
+    private boolean resolves(String name) {
+        return CommandRegistry.getInstance().get(getScope(), name) != null ||
+                (getOpenShell() != null && getOpenShell().resolves(name));
+    }
+
+    /**
+     * Executes the commands that are not registered for the scope of the shell.
+     * @param command Command to execute.
+     * @throws Throwable
+     */
     public abstract void delegateCommand(Command command) throws Throwable;
 
+    /**
+     * Returns the scope of the shell, the registered commands with this scope are available into the shell.
+     * @return Scope of the shell.
+     */
+    public abstract String getScope();
+
+    /**
+     * Returns the names of the commands implemented by the shell, the names are used to complete the
+     * editing line.
+     * @return Collection with the command names.
+     */
+    public Collection<String> getCommandNames() {
+        List<String> result = new ArrayList<>();
+        result.addAll(CommandRegistry.getInstance().getNames(GLOBAL_SCOPE));
+        result.addAll(CommandRegistry.getInstance().getNames(getScope()));
+        return result;
+    }
+
+    /**
+     * Add the command names and the completion hints of the commands of the shell into the completion.
+     * @param completion Completion instance.
+     */
+    public void addToCompletion(Completion completion) {
+        completion.addShellCommands(getCommandNames());
+        for(String scope : Arrays.asList(GLOBAL_SCOPE, getScope())) {
+            for(CommandRegistry.Entry entry : CommandRegistry.getInstance().getEntries(scope)) {
+                completion.addHints(Arrays.asList(entry.getDescriptor().completion()));
+            }
+        }
+    }
+
+    /**
+     * Add the command name into the completion if the command was executed successfully into the server.
+     * @param commandName Command name.
+     */
+    protected void learnCommand(String commandName) {
+        Completion completion = getTtyListener().getCompletion();
+        if(completion != null) {
+            completion.learnCommand(commandName);
+        }
+    }
+
+    /**
+     * Add the resource and field names of the query and the result into the completion.
+     * @param query Query text.
+     * @param result Query result.
+     */
+    protected void learnQuery(String query, Object result) {
+        Completion completion = getTtyListener().getCompletion();
+        if(completion != null) {
+            completion.learnQuery(query, result);
+        }
+    }
+
     /**
      *
      * @param error
@@ -114,41 +208,28 @@ public abstract class Shell {
 
     protected void printObject(Object object) {
         if(object instanceof Collection) {
-            printCollection((Collection) object, 0, ((Collection) object).size());
+            new TableRenderer(getTtyListener(), (Collection) object).render();
         } else {
             System.out.println(Objects.toString(object));
         }
     }
 
     protected void printCollection(Collection collection, int start, int end) {
-        int count = 0;
-        for(Object object : collection) {
-            if(count >= start && count < end) {
-                System.out.print(count % 2 == 0 ? Strings.StandardOutput.BLUE_BACKGROUND : Strings.StandardOutput.YELLOW_BACKGROUND);
-                if (object instanceof Map) {
-                    printMap((Map) object, count % 2 == 0 ? Strings.StandardOutput.BLUE_BACKGROUND : Strings.StandardOutput.YELLOW_BACKGROUND, count+1);
-                } else {
-                    System.out.print(Objects.toString(object));
+        List rows;
+        if(collection instanceof List) {
+            //The rows of the page are accessed by index, then the rows before the page are not read.
+            rows = (List) collection;
+        } else {
+            rows = new ArrayList();
+            for(Object object : collection) {
+                if(rows.size() >= end) {
+                    break;
                 }
-                System.out.println(Strings.StandardOutput.RESET);
+                rows.add(object);
             }
-            count++;
         }
-    }
-
-    private void printMap(Map map, String backgroundColor, int index) {
-        System.out.print(index > 0 ? index + ": " : "");
-        Object object;
-        for(Object key : map.keySet()) {
-            object = map.get(key);
-            System.out.print(Strings.StandardOutput.BLACK_BOLD_BRIGHT);
-            System.out.print(backgroundColor);
-            System.out.print(Objects.toString(key));
-            System.out.print(Strings.StandardOutput.WHITE);
-            System.out.print(backgroundColor);
-            System.out.print(Strings.OBJETC_FIELD_SEPARATOR);
-            System.out.print(Objects.toString(object));
-            System.out.print("  ");
+        if(start < rows.size()) {
+            new RowPrinter(System.out).print(rows, start, end);
         }
     }
 
@@ -160,10 +241,32 @@ public abstract class Shell {
         return serverMetadata;
     }
 
+    /**
+     * Set the metadata of the server, the new metadata is propagated to the open shells.
+     * @param serverMetadata Server metadata.
+     */
+    public void setServerMetadata(ServerMetadata serverMetadata) {
+        this.serverMetadata = serverMetadata;
+        if(getOpenShell() != null) {
+            getOpenShell().setServerMetadata(serverMetadata);
+        }
+    }
+
     public ConsoleClient getConsoleClient() {
         return consoleClient;
     }
 
+    /**
+     * Set the client used to send the messages, the client is propagated to the open shells.
+     * @param consoleClient Console client instance.
+     */
+    public void setConsoleClient(ConsoleClient consoleClient) {
+        this.consoleClient = consoleClient;
+        if(getOpenShell() != null) {
+            getOpenShell().setConsoleClient(consoleClient);
+        }
+    }
+
     public String getPrompt() {
         String result;
         if(getOpenShell() != null) {
@@ -184,14 +287,60 @@ public abstract class Shell {
 
     protected void setOpenShell(Shell openShell) {
         this.openShell = openShell;
+        if(openShell != null) {
+            openShell.setTimeout(getTimeout());
+        }
+        Completion completion = getTtyListener().getCompletion();
+        if(openShell != null && completion != null) {
+            openShell.addToCompletion(completion);
+        }
+    }
+
+    /**
+     * Opens a new shell created by the provider registered for the scope.
+     * @param scope Scope of the shell.
+     */
+    public void openShell(String scope) {
+        ShellProvider shellProvider = CommandRegistry.getInstance().getShellProvider(scope);
+        if(shellProvider == null) {
+            throw new IllegalArgumentException(String.format(UNKNOWN_SHELL, scope));
+        }
+        Shell shell = shellProvider.create(getTtyListener(), getServerMetadata(), getConsoleClient());
+        shell.setPrompt(shellProvider.getPrompt());
+        setOpenShell(shell);
     }
 
     protected Long getTimeout() {
         return timeout;
     }
 
-    protected void setTimeout(Long timeout) {
+    /**
+     * Returns the timeout for a specific command, if the adaptive timeout is enabled then the
+     * timeout is calculated using the latencies observed for the command and the timeout of the shell
+     * is used as max value.
+     * @param latencyKey Key of the command.
+     * @return Timeout in milliseconds.
+     */
+    protected Long getTimeout(String latencyKey) {
+        Long result = timeoutClass.apply(getTimeout());
+        if(ConsoleProperties.getBoolean(ConsoleProperties.HCJF_CONSOLE_ADAPTIVE_TIMEOUT, false)) {
+            result = getLatencyTracker(latencyKey).getTimeout(
+                    ConsoleProperties.getInteger(ConsoleProperties.HCJF_CONSOLE_ADAPTIVE_TIMEOUT_FACTOR, 3),
+                    ConsoleProperties.getLong(ConsoleProperties.HCJF_CONSOLE_ADAPTIVE_TIMEOUT_MIN, 1000L),
+                    result);
+        }
+        return result;
+    }
+
+    /**
+     * Set the timeout of the commands, the timeout is propagated to the open shells.
+     * @param timeout Timeout in milliseconds.
+     */
+    public void setTimeout(Long timeout) {
         this.timeout = timeout;
+        if(getOpenShell() != null) {
+            getOpenShell().setTimeout(timeout);
+        }
     }
 
     public DateFormat getDateFormat() {
@@ -208,42 +357,38 @@ public abstract class Shell {
      * @return Returns the query response.
      */
     protected Object evaluateQueryable(Queryable queryable) throws Throwable {
-        Object value = null;
-        EvaluateQueryableMessage evaluateQueryableMessage = new EvaluateQueryableMessage();
-        evaluateQueryableMessage.setId(UUID.randomUUID());
-        evaluateQueryableMessage.setTimestamp(System.currentTimeMillis());
-        evaluateQueryableMessage.setQueryable(queryable);
-        evaluateQueryableMessage.setSessionId(ServiceSession.getSystemSession().getId());
+        EvaluateQueryableMessage evaluateQueryableMessage = Messages.evaluate(
+                queryable, ServiceSession.getSystemSession().getId());
+        return requestWithSpinner(evaluateQueryableMessage, EVALUATE_LATENCY_KEY,
+                V -> String.format(RESULT_SET_SIZE, ((Collection) V).size()));
+    }
 
-        AtomicReference<ResponseMessage> result = new AtomicReference<>();
-        ProcessingSpinner processingSppiner = new ProcessingSpinner(EVALUATING_QUERY, getTimeout());
-        processingSppiner.start();
-        processingSppiner.consume((C) -> {
-            try {
-                getConsoleClient().send(evaluateQueryableMessage);
-                result.set(getConsoleClient().getResult(evaluateQueryableMessage.getId()));
-                if(result.get().getThrowable() != null) {
-                    throw new RuntimeException(result.get().getThrowable().getMessage(), result.get().getThrowable());
-                }
-            } catch (IOException e) {
-                throw new RuntimeException(e);
-            }
+    /**
+     * Compiles the query and evaluates it, the request is added to the traffic log if the traffic is recorded.
+     * @param query Query text.
+     * @param parameters Parameters of the query, could be empty.
+     * @return Returns the query response.
+     * @throws Throwable
+     */
+    protected Object evaluateQueryable(String query, List<Object> parameters) throws Throwable {
+        return recordTraffic(TrafficRecord.EVALUATE, query, parameters,
+                () -> evaluateQueryable(QueryCache.compile(query, parameters)));
+    }
 
-            Collection collection = (Collection) result.get().getValue();
-            return String.format(RESULT_SET_SIZE, collection.size());
-        });
-        try {
-            processingSppiner.join();
-        } catch (InterruptedException e) {
-        }
-        if(result.get() != null) {
-            ResponseMessage responseMessage = result.get();
-            if (responseMessage.getThrowable() != null) {
-                throw responseMessage.getThrowable();
-            }
-            value = responseMessage.getValue();
+    /**
+     * Sends the message and waits the response without showing the spinner.
+     * @param message Message to send.
+     * @return Returns the value of the response.
+     * @throws Throwable Throws the exception returned by the server.
+     */
+    protected Object request(Message message) throws Throwable {
+        long deadline = System.currentTimeMillis() + timeoutClass.apply(getTimeout());
+        getConsoleClient().request(message, deadline);
+        ResponseMessage responseMessage = getConsoleClient().getResult(message.getId(), deadline);
+        if(responseMessage.getThrowable() != null) {
+            throw responseMessage.getThrowable();
         }
-        return value;
+        return responseMessage.getValue();
     }
 
     /**
@@ -253,31 +398,93 @@ public abstract class Shell {
      * @throws Throwable
      */
     protected Object executeCommand(Command command) throws Throwable {
+        ExecuteMessage executeMessage = Messages.execute(command.getCommand(),
+                command.getParameters(), ServiceSession.getCurrentIdentity().getId());
+        return recordTraffic(TrafficRecord.EXECUTE, command.getCommand(), command.getParameters(),
+                () -> requestWithSpinner(executeMessage, command.getCommand(), V -> Strings.EMPTY_STRING));
+    }
+
+    /**
+     * Executes the request and adds it into the traffic log, with its latency and status.
+     * @param kind Kind of request.
+     * @param text Name of the command or query text.
+     * @param parameters Parameters of the request.
+     * @param request Request to execute.
+     * @return Returns the value of the response.
+     * @throws Throwable
+     */
+    private Object recordTraffic(byte kind, String text, List<Object> parameters, Request request) throws Throwable {
+        TrafficRecorder recorder = TrafficRecorder.getInstance();
+        Object result;
+        if(recorder == null) {
+            result = request.execute();
+        } else {
+            long startTime = System.nanoTime();
+            try {
+                result = request.execute();
+                recorder.record(kind, text, parameters, startTime, result, TrafficRecord.SUCCESS);
+            } catch (TimeoutException ex) {
+                recorder.record(kind, text, parameters, startTime, null, TrafficRecord.TIMEOUT);
+                throw ex;
+            } catch (CancellationException ex) {
+                recorder.record(kind, text, parameters, startTime, null, TrafficRecord.CANCELLED);
+                throw ex;
+            } catch (Throwable throwable) {
+                recorder.record(kind, text, parameters, startTime, null, TrafficRecord.ERROR);
+                throw throwable;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Sends the message and waits the response showing the spinner. The message expires when the timeout of the
+     * command is reached, then the request is cancelled and the waiting ends immediately. The priority class
+     * of the message is selected by the client using the command and the size of the previous responses.
+     * @param message Message to send.
+     * @param latencyKey Key used to store the latency of the request.
+     * @param summary Function that creates the text shown by the spinner when the response arrives.
+     * @return Returns the value of the response.
+     * @throws Throwable Throws the exception returned by the server, a timeout exception or a
+     * cancellation exception.
+     */
+    private Object requestWithSpinner(Message message, String latencyKey, Function<Object,String> summary) throws Throwable {
         Object value = null;
-        ExecuteMessage executeMessage = new ExecuteMessage();
-        executeMessage.setId(UUID.randomUUID());
-        executeMessage.setSessionId(ServiceSession.getCurrentIdentity().getId());
-        executeMessage.setCommandName(command.getCommand());
-        executeMessage.setParameters(command.getParameters());
+        Long timeout = getTimeout(latencyKey);
+        long deadline = System.currentTimeMillis() + timeout;
         AtomicReference<ResponseMessage> result = new AtomicReference<>();
-        ProcessingSpinner processingSpinner = new ProcessingSpinner(EVALUATING_QUERY, getTimeout());
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        CountDownLatch completed = new CountDownLatch(1);
+        ProcessingSpinner processingSpinner = new ProcessingSpinner(EVALUATING_QUERY, timeout);
         processingSpinner.start();
         processingSpinner.consume((C) -> {
             try {
-                getConsoleClient().send(executeMessage);
-                result.set(getConsoleClient().getResult(executeMessage.getId()));
-                if(result.get().getThrowable() != null) {
-                    throw new RuntimeException(result.get().getThrowable().getMessage(), result.get().getThrowable());
-                }
-            } catch (IOException e) {
-                throw new RuntimeException(e);
+                long startTime = System.currentTimeMillis();
+                getConsoleClient().request(message, deadline, getConsoleClient().classify(message));
+                result.set(getConsoleClient().getResult(message.getId(), deadline));
+                getLatencyTracker(latencyKey).add(System.currentTimeMillis() - startTime);
+            } catch (TimeoutException ex) {
+                getLatencyTracker(latencyKey).addTimeout(timeout);
+                failure.set(ex);
+                throw new RuntimeException(ex.getMessage(), ex);
+            } catch (IOException | CancellationException ex) {
+                failure.set(ex);
+                throw new RuntimeException(ex.getMessage(), ex);
+            } finally {
+                completed.countDown();
             }
-
-            return Strings.EMPTY_STRING;
+            if(result.get().getThrowable() != null) {
+                throw new RuntimeException(result.get().getThrowable().getMessage(), result.get().getThrowable());
+            }
+            return summary.apply(result.get().getValue());
         });
         try {
             processingSpinner.join();
+            //The spinner could finish before the consumer if the deadline is reached, the consumer
+            //ends at the same deadline because the request is cancelled.
+            completed.await();
         } catch (InterruptedException e) {
+            getConsoleClient().cancel(message.getId());
         }
         if(result.get() != null) {
             ResponseMessage responseMessage = result.get();
@@ -285,7 +492,28 @@ public abstract class Shell {
                 throw responseMessage.getThrowable();
             }
             value = responseMessage.getValue();
+        } else if(failure.get() != null) {
+            throw failure.get();
         }
         return value;
     }
+
+    /**
+     * Returns the latency tracker associated to the key, only the trackers of the last commands used
+     * are kept because the names of the commands not registered are typed by the user.
+     * @param latencyKey Key of the tracker, the name of the command or 'evaluate' for the queries.
+     * @return Latency tracker.
+     */
+    private static LatencyTracker getLatencyTracker(String latencyKey) {
+        return LATENCY_TRACKERS.computeIfAbsent(latencyKey, K -> new LatencyTracker());
+    }
+
+    /**
+     * Request sent to the server.
+     */
+    private interface Request {
+
+        Object execute() throws Throwable;
+
+    }
 }
@@ -0,0 +1,19 @@
+package org.hcjf.console.shell;
+
+/**
+ * This interface must be implemented by the commands of the shells, the implementations are discovered
+ * using the service loader (META-INF/services/org.hcjf.console.shell.ShellCommand) and must be annotated
+ * with {@link CommandDescriptor}. Each implementation is instantiated the first time that the command is used.
+ * @author javaito
+ */
+public interface ShellCommand {
+
+    /**
+     * Executes the command.
+     * @param shell Shell where the command is executed.
+     * @param command Command typed by the user.
+     * @throws Throwable
+     */
+    void execute(Shell shell, Command command) throws Throwable;
+
+}
@@ -0,0 +1,36 @@
+package org.hcjf.console.shell;
+
+import org.hcjf.console.ConsoleClient;
+import org.hcjf.console.TtyListener;
+import org.hcjf.io.console.ServerMetadata;
+
+/**
+ * This interface must be implemented by the providers of the shells opened by the commands, the
+ * implementations are discovered using the service loader (META-INF/services/org.hcjf.console.shell.ShellProvider)
+ * and indexed by the scope of the shell that they create, only one provider is allowed by scope.
+ * @author javaito
+ */
+public interface ShellProvider {
+
+    /**
+     * Returns the scope of the shells created by the provider.
+     * @return Scope of the shell.
+     */
+    String getScope();
+
+    /**
+     * Returns the prompt of the shells created by the provider.
+     * @return Prompt of the shell.
+     */
+    String getPrompt();
+
+    /**
+     * Creates a new shell.
+     * @param ttyListener Tty listener of the console.
+     * @param serverMetadata Metadata of the server.
+     * @param consoleClient Client used to send the messages.
+     * @return Shell instance.
+     */
+    Shell create(TtyListener ttyListener, ServerMetadata serverMetadata, ConsoleClient consoleClient);
+
+}
@@ -0,0 +1,252 @@
+package org.hcjf.console.shell;
+
+import org.hcjf.console.TtyListener;
+import org.hcjf.console.jfr.RenderEvent;
+import org.hcjf.utils.Strings;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * This class prints a collection of rows as a table that fits into the terminal. The columns and its
+ * widths are calculated using a sample of rows and only the rows visible into the screen are formatted, then
+ * the cost of each frame depends on the screen size and not on the size of the collection.
+ * If the collection doesn't fit into the screen then the table is shown into the alternate screen
+ * and the user can scroll the rows and the columns using the keyboard.
+ * @author javaito
+ */
+public class TableRenderer {
+
+    private static final String ALTERNATE_SCREEN_ON = "\033[?1049h";
+    private static final String ALTERNATE_SCREEN_OFF = "\033[?1049l";
+    private static final String CLEAR_SCREEN = "\033[H\033[2J";
+    private static final String COLUMN_SEPARATOR = " | ";
+    private static final String HEADER_SEPARATOR = "-";
+    private static final String ELLIPSIS = "~";
+    private static final String NULL_VALUE = "null";
+    private static final String STATUS = "rows %d-%d of %d, columns %d-%d of %d  [up/down pgup/pgdown home/end left/right q]";
+    private static final String INDEX_COLUMN = "#";
+    private static final String VALUE_COLUMN = "value";
+    private static final int SAMPLE_SIZE = 100;
+    private static final int MAX_COLUMN_WIDTH = 40;
+    private static final int RESERVED_ROWS = 3;
+    private static final Long QUIT = (long) 'q';
+    private static final Long ENTER = (long) '\n';
+    private static final Long SPACE = (long) ' ';
+
+    private final TtyListener ttyListener;
+    private final List<?> rows;
+    private final List<Object> columns;
+    private final int[] widths;
+    private int screenRows;
+    private int screenColumns;
+    private int firstRow;
+    private int firstColumn;
+    private int lastColumn;
+
+    public TableRenderer(TtyListener ttyListener, Collection<?> rows) {
+        this.ttyListener = ttyListener;
+        this.rows = rows instanceof List ? (List<?>) rows : new ArrayList<>(rows);
+        this.columns = new ArrayList<>();
+        this.columns.add(INDEX_COLUMN);
+        List<Object> sample = sample();
+        Set<Object> keys = new LinkedHashSet<>();
+        for(Object row : sample) {
+            if(row instanceof Map) {
+                keys.addAll(((Map) row).keySet());
+            }
+        }
+        if(keys.isEmpty()) {
+            keys.add(VALUE_COLUMN);
+        }
+        this.columns.addAll(keys);
+        this.widths = new int[columns.size()];
+        this.widths[0] = Math.max(INDEX_COLUMN.length(), Integer.toString(this.rows.size()).length());
+        for (int i = 1; i < columns.size(); i++) {
+            widths[i] = Math.min(MAX_COLUMN_WIDTH, Objects.toString(columns.get(i)).length());
+        }
+        for(Object row : sample) {
+            for (int i = 1; i < columns.size(); i++) {
+                widths[i] = Math.max(widths[i], Math.min(MAX_COLUMN_WIDTH, format(row, i).length()));
+            }
+        }
+    }
+
+    /**
+     * Returns the rows used to calculate the columns: the first rows and rows evenly spaced
+     * into the rest of the collection.
+     * @return Sample of rows.
+     */
+    private List<Object> sample() {
+        List<Object> result = new ArrayList<>();
+        int head = Math.min(rows.size(), SAMPLE_SIZE / 2);
+        for (int i = 0; i < head; i++) {
+            result.add(rows.get(i));
+        }
+        if(rows.size() > head) {
+            int step = Math.max(1, (rows.size() - head) / (SAMPLE_SIZE / 2));
+            for (int i = head; i < rows.size(); i += step) {
+                result.add(rows.get(i));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Prints the table, if the table doesn't fit into the screen then the method blocks the current thread
+     * until the user leaves the scroll mode.
+     */
+    public void render() {
+        RenderEvent event = new RenderEvent();
+        event.begin();
+        int[] size = ttyListener.getTerminalSize();
+        screenRows = size[0];
+        screenColumns = size[1];
+        if(rows.size() + RESERVED_ROWS <= screenRows && fitColumns(0) == columns.size()) {
+            StringBuilder builder = new StringBuilder();
+            appendFrame(builder, 0, rows.size());
+            System.out.print(builder);
+            System.out.flush();
+        } else {
+            System.out.print(ALTERNATE_SCREEN_ON);
+            try {
+                scroll();
+            } finally {
+                System.out.print(ALTERNATE_SCREEN_OFF);
+                System.out.flush();
+            }
+        }
+        //The duration of the scroll mode includes the time waiting for the user keys.
+        if(event.shouldCommit()) {
+            event.renderer = getClass().getSimpleName();
+            event.rows = rows.size();
+            event.commit();
+        }
+    }
+
+    /**
+     * Prints the visible window and moves it according to the keys pressed.
+     */
+    private void scroll() {
+        int visibleRows = Math.max(1, screenRows - RESERVED_ROWS);
+        Long key = null;
+        while(!QUIT.equals(key) && !ENTER.equals(key) && !TtyListener.ESCAPE.equals(key)) {
+            int maxFirstRow = Math.max(0, rows.size() - visibleRows);
+            if(TtyListener.DOWN.equals(key)) {
+                firstRow++;
+            } else if(TtyListener.UP.equals(key)) {
+                firstRow--;
+            } else if(TtyListener.PAGE_DOWN.equals(key) || SPACE.equals(key)) {
+                firstRow += visibleRows;
+            } else if(TtyListener.PAGE_UP.equals(key)) {
+                firstRow -= visibleRows;
+            } else if(TtyListener.HOME.equals(key)) {
+                firstRow = 0;
+            } else if(TtyListener.END.equals(key)) {
+                firstRow = maxFirstRow;
+            } else if(TtyListener.RIGHT.equals(key)) {
+                if(lastColumn < columns.size()) {
+                    firstColumn++;
+                }
+            } else if(TtyListener.LEFT.equals(key)) {
+                firstColumn = Math.max(0, firstColumn - 1);
+            }
+            firstRow = Math.max(0, Math.min(firstRow, maxFirstRow));
+
+            StringBuilder builder = new StringBuilder(CLEAR_SCREEN);
+            appendFrame(builder, firstRow, Math.min(rows.size(), firstRow + visibleRows));
+            builder.append(String.format(STATUS, firstRow + 1, Math.min(rows.size(), firstRow + visibleRows),
+                    rows.size(), firstColumn + 1, lastColumn - 1, columns.size() - 1));
+            System.out.print(builder);
+            System.out.flush();
+            key = ttyListener.readKey(0);
+        }
+    }
+
+    /**
+     * Returns the index of the first column that doesn't fit into the screen starting with some column,
+     * the index column is always visible.
+     * @param start Index of the first column (without the index column).
+     * @return Index of the first column that doesn't fit.
+     */
+    private int fitColumns(int start) {
+        int width = widths[0];
+        int result = 1 + start;
+        while(result < columns.size() && width + COLUMN_SEPARATOR.length() + widths[result] <= screenColumns) {
+            width += COLUMN_SEPARATOR.length() + widths[result];
+            result++;
+        }
+        //At least one column is shown even if it is wider than the screen.
+        return Math.max(result, Math.min(columns.size(), 2 + start));
+    }
+
+    /**
+     * Append the header and the rows of the window.
+     * @param builder Builder of the frame.
+     * @param start First row (inclusive).
+     * @param end Last row (exclusive).
+     */
+    private void appendFrame(StringBuilder builder, int start, int end) {
+        lastColumn = fitColumns(firstColumn);
+        builder.append(Strings.StandardOutput.BLACK_BOLD_BRIGHT);
+        appendCell(builder, INDEX_COLUMN, 0);
+        int lineWidth = widths[0];
+        for (int i = 1 + firstColumn; i < lastColumn; i++) {
+            builder.append(COLUMN_SEPARATOR);
+            appendCell(builder, Objects.toString(columns.get(i)), i);
+            lineWidth += COLUMN_SEPARATOR.length() + widths[i];
+        }
+        builder.append(Strings.StandardOutput.RESET).append(Strings.CARRIAGE_RETURN_AND_LINE_SEPARATOR);
+        builder.append(HEADER_SEPARATOR.repeat(Math.min(lineWidth, screenColumns)));
+        builder.append(Strings.CARRIAGE_RETURN_AND_LINE_SEPARATOR);
+        for (int row = start; row < end; row++) {
+            appendCell(builder, Integer.toString(row + 1), 0);
+            for (int i = 1 + firstColumn; i < lastColumn; i++) {
+                builder.append(COLUMN_SEPARATOR);
+                appendCell(builder, format(rows.get(row), i), i);
+            }
+            builder.append(Strings.CARRIAGE_RETURN_AND_LINE_SEPARATOR);
+        }
+    }
+
+    /**
+     * Append the value padded or truncated to the width of the column.
+     * @param builder Builder of the frame.
+     * @param value Value of the cell.
+     * @param column Index of the column.
+     */
+    private void appendCell(StringBuilder builder, String value, int column) {
+        int width = widths[column];
+        if(value.length() > width) {
+            builder.append(value, 0, Math.max(0, width - ELLIPSIS.length())).append(ELLIPSIS);
+        } else {
+            builder.append(value);
+            for (int i = value.length(); i < width; i++) {
+                builder.append(' ');
+            }
+        }
+    }
+
+    /**
+     * Returns the text of the cell, the line separators are replaced in order to keep the row into one line.
+     * @param row Row instance.
+     * @param column Index of the column.
+     * @return Text of the cell.
+     */
+    private String format(Object row, int column) {
+        String result;
+        if(row instanceof Map) {
+            Map map = (Map) row;
+            Object key = columns.get(column);
+            result = map.containsKey(key) ? Objects.toString(map.get(key), NULL_VALUE) : Strings.EMPTY_STRING;
+        } else {
+            result = column == 1 ? Objects.toString(row) : Strings.EMPTY_STRING;
+        }
+        return result.replace('\n', ' ').replace('\r', ' ');
+    }
+}
@@ -0,0 +1,35 @@
+package org.hcjf.console.shell;
+
+import org.hcjf.console.ConsoleProperties;
+
+/**
+ * This enum contains the kinds of timeout applied to the requests of the commands.
+ * @author javaito
+ */
+public enum TimeoutClass {
+
+    /**
+     * The command doesn't wait for the server, the timeout of the shell is used for any request.
+     */
+    LOCAL,
+
+    /**
+     * The requests of the command use the timeout of the shell.
+     */
+    DEFAULT,
+
+    /**
+     * The requests of the command use the timeout of the shell multiplied by the long timeout factor.
+     */
+    LONG;
+
+    /**
+     * Returns the timeout for the requests of this class.
+     * @param timeout Timeout of the shell.
+     * @return Timeout in milliseconds.
+     */
+    public long apply(long timeout) {
+        return this == LONG ? timeout * ConsoleProperties.getInteger(
+                ConsoleProperties.HCJF_CONSOLE_LONG_TIMEOUT_FACTOR, 10) : timeout;
+    }
+}
@@ -0,0 +1,66 @@
+package org.hcjf.console.shell;
+
+import org.hcjf.console.Messages;
+import org.hcjf.console.QueryCache;
+import org.hcjf.layers.query.Queryable;
+import org.hcjf.service.ServiceSession;
+
+import java.util.List;
+
+/**
+ * Re-evaluates a query or command periodically until some key is pressed.
+ * The first parameter is the interval in seconds and the second parameter is the query or the
+ * name of the command, the rest of the parameters are the parameters of the query or command. The target is
+ * compiled as a query and only if it is not a valid query then it is executed as a command.
+ * @author javaito
+ */
+@CommandDescriptor(name = "watch", arguments = "seconds 'query'|command [parameters...]", scope = DefaultShell.SCOPE)
+public class WatchCommand implements ShellCommand {
+
+    private static final String WATCH_USAGE = "You must indicate the interval in seconds and the query or command (i.e. watch 5 'SELECT * FROM resource')";
+    private static final String INVALID_INTERVAL = "The interval must be at least %s seconds (i.e. watch 5 'SELECT * FROM resource')";
+    private static final long MIN_INTERVAL = 100L;
+
+    @Override
+    public void execute(Shell shell, Command command) {
+        List<Object> parameters = command.getParameters();
+        if(parameters.size() < 2 || !(parameters.get(0) instanceof Number) || !(parameters.get(1) instanceof String)) {
+            shell.printError(WATCH_USAGE);
+            return;
+        }
+
+        long interval = (long) (((Number) parameters.get(0)).doubleValue() * 1000);
+        if(interval < MIN_INTERVAL) {
+            //The watcher waits the keys with the interval as timeout and a timeout of zero waits forever.
+            shell.printError(String.format(INVALID_INTERVAL, MIN_INTERVAL / 1000.0));
+            return;
+        }
+        String target = (String) parameters.get(1);
+        List<Object> targetParameters = parameters.subList(2, parameters.size());
+        Queryable queryable = compile(target, targetParameters);
+        Watcher.Source source;
+        if(queryable != null) {
+            source = () -> shell.request(Messages.evaluate(queryable, ServiceSession.getSystemSession().getId()));
+        } else {
+            source = () -> shell.request(Messages.execute(target, targetParameters,
+                    ServiceSession.getCurrentIdentity().getId()));
+        }
+        new Watcher(shell.getTtyListener(), source, interval, target, shell.getDateFormat()).watch();
+    }
+
+    /**
+     * Compiles the target of the watch using the same path than the evaluations.
+     * @param target Query or name of the command.
+     * @param parameters Parameters of the query.
+     * @return Queryable instance or null if the target is not a query.
+     */
+    private Queryable compile(String target, List<Object> parameters) {
+        Queryable result;
+        try {
+            result = QueryCache.compile(target, parameters);
+        } catch (RuntimeException ex) {
+            result = null;
+        }
+        return result;
+    }
+}
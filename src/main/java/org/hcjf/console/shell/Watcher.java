@@ -0,0 +1,191 @@
+package org.hcjf.console.shell;
+
+import org.hcjf.console.TtyListener;
+import org.hcjf.utils.Strings;
+
+import java.text.DateFormat;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeSet;
+
+/**
+ * This class re-evaluates a source periodically and shows the result into the alternate screen.
+ * Each row is placed into a line of the screen (slot) and keeps the same line while the row doesn't change,
+ * between two evaluations only the lines of the inserted and removed rows are redrawn, then the output
+ * depends on the number of changes and not on the size of the result.
+ * @author javaito
+ */
+public class Watcher {
+
+    private static final String ALTERNATE_SCREEN_ON = "\033[?1049h";
+    private static final String ALTERNATE_SCREEN_OFF = "\033[?1049l";
+    private static final String CLEAR_SCREEN = "\033[H\033[2J";
+    private static final String MOVE_TO_LINE = "\033[%d;1H\033[2K";
+    private static final String HEADER = "Every %dms: %s  |  %s  |  rows: %d  +%d -%d ~%d  |  press any key to exit";
+    private static final String FIELD_SEPARATOR = "  ";
+    private static final int HEADER_LINES = 2;
+
+    private final TtyListener ttyListener;
+    private final Source source;
+    private final long interval;
+    private final String title;
+    private final DateFormat dateFormat;
+    private final List<String> slots;
+    private boolean error;
+    private int screenRows;
+    private int screenColumns;
+
+    public Watcher(TtyListener ttyListener, Source source, long interval, String title, DateFormat dateFormat) {
+        this.ttyListener = ttyListener;
+        this.source = source;
+        this.interval = interval;
+        this.title = title;
+        this.dateFormat = dateFormat;
+        this.slots = new ArrayList<>();
+    }
+
+    /**
+     * Evaluates the source until some key is pressed.
+     */
+    public void watch() {
+        int[] size = ttyListener.getTerminalSize();
+        screenRows = size[0];
+        screenColumns = size[1];
+        System.out.print(ALTERNATE_SCREEN_ON);
+        System.out.print(CLEAR_SCREEN);
+        System.out.flush();
+        try {
+            do {
+                StringBuilder frame = new StringBuilder();
+                try {
+                    update(toLines(source.evaluate()), frame);
+                    if(error) {
+                        appendLine(frame, HEADER_LINES, Strings.EMPTY_STRING);
+                        error = false;
+                    }
+                } catch (Throwable throwable) {
+                    error = true;
+                    appendLine(frame, HEADER_LINES, Strings.StandardOutput.RED +
+                            Objects.toString(throwable.getMessage(), throwable.getClass().getName()) +
+                            Strings.StandardOutput.RESET);
+                }
+                System.out.print(frame);
+                System.out.flush();
+            } while (ttyListener.readKey(interval) == null);
+        } finally {
+            System.out.print(ALTERNATE_SCREEN_OFF);
+            System.out.flush();
+        }
+    }
+
+    /**
+     * Compares the new rows with the rows into the screen and appends to the frame only the lines that change.
+     * The rows that remain keep its slot, the slots of the removed rows are reused by the inserted rows and
+     * if there are not free slots then the inserted rows are placed at the end.
+     * @param rows New rows.
+     * @param frame Builder of the output.
+     */
+    private void update(List<String> rows, StringBuilder frame) {
+        Map<String, Integer> pending = new HashMap<>();
+        for(String row : rows) {
+            pending.merge(row, 1, Integer::sum);
+        }
+
+        //The rows into the screen that are not into the new result free its slots.
+        TreeSet<Integer> freeSlots = new TreeSet<>();
+        TreeSet<Integer> dirtySlots = new TreeSet<>();
+        int removed = 0;
+        for (int slot = 0; slot < slots.size(); slot++) {
+            String row = slots.get(slot);
+            if(row == null) {
+                freeSlots.add(slot);
+            } else if(pending.getOrDefault(row, 0) > 0) {
+                pending.merge(row, -1, Integer::sum);
+            } else {
+                slots.set(slot, null);
+                freeSlots.add(slot);
+                dirtySlots.add(slot);
+                removed++;
+            }
+        }
+
+        //The new rows are placed into the free slots or at the end.
+        int inserted = 0;
+        for(String row : rows) {
+            if(pending.getOrDefault(row, 0) > 0) {
+                pending.merge(row, -1, Integer::sum);
+                Integer slot = freeSlots.pollFirst();
+                if(slot == null) {
+                    slot = slots.size();
+                    slots.add(row);
+                } else {
+                    slots.set(slot, row);
+                }
+                dirtySlots.add(slot);
+                inserted++;
+            }
+        }
+
+        //A removed row replaced by an inserted row is reported as a changed row.
+        int changed = Math.min(inserted, removed);
+        appendLine(frame, 1, String.format(HEADER, interval, title, dateFormat.format(new Date()),
+                rows.size(), inserted - changed, removed - changed, changed));
+        for(Integer slot : dirtySlots) {
+            String row = slots.get(slot);
+            appendLine(frame, slot + HEADER_LINES + 1, row == null ? Strings.EMPTY_STRING : row);
+        }
+    }
+
+    /**
+     * Appends a line into the frame if the line is visible.
+     * @param frame Builder of the output.
+     * @param line Number of the line into the screen, starting with 1.
+     * @param value Text of the line.
+     */
+    private void appendLine(StringBuilder frame, int line, String value) {
+        if(line <= screenRows) {
+            frame.append(String.format(MOVE_TO_LINE, line));
+            frame.append(value.length() > screenColumns ? value.substring(0, screenColumns) : value);
+        }
+    }
+
+    /**
+     * Returns the text of each row of the result.
+     * @param result Result of the source.
+     * @return List with one line for each row.
+     */
+    private List<String> toLines(Object result) {
+        List<String> lines = new ArrayList<>();
+        Collection<?> rows = result instanceof Collection ? (Collection<?>) result : Collections.singletonList(result);
+        for(Object row : rows) {
+            StringBuilder line = new StringBuilder();
+            if(row instanceof Map) {
+                for(Object entry : ((Map) row).entrySet()) {
+                    line.append(Objects.toString(((Map.Entry) entry).getKey()));
+                    line.append(Strings.OBJETC_FIELD_SEPARATOR);
+                    line.append(Objects.toString(((Map.Entry) entry).getValue()));
+                    line.append(FIELD_SEPARATOR);
+                }
+            } else {
+                line.append(Objects.toString(row));
+            }
+            lines.add(line.toString().replace('\n', ' ').replace('\r', ' '));
+        }
+        return lines;
+    }
+
+    /**
+     * Source of the rows shown by the watcher.
+     */
+    public interface Source {
+
+        Object evaluate() throws Throwable;
+
+    }
+}
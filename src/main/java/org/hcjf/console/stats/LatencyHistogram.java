@@ -0,0 +1,140 @@
+package org.hcjf.console.stats;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * This class counts values (latencies) into log-linear buckets, each power of two is split into 64 buckets
+ * then the relative error of any percentile is lower than 2% and the memory used doesn't depend on the
+ * number of values. The values could be recorded from many threads without locks.
+ * @author javaito
+ */
+public class LatencyHistogram {
+
+    private static final int SUB_BUCKET_BITS = 7;
+    private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+    private static final int SUB_BUCKET_HALF_COUNT = SUB_BUCKET_COUNT / 2;
+    private static final int BUCKETS = (64 - SUB_BUCKET_BITS + 2) * SUB_BUCKET_HALF_COUNT;
+
+    private final AtomicLongArray counts;
+    private final AtomicLong totalCount;
+    private final AtomicLong total;
+    private final AtomicLong max;
+
+    public LatencyHistogram() {
+        this.counts = new AtomicLongArray(BUCKETS);
+        this.totalCount = new AtomicLong();
+        this.total = new AtomicLong();
+        this.max = new AtomicLong();
+    }
+
+    /**
+     * Add a value into the histogram.
+     * @param value Value to add, the negative values are stored as zero.
+     */
+    public void record(long value) {
+        value = Math.max(0, value);
+        counts.incrementAndGet(getIndex(value));
+        totalCount.incrementAndGet();
+        total.addAndGet(value);
+        max.accumulateAndGet(value, Math::max);
+    }
+
+    /**
+     * Add a value and, if the value is greater than the expected interval between two values, adds the values
+     * that were not measured because the measurer was waiting (coordinated omission): value - interval,
+     * value - 2 * interval, etc.
+     * @param value Value to add.
+     * @param expectedInterval Expected interval between two values, zero to add only the value.
+     */
+    public void recordWithExpectedInterval(long value, long expectedInterval) {
+        record(value);
+        if(expectedInterval > 0) {
+            for (long missingValue = value - expectedInterval; missingValue >= expectedInterval; missingValue -= expectedInterval) {
+                record(missingValue);
+            }
+        }
+    }
+
+    /**
+     * Returns the number of values into the histogram.
+     * @return Number of values.
+     */
+    public long getTotalCount() {
+        return totalCount.get();
+    }
+
+    /**
+     * Returns the max value of the histogram.
+     * @return Max value.
+     */
+    public long getMax() {
+        return max.get();
+    }
+
+    /**
+     * Returns the mean of the values.
+     * @return Mean value.
+     */
+    public double getMean() {
+        long count = totalCount.get();
+        return count == 0 ? 0 : total.get() / (double) count;
+    }
+
+    /**
+     * Returns the value of the percentile, the value is the upper limit of the bucket that contains the percentile.
+     * @param percentile Percentile between 0 and 100.
+     * @return Value of the percentile or zero if the histogram is empty.
+     */
+    public long getValueAtPercentile(double percentile) {
+        long count = totalCount.get();
+        long result = 0;
+        if(count > 0) {
+            long target = Math.max(1, (long) Math.ceil(percentile / 100.0 * count));
+            long accumulated = 0;
+            for (int i = 0; i < BUCKETS; i++) {
+                accumulated += counts.get(i);
+                if(accumulated >= target) {
+                    result = Math.min(getUpperValue(i), max.get());
+                    break;
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns the index of the bucket of the value. The values lower than the number of sub buckets have its
+     * own bucket and for the rest of the values the index is calculated using the magnitude and the most
+     * significant bits of the value.
+     * @param value Positive value.
+     * @return Index of the bucket.
+     */
+    private static int getIndex(long value) {
+        int result;
+        if(value < SUB_BUCKET_COUNT) {
+            result = (int) value;
+        } else {
+            int magnitude = 63 - Long.numberOfLeadingZeros(value) - (SUB_BUCKET_BITS - 1);
+            result = magnitude * SUB_BUCKET_HALF_COUNT + (int) (value >>> magnitude);
+        }
+        return result;
+    }
+
+    /**
+     * Returns the greatest value stored into the bucket.
+     * @param index Index of the bucket.
+     * @return Upper value of the bucket.
+     */
+    private static long getUpperValue(int index) {
+        long result;
+        if(index < SUB_BUCKET_COUNT) {
+            result = index;
+        } else {
+            int magnitude = index / SUB_BUCKET_HALF_COUNT - 1;
+            long subBucket = index % SUB_BUCKET_HALF_COUNT + SUB_BUCKET_HALF_COUNT;
+            result = ((subBucket + 1) << magnitude) - 1;
+        }
+        return result;
+    }
+}
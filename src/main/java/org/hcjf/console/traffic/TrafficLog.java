@@ -0,0 +1,101 @@
+package org.hcjf.console.traffic;
+
+import org.hcjf.console.RowCodec;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * This class reads the binary log written by the traffic recorder.
+ * @author javaito
+ */
+public class TrafficLog implements Closeable {
+
+    private static final String INVALID_LOG = "The file is not a traffic log: %s";
+    private static final String UNSUPPORTED_VERSION = "Unsupported traffic log version: %d";
+
+    private final DataInputStream input;
+    private final long startTime;
+
+    public TrafficLog(Path path) throws IOException {
+        this.input = new DataInputStream(new BufferedInputStream(Files.newInputStream(path)));
+        if(input.readInt() != TrafficRecorder.MAGIC) {
+            input.close();
+            throw new IOException(String.format(INVALID_LOG, path));
+        }
+        byte version = input.readByte();
+        if(version != TrafficRecorder.VERSION) {
+            input.close();
+            throw new IOException(String.format(UNSUPPORTED_VERSION, version));
+        }
+        this.startTime = input.readLong();
+    }
+
+    /**
+     * Returns the time when the recording started.
+     * @return Epoch time in milliseconds.
+     */
+    public long getStartTime() {
+        return startTime;
+    }
+
+    /**
+     * Reads the next request of the log.
+     * @return Next request or null if there are not more requests.
+     * @throws IOException
+     */
+    public TrafficRecord next() throws IOException {
+        TrafficRecord result = null;
+        int kind = input.read();
+        if(kind != -1) {
+            try {
+                long offset = readVarLong(input);
+                byte[] textBytes = new byte[(int) readVarLong(input)];
+                input.readFully(textBytes);
+                byte[] parametersBytes = new byte[(int) readVarLong(input)];
+                input.readFully(parametersBytes);
+                long latency = readVarLong(input);
+                long size = readVarLong(input);
+                byte status = input.readByte();
+                List<?> parameters = (List<?>) RowCodec.decode(ByteBuffer.wrap(parametersBytes));
+                result = new TrafficRecord((byte) kind, offset, new String(textBytes, StandardCharsets.UTF_8),
+                        Collections.unmodifiableList(parameters), latency, size, status);
+            } catch (EOFException ex) {
+                //The last request was truncated because the process ends while it was written.
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public void close() throws IOException {
+        input.close();
+    }
+
+    /**
+     * Reads a value written with the method write var long of the recorder.
+     * @param input Data input.
+     * @return Value.
+     * @throws IOException
+     */
+    private static long readVarLong(DataInputStream input) throws IOException {
+        long result = 0;
+        int shift = 0;
+        int value;
+        do {
+            value = input.readUnsignedByte();
+            result |= (long) (value & 0x7F) << shift;
+            shift += 7;
+        } while((value & 0x80) != 0);
+        return result;
+    }
+}
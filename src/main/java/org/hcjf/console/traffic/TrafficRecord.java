@@ -0,0 +1,93 @@
+package org.hcjf.console.traffic;
+
+import java.util.List;
+
+/**
+ * This class contains the information of one request sent by the console: the kind of request, the time
+ * since the start of the recording, the text and parameters needed to send it again and the observed result.
+ * @author javaito
+ */
+public class TrafficRecord {
+
+    public static final byte EXECUTE = 1;
+    public static final byte EVALUATE = 2;
+
+    public static final byte SUCCESS = 0;
+    public static final byte ERROR = 1;
+    public static final byte TIMEOUT = 2;
+    public static final byte CANCELLED = 3;
+
+    private final byte kind;
+    private final long offset;
+    private final String text;
+    private final List<Object> parameters;
+    private final long latency;
+    private final long size;
+    private final byte status;
+
+    public TrafficRecord(byte kind, long offset, String text, List<Object> parameters, long latency, long size, byte status) {
+        this.kind = kind;
+        this.offset = offset;
+        this.text = text;
+        this.parameters = parameters;
+        this.latency = latency;
+        this.size = size;
+        this.status = status;
+    }
+
+    /**
+     * Returns the kind of request, execute or evaluate.
+     * @return Kind of request.
+     */
+    public byte getKind() {
+        return kind;
+    }
+
+    /**
+     * Returns the time between the start of the recording and the request.
+     * @return Offset in milliseconds.
+     */
+    public long getOffset() {
+        return offset;
+    }
+
+    /**
+     * Returns the name of the command or the text of the query.
+     * @return Text of the request.
+     */
+    public String getText() {
+        return text;
+    }
+
+    /**
+     * Returns the parameters of the command or the query.
+     * @return Parameters of the request.
+     */
+    public List<Object> getParameters() {
+        return parameters;
+    }
+
+    /**
+     * Returns the observed latency.
+     * @return Latency in microseconds.
+     */
+    public long getLatency() {
+        return latency;
+    }
+
+    /**
+     * Returns the size of the response, the number of rows for the collections and one for other values.
+     * @return Size of the response.
+     */
+    public long getSize() {
+        return size;
+    }
+
+    /**
+     * Returns the status of the request.
+     * @return Status of the request.
+     */
+    public byte getStatus() {
+        return status;
+    }
+}
@@ -0,0 +1,120 @@
+package org.hcjf.console.traffic;
+
+import org.hcjf.console.RowCodec;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * This class writes the requests sent by the console into a binary log. The log starts with a header
+ * (magic number, version and start time) followed by one entry for each request, the numbers are
+ * written as variable length integers in order to keep the log compact.
+ * @author javaito
+ */
+public class TrafficRecorder implements Closeable {
+
+    static final int MAGIC = 0x48434A54;
+    static final byte VERSION = 1;
+
+    private static volatile TrafficRecorder instance;
+
+    private final DataOutputStream output;
+    private final ByteArrayOutputStream parametersBuffer;
+    private final DataOutputStream parametersOutput;
+    private final long startTime;
+
+    public TrafficRecorder(Path path) throws IOException {
+        this.output = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(path)));
+        this.parametersBuffer = new ByteArrayOutputStream();
+        this.parametersOutput = new DataOutputStream(parametersBuffer);
+        this.startTime = System.currentTimeMillis();
+        output.writeInt(MAGIC);
+        output.writeByte(VERSION);
+        output.writeLong(startTime);
+        output.flush();
+    }
+
+    /**
+     * Starts the recording of the console traffic, the log is closed when the process ends.
+     * @param path Path of the log.
+     * @throws IOException
+     */
+    public static void start(Path path) throws IOException {
+        TrafficRecorder recorder = new TrafficRecorder(path);
+        instance = recorder;
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            try {
+                recorder.close();
+            } catch (IOException ex) {
+            }
+        }));
+    }
+
+    /**
+     * Returns the recorder in use.
+     * @return Recorder instance or null if the traffic is not recorded.
+     */
+    public static TrafficRecorder getInstance() {
+        return instance;
+    }
+
+    /**
+     * Add a request into the log, the log is flushed after each request in order to keep the requests
+     * recorded before an unexpected end of the process.
+     * @param kind Kind of request.
+     * @param text Name of the command or query text.
+     * @param parameters Parameters of the request.
+     * @param startNanos Value of System.nanoTime() when the request starts.
+     * @param result Result of the request.
+     * @param status Status of the request.
+     */
+    public synchronized void record(byte kind, String text, List<Object> parameters, long startNanos, Object result, byte status) {
+        long latency = (System.nanoTime() - startNanos) / 1000;
+        long offset = System.currentTimeMillis() - latency / 1000 - startTime;
+        try {
+            parametersBuffer.reset();
+            RowCodec.encode(parameters, parametersOutput);
+            parametersOutput.flush();
+            byte[] textBytes = text.getBytes(StandardCharsets.UTF_8);
+
+            output.writeByte(kind);
+            writeVarLong(output, Math.max(0, offset));
+            writeVarLong(output, textBytes.length);
+            output.write(textBytes);
+            writeVarLong(output, parametersBuffer.size());
+            parametersBuffer.writeTo(output);
+            writeVarLong(output, latency);
+            writeVarLong(output, result instanceof Collection ? ((Collection) result).size() : (result == null ? 0 : 1));
+            output.writeByte(status);
+            output.flush();
+        } catch (IOException ex) {
+        }
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        output.close();
+    }
+
+    /**
+     * Writes the value using seven bits for each byte, the most significant bit indicates that there are more bytes.
+     * @param output Data output.
+     * @param value Positive value.
+     * @throws IOException
+     */
+    static void writeVarLong(DataOutputStream output, long value) throws IOException {
+        while((value & ~0x7FL) != 0) {
+            output.writeByte((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        output.writeByte((int) value);
+    }
+}
@@ -0,0 +1,169 @@
+package org.hcjf.console.traffic;
+
+import org.hcjf.console.ConsoleConnection;
+import org.hcjf.console.QueryCache;
+import org.hcjf.service.Service;
+import org.hcjf.service.ServiceSession;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.Phaser;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * This class sends again the requests of a traffic log using a connection. The requests could be sent
+ * keeping the original time between them, scaling this time or at maximum speed. In the first two cases the
+ * requests are sent at its scheduled time even if the previous requests are not finished and the latency is
+ * measured from the scheduled time, then a slow server is not hidden by a late start of the requests.
+ * At maximum speed the requests are sent one after the other.
+ * @author javaito
+ */
+public class TrafficReplayer {
+
+    private static final String REPORT_HEADER = "%-10s %10s %10s %10s %10s %10s %10s\r\n";
+    private static final String REPORT_LINE = "%-10s %10d %10.2f %10.2f %10.2f %10.2f %10.2f\r\n";
+    private static final String REPORT_SUMMARY = "Requests: %d, errors: %d, timeouts: %d, cancelled: %d, elapsed: %d ms\r\n";
+    private static final String RECORDED = "recorded";
+    private static final String REPLAYED = "replayed";
+
+    private final ConsoleConnection connection;
+    private final double speed;
+    private final List<Long> recordedLatencies;
+    private final List<Long> replayedLatencies;
+    private final AtomicInteger errors;
+    private final AtomicInteger timeouts;
+    private final AtomicInteger cancelled;
+    private long elapsed;
+
+    /**
+     * Creates the replayer.
+     * @param connection Connection used to send the requests, it must be connected and logged.
+     * @param speed Factor applied to the time between the requests (2 is twice as fast as the original traffic),
+     *              zero to send the requests at maximum speed.
+     */
+    public TrafficReplayer(ConsoleConnection connection, double speed) {
+        this.connection = connection;
+        this.speed = speed;
+        this.recordedLatencies = new ArrayList<>();
+        this.replayedLatencies = new ArrayList<>();
+        this.errors = new AtomicInteger();
+        this.timeouts = new AtomicInteger();
+        this.cancelled = new AtomicInteger();
+    }
+
+    /**
+     * Sends all the requests of the log and blocks the current thread until all the responses arrive.
+     * @param path Path of the log.
+     * @throws IOException
+     */
+    public void replay(Path path) throws IOException {
+        Phaser inFlight = new Phaser(1);
+        long replayStart = System.nanoTime();
+        try (TrafficLog log = new TrafficLog(path)) {
+            TrafficRecord record;
+            while((record = log.next()) != null) {
+                synchronized (recordedLatencies) {
+                    recordedLatencies.add(record.getLatency());
+                }
+                if(speed <= 0) {
+                    send(record, System.nanoTime());
+                } else {
+                    long scheduledTime = replayStart + (long) (TimeUnit.MILLISECONDS.toNanos(record.getOffset()) / speed);
+                    long delay;
+                    while((delay = scheduledTime - System.nanoTime()) > 0) {
+                        LockSupport.parkNanos(delay);
+                    }
+                    TrafficRecord scheduledRecord = record;
+                    inFlight.register();
+                    Service.run(() -> {
+                        try {
+                            send(scheduledRecord, scheduledTime);
+                        } finally {
+                            inFlight.arriveAndDeregister();
+                        }
+                    }, ServiceSession.getGuestSession());
+                }
+            }
+        }
+        inFlight.arriveAndAwaitAdvance();
+        elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - replayStart);
+    }
+
+    /**
+     * Sends one request and stores its latency and status.
+     * @param record Request to send.
+     * @param startTime Value of System.nanoTime() used as start of the request.
+     */
+    private void send(TrafficRecord record, long startTime) {
+        try {
+            if(record.getKind() == TrafficRecord.EVALUATE) {
+                connection.evaluate(QueryCache.compile(record.getText(), record.getParameters()));
+            } else {
+                connection.execute(record.getText(), record.getParameters());
+            }
+        } catch (TimeoutException ex) {
+            timeouts.incrementAndGet();
+        } catch (CancellationException ex) {
+            cancelled.incrementAndGet();
+        } catch (Throwable throwable) {
+            errors.incrementAndGet();
+        }
+        long latency = TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - startTime);
+        synchronized (replayedLatencies) {
+            replayedLatencies.add(latency);
+        }
+    }
+
+    /**
+     * Verify if all the replayed requests were successful.
+     * @return Returns true if there are not errors, timeouts or cancelled requests.
+     */
+    public boolean isSuccessful() {
+        return errors.get() == 0 && timeouts.get() == 0 && cancelled.get() == 0;
+    }
+
+    /**
+     * Prints the percentiles of the recorded and replayed latencies in milliseconds, and the number of errors.
+     * @param output Output stream.
+     */
+    public void printReport(PrintStream output) {
+        output.printf(REPORT_HEADER, "", "count", "p50", "p90", "p99", "p99.9", "max");
+        printLatencies(output, RECORDED, recordedLatencies);
+        printLatencies(output, REPLAYED, replayedLatencies);
+        output.printf(REPORT_SUMMARY, replayedLatencies.size(), errors.get(), timeouts.get(), cancelled.get(), elapsed);
+        output.flush();
+    }
+
+    private void printLatencies(PrintStream output, String name, List<Long> latencies) {
+        long[] sorted;
+        synchronized (latencies) {
+            sorted = latencies.stream().mapToLong(Long::longValue).toArray();
+        }
+        Arrays.sort(sorted);
+        output.printf(REPORT_LINE, name, sorted.length, percentile(sorted, 0.5), percentile(sorted, 0.9),
+                percentile(sorted, 0.99), percentile(sorted, 0.999), percentile(sorted, 1.0));
+    }
+
+    /**
+     * Returns the percentile of the sorted latencies.
+     * @param sorted Sorted latencies in microseconds.
+     * @param percentile Percentile between 0 and 1.
+     * @return Latency in milliseconds.
+     */
+    private static double percentile(long[] sorted, double percentile) {
+        double result = 0;
+        if(sorted.length > 0) {
+            int index = (int) Math.max(0, Math.ceil(percentile * sorted.length) - 1);
+            result = sorted[Math.min(index, sorted.length - 1)] / 1000.0;
+        }
+        return result;
+    }
+}
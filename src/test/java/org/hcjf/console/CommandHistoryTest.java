@@ -0,0 +1,111 @@
+package org.hcjf.console;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * @author javaito
+ */
+public class CommandHistoryTest {
+
+    @TempDir
+    Path directory;
+
+    private CommandHistory load(String fileName) throws IOException {
+        CommandHistory result = new CommandHistory(directory.resolve(fileName));
+        result.load();
+        return result;
+    }
+
+    @Test
+    public void testEscapedEntries() throws IOException {
+        CommandHistory history = load("history");
+        history.add("SELECT *\nFROM resource");
+        history.add("echo c:\\temp\\n");
+
+        CommandHistory reloaded = load("history");
+        Assertions.assertEquals(2, reloaded.size());
+        Assertions.assertEquals("SELECT *\nFROM resource", reloaded.get(0));
+        Assertions.assertEquals("echo c:\\temp\\n", reloaded.get(1));
+    }
+
+    @Test
+    public void testIgnoredEntries() throws IOException {
+        CommandHistory history = load("history");
+        history.add("help");
+        history.add("help");
+        history.add("   ");
+        history.add("exit");
+        history.add("help");
+        Assertions.assertEquals(3, history.size());
+    }
+
+    @Test
+    public void testSearch() throws IOException {
+        CommandHistory history = load("history");
+        history.add("SELECT * FROM users");
+        history.add("SELECT * FROM orders");
+        history.add("help");
+        history.add("SELECT name FROM users");
+
+        Assertions.assertEquals(3, history.searchBackward("users", history.size()));
+        Assertions.assertEquals(0, history.searchBackward("users", 3));
+        Assertions.assertEquals(-1, history.searchBackward("users", 0));
+        Assertions.assertEquals(-1, history.searchBackward("customers", history.size()));
+        Assertions.assertEquals(2, history.searchBackward("e", 3));
+        Assertions.assertEquals(2, history.searchBackward("he", history.size()));
+        Assertions.assertEquals(3, history.searchBackward("", history.size()));
+
+        Assertions.assertEquals(3, history.searchPrefixBackward("SELECT", history.size()));
+        Assertions.assertEquals(-1, history.searchPrefixBackward("FROM", history.size()));
+        Assertions.assertEquals(0, history.searchPrefixForward("SELECT *", -1));
+        Assertions.assertEquals(1, history.searchPrefixForward("SELECT *", 0));
+        Assertions.assertEquals(-1, history.searchPrefixForward("SELECT *", 1));
+    }
+
+    @Test
+    public void testSharedFile() throws IOException {
+        CommandHistory first = load("history");
+        CommandHistory second = load("history");
+        first.add("SELECT * FROM users");
+        second.add("SELECT * FROM orders");
+
+        Assertions.assertEquals(2, first.size());
+        Assertions.assertEquals("SELECT * FROM orders", first.get(1));
+        Assertions.assertEquals(1, first.searchBackward("orders", first.size()));
+    }
+
+    @Test
+    public void testMappedSegments() throws IOException {
+        Path path = directory.resolve("history");
+        CommandHistory history = load("history");
+        String padding = "x".repeat(1000);
+        int count = 200;
+        for (int i = 0; i < count; i++) {
+            history.add("SELECT " + i + " " + padding);
+        }
+        //An incomplete entry at the end of the file is not visible until its line separator is written.
+        Files.write(path, "SELECT last".getBytes(StandardCharsets.UTF_8), StandardOpenOption.APPEND);
+        Assertions.assertEquals(count, history.size());
+        Files.write(path, " entry\n".getBytes(StandardCharsets.UTF_8), StandardOpenOption.APPEND);
+        Assertions.assertEquals(count + 1, history.size());
+
+        for (int i = 0; i < count; i++) {
+            Assertions.assertEquals("SELECT " + i + " " + padding, history.get(i));
+        }
+        Assertions.assertEquals("SELECT last entry", history.get(count));
+        Assertions.assertEquals(count, history.searchBackward("last", history.size()));
+        Assertions.assertEquals(123, history.searchPrefixBackward("SELECT 123 ", history.size()));
+
+        CommandHistory reloaded = load("history");
+        Assertions.assertEquals(count + 1, reloaded.size());
+        Assertions.assertEquals("SELECT 199 " + padding, reloaded.get(count - 1));
+    }
+}
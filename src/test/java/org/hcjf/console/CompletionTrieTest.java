@@ -0,0 +1,60 @@
+package org.hcjf.console;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * @author javaito
+ */
+public class CompletionTrieTest {
+
+    @Test
+    public void testAdd() {
+        CompletionTrie trie = new CompletionTrie();
+        Assertions.assertTrue(trie.add("select"));
+        Assertions.assertTrue(trie.add("sel"));
+        Assertions.assertFalse(trie.add("select"));
+        Assertions.assertEquals(2, trie.size());
+
+        Assertions.assertTrue(trie.contains("sel"));
+        Assertions.assertTrue(trie.contains("select"));
+        Assertions.assertFalse(trie.contains("sele"));
+        Assertions.assertFalse(trie.contains("selection"));
+    }
+
+    @Test
+    public void testComplete() {
+        CompletionTrie trie = new CompletionTrie();
+        for(String word : List.of("show", "select", "set", "session", "exit", "selection")) {
+            trie.add(word);
+        }
+        Assertions.assertEquals(List.of("select", "selection", "session", "set"), trie.complete("se", 10));
+        Assertions.assertEquals(List.of("select", "selection"), trie.complete("select", 10));
+        Assertions.assertEquals(List.of("exit", "select", "selection", "session", "set", "show"), trie.complete("", 10));
+        Assertions.assertEquals(List.of(), trie.complete("x", 10));
+        Assertions.assertEquals(List.of(), trie.complete("selections", 10));
+    }
+
+    @Test
+    public void testLimit() {
+        CompletionTrie trie = new CompletionTrie();
+        List<String> words = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            String word = String.format("resource%03d", i);
+            words.add(word);
+            trie.add(word);
+        }
+        //The children are inserted into sorted arrays that grow, the words are added in reverse order too.
+        CompletionTrie reversed = new CompletionTrie();
+        for (int i = words.size() - 1; i >= 0; i--) {
+            reversed.add(words.get(i));
+        }
+        Assertions.assertEquals(words.subList(0, 5), trie.complete("res", 5));
+        Assertions.assertEquals(words.subList(0, 5), reversed.complete("res", 5));
+        Assertions.assertEquals(words.subList(50, 60), reversed.complete("resource05", 20));
+        Assertions.assertEquals(words, reversed.complete("resource", words.size()));
+    }
+}
@@ -0,0 +1,101 @@
+package org.hcjf.console;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+/**
+ * @author javaito
+ */
+public class GapBufferTest {
+
+    @Test
+    public void testEdition() {
+        GapBuffer buffer = new GapBuffer();
+        buffer.insert("SELECT FROM resource");
+        buffer.moveTo(7);
+        buffer.insert('*');
+        buffer.insert(' ');
+        Assertions.assertEquals("SELECT * FROM resource", buffer.toString());
+        Assertions.assertEquals(9, buffer.getPosition());
+
+        Assertions.assertEquals(2, buffer.deleteBackward(2));
+        Assertions.assertEquals(5, buffer.deleteForward(5));
+        Assertions.assertEquals("SELECT resource", buffer.toString());
+        Assertions.assertEquals("resource", buffer.subSequence(7, buffer.length()));
+
+        buffer.moveTo(0);
+        Assertions.assertEquals(0, buffer.deleteBackward(1));
+        buffer.moveTo(buffer.length());
+        Assertions.assertEquals(0, buffer.deleteForward(1));
+
+        buffer.set("exit");
+        Assertions.assertEquals("exit", buffer.toString());
+        Assertions.assertEquals(4, buffer.getPosition());
+        buffer.clear();
+        Assertions.assertEquals(0, buffer.length());
+    }
+
+    @Test
+    public void testBounds() {
+        GapBuffer buffer = new GapBuffer();
+        buffer.insert("abc");
+        Assertions.assertThrows(IndexOutOfBoundsException.class, () -> buffer.charAt(3));
+        Assertions.assertThrows(IndexOutOfBoundsException.class, () -> buffer.charAt(-1));
+        Assertions.assertThrows(IndexOutOfBoundsException.class, () -> buffer.moveTo(4));
+        Assertions.assertThrows(IndexOutOfBoundsException.class, () -> buffer.moveTo(-1));
+    }
+
+    @Test
+    public void testSearch() {
+        GapBuffer buffer = new GapBuffer();
+        buffer.insert("first\nsecond\nthird");
+        buffer.moveTo(8);
+        Assertions.assertEquals(5, buffer.indexOf('\n', 0));
+        Assertions.assertEquals(12, buffer.indexOf('\n', 6));
+        Assertions.assertEquals(-1, buffer.indexOf('\n', 13));
+        Assertions.assertEquals(12, buffer.lastIndexOf('\n', buffer.length()));
+        Assertions.assertEquals(5, buffer.lastIndexOf('\n', 11));
+        Assertions.assertEquals(-1, buffer.lastIndexOf('\n', 4));
+    }
+
+    @Test
+    public void testGrowth() {
+        //The gap is moved and grown many times around the initial capacity, the text must be always the same
+        //that the text edited with a string builder.
+        Random random = new Random(42);
+        GapBuffer buffer = new GapBuffer();
+        StringBuilder expected = new StringBuilder();
+        int position = 0;
+        for (int i = 0; i < 10000; i++) {
+            int operation = random.nextInt(5);
+            if(operation == 0) {
+                position = random.nextInt(expected.length() + 1);
+                buffer.moveTo(position);
+            } else if(operation == 1) {
+                char character = (char) ('a' + random.nextInt(26));
+                buffer.insert(character);
+                expected.insert(position++, character);
+            } else if(operation == 2) {
+                String value = "x".repeat(random.nextInt(100));
+                buffer.insert(value);
+                expected.insert(position, value);
+                position += value.length();
+            } else if(operation == 3) {
+                int count = buffer.deleteBackward(random.nextInt(40));
+                expected.delete(position - count, position);
+                position -= count;
+            } else {
+                int count = buffer.deleteForward(random.nextInt(40));
+                expected.delete(position, position + count);
+            }
+            Assertions.assertEquals(position, buffer.getPosition());
+            Assertions.assertEquals(expected.length(), buffer.length());
+        }
+        Assertions.assertEquals(expected.toString(), buffer.toString());
+        for (int i = 0; i < expected.length(); i++) {
+            Assertions.assertEquals(expected.charAt(i), buffer.charAt(i));
+        }
+    }
+}
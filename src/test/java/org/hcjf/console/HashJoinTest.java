@@ -0,0 +1,106 @@
+package org.hcjf.console;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+/**
+ * @author javaito
+ */
+public class HashJoinTest {
+
+    @TempDir
+    Path directory;
+
+    private static Map<String,Object> row(Object... fields) {
+        Map<String,Object> result = new LinkedHashMap<>();
+        for (int i = 0; i < fields.length; i += 2) {
+            result.put((String) fields[i], fields[i + 1]);
+        }
+        return result;
+    }
+
+    private static Map<Object, Integer> count(List<Object> rows) {
+        Map<Object, Integer> result = new HashMap<>();
+        for(Object row : rows) {
+            result.merge(row, 1, Integer::sum);
+        }
+        return result;
+    }
+
+    @Test
+    public void testJoin() throws IOException {
+        UUID id = UUID.randomUUID();
+        List<Object> users = List.of(
+                row("id", 1L, "name", "first"),
+                row("id", 2, "name", "second"),
+                row("id", id, "name", "third"),
+                row("name", "without id"));
+        List<Object> orders = List.of(
+                row("userId", 1, "name", "order 1"),
+                row("userId", 1.0, "name", "order 2"),
+                row("userId", id.toString(), "name", "order 3"),
+                row("userId", 3L, "name", "order 4"),
+                row("userId", 2.5, "name", "order 5"));
+
+        HashJoin join = new HashJoin("id", "userId", Long.MAX_VALUE, directory);
+        List<Object> result = join.join(users, orders);
+        Assertions.assertEquals(1, join.getPartitions());
+        Assertions.assertEquals(3, result.size());
+        Assertions.assertEquals(row("id", 1L, "name", "first", "userId", 1, "right.name", "order 1"), result.get(0));
+        Assertions.assertEquals(row("id", 1L, "name", "first", "userId", 1.0, "right.name", "order 2"), result.get(1));
+        Assertions.assertEquals(row("id", id, "name", "third", "userId", id.toString(), "right.name", "order 3"), result.get(2));
+    }
+
+    @Test
+    public void testBuildRight() throws IOException {
+        List<Object> left = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            left.add(row("key", i % 3, "left", i));
+        }
+        List<Object> right = List.of(row("key", 1, "right", "a"), row("key", 2, "right", "b"));
+
+        //The right side is smaller, then it's the build side but the fields of the left row are first.
+        List<Object> result = new HashJoin("key", "key", Long.MAX_VALUE, directory).join(left, right);
+        Assertions.assertEquals(6, result.size());
+        for(Object joined : result) {
+            Assertions.assertEquals(List.of("key", "left", "right.key", "right"),
+                    new ArrayList<>(((Map<?,?>) joined).keySet()));
+        }
+    }
+
+    @Test
+    public void testPartitions() throws IOException {
+        List<Object> left = new ArrayList<>();
+        List<Object> right = new ArrayList<>();
+        for (int i = 0; i < 5000; i++) {
+            left.add(row("id", (long) i, "value", "left " + i));
+        }
+        for (int i = 0; i < 8000; i++) {
+            right.add(row("leftId", i % 6000, "value", "right " + i));
+        }
+
+        List<Object> expected = new HashJoin("id", "leftId", Long.MAX_VALUE, directory).join(left, right);
+        HashJoin join = new HashJoin("id", "leftId", 16 * 1024, directory);
+        List<Object> result = join.join(left, right);
+        Assertions.assertTrue(join.getPartitions() > 1);
+        Assertions.assertEquals(0, Integer.bitCount(join.getPartitions()) - 1);
+        //The right keys from 0 to 1999 are repeated twice and the keys from 5000 to 5999 have no left row.
+        Assertions.assertEquals(7000, result.size());
+        Assertions.assertEquals(count(expected), count(result));
+        try (Stream<Path> files = Files.list(directory)) {
+            Assertions.assertEquals(0, files.count());
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package org.hcjf.console;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * @author javaito
+ */
+public class KeyRingTest {
+
+    @Test
+    public void testWrap() {
+        KeyRing ring = new KeyRing(4);
+        long next = 1;
+        long expected = 1;
+        for (int cycle = 0; cycle < 100; cycle++) {
+            while(ring.offer(next)) {
+                next++;
+            }
+            Assertions.assertEquals(4, ring.size());
+            //Only a part of the keys are removed, then the head and the tail cross the end of the array at
+            //different cycles.
+            for (int i = 0; i < 1 + cycle % 4; i++) {
+                Assertions.assertEquals(expected++, ring.poll());
+            }
+        }
+        while(ring.size() > 0) {
+            Assertions.assertEquals(expected++, ring.poll());
+        }
+        Assertions.assertEquals(next, expected);
+        Assertions.assertEquals(KeyRing.NO_KEY, ring.poll());
+    }
+
+    @Test
+    public void testTimeout() {
+        KeyRing ring = new KeyRing(8);
+        long start = System.nanoTime();
+        Assertions.assertEquals(KeyRing.NO_KEY, ring.take(50));
+        Assertions.assertTrue(System.nanoTime() - start >= 50_000_000L);
+
+        ring.offer('a');
+        Assertions.assertEquals('a', ring.take(50));
+    }
+
+    @Test
+    public void testInterrupt() {
+        KeyRing ring = new KeyRing(8);
+        Thread.currentThread().interrupt();
+        try {
+            Assertions.assertEquals(KeyRing.NO_KEY, ring.take(0));
+        } finally {
+            Thread.interrupted();
+        }
+    }
+
+    @Test
+    public void testProducerConsumer() {
+        int count = 200_000;
+        KeyRing ring = new KeyRing(16);
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        Thread producer = new Thread(() -> {
+            try {
+                for (long key = 1; key <= count; key++) {
+                    while (!ring.offer(key)) {
+                        Thread.onSpinWait();
+                    }
+                    //Some pauses in order to leave the consumer parked before the next key.
+                    if (key % 2_000 == 0) {
+                        Thread.sleep(1);
+                    }
+                }
+            } catch (Throwable throwable) {
+                failure.set(throwable);
+            }
+        });
+        //A lost wake up parks the consumer forever, then the test fails by timeout.
+        Assertions.assertTimeoutPreemptively(Duration.ofSeconds(60), () -> {
+            producer.start();
+            for (long expected = 1; expected <= count; expected++) {
+                Assertions.assertEquals(expected, ring.take(0));
+            }
+            producer.join();
+        });
+        Assertions.assertNull(failure.get());
+        Assertions.assertEquals(0, ring.size());
+    }
+}
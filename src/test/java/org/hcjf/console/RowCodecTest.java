@@ -0,0 +1,71 @@
+package org.hcjf.console;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * @author javaito
+ */
+public class RowCodecTest {
+
+    private static ByteBuffer encode(Object... values) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream output = new DataOutputStream(bytes);
+        for(Object value : values) {
+            RowCodec.encode(value, output);
+        }
+        output.flush();
+        return ByteBuffer.wrap(bytes.toByteArray());
+    }
+
+    @Test
+    public void testScalars() throws IOException {
+        List<Object> values = Arrays.asList(null, "", "text with ñ and 漢字", Long.MIN_VALUE, Integer.MAX_VALUE,
+                Math.PI, Double.NaN, 1.5f, true, false, new Date(1234567890123L), UUID.randomUUID(),
+                new BigDecimal("12345678901234567890.000000000001"));
+        ByteBuffer buffer = encode(values.toArray());
+        for(Object value : values) {
+            Assertions.assertEquals(value, RowCodec.decode(buffer));
+        }
+        Assertions.assertFalse(buffer.hasRemaining());
+    }
+
+    @Test
+    public void testNestedValues() throws IOException {
+        Map<String,Object> row = new LinkedHashMap<>();
+        row.put("id", 1L);
+        row.put("tags", new LinkedHashSet<>(List.of("a", "b")));
+        row.put("address", Map.of("city", "Córdoba"));
+        row.put("empty", List.of());
+        row.put("missing", null);
+
+        Object decoded = RowCodec.decode(encode(row));
+        Assertions.assertEquals(List.of("id", "tags", "address", "empty", "missing"),
+                List.copyOf(((Map<?,?>) decoded).keySet()));
+        Assertions.assertEquals(List.of("a", "b"), ((Map<?,?>) decoded).get("tags"));
+        Assertions.assertEquals(Map.of("city", "Córdoba"), ((Map<?,?>) decoded).get("address"));
+        Assertions.assertEquals(List.of(), ((Map<?,?>) decoded).get("empty"));
+        Assertions.assertTrue(((Map<?,?>) decoded).containsKey("missing"));
+    }
+
+    @Test
+    public void testUnknownTypes() throws IOException {
+        URI uri = URI.create("http://localhost:5900");
+        Assertions.assertEquals(uri.toString(), RowCodec.decode(encode(uri)));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> RowCodec.decode(ByteBuffer.wrap(new byte[]{99})));
+    }
+}
@@ -0,0 +1,96 @@
+package org.hcjf.console;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * @author javaito
+ */
+public class RowCompactorTest {
+
+    private static Map<String,Object> row(Object... fields) {
+        Map<String,Object> result = new LinkedHashMap<>();
+        for (int i = 0; i < fields.length; i += 2) {
+            result.put((String) fields[i], fields[i + 1]);
+        }
+        return result;
+    }
+
+    @Test
+    public void testCompactRow() {
+        RowCompactor compactor = new RowCompactor();
+        Map<String,Object> row = row("id", 1L, "name", "first", "empty", null);
+        CompactRow compactRow = (CompactRow) compactor.compact(row);
+
+        Assertions.assertEquals(row, compactRow);
+        Assertions.assertEquals(row.hashCode(), compactRow.hashCode());
+        Assertions.assertEquals(List.of("id", "name", "empty"), new ArrayList<>(compactRow.keySet()));
+        Assertions.assertEquals("first", compactRow.get("name"));
+        Assertions.assertNull(compactRow.get("unknown"));
+        Assertions.assertTrue(compactRow.containsKey("empty"));
+        Assertions.assertFalse(compactRow.containsKey("unknown"));
+        Assertions.assertThrows(UnsupportedOperationException.class, () -> compactRow.put("id", 2L));
+    }
+
+    @Test
+    public void testSharedSchemas() {
+        RowCompactor compactor = new RowCompactor();
+        List<Object> rows = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            rows.add(row("id", (long) i, "name", "row " + i));
+        }
+        rows.add(row("name", "reversed", "id", 10L));
+        rows.add(row("id", 11L, "name", "row 11"));
+        rows.add("scalar row");
+        List<Object> expected = new ArrayList<>(rows);
+
+        //Only the range is compacted, the rest of the rows are not modified.
+        compactor.compact(rows, 0, 5);
+        Assertions.assertTrue(rows.get(4) instanceof CompactRow);
+        Assertions.assertFalse(rows.get(5) instanceof CompactRow);
+        compactor.compact(rows, 5, rows.size() + 10);
+        Assertions.assertEquals(expected, rows);
+
+        CompactRow.Schema schema = ((CompactRow) rows.get(0)).getSchema();
+        Assertions.assertSame(schema, ((CompactRow) rows.get(9)).getSchema());
+        Assertions.assertNotSame(schema, ((CompactRow) rows.get(10)).getSchema());
+        Assertions.assertSame(schema, ((CompactRow) rows.get(11)).getSchema());
+        Assertions.assertEquals("scalar row", rows.get(12));
+
+        //A compact row is not compacted again.
+        Assertions.assertSame(rows.get(0), compactor.compact(rows.get(0)));
+    }
+
+    @Test
+    public void testProjection() {
+        RowCompactor compactor = new RowCompactor(List.of("name", "id", "missing"));
+        CompactRow first = (CompactRow) compactor.compact(row("id", 1L, "name", "first", "other", true));
+        CompactRow second = (CompactRow) compactor.compact(row("other", false, "id", 2L, "name", "second"));
+        CompactRow third = (CompactRow) compactor.compact(row("id", 3L));
+
+        Assertions.assertEquals(row("name", "first", "id", 1L), first);
+        Assertions.assertEquals(List.of("name", "id"), new ArrayList<>(first.keySet()));
+        Assertions.assertSame(first.getSchema(), second.getSchema());
+        Assertions.assertEquals(row("id", 3L), third);
+
+        //The projection of a compact row creates a new compact row.
+        CompactRow projected = (CompactRow) new RowCompactor(List.of("id")).compact(first);
+        Assertions.assertEquals(row("id", 1L), projected);
+    }
+
+    @Test
+    public void testToList() {
+        ArrayList<Object> arrayList = new ArrayList<>(List.of(row("id", 1L)));
+        Assertions.assertSame(arrayList, RowCompactor.toList(arrayList));
+        LinkedList<Object> linkedList = new LinkedList<>(arrayList);
+        List<Object> copy = RowCompactor.toList(linkedList);
+        Assertions.assertNotSame(linkedList, copy);
+        Assertions.assertEquals(linkedList, copy);
+    }
+}
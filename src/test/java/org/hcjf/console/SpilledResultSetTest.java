@@ -0,0 +1,143 @@
+package org.hcjf.console;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * @author javaito
+ */
+public class SpilledResultSetTest {
+
+    @TempDir
+    Path directory;
+
+    private static List<Object> rows(int count) {
+        List<Object> result = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            Map<String,Object> row = new LinkedHashMap<>();
+            row.put("id", (long) i);
+            row.put("name", "row " + i);
+            result.add(row);
+        }
+        return result;
+    }
+
+    @Test
+    public void testRoundTrip() throws IOException {
+        List<Object> rows = rows(1000);
+        rows.add(null);
+        rows.add("scalar row");
+        rows.add(List.of(1, 2, 3));
+        SpilledResultSet resultSet = SpilledResultSet.spill(rows, directory);
+        try {
+            Assertions.assertEquals(rows.size(), resultSet.size());
+            Assertions.assertEquals(1, resultSet.getSegmentCount());
+            Assertions.assertEquals(rows, resultSet);
+            Assertions.assertEquals(Files.size(resultSet.getPath()), resultSet.getBytes());
+            Assertions.assertThrows(IndexOutOfBoundsException.class, () -> resultSet.get(rows.size()));
+            Assertions.assertThrows(IndexOutOfBoundsException.class, () -> resultSet.get(-1));
+        } finally {
+            resultSet.close();
+        }
+        Assertions.assertFalse(Files.exists(resultSet.getPath()));
+    }
+
+    @Test
+    public void testEmpty() throws IOException {
+        SpilledResultSet resultSet = SpilledResultSet.spill(List.of(), directory);
+        try {
+            Assertions.assertTrue(resultSet.isEmpty());
+            Assertions.assertEquals(0, resultSet.getBytes());
+        } finally {
+            resultSet.close();
+        }
+    }
+
+    @Test
+    public void testSegments() throws IOException {
+        List<Object> rows = rows(100);
+        //A row larger than the segment is mapped alone, the rest of the rows never cross a segment limit.
+        rows.add(50, Map.of("large", "x".repeat(1000)));
+        SpilledResultSet resultSet = SpilledResultSet.spill(rows, directory, 128);
+        try {
+            Assertions.assertTrue(resultSet.getSegmentCount() > 10);
+            Assertions.assertEquals(rows, resultSet);
+            for (int i = rows.size() - 1; i >= 0; i--) {
+                Assertions.assertEquals(rows.get(i), resultSet.get(i));
+            }
+        } finally {
+            resultSet.close();
+        }
+    }
+
+    @Test
+    public void testCompactRows() throws IOException {
+        RowCompactor compactor = new RowCompactor();
+        List<Object> rows = rows(100);
+        Map<String,Object> other = new LinkedHashMap<>();
+        other.put("code", "other schema");
+        rows.add(10, other);
+        compactor.compact(rows, 0, rows.size());
+
+        SpilledResultSet resultSet = SpilledResultSet.spill(rows, directory);
+        try {
+            Assertions.assertEquals(rows, resultSet);
+            CompactRow first = (CompactRow) resultSet.get(0);
+            CompactRow last = (CompactRow) resultSet.get(rows.size() - 1);
+            Assertions.assertSame(((CompactRow) rows.get(0)).getSchema(), first.getSchema());
+            Assertions.assertSame(first.getSchema(), last.getSchema());
+            Assertions.assertSame(((CompactRow) rows.get(10)).getSchema(), ((CompactRow) resultSet.get(10)).getSchema());
+        } finally {
+            resultSet.close();
+        }
+    }
+
+    @Test
+    public void testToList() throws IOException {
+        System.setProperty(ConsoleProperties.HCJF_CONSOLE_HOME, directory.toString());
+        try {
+            List<Object> rows = rows(1000);
+            System.setProperty(ConsoleProperties.HCJF_CONSOLE_SPILL_THRESHOLD, Long.toString(1024 * 1024));
+            Assertions.assertFalse(SpilledResultSet.toList(rows) instanceof SpilledResultSet);
+
+            System.setProperty(ConsoleProperties.HCJF_CONSOLE_SPILL_THRESHOLD, Long.toString(1024));
+            List<Object> spilled = SpilledResultSet.toList(rows);
+            Assertions.assertTrue(spilled instanceof SpilledResultSet);
+            Assertions.assertEquals(rows, spilled);
+            ((SpilledResultSet) spilled).close();
+        } finally {
+            System.clearProperty(ConsoleProperties.HCJF_CONSOLE_HOME);
+            System.clearProperty(ConsoleProperties.HCJF_CONSOLE_SPILL_THRESHOLD);
+        }
+    }
+
+    @Test
+    public void testStaleFiles() throws IOException {
+        System.setProperty(ConsoleProperties.HCJF_CONSOLE_HOME, directory.toString());
+        try {
+            Path spillDirectory = Files.createDirectories(directory.resolve("spill"));
+            Path stale = Files.createFile(spillDirectory.resolve("result-stale.spill"));
+            Files.setLastModifiedTime(stale, FileTime.fromMillis(System.currentTimeMillis() - 2 * 3600 * 1000L));
+            SpilledResultSet resultSet = SpilledResultSet.spill(rows(10), spillDirectory);
+            try {
+                SpilledResultSet.deleteStaleFiles();
+                Assertions.assertFalse(Files.exists(stale));
+                Assertions.assertTrue(Files.exists(resultSet.getPath()));
+            } finally {
+                resultSet.close();
+            }
+        } finally {
+            System.clearProperty(ConsoleProperties.HCJF_CONSOLE_HOME);
+        }
+    }
+}
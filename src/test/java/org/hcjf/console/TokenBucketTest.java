@@ -0,0 +1,53 @@
+package org.hcjf.console;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+/**
+ * @author javaito
+ */
+public class TokenBucketTest {
+
+    @Test
+    public void testUnlimited() {
+        TokenBucket bucket = new TokenBucket(0);
+        Assertions.assertFalse(bucket.isLimited());
+        for (int i = 0; i < 100; i++) {
+            Assertions.assertTrue(bucket.tryAcquire(Long.MAX_VALUE / 2));
+        }
+        Assertions.assertEquals(0, bucket.getWaitTime());
+    }
+
+    @Test
+    public void testDebt() {
+        TokenBucket bucket = new TokenBucket(1000);
+        Assertions.assertTrue(bucket.isLimited());
+        //The first operation takes the burst and leaves the bucket in debt, it's allowed anyway.
+        Assertions.assertTrue(bucket.tryAcquire(5000));
+        Assertions.assertFalse(bucket.hasToken());
+        Assertions.assertFalse(bucket.tryAcquire(1));
+        long waitTime = bucket.getWaitTime();
+        Assertions.assertTrue(waitTime > 3900 && waitTime <= 4001, Long.toString(waitTime));
+    }
+
+    @Test
+    public void testRefill() throws InterruptedException {
+        TokenBucket bucket = new TokenBucket(1_000_000);
+        Assertions.assertTrue(bucket.tryAcquire(1_050_000));
+        Assertions.assertFalse(bucket.hasToken());
+        long waitTime = bucket.getWaitTime();
+        Assertions.assertTrue(waitTime > 0 && waitTime <= 51, Long.toString(waitTime));
+        Thread.sleep(waitTime + 20);
+        Assertions.assertTrue(bucket.hasToken());
+        Assertions.assertEquals(0, bucket.getWaitTime());
+    }
+
+    @Test
+    public void testBurst() throws InterruptedException {
+        //The bucket is never filled over the rate, then an idle period doesn't allow a larger burst.
+        TokenBucket bucket = new TokenBucket(1_000_000);
+        Thread.sleep(200);
+        Assertions.assertTrue(bucket.tryAcquire(1_100_000));
+        Assertions.assertFalse(bucket.tryAcquire(1));
+    }
+}
@@ -0,0 +1,101 @@
+package org.hcjf.console.stats;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * @author javaito
+ */
+public class LatencyHistogramTest {
+
+    @Test
+    public void testEmpty() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        Assertions.assertEquals(0, histogram.getTotalCount());
+        Assertions.assertEquals(0, histogram.getValueAtPercentile(99));
+        Assertions.assertEquals(0.0, histogram.getMean());
+    }
+
+    @Test
+    public void testSmallValues() {
+        //The values lower than the number of sub buckets are stored without error.
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 1; i <= 100; i++) {
+            histogram.record(i);
+        }
+        histogram.record(-5);
+        Assertions.assertEquals(101, histogram.getTotalCount());
+        Assertions.assertEquals(0, histogram.getValueAtPercentile(0));
+        Assertions.assertEquals(50, histogram.getValueAtPercentile(50));
+        Assertions.assertEquals(99, histogram.getValueAtPercentile(98.5));
+        Assertions.assertEquals(100, histogram.getValueAtPercentile(100));
+        Assertions.assertEquals(100, histogram.getMax());
+        Assertions.assertEquals(5050 / 101.0, histogram.getMean(), 1e-9);
+    }
+
+    @Test
+    public void testRelativeError() {
+        Random random = new Random(7);
+        LatencyHistogram histogram = new LatencyHistogram();
+        long[] values = new long[100_000];
+        for (int i = 0; i < values.length; i++) {
+            //Long tail distribution from microseconds to minutes in nanoseconds.
+            values[i] = (long) Math.exp(7 + random.nextDouble() * 18);
+            histogram.record(values[i]);
+        }
+        Arrays.sort(values);
+        for(double percentile : new double[]{1, 10, 50, 90, 99, 99.9, 99.99, 100}) {
+            long expected = values[(int) Math.ceil(percentile / 100.0 * values.length) - 1];
+            long value = histogram.getValueAtPercentile(percentile);
+            Assertions.assertTrue(value >= expected, "percentile " + percentile);
+            Assertions.assertTrue((value - expected) / (double) expected < 0.02, "percentile " + percentile);
+        }
+        Assertions.assertEquals(values[values.length - 1], histogram.getMax());
+        Assertions.assertEquals(histogram.getMax(), histogram.getValueAtPercentile(100));
+    }
+
+    @Test
+    public void testLargeValues() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(Long.MAX_VALUE);
+        histogram.record(1L << 62);
+        Assertions.assertEquals(1L << 62, histogram.getValueAtPercentile(50), (1L << 62) * 0.02);
+        Assertions.assertEquals(Long.MAX_VALUE, histogram.getValueAtPercentile(100));
+    }
+
+    @Test
+    public void testExpectedInterval() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.recordWithExpectedInterval(100, 10);
+        Assertions.assertEquals(10, histogram.getTotalCount());
+        Assertions.assertEquals(10, histogram.getValueAtPercentile(1));
+        Assertions.assertEquals(50, histogram.getValueAtPercentile(50));
+
+        histogram.recordWithExpectedInterval(5, 10);
+        histogram.recordWithExpectedInterval(100, 0);
+        Assertions.assertEquals(12, histogram.getTotalCount());
+    }
+
+    @Test
+    public void testConcurrentRecords() throws InterruptedException {
+        LatencyHistogram histogram = new LatencyHistogram();
+        Thread[] threads = new Thread[4];
+        for (int i = 0; i < threads.length; i++) {
+            threads[i] = new Thread(() -> {
+                for (int value = 1; value <= 100_000; value++) {
+                    histogram.record(value);
+                }
+            });
+            threads[i].start();
+        }
+        for(Thread thread : threads) {
+            thread.join();
+        }
+        Assertions.assertEquals(400_000, histogram.getTotalCount());
+        Assertions.assertEquals(100_000, histogram.getMax());
+        Assertions.assertEquals(50_000.5, histogram.getMean(), 1e-9);
+    }
+}